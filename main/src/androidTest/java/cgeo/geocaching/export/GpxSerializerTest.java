@@ -5,25 +5,35 @@ import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.files.GPX10Parser;
 import cgeo.geocaching.files.ParserException;
 import cgeo.geocaching.list.StoredList;
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.test.CgeoTestUtils;
 import cgeo.geocaching.test.R;
+import cgeo.geocaching.utils.Log;
+
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 import static org.assertj.core.api.Java6Assertions.assertThat;
@@ -44,6 +54,35 @@ public class GpxSerializerTest {
                 "xmlns:cgeo=\"http://www.cgeo.org/wptext/1/0\" />"));
     }
 
+    /**
+     * Measures export throughput (caches per second) for a larger number of caches.
+     */
+    @Test
+    public void testExportThroughput() throws IOException {
+        final int count = 1000;
+        CgeoTestUtils.generateTestCaches(Collections.singleton(StoredList.TEMPORARY_LIST.id), "Export", new Geopoint(48, 11), count);
+        try {
+            final List<String> geocodes = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                geocodes.add("GCT" + i);
+            }
+            final AtomicReference<Integer> exportedCount = new AtomicReference<>(0);
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(NullOutputStream.NULL_OUTPUT_STREAM, StandardCharsets.UTF_8));
+
+            final long start = SystemClock.elapsedRealtime();
+            new GpxSerializer().writeGPX(geocodes, writer, exportedCount::set);
+            writer.flush();
+            final long duration = Math.max(1, SystemClock.elapsedRealtime() - start);
+
+            assertThat(exportedCount.get().intValue()).isEqualTo(count);
+            Log.d("GPX export of " + count + " caches: " + duration + " ms (" + (count * 1000L / duration) + " caches/s)");
+        } finally {
+            for (int i = 0; i < count; i++) {
+                CgeoTestUtils.removeCache("GCT" + i);
+            }
+        }
+    }
+
     private static String removeWhitespaces(final String txt) {
         return txt.replaceAll("\\s", "");
 
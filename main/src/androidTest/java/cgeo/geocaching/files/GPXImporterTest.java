@@ -357,6 +357,41 @@ public class GPXImporterTest {
         assertThat(importThread.getSourceDisplayName()).isEqualTo("17157285_Großer Ümlaut Täst.gpx");
     }
 
+    @Test
+    public void testImportGpxAndZipConcurrently() throws IOException, InterruptedException {
+        CgeoTestUtils.removeCacheCompletely("GC31J2H");
+        CgeoTestUtils.removeCacheCompletely("GC448A");
+        final File gc31j2h = new File(tempDir, "gc31j2h.gpx");
+        CgeoTestUtils.copyResourceToFile(R.raw.gc31j2h, gc31j2h);
+        CgeoTestUtils.copyResourceToFile(R.raw.gc31j2h_wpts, new File(tempDir, "gc31j2h-wpts.gpx"));
+        final File pqCp437 = new File(tempDir, "pq_cp437.zip");
+        CgeoTestUtils.copyResourceToFile(R.raw.pq_cp437, pqCp437);
+
+        // both imports share the parser threads and the database writer
+        final ImportGpxFileThread gpxThread = new ImportGpxFileThread(gc31j2h, listId, importStepHandler, progressHandler);
+        final ImportGpxZipFileThread zipThread = new ImportGpxZipFileThread(pqCp437, listId, importStepHandler, progressHandler);
+        gpxThread.start();
+        zipThread.start();
+        gpxThread.join();
+        zipThread.join();
+        importStepHandler.sendEmptyMessage(TestHandler.TERMINATION_MESSAGE);
+        importStepHandler.waitForCompletion();
+
+        int finished = 0;
+        for (final Message message : new ArrayList<>(importStepHandler.messages)) {
+            assertThat(message.what).isNotEqualTo(GPXImporter.IMPORT_STEP_FINISHED_WITH_ERROR);
+            if (message.what == GPXImporter.IMPORT_STEP_FINISHED) {
+                finished++;
+            }
+        }
+        assertThat(finished).isEqualTo(2);
+
+        final Geocache gpxCache = DataStore.loadCache("GC31J2H", LoadFlags.LOAD_CACHE_OR_DB);
+        assertCacheProperties(gpxCache);
+        assertThat(gpxCache.getWaypoints()).hasSize(2);
+        assertCacheProperties(DataStore.loadCache("GC448A", LoadFlags.LOAD_CACHE_OR_DB));
+    }
+
     static class TestHandler extends DisposableHandler {
         private final List<Message> messages = new ArrayList<>();
         private long lastMessage = System.currentTimeMillis();
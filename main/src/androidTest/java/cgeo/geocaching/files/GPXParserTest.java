@@ -19,12 +19,17 @@ import cgeo.geocaching.test.CgeoTemporaryListRule;
 import cgeo.geocaching.test.CgeoTestUtils;
 import cgeo.geocaching.test.R;
 import cgeo.geocaching.utils.CalendarUtils;
+import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.SynchronizedDateFormat;
 
+import android.os.SystemClock;
+
 import androidx.annotation.RawRes;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -36,6 +41,7 @@ import java.util.Locale;
 import java.util.Set;
 
 import org.apache.commons.compress.utils.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import static org.assertj.core.api.Java6Assertions.assertThat;
@@ -226,6 +232,24 @@ public class GPXParserTest  {
         assertThat(caches).isEmpty();
     }
 
+    @Test
+    public void testGc31j2hWptsBeforeCache() throws IOException, ParserException {
+        CgeoTestUtils.removeCacheCompletely("GC31J2H");
+        final GPX10Parser parser = new GPX10Parser(tempList.getListId());
+        parser.setKeepOrphanedWaypoints(true);
+        // e.g. files of a ZIP parsed in parallel
+        assertThat(readVersionedGPX(parser, R.raw.gc31j2h_wpts)).isEmpty();
+        final List<Geocache> caches = readVersionedGPX(parser, R.raw.gc31j2h);
+        assertThat(caches).hasSize(1);
+        assertThat(caches.get(0).getWaypoints()).isEmpty();
+
+        assertThat(parser.addOrphanedWaypoints()).isEqualTo(2);
+        final Geocache cache = DataStore.loadCache("GC31J2H", LoadFlags.LOAD_ALL_DB_ONLY);
+        assertThat(cache).isNotNull();
+        assertGc31j2hWaypoints(cache);
+        assertThat(parser.addOrphanedWaypoints()).isEqualTo(0);
+    }
+
     @Test
     public void testGc3abcd() throws IOException, ParserException {
         final List<Geocache> caches = readGPX10(R.raw.gc3abcd);
@@ -686,4 +710,30 @@ public class GPXParserTest  {
         assertThat(caches.stream().filter(cache -> cache.getGeocode().equals("268591 2")).count()).isEqualTo(1);
         assertThat(caches.stream().filter(cache -> cache.getGeocode().equals("268591-1")).count()).isEqualTo(1);
     }
+
+    /**
+     * Measures parse throughput (caches per second) for a larger pocket query like file.
+     */
+    @Test
+    public void testParseThroughput() throws Exception {
+        final int count = 500;
+        final String gpx = CgeoTestUtils.getFileContent(R.raw.gc31j2h);
+        final int wptStart = gpx.indexOf("<wpt");
+        final int wptEnd = gpx.lastIndexOf("</wpt>") + "</wpt>".length();
+        final String wpt = gpx.substring(wptStart, wptEnd);
+        final StringBuilder builder = new StringBuilder(gpx.length() * count);
+        builder.append(gpx, 0, wptStart);
+        for (int i = 0; i < count; i++) {
+            builder.append(StringUtils.replace(wpt, "GC31J2H", "GCP" + i));
+        }
+        builder.append(gpx.substring(wptEnd));
+        final byte[] content = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        final long start = SystemClock.elapsedRealtime();
+        final Collection<Geocache> caches = new GPX10Parser(tempList.getListId()).parse(new ByteArrayInputStream(content), null);
+        final long duration = Math.max(1, SystemClock.elapsedRealtime() - start);
+
+        assertThat(caches).hasSize(count);
+        Log.d("GPX parsing of " + count + " caches (" + content.length / 1024 + " kB): " + duration + " ms (" + (count * 1000L / duration) + " caches/s)");
+    }
 }
@@ -30,4 +30,21 @@ public class InvalidXMLCharacterFilterReaderTest {
         Xml.parse(new InvalidXMLCharacterFilterReader(reader), root.getContentHandler());
         assertThat(description.get()).isEqualTo("V‹¥IR‡U½S© by Master-Chief, Unknown Cache (5/2)");
     }
+
+    @Test
+    public void testKeepValidReferences() throws Exception {
+        final RootElement root = new RootElement("desc");
+        final AtomicReference<String> description = new AtomicReference<>();
+        root.setEndTextElementListener(description::set);
+        final StringReader reader = new StringReader("<?xml version=\"1.0\" encoding=\"utf-8\"?><desc>&lt;a&gt;&#65;&#x42;&#1;&#x1F;&amp;</desc>");
+        Xml.parse(new InvalidXMLCharacterFilterReader(reader), root.getContentHandler());
+        assertThat(description.get()).isEqualTo("<a>AB&");
+    }
+
+    @Test
+    public void testFilterInvalidRawCharacters() throws Exception {
+        final char[] buffer = "a\u0001b\u000Bc;d".toCharArray();
+        final int read = new InvalidXMLCharacterFilterReader(new StringReader(new String(buffer))).read(buffer, 0, buffer.length);
+        assertThat(new String(buffer, 0, read)).isEqualTo("abc;d");
+    }
 }
@@ -0,0 +1,51 @@
+package cgeo.geocaching.files;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+public class PullElementTest {
+
+    private static final String NS = "http://example.com/ns";
+
+    @Test
+    public void testListenersOfRegisteredElements() throws Exception {
+        final PullElement root = new PullElement(NS, "root");
+        final PullElement item = root.getChild(NS, "item");
+        final List<String> events = new ArrayList<>();
+        item.setStartElementListener(attrs -> events.add("start " + attrs.getValue("id") + " " + attrs.getIndex("missing")));
+        item.getChild(NS, "name").setEndTextElementListener(body -> events.add("name " + body));
+        item.setEndElementListener(() -> events.add("end"));
+
+        root.parse(new StringReader("<root xmlns=\"" + NS + "\" xmlns:o=\"http://example.com/other\">"
+                + "<item id=\"1\"><name>first &amp; <![CDATA[<best>]]></name><unknown><name>skipped</name></unknown><o:name>other</o:name></item>"
+                + "<item id=\"2\"><name/></item></root>"));
+
+        assertThat(events).containsExactly("start 1 -1", "name first & <best>", "end", "start 2 -1", "name ", "end");
+    }
+
+    @Test
+    public void testByteOrderMark() throws Exception {
+        final PullElement root = new PullElement("", "desc");
+        final List<String> bodies = new ArrayList<>();
+        root.setEndTextElementListener(bodies::add);
+        root.parse(new StringReader("\uFEFF<?xml version=\"1.0\" encoding=\"utf-8\"?><desc>text</desc>"));
+        assertThat(bodies).containsExactly("text");
+    }
+
+    @Test
+    public void testOtherRootElement() throws Exception {
+        final PullElement root = new PullElement(NS, "root");
+        try {
+            root.parse(new StringReader("<root xmlns=\"http://example.com/other\"/>"));
+            fail("root element of other namespace must not be accepted");
+        } catch (final XmlPullParserException expected) {
+            // expected, e.g. to try the next GPX version
+        }
+    }
+}
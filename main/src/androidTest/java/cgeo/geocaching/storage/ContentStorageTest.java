@@ -252,6 +252,88 @@ public class ContentStorageTest {
         assertFileDirCount(targetFolder2, result.filesModified, result.dirsModified);
     }
 
+    @Test
+    public void testFileCopyAllParallel() {
+        final Folder sourceFolder = Folder.fromFolder(createTestFolder(Folder.FolderType.FILE, "copyAllParallel"), "source");
+        final Folder targetFolder = Folder.fromFolder(createTestFolder(Folder.FolderType.FILE, "copyAllParallel"), "target");
+
+        //far more files than are copied in parallel, spread over several dirs (must be sorted alphabetically)
+        final StringBuilder structure = new StringBuilder("[");
+        for (int d = 0; d < 3; d++) {
+            structure.append("{\"name\": \"dir").append(d).append("\", \"files\": [");
+            for (int f = 0; f < 10; f++) {
+                structure.append(f == 0 ? "" : ", ").append("\"file").append(f).append(".txt\"");
+            }
+            structure.append("]}, ");
+        }
+        for (int f = 0; f < 10; f++) {
+            structure.append(f == 0 ? "" : ", ").append("\"file").append(f).append(".txt\"");
+        }
+        structure.append("]");
+        createTree(sourceFolder, structure.toString(), "content");
+
+        FolderUtils.FolderProcessResult result = FolderUtils.get().copyAll(sourceFolder, targetFolder, false);
+        assertCopyResult(result, FolderUtils.ProcessResult.OK, 40, 3);
+        assertEqualsWithoutWhitespaces(FolderUtils.get().folderContentToString(targetFolder, false, false), structure.toString());
+        for (int f = 0; f < 10; f++) {
+            final ContentStorage.FileInformation fi = ContentStorage.get().getFileInfo(Folder.fromFolder(targetFolder, "dir1"), "file" + f + ".txt");
+            assertThat(readFromUri(fi.uri)).isEqualTo("content-file" + f + ".txt");
+        }
+
+        assertThat(FolderUtils.get().deleteAll(targetFolder)).isTrue();
+        result = FolderUtils.get().copyAll(sourceFolder, targetFolder, true);
+        assertCopyResult(result, FolderUtils.ProcessResult.OK, 40, 3);
+        assertEqualsWithoutWhitespaces(FolderUtils.get().folderContentToString(sourceFolder, false, false), "[]");
+        assertEqualsWithoutWhitespaces(FolderUtils.get().folderContentToString(targetFolder, false, false), structure.toString());
+    }
+
+    @Test
+    public void testFileCopyAllSkipUnchanged() {
+        final Folder sourceFolder = Folder.fromFolder(createTestFolder(Folder.FolderType.FILE, "copyAllSkipUnchanged"), "source");
+        final Folder targetFolder = Folder.fromFolder(createTestFolder(Folder.FolderType.FILE, "copyAllSkipUnchanged"), "target");
+        createTree(sourceFolder, COMPLEX_FOLDER_STRUCTURE, "content");
+        assertCopyResult(FolderUtils.get().copyAll(sourceFolder, targetFolder, false), FolderUtils.ProcessResult.OK, 7, 3);
+
+        //change size of one source file
+        writeToUri(ContentStorage.get().getFileInfo(sourceFolder, "bbb.txt").uri, "changed content");
+
+        final List<String> copied = Collections.synchronizedList(new ArrayList<>());
+        final FolderUtils folderUtils = new FolderUtils() {
+            @Override
+            boolean copyOrMoveFile(final ContentStorage.FileInformation source, final Folder targetFolder, final ContentStorage.FileInformation unchangedTarget, final boolean move) {
+                if (unchangedTarget == null) {
+                    copied.add(source.name);
+                }
+                return super.copyOrMoveFile(source, targetFolder, unchangedTarget, move);
+            }
+        };
+        //unchanged files count as copied
+        assertCopyResult(folderUtils.copyAll(sourceFolder, targetFolder, false, true, null, null), FolderUtils.ProcessResult.OK, 7, 3);
+        assertThat(copied).containsExactly("bbb.txt");
+    }
+
+    @Test
+    public void testFileMoveAllKeepsSourceOnFailure() {
+        final Folder sourceFolder = Folder.fromFolder(createTestFolder(Folder.FolderType.FILE, "moveAllFailure"), "source");
+        final Folder targetFolder = Folder.fromFolder(createTestFolder(Folder.FolderType.FILE, "moveAllFailure"), "target");
+        createTree(sourceFolder, COMPLEX_FOLDER_STRUCTURE, "content");
+
+        final FolderUtils folderUtils = new FolderUtils() {
+            @Override
+            boolean copyOrMoveFile(final ContentStorage.FileInformation source, final Folder targetFolder, final ContentStorage.FileInformation unchangedTarget, final boolean move) {
+                if ("ccc-ccc-aaa.txt".equals(source.name)) {
+                    throw new IllegalStateException("copy failure for test");
+                }
+                return super.copyOrMoveFile(source, targetFolder, unchangedTarget, move);
+            }
+        };
+        final FolderUtils.FolderProcessResult result = folderUtils.copyAll(sourceFolder, targetFolder, true);
+        assertThat(result.result).isEqualTo(FolderUtils.ProcessResult.FAILURE);
+        assertThat(result.failedFile.name).isEqualTo("ccc-ccc-aaa.txt");
+        //the file which could not be moved must not be deleted together with its dir
+        assertThat(ContentStorage.get().getFileInfo(Folder.fromFolder(Folder.fromFolder(sourceFolder, "ccc"), "ccc-ccc"), "ccc-ccc-aaa.txt")).isNotNull();
+    }
+
     @Test
     public void testFileCopyAllSameDir() {
         performCopyAllSameDir(Folder.FolderType.FILE);
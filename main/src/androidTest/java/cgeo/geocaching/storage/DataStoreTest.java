@@ -15,6 +15,7 @@ import cgeo.geocaching.log.ReportProblemType;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.Image;
 import cgeo.geocaching.models.Trackable;
+import cgeo.geocaching.utils.Log;
 import static cgeo.geocaching.enumerations.LoadFlags.REMOVE_ALL;
 
 import java.util.ArrayList;
@@ -22,8 +23,10 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -106,6 +109,86 @@ public class DataStoreTest {
         }
     }
 
+    @Test
+    public void testBulkListMembership() {
+        final int count = 1000;
+        int listId1 = StoredList.STANDARD_LIST_ID;
+        int listId2 = StoredList.STANDARD_LIST_ID;
+
+        final List<Geocache> caches = new ArrayList<>();
+        final Set<String> geocodes = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode(String.format(Locale.US, "BULK%04d", i));
+            cache.setDetailed(true);
+            caches.add(cache);
+            geocodes.add(cache.getGeocode());
+        }
+
+        try {
+            listId1 = DataStore.createList("DataStore Bulk Test 1");
+            listId2 = DataStore.createList("DataStore Bulk Test 2");
+            for (final Geocache cache : caches) {
+                cache.getLists().add(listId1);
+            }
+            DataStore.saveCaches(caches, LoadFlags.SAVE_ALL);
+            assertThat(DataStore.getAllStoredCachesCount(listId1)).isEqualTo(count);
+
+            long start = System.currentTimeMillis();
+            DataStore.moveToList(caches, listId1, listId2);
+            Log.i("DataStoreTest: moveToList of " + count + " caches took " + (System.currentTimeMillis() - start) + "ms");
+            assertThat(DataStore.getAllStoredCachesCount(listId1)).isEqualTo(0);
+            assertThat(DataStore.getAllStoredCachesCount(listId2)).isEqualTo(count);
+            assertThat(caches.get(0).getLists()).containsOnly(listId2);
+
+            start = System.currentTimeMillis();
+            DataStore.addToList(caches.subList(0, count / 2), listId1);
+            Log.i("DataStoreTest: addToList of " + count / 2 + " caches took " + (System.currentTimeMillis() - start) + "ms");
+            assertThat(DataStore.getAllStoredCachesCount(listId1)).isEqualTo(count / 2);
+            assertThat(DataStore.getAllStoredCachesCount(listId2)).isEqualTo(count);
+
+            start = System.currentTimeMillis();
+            DataStore.removeFromList(caches, listId2);
+            Log.i("DataStoreTest: removeFromList of " + count + " caches took " + (System.currentTimeMillis() - start) + "ms");
+            assertThat(DataStore.getAllStoredCachesCount(listId2)).isEqualTo(0);
+            assertThat(caches.get(0).getLists()).containsOnly(listId1);
+            assertThat(caches.get(count - 1).getLists()).isEmpty();
+
+            final Set<Integer> bothLists = new HashSet<>();
+            bothLists.add(listId1);
+            bothLists.add(listId2);
+            start = System.currentTimeMillis();
+            DataStore.saveLists(caches, bothLists);
+            Log.i("DataStoreTest: saveLists of " + count + " caches took " + (System.currentTimeMillis() - start) + "ms");
+            assertThat(DataStore.getAllStoredCachesCount(listId1)).isEqualTo(count);
+            assertThat(DataStore.getAllStoredCachesCount(listId2)).isEqualTo(count);
+
+            start = System.currentTimeMillis();
+            DataStore.setCacheIcons(caches, 42);
+            Log.i("DataStoreTest: setCacheIcons of " + count + " caches took " + (System.currentTimeMillis() - start) + "ms");
+            final HashMap<String, Integer> icons = new HashMap<>();
+            icons.put(caches.get(0).getGeocode(), 7);
+            DataStore.setCacheIcons(caches.subList(0, 2), icons);
+            assertThat(caches.get(0).getAssignedEmoji()).isEqualTo(7);
+            assertThat(caches.get(1).getAssignedEmoji()).isEqualTo(0);
+
+            // check the database content, not the updated instances
+            DataStore.removeAllFromCache();
+            final Geocache first = DataStore.loadCache(caches.get(0).getGeocode(), LoadFlags.LOAD_CACHE_OR_DB);
+            assertThat(first).isNotNull();
+            assertThat(first.getLists()).containsOnly(listId1, listId2);
+            assertThat(first.getAssignedEmoji()).isEqualTo(7);
+            final Geocache last = DataStore.loadCache(caches.get(count - 1).getGeocode(), LoadFlags.LOAD_CACHE_OR_DB);
+            assertThat(last).isNotNull();
+            assertThat(last.getAssignedEmoji()).isEqualTo(42);
+
+        } finally {
+            DataStore.removeCaches(geocodes, REMOVE_ALL);
+            DataStore.removeList(listId1);
+            DataStore.removeList(listId2);
+        }
+    }
+
     // Check that queries don't throw an exception (see issue #1429).
     @Test
     @SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
@@ -194,6 +277,39 @@ public class DataStoreTest {
         assertThat(logsLoadeded).containsExactlyInAnyOrderElementsOf(logs);
     }
 
+    @Test
+    public void testFriendLogsFromCacheStats() {
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        final List<LogEntry> logs = new ArrayList<>();
+        logs.add(new LogEntry.Builder().setDate(new Date().getTime()).setLog("found").setLogType(LogType.FOUND_IT).build());
+        DataStore.saveLogs(ARTIFICIAL_GEOCODE, logs, true);
+        assertThat(DataStore.hasFriendLogs(ARTIFICIAL_GEOCODE)).isFalse();
+
+        logs.add(new LogEntry.Builder().setDate(new Date().getTime()).setLog("friend").setLogType(LogType.NOTE).setFriend(true).build());
+        DataStore.saveLogs(ARTIFICIAL_GEOCODE, logs, true);
+        assertThat(DataStore.hasFriendLogs(ARTIFICIAL_GEOCODE)).isTrue();
+
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        assertThat(DataStore.hasFriendLogs(ARTIFICIAL_GEOCODE)).isFalse();
+    }
+
+    @Test
+    public void testLastFoundFromCacheStats() {
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        assertThat(DataStore.loadLastFound(ARTIFICIAL_GEOCODE)).isNull();
+
+        final long found = new Date().getTime() - MILLISECONDS_PER_DAY * 3;
+        final List<LogEntry> logs = new ArrayList<>();
+        logs.add(new LogEntry.Builder().setDate(found).setLog("found").setLogType(LogType.FOUND_IT).build());
+        logs.add(new LogEntry.Builder().setDate(found + MILLISECONDS_PER_DAY).setLog("note").setLogType(LogType.NOTE).build());
+        DataStore.saveLogs(ARTIFICIAL_GEOCODE, logs, true);
+        assertThat(DataStore.loadLastFound(ARTIFICIAL_GEOCODE)).isEqualTo(new Date(found));
+
+        // statistics are removed together with the logs
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        assertThat(DataStore.loadLastFound(ARTIFICIAL_GEOCODE)).isNull();
+    }
+
     @Test
     public void testLoadCacheHistory() {
         final SearchResult history = DataStore.getBatchOfStoredCaches(null, PseudoList.HISTORY_LIST.id);
@@ -0,0 +1,143 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.CgeoApplication;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class DatabaseBackupTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private File root;
+    private File database;
+
+    @Before
+    public void setUp() throws IOException {
+        root = new File(CgeoApplication.getInstance().getCacheDir(), "databaseBackupTest");
+        FileUtils.deleteDirectory(root);
+        assertThat(root.mkdirs()).isTrue();
+        database = new File(root, "data");
+        final byte[] content = new byte[5 * CHUNK_SIZE + 100];
+        new Random(42).nextBytes(content);
+        FileUtils.writeByteArrayToFile(database, content);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void incrementalBackupAndRestore() throws IOException {
+        final DatabaseBackup backup = new DatabaseBackup(database);
+
+        final Folder full = Folder.fromFile(root, "backups/full");
+        assertThat(ContentStorage.get().ensureFolder(full, true)).isTrue();
+        final DatabaseBackup.Result fullResult = backup.backup(full, true, true);
+        assertThat(fullResult).isNotNull();
+        assertThat(fullResult.isSuccessful()).isTrue();
+        assertThat(fullResult.incremental).isFalse();
+        assertThat(fullResult.bytesWritten).isEqualTo(database.length());
+
+        //change one chunk and append some data
+        try (RandomAccessFile raf = new RandomAccessFile(database, "rw")) {
+            raf.seek(2 * CHUNK_SIZE + 10);
+            raf.write(new byte[]{1, 2, 3});
+            raf.setLength(5 * CHUNK_SIZE + 200);
+        }
+
+        final Folder delta = Folder.fromFile(root, "backups/delta");
+        assertThat(ContentStorage.get().ensureFolder(delta, true)).isTrue();
+        final DatabaseBackup.Result deltaResult = backup.backup(delta, true, true);
+        assertThat(deltaResult).isNotNull();
+        assertThat(deltaResult.isSuccessful()).isTrue();
+        assertThat(deltaResult.incremental).isTrue();
+        assertThat(deltaResult.bytesWritten).isEqualTo(CHUNK_SIZE + 200);
+        assertThat(DatabaseBackup.getBaseFolderName(delta)).isEqualTo("full");
+        assertThat(DatabaseBackup.getBaseFolderName(full)).isNull();
+
+        final File restored = new File(root, "restored");
+        assertThat(DatabaseBackup.reconstruct(delta, restored)).isTrue();
+        assertThat(FileUtils.contentEquals(database, restored)).isTrue();
+
+        //incremental backup can't be restored if full backup was changed
+        final File fullFile = new File(new File(root, "backups/full"), DataStore.DB_FILE_NAME_BACKUP);
+        try (RandomAccessFile raf = new RandomAccessFile(fullFile, "rw")) {
+            raf.seek(CHUNK_SIZE);
+            raf.write(new byte[]{1, 2, 3});
+        }
+        assertThat(DatabaseBackup.reconstruct(delta, restored)).isFalse();
+    }
+
+    @Test
+    public void fullBackupWithoutIncrementalFlag() {
+        final DatabaseBackup backup = new DatabaseBackup(database);
+        final Folder first = Folder.fromFile(root, "backups/first");
+        final Folder second = Folder.fromFile(root, "backups/second");
+        assertThat(ContentStorage.get().ensureFolder(first, true)).isTrue();
+        assertThat(ContentStorage.get().ensureFolder(second, true)).isTrue();
+
+        assertThat(backup.backup(first, true, true).incremental).isFalse();
+        final DatabaseBackup.Result result = backup.backup(second, false, true);
+        assertThat(result.incremental).isFalse();
+        assertThat(ContentStorage.get().getFileInfo(second, DataStore.DB_FILE_NAME_BACKUP)).isNotNull();
+        assertThat(ContentStorage.get().getFileInfo(second, DatabaseBackup.DELTA_FILE_NAME)).isNull();
+    }
+
+    @Test
+    public void onlineBackupInWalMode() {
+        final File walDatabase = new File(root, "wal.sqlite");
+        final SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(walDatabase, null);
+        try {
+            assertThat(db.enableWriteAheadLogging()).isTrue();
+            db.execSQL("CREATE TABLE test (value INTEGER)");
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < 1000; i++) {
+                    db.execSQL("INSERT INTO test (value) VALUES (?)", new Object[]{i});
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            //committed data is only contained in write-ahead log
+            assertThat(new File(walDatabase.getPath() + "-wal").length()).isGreaterThan(0);
+
+            final Folder folder = Folder.fromFile(root, "backups/wal");
+            assertThat(ContentStorage.get().ensureFolder(folder, true)).isTrue();
+
+            //without connection the log can't be checkpointed
+            assertThat(new DatabaseBackup(walDatabase).backup(folder, false, true)).isNull();
+
+            final DatabaseBackup.Result result = new DatabaseBackup(walDatabase, db).backup(folder, false, true);
+            assertThat(result).isNotNull();
+            assertThat(result.isSuccessful()).isTrue();
+
+            //database stays usable after backup
+            db.execSQL("INSERT INTO test (value) VALUES (1000)");
+
+            final File copy = new File(new File(root, "backups/wal"), DataStore.DB_FILE_NAME_BACKUP);
+            final SQLiteDatabase backupDb = SQLiteDatabase.openDatabase(copy.getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+            try (Cursor cursor = backupDb.rawQuery("SELECT COUNT(*) FROM test", null)) {
+                assertThat(cursor.moveToFirst()).isTrue();
+                assertThat(cursor.getInt(0)).isEqualTo(1000);
+            } finally {
+                backupDb.close();
+            }
+        } finally {
+            db.close();
+        }
+    }
+}
@@ -37,6 +37,15 @@ public class SqlBuilderTest {
         assertThat(sb.getSql()).isEqualTo("SELECT t.col1, t.col2 FROM mytable t LEFT JOIN joinedtable " + tid + " ON t.id=" + tid + ".id WHERE (" + tid + ".id is not null)");
     }
 
+    @Test
+    public void joinCacheStatsOnce() {
+        final SqlBuilder sb = new SqlBuilder("mytable", new String[]{"col1"});
+        final String tid = sb.joinCacheStats();
+        assertThat(sb.joinCacheStats()).isEqualTo(tid);
+        sb.addOrder(tid + ".last_found", true);
+        assertThat(sb.getSql()).isEqualTo("SELECT t.col1 FROM mytable t LEFT JOIN cg_cache_stats " + tid + " ON t.geocode = " + tid + ".geocode ORDER BY (" + tid + ".last_found) DESC");
+    }
+
     @Test
     public void simpleOrder() {
         final SqlBuilder sb = new SqlBuilder("mytable", new String[]{"col1", "col2"});
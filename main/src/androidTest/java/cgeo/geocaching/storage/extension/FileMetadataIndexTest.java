@@ -0,0 +1,79 @@
+package cgeo.geocaching.storage.extension;
+
+import cgeo.geocaching.storage.ContentStorage;
+import cgeo.geocaching.utils.functions.Func1;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class FileMetadataIndexTest {
+
+    private static final String BASE = "file:///cgeo-test/metadataindex";
+    private static final int KIND = FileMetadataIndex.KIND_THEME_ZIP;
+
+    private final AtomicInteger parsed = new AtomicInteger();
+    private final Func1<ContentStorage.FileInformation, FileMetadataIndex> parser = fi -> {
+        parsed.incrementAndGet();
+        return FileMetadataIndex.forThemeZip(fi, Collections.singletonList("theme.xml"));
+    };
+
+    @NonNull
+    private static ContentStorage.FileInformation file(final String path) {
+        final Uri uri = Uri.parse(BASE + path);
+        return new ContentStorage.FileInformation(uri.getLastPathSegment(), uri, null, false, null, "application/zip", 100, 1000);
+    }
+
+    @After
+    public void removeTestEntries() {
+        FileMetadataIndex.getOrParseAll(KIND, Uri.parse(BASE), Collections.emptyList(), parser);
+    }
+
+    @Test
+    public void testGetKeyPrefix() {
+        assertThat(FileMetadataIndex.getKeyPrefix(null)).isNull();
+        assertThat(FileMetadataIndex.getKeyPrefix(Uri.parse(BASE + "/maps"))).isEqualTo(BASE + "/maps/");
+        assertThat(FileMetadataIndex.getKeyPrefix(Uri.parse(BASE + "/maps/"))).isEqualTo(BASE + "/maps/");
+    }
+
+    @Test
+    public void testWildcardsInUriAreMatchedLiterally() {
+        assertThat(FileMetadataIndex.getOrParse(KIND, file("/themes/aXb.zip"), parser)).isNotNull();
+        assertThat(FileMetadataIndex.getOrParse(KIND, file("/themes/a_b.zip"), parser)).isNotNull();
+        assertThat(FileMetadataIndex.getOrParse(KIND, file("/themes/a%25b.zip"), parser)).isNotNull();
+        assertThat(parsed.get()).isEqualTo(3);
+
+        // storing "a_b.zip" and "a%25b.zip" must not have replaced the entry of "aXb.zip"
+        assertThat(FileMetadataIndex.getOrParse(KIND, file("/themes/aXb.zip"), parser).getXmlThemes()).containsExactly("theme.xml");
+        assertThat(FileMetadataIndex.getOrParse(KIND, file("/themes/a_b.zip"), parser)).isNotNull();
+        assertThat(parsed.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testStaleEntriesAreRemovedInScopeOnly() {
+        final ContentStorage.FileInformation inScope = file("/maps_1/a.zip");
+        final ContentStorage.FileInformation sibling = file("/maps_10/b.zip");
+        final ContentStorage.FileInformation wildcardSibling = file("/mapsX1/c.zip");
+        FileMetadataIndex.getOrParseAll(KIND, Uri.parse(BASE + "/maps_10"), Collections.singletonList(sibling), parser);
+        FileMetadataIndex.getOrParseAll(KIND, Uri.parse(BASE + "/mapsX1"), Collections.singletonList(wildcardSibling), parser);
+        FileMetadataIndex.getOrParseAll(KIND, Uri.parse(BASE + "/maps_1"), Collections.singletonList(inScope), parser);
+        assertThat(parsed.get()).isEqualTo(3);
+
+        // listing "maps_1" must neither have removed the entries of "maps_10" nor of "mapsX1"
+        assertThat(FileMetadataIndex.getOrParseAll(KIND, Uri.parse(BASE + "/maps_10"), Collections.singletonList(sibling), parser)).containsKey(sibling.uri);
+        assertThat(FileMetadataIndex.getOrParseAll(KIND, Uri.parse(BASE + "/mapsX1"), Collections.singletonList(wildcardSibling), parser)).containsKey(wildcardSibling.uri);
+        assertThat(parsed.get()).isEqualTo(3);
+
+        // a file no longer in its folder is removed from index
+        FileMetadataIndex.getOrParseAll(KIND, Uri.parse(BASE + "/maps_1"), Collections.emptyList(), parser);
+        FileMetadataIndex.getOrParseAll(KIND, Uri.parse(BASE + "/maps_1"), Collections.singletonList(inScope), parser);
+        assertThat(parsed.get()).isEqualTo(4);
+    }
+}
@@ -121,6 +121,7 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
+import android.os.SystemClock;
 import android.text.InputType;
 import android.text.Spannable;
 import android.text.SpannableStringBuilder;
@@ -143,6 +144,7 @@ import android.view.View;
 import android.view.View.OnClickListener;
 import android.view.View.OnLongClickListener;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.ListView;
@@ -256,10 +258,13 @@ public class CacheDetailActivity extends TabbedViewPagerActivity
         new ContactsHelper(this).openContactCard(user);
     });
     private boolean activityIsStartedForEditNote = false;
+    /** creation time of this activity, used to measure the time until cache details are displayed first */
+    private long createdTimestamp;
 
     @Override
     public void onCreate(final Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        createdTimestamp = SystemClock.elapsedRealtime();
         setThemeAndContentView(R.layout.tabbed_viewpager_activity_refreshable);
 
         // get parameters
@@ -903,7 +908,10 @@ public class CacheDetailActivity extends TabbedViewPagerActivity
             return;
         }
 
-        cache = search.getFirstCacheFromResult(LoadFlags.LOAD_ALL_DB_ONLY);
+        final boolean firstLoad = cache == null;
+        final long loadStart = SystemClock.elapsedRealtime();
+        // on first load use the cache details possibly prepared in advance, later on reload them to reflect changes
+        cache = firstLoad ? search.getFirstFullCacheFromResult() : search.getFirstCacheFromResult(LoadFlags.LOAD_ALL_DB_ONLY);
 
         if (cache == null) {
             progress.dismiss();
@@ -927,9 +935,25 @@ public class CacheDetailActivity extends TabbedViewPagerActivity
         invalidateOptionsMenuCompatible();
         progress.dismiss();
 
+        if (firstLoad) {
+            logTimeToFirstPaint(cache.getGeocode(), SystemClock.elapsedRealtime() - loadStart);
+        }
+
         Settings.addCacheToHistory(cache.getGeocode());
     }
 
+    private void logTimeToFirstPaint(final String geocode, final long loadDuration) {
+        final View content = findViewById(android.R.id.content);
+        content.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                content.getViewTreeObserver().removeOnPreDrawListener(this);
+                Log.d("CacheDetailActivity: time to first paint for " + geocode + ": " + (SystemClock.elapsedRealtime() - createdTimestamp) + "ms (loading cache: " + loadDuration + "ms)");
+                return true;
+            }
+        });
+    }
+
     /**
      * Tries to navigate to the {@link Geocache} of this activity using the default navigation tool.
      */
@@ -2549,7 +2573,7 @@ public class CacheDetailActivity extends TabbedViewPagerActivity
             if (cache.supportsLogging() || !cache.getLogs().isEmpty()) {
                 pages.add(Page.LOGS.id);
             }
-            if (CollectionUtils.isNotEmpty(cache.getFriendsLogs()) && Settings.isFriendLogsWanted()) {
+            if (Settings.isFriendLogsWanted() && cache.hasFriendsLogs()) {
                 pages.add(Page.LOGSFRIENDS.id);
             }
             if (CollectionUtils.isNotEmpty(cache.getInventory()) || CollectionUtils.isNotEmpty(genericTrackables)) {
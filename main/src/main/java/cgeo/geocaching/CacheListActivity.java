@@ -108,6 +108,7 @@ import android.view.ContextMenu.ContextMenuInfo;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.AbsListView;
 import android.widget.AdapterView.AdapterContextMenuInfo;
 import android.widget.ListView;
 import android.widget.TextView;
@@ -1166,7 +1167,27 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
         adapter.forceSort();
         updateSortBar();
 
-        listView.setOnScrollListener(new FastScrollListener(listView));
+        listView.setOnScrollListener(new FastScrollListener(listView) {
+            private boolean scrolling = false;
+
+            @Override
+            public void onScrollStateChanged(final AbsListView absListView, final int state) {
+                super.onScrollStateChanged(absListView, state);
+                scrolling = state != SCROLL_STATE_IDLE;
+                if (!scrolling) {
+                    adapter.prefetchAround(absListView.getFirstVisiblePosition());
+                }
+            }
+
+            @Override
+            public void onScroll(final AbsListView view, final int firstVisibleItem, final int visibleItemCount, final int totalItemCount) {
+                super.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+                // also called without scrolling when the list is laid out, e.g. on first display
+                if (!scrolling && visibleItemCount > 0) {
+                    adapter.prefetchAround(firstVisibleItem);
+                }
+            }
+        });
     }
 
     private void updateAdapter() {
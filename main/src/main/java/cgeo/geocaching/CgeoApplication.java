@@ -5,6 +5,8 @@ import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.ui.notifications.NotificationChannels;
 import cgeo.geocaching.utils.ContextLogger;
+import cgeo.geocaching.utils.BitmapDecoder;
+import cgeo.geocaching.utils.ImageCache;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MessageCenterUtils;
 import cgeo.geocaching.utils.OOMDumpingUncaughtExceptionHandler;
@@ -204,6 +206,8 @@ public class CgeoApplication extends Application {
         if (level >= TRIM_MEMORY_MODERATE) {
             Log.i("Cleaning applications cache to trim memory");
             DataStore.removeAllFromCache();
+            ImageCache.get().clearMemory();
+            BitmapDecoder.clearPool();
         }
     }
 
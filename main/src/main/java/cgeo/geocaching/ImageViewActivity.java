@@ -8,6 +8,7 @@ import cgeo.geocaching.location.GeopointFormatter;
 import cgeo.geocaching.models.Image;
 import cgeo.geocaching.network.HtmlImage;
 import cgeo.geocaching.ui.ViewUtils;
+import cgeo.geocaching.ui.ZoomDetailLoader;
 import cgeo.geocaching.utils.ImageLoader;
 import cgeo.geocaching.utils.ImageUtils;
 import cgeo.geocaching.utils.LocalizationUtils;
@@ -95,10 +96,18 @@ public class ImageViewActivity extends AbstractActionBarActivity {
         class PageData {
             public final ImageviewImageBinding binding;
             public boolean isBrowseable = false;
+            public ZoomDetailLoader zoomDetailLoader = null;
 
             PageData(final ImageviewImageBinding binding) {
                 this.binding = binding;
             }
+
+            void closeZoomDetailLoader() {
+                if (zoomDetailLoader != null) {
+                    zoomDetailLoader.close();
+                    zoomDetailLoader = null;
+                }
+            }
         }
 
         ImageAdapter(final Context context) {
@@ -129,7 +138,10 @@ public class ImageViewActivity extends AbstractActionBarActivity {
         @Override
         public void destroyItem(@NonNull final ViewGroup container, final int position, @NonNull final Object object) {
             container.removeView((View) object);
-            cachedPages.remove(position);
+            final PageData pd = cachedPages.remove(position);
+            if (pd != null) {
+                pd.closeZoomDetailLoader();
+            }
         }
 
         @Override
@@ -156,6 +168,9 @@ public class ImageViewActivity extends AbstractActionBarActivity {
         }
 
         public void clear() {
+            for (PageData pd : cachedPages.values()) {
+                pd.closeZoomDetailLoader();
+            }
             cachedPages.clear();
         }
 
@@ -371,7 +386,14 @@ public class ImageViewActivity extends AbstractActionBarActivity {
                     binding.imageFull.setImageDrawable(HtmlImage.getErrorImage(getResources(), true));
                     binding.imageFull.setRotation(0);
                 } else {
-                    binding.imageFull.setImageDrawable(p.bitmapDrawable);
+                    final ImageAdapter.PageData pd = imageAdapter.cachedPages.get(pagerPos);
+                    if (pd != null && p.localUri != null) {
+                        // load full resolution details of zoomed image parts from the local file
+                        pd.closeZoomDetailLoader();
+                        pd.zoomDetailLoader = new ZoomDetailLoader(binding.imageFull, p.bitmapDrawable, p.localUri);
+                    } else {
+                        binding.imageFull.setImageDrawable(p.bitmapDrawable);
+                    }
                     ImageUtils.getImageOrientation(currentImage.getUri()).applyToView(binding.imageFull);
                 }
                 binding.imageProgressBar.setVisibility(View.GONE);
@@ -419,7 +441,12 @@ public class ImageViewActivity extends AbstractActionBarActivity {
         ImageUtils.createZoomableImageView(this, binding.imageFull, binding.imageviewViewroot, () -> {
             setFinishResult();
             finishAfterTransition();
-        }, () -> imageAdapter.toggleFullImageView());
+        }, () -> imageAdapter.toggleFullImageView(), event -> {
+            final ImageAdapter.PageData pd = imageAdapter.cachedPages.get(pagerPos);
+            if (pd != null && pd.zoomDetailLoader != null) {
+                pd.zoomDetailLoader.onTouchEvent(event);
+            }
+        });
 
         //trigger enter transition if this is start
         if (pagerPos == startPagerPos) {
@@ -15,6 +15,7 @@ import cgeo.geocaching.downloader.DownloaderUtils;
 import cgeo.geocaching.downloader.PendingDownloadsActivity;
 import cgeo.geocaching.enumerations.QuickLaunchItem;
 import cgeo.geocaching.helper.UsefulAppsActivity;
+import cgeo.geocaching.maps.mapsforge.MapsforgeMapProvider;
 import cgeo.geocaching.models.Download;
 import cgeo.geocaching.network.Network;
 import cgeo.geocaching.permission.PermissionAction;
@@ -26,6 +27,7 @@ import cgeo.geocaching.sensors.GeoDirHandler;
 import cgeo.geocaching.sensors.GnssStatusProvider;
 import cgeo.geocaching.sensors.GnssStatusProvider.Status;
 import cgeo.geocaching.sensors.LocationDataProvider;
+import cgeo.geocaching.service.CacheDownloaderService;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.settings.SettingsActivity;
 import cgeo.geocaching.storage.DataStore;
@@ -262,6 +264,10 @@ public class MainActivity extends AbstractNavigationBarActivity {
             DownloaderUtils.checkForMapUpdates(this);
             cLog.add("mu");
 
+            // read new or changed offline maps in background, so that map start doesn't need to parse them
+            MapsforgeMapProvider.revalidateOfflineMaps();
+            cLog.add("omr");
+
             binding.locationStatus.setPermissionRequestCallback(() -> {
                 this.askLocationPermissionAction.launch(null);
             });
@@ -338,6 +344,7 @@ public class MainActivity extends AbstractNavigationBarActivity {
         updateCacheCounter();
         prepareQuickLaunchItems();
         checkPendingDownloads();
+        CacheDownloaderService.resumePendingDownloads(this);
         binding.locationStatus.setShowAddress(Settings.isShowAddress());
     }
 
@@ -288,6 +288,13 @@ public class SearchResult implements Parcelable {
         return CollectionUtils.isNotEmpty(geocodes) ? DataStore.loadCache(geocodes.iterator().next(), loadFlags) : null;
     }
 
+    /**
+     * Loads the first cache of this search result with all details from database, see {@link DataStore#loadFullCache(String)}
+     */
+    public Geocache getFirstFullCacheFromResult() {
+        return CollectionUtils.isNotEmpty(geocodes) ? DataStore.loadFullCache(geocodes.iterator().next()) : null;
+    }
+
     public Set<Geocache> getCachesFromSearchResult(final EnumSet<LoadFlag> loadFlags) {
         return DataStore.loadCaches(geocodes, loadFlags);
     }
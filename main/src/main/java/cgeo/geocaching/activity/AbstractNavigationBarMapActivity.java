@@ -5,6 +5,7 @@ import cgeo.geocaching.CachePopupFragment;
 import cgeo.geocaching.R;
 import cgeo.geocaching.SwipeToOpenFragment;
 import cgeo.geocaching.WaypointPopupFragment;
+import cgeo.geocaching.storage.CacheDetailsPrefetcher;
 import cgeo.geocaching.unifiedmap.UnifiedMapViewModel;
 import cgeo.geocaching.utils.functions.Action1;
 
@@ -52,6 +53,7 @@ public abstract class AbstractNavigationBarMapActivity extends AbstractNavigatio
         if  (sheetInfo == null || StringUtils.isBlank(sheetInfo.geocode)) {
             return;
         }
+        CacheDetailsPrefetcher.get().prefetch(sheetInfo.geocode);
         if (sheetInfo.waypointId <= 0) {
             sheetConfigureFragment(CachePopupFragment.newInstance(sheetInfo.geocode), () -> CacheDetailActivity.startActivity(this, sheetInfo.geocode));
         } else {
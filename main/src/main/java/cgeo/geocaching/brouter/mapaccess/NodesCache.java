@@ -19,7 +19,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 
@@ -50,18 +49,6 @@ public final class NodesCache implements Closeable {
 
     private final boolean directWeaving = !Boolean.getBoolean("disableDirectWeaving");
 
-    private static final Hashtable<String, FileInformationCacheEntry> folderInfoCache = new Hashtable<>();
-
-    private static class FileInformationCacheEntry {
-        public ContentStorage.FileInformation fi;
-        public long fiTimestamp;
-
-        FileInformationCacheEntry(final ContentStorage.FileInformation fi) {
-            this.fi = fi;
-            this.fiTimestamp = System.currentTimeMillis();
-        }
-    }
-
     public NodesCache(final BExpressionContextWay ctxWay, final long maxmem, final NodesCache oldCache, final boolean detailed) {
         this.maxmemtiles = maxmem / 8;
         this.nodesMap = new OsmNodesMap();
@@ -353,14 +340,8 @@ public final class NodesCache implements Closeable {
         PhysicalFile ra = null;
         if (!fileCache.containsKey(filenameBase)) {
 
-            final FileInformationCacheEntry fice = folderInfoCache.get(filenameBase);
-            final ContentStorage.FileInformation fi;
-            if (fice != null && (System.currentTimeMillis() - fice.fiTimestamp) < 60000) {
-                fi = fice.fi;
-            } else {
-                fi = ContentStorage.get().getFileInfo(PersistableFolder.ROUTING_TILES.getFolder(), filenameBase + BRouterConstants.BROUTER_TILE_FILEEXTENSION);
-                folderInfoCache.put(filenameBase, new FileInformationCacheEntry(fi));
-            }
+            // folder listing is cached by ContentStorage
+            final ContentStorage.FileInformation fi = ContentStorage.get().getFileInfo(PersistableFolder.ROUTING_TILES.getFolder(), filenameBase + BRouterConstants.BROUTER_TILE_FILEEXTENSION);
 
             if (fi != null && !fi.isDirectory) {
                 currentFileName = fi.name;
@@ -35,6 +35,7 @@ import cgeo.geocaching.models.Trackable;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.AndroidRxUtils;
+import cgeo.geocaching.utils.SingleFlight;
 import cgeo.geocaching.utils.functions.Func1;
 
 import androidx.annotation.NonNull;
@@ -129,6 +130,8 @@ public final class ConnectorFactory {
 
     private static boolean forceRelog = false; // c:geo needs to log into cache providers
 
+    private static final SingleFlight<String, Trackable> TRACKABLE_SEARCHES = new SingleFlight<>("trackable lookups");
+
     private ConnectorFactory() {
         // utility class
     }
@@ -471,12 +474,17 @@ public final class ConnectorFactory {
             return Maybe.fromCallable(() -> TravelBugConnector.getInstance().searchTrackable(geocode, guid, id)).subscribeOn(AndroidRxUtils.networkScheduler);
         }
 
-        final Observable<Trackable> fromNetwork =
+        final Observable<Trackable> fromConnectors =
                 Observable.fromIterable(getTrackableConnectors()).filter(trackableConnector -> trackableConnector.canHandleTrackable(geocode, brand)).flatMapMaybe((Function<TrackableConnector, Maybe<Trackable>>) trackableConnector -> Maybe.fromCallable(() -> trackableConnector.searchTrackable(geocode, guid, id)).subscribeOn(AndroidRxUtils.networkScheduler));
 
+        // concurrent lookups of the same trackable share the connector requests. Waiting is done on the io scheduler
+        // to never block threads of the network scheduler, which are needed by the lookup itself.
+        final String key = (brand == null ? "" : brand.name()) + ":" + StringUtils.upperCase(geocode);
+        final Maybe<Trackable> fromNetwork = Maybe.fromCallable(() -> TRACKABLE_SEARCHES.execute(key, () -> fromConnectors.firstElement().blockingGet())).subscribeOn(Schedulers.io());
+
         final Maybe<Trackable> fromLocalStorage = Maybe.fromCallable(() -> DataStore.loadTrackable(geocode)).subscribeOn(Schedulers.io());
 
-        return fromNetwork.firstElement().switchIfEmpty(fromLocalStorage);
+        return fromNetwork.switchIfEmpty(fromLocalStorage);
     }
 
     /**
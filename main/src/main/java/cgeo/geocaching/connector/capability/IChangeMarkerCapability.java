@@ -0,0 +1,29 @@
+package cgeo.geocaching.connector.capability;
+
+import cgeo.geocaching.connector.IConnector;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Connector capability to query the state of many caches at once in a cheap way. The returned markers must change
+ * whenever the cache details or its logs change, e.g. by combining a modification date with the id of the latest log.
+ * Used to skip downloading caches which did not change since they were stored.
+ */
+public interface IChangeMarkerCapability extends IConnector {
+
+    /**
+     * maximum number of geocodes to pass to {@link #getChangeMarkers(Collection)} at once
+     */
+    int getMaxChangeMarkerRequestSize();
+
+    /**
+     * @return marker per geocode. Geocodes without marker (unknown caches, request errors) are missing in the result
+     */
+    @NonNull
+    @WorkerThread
+    Map<String, String> getChangeMarkers(@NonNull Collection<String> geocodes);
+}
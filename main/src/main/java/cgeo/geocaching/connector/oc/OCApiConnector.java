@@ -1,6 +1,7 @@
 package cgeo.geocaching.connector.oc;
 
 import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.connector.capability.IChangeMarkerCapability;
 import cgeo.geocaching.connector.capability.IOAuthCapability;
 import cgeo.geocaching.connector.capability.ISearchByGeocode;
 import cgeo.geocaching.models.Geocache;
@@ -16,10 +17,13 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 
+import java.util.Collection;
+import java.util.Map;
+
 import io.reactivex.rxjava3.core.Maybe;
 import org.apache.commons.lang3.StringUtils;
 
-public class OCApiConnector extends OCConnector implements ISearchByGeocode, IOAuthCapability {
+public class OCApiConnector extends OCConnector implements ISearchByGeocode, IOAuthCapability, IChangeMarkerCapability {
 
     private final String cK;
     private final ApiSupport apiSupport;
@@ -92,6 +96,19 @@ public class OCApiConnector extends OCConnector implements ISearchByGeocode, IOA
         return new SearchResult(cache);
     }
 
+    @Override
+    public int getMaxChangeMarkerRequestSize() {
+        // OKAPI accepts up to 500 codes, but keep the GET request reasonably short
+        return 100;
+    }
+
+    @Override
+    @NonNull
+    @WorkerThread
+    public Map<String, String> getChangeMarkers(@NonNull final Collection<String> geocodes) {
+        return OkapiClient.getChangeMarkers(this, geocodes);
+    }
+
     @Override
     public boolean isActive() {
         // currently always active, but only for details download
@@ -74,9 +74,12 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -129,6 +132,7 @@ final class OkapiClient {
     private static final String WPT_TYPE = "type";
     private static final String WPT_NAME = "name";
     private static final String CACHE_IS_WATCHED = "is_watched";
+    private static final String CACHE_IS_IGNORED = "is_ignored";
     private static final String CACHE_IS_RECOMMENDED = "is_recommended";
     private static final String CACHE_WPTS = "alt_wpts";
     private static final String CACHE_STATUS_ARCHIVED = "Archived";
@@ -165,6 +169,7 @@ final class OkapiClient {
     private static final String CACHE_USER_PROFILE = "profile_url";
     private static final String CACHE_REGION = "region";
     private static final String CACHE_COUNTRY = "country2";
+    private static final String CACHE_LAST_MODIFIED = "last_modified";
 
     private static final String TRK_GEOCODE = "code";
     private static final String TRK_NAME = "name";
@@ -198,6 +203,10 @@ final class OkapiClient {
     private static final String SERVICE_CACHE_ADDITIONAL_L3_FIELDS = "my_notes";
     private static final String SERVICE_CACHE_ADDITIONAL_CURRENT_L3_FIELDS = "";
     private static final String SERVICE_CACHE_FOUND_DATE_FIELDS = "code|name|is_found|latest_logs";
+    private static final String SERVICE_CACHE_CHANGE_MARKER_FIELDS = "code|status|last_modified|founds|notfounds|latest_logs";
+    // the state of the cache for the current user is not covered by last_modified (L3 - only with level 3 auth)
+    private static final String SERVICE_CACHE_CHANGE_MARKER_L3_FIELDS = "is_found|is_recommended|my_notes";
+    private static final String SERVICE_CACHE_CHANGE_MARKER_CURRENT_L3_FIELDS = "is_watched|is_ignored";
 
     private static final String METHOD_SEARCH_ALL = "services/caches/search/all";
     private static final String METHOD_SEARCH_BBOX = "services/caches/search/bbox";
@@ -259,6 +268,55 @@ final class OkapiClient {
         }
         return 0;
     }
+
+    /**
+     * Retrieves a marker for the current state of each of the given caches in one request. The marker changes whenever
+     * the cache listing is modified or a new log is posted.
+     *
+     * @return marker per geocode, caches unknown to the server are missing. Empty on request errors.
+     */
+    @NonNull
+    @WorkerThread
+    public static Map<String, String> getChangeMarkers(@NonNull final OCApiConnector connector, @NonNull final Collection<String> geocodes) {
+        final Parameters params = new Parameters("cache_codes", StringUtils.join(geocodes, SEPARATOR));
+        params.add("fields", getChangeMarkerFields(connector));
+        params.add(PARAMETER_LOGCOUNT_KEY, "1");
+        params.add(PARAMETER_LOG_FIELDS_KEY, LOG_UUID);
+
+        final JSONResult result = getRequest(connector, OkapiService.SERVICE_CACHES, params);
+        if (!result.isSuccess) {
+            Log.w("OkapiClient.getChangeMarkers: request for " + geocodes.size() + " caches failed");
+            return Collections.emptyMap();
+        }
+        return parseChangeMarkers(result.data);
+    }
+
+    @NonNull
+    static Map<String, String> parseChangeMarkers(@NonNull final ObjectNode data) {
+        final Map<String, String> markers = new HashMap<>();
+        final Iterator<Map.Entry<String, JsonNode>> caches = data.fields();
+        while (caches.hasNext()) {
+            final Map.Entry<String, JsonNode> cache = caches.next();
+            // unknown caches are returned as null
+            if (cache.getValue().isObject()) {
+                final JsonNode values = cache.getValue();
+                final List<String> marker = new ArrayList<>(Arrays.asList(values.path(CACHE_STATUS).asText(), values.path(CACHE_LAST_MODIFIED).asText(),
+                        values.path(CACHE_FOUNDS).asText(), values.path(CACHE_NOTFOUNDS).asText(), values.path(CACHE_LATEST_LOGS).path(0).path(LOG_UUID).asText()));
+                // user fields are only present with level 3 auth, notes are added as hash to keep the marker short
+                for (String field : Arrays.asList(CACHE_IS_FOUND, CACHE_IS_RECOMMENDED, CACHE_IS_WATCHED, CACHE_IS_IGNORED)) {
+                    if (values.has(field)) {
+                        marker.add(values.get(field).asText());
+                    }
+                }
+                if (values.has(CACHE_MY_NOTES)) {
+                    marker.add(Integer.toHexString(values.get(CACHE_MY_NOTES).asText().hashCode()));
+                }
+                markers.put(cache.getKey(), StringUtils.join(marker, SEPARATOR));
+            }
+        }
+        return markers;
+    }
+
     @NonNull
     @WorkerThread
     public static List<Geocache> getCachesAround(@NonNull final Geopoint center, @NonNull final OCApiConnector connector) {
@@ -1217,6 +1275,21 @@ final class OkapiClient {
         return res.toString();
     }
 
+    @NonNull
+    private static String getChangeMarkerFields(@NonNull final OCApiConnector connector) {
+        final StringBuilder res = new StringBuilder(SERVICE_CACHE_CHANGE_MARKER_FIELDS);
+
+        if (connector.getSupportedAuthLevel() == OAuthLevel.Level3) {
+            res.append(SEPARATOR).append(SERVICE_CACHE_CHANGE_MARKER_L3_FIELDS);
+
+            if (connector.getApiSupport() == ApiSupport.current) {
+                res.append(SEPARATOR).append(SERVICE_CACHE_CHANGE_MARKER_CURRENT_L3_FIELDS);
+            }
+        }
+
+        return res.toString();
+    }
+
     @NonNull
     private static String getFullFields(@NonNull final OCApiConnector connector) {
         final StringBuilder res = new StringBuilder(500);
@@ -23,6 +23,7 @@ import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 public class BRouterTileDownloader extends AbstractDownloader {
@@ -78,7 +79,8 @@ public class BRouterTileDownloader extends AbstractDownloader {
         final HashMap<String, Download> tiles = new HashMap<>();
 
         final String url = CgeoApplication.getInstance().getString(R.string.brouter_downloadurl);
-        final String page = Network.getResponseData(Network.getRequest(url));
+        // tiles are updated weekly at most, no need to load the index for each routing area check
+        final String page = Network.getResponseData(Network.getRequest(url, null, Network.cacheFor(1, TimeUnit.DAYS)));
         final List<Download> list = new ArrayList<>();
         if (page != null) {
             analyzePage(Uri.parse(url), list, page);
@@ -15,6 +15,7 @@ import android.net.Uri;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.Response;
 import org.apache.commons.lang3.StringUtils;
@@ -69,7 +70,8 @@ class DownloadSelectorMapListTask extends AsyncTaskWithProgressText<Void, List<D
 
         String page = "";
         try {
-            final Response response = Network.getRequest(uri.toString(), params).blockingGet();
+            // index pages change rarely, avoid reloading them when navigating back and forth
+            final Response response = Network.getRequest(uri.toString(), params, Network.cacheFor(1, TimeUnit.HOURS)).blockingGet();
             page = Network.getResponseData(response, true);
         } catch (final Exception e) {
             return Collections.emptyList();
@@ -16,6 +16,7 @@ import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import okhttp3.Response;
@@ -43,7 +44,7 @@ public class MapDownloaderOpenAndroMapsThemes extends AbstractThemeDownloader {
         final String urlVoluntary = CgeoApplication.getInstance().getString(R.string.mapserver_openandromaps_themes_voluntary_downloadurl);
         String pageVoluntary = null;
         try {
-            final Response response = Network.getRequest(urlVoluntary, new Parameters()).blockingGet();
+            final Response response = Network.getRequest(urlVoluntary, new Parameters(), Network.cacheFor(1, TimeUnit.HOURS)).blockingGet();
             pageVoluntary = Network.getResponseData(response, true);
         } catch (final Exception ignore) {
             // ignore
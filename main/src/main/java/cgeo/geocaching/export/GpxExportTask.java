@@ -25,6 +25,9 @@ import java.util.List;
 import org.apache.commons.io.IOUtils;
 
 public class GpxExportTask extends AsyncTaskWithProgress<String, Uri> {
+    /** large write buffer to reduce the number of (possibly expensive) writes to the target document */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
     private final String filename;
     private final String name;
 
@@ -56,7 +59,7 @@ public class GpxExportTask extends AsyncTaskWithProgress<String, Uri> {
                 return null;
             }
 
-            writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+            writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
             new GpxSerializer().writeGPX(allGeocodes, writer, this::publishProgress);
         } catch (final IOException e) {
             Log.e("GpxExport.ExportTask export", e);
@@ -19,8 +19,10 @@ import cgeo.geocaching.utils.XmlUtils;
 import cgeo.org.kxml2.io.KXmlSerializer;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -29,7 +31,11 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.xmlpull.v1.XmlSerializer;
@@ -61,6 +67,11 @@ public final class GpxSerializer {
      */
     public static final int CACHES_PER_BATCH = 100;
 
+    /**
+     * Number of batches which may be loaded from database ahead of the batch currently being serialized.
+     */
+    private static final int BATCHES_LOADED_AHEAD = 2;
+
     /**
      * counter for exported caches, used for progress reporting
      */
@@ -75,7 +86,7 @@ public final class GpxSerializer {
     }
 
     public void writeGPX(@NonNull final List<String> allGeocodesIn, final Writer writer, final ProgressListener progressListener) throws IOException {
-        // create a copy of the geocode list, as we need to modify it, but it might be immutable
+        // copy the geocode list, as the batches below are views of it which are read in background while the caller might change it
         final List<String> allGeocodes = new ArrayList<>(allGeocodesIn);
 
         this.progressListener = progressListener;
@@ -96,18 +107,27 @@ public final class GpxSerializer {
 
         // Split the overall set of geocodes into small chunks. That is a compromise between memory efficiency (because
         // we don't load all caches fully into memory) and speed (because we don't query each cache separately).
-        while (!allGeocodes.isEmpty()) {
-            final List<String> batch = allGeocodes.subList(0, Math.min(CACHES_PER_BATCH, allGeocodes.size()));
-            exportBatch(gpx, batch);
-            batch.clear();
+        // Chunks are loaded from database in background while the previous chunk is serialized.
+        final List<List<String>> batches = new ArrayList<>();
+        for (int start = 0; start < allGeocodes.size(); start += CACHES_PER_BATCH) {
+            batches.add(allGeocodes.subList(start, Math.min(start + CACHES_PER_BATCH, allGeocodes.size())));
+        }
+        final BatchLoader loader = new BatchLoader(batches);
+        Schedulers.io().scheduleDirect(loader);
+        try {
+            Set<Geocache> caches;
+            while ((caches = loader.next()) != null) {
+                exportBatch(gpx, caches);
+            }
+        } finally {
+            loader.cancel();
         }
 
         gpx.endTag(NS_GPX, "gpx");
         gpx.endDocument();
     }
 
-    private void exportBatch(final XmlSerializer gpx, @NonNull final Collection<String> geocodesOfBatch) throws IOException {
-        final Set<Geocache> caches = DataStore.loadCaches(geocodesOfBatch, LoadFlags.LOAD_ALL_DB_ONLY);
+    private void exportBatch(final XmlSerializer gpx, @NonNull final Set<Geocache> caches) throws IOException {
         for (final Geocache cache : caches) {
             if (cache == null) {
                 continue;
@@ -172,6 +192,69 @@ public final class GpxSerializer {
         }
     }
 
+    /**
+     * Loads batches of caches from database on a background thread, at most {@link #BATCHES_LOADED_AHEAD}
+     * batches ahead of the consumer.
+     */
+    private static final class BatchLoader implements Runnable {
+
+        private final List<? extends Collection<String>> batches;
+        private final BlockingQueue<Set<Geocache>> loadedBatches = new ArrayBlockingQueue<>(BATCHES_LOADED_AHEAD);
+        private volatile boolean cancelled = false;
+        private volatile boolean finished = false;
+        private volatile Exception error = null;
+
+        BatchLoader(final List<? extends Collection<String>> batches) {
+            this.batches = batches;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (Collection<String> batch : batches) {
+                    final Set<Geocache> caches = DataStore.loadCaches(batch, LoadFlags.LOAD_ALL_DB_ONLY);
+                    while (!loadedBatches.offer(caches, 100, TimeUnit.MILLISECONDS)) {
+                        if (cancelled) {
+                            return;
+                        }
+                    }
+                }
+            } catch (final Exception e) {
+                Log.e("GpxSerializer: loading caches failed", e);
+                error = e;
+            } finally {
+                finished = true;
+            }
+        }
+
+        /** returns next loaded batch or null if there are no more batches */
+        @Nullable
+        Set<Geocache> next() throws IOException {
+            try {
+                while (true) {
+                    final Set<Geocache> caches = loadedBatches.poll(100, TimeUnit.MILLISECONDS);
+                    if (caches != null) {
+                        return caches;
+                    }
+                    if (finished && loadedBatches.isEmpty()) {
+                        if (error != null) {
+                            throw new IOException("Loading caches for export failed", error);
+                        }
+                        return null;
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Export interrupted");
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            loadedBatches.clear();
+        }
+    }
+
     private void writeGsakExtensions(@NonNull final Geocache cache) throws IOException {
         gpx.startTag(NS_GSAK, "wptExtension");
         XmlUtils.multipleTexts(gpx, NS_GSAK, "Watch", gpxBoolean(cache.isOnWatchlist()), "IsPremium", gpxBoolean(cache.isPremiumMembersOnly()), "FavPoints", Integer.toString(cache.getFavoritePoints()),
@@ -6,24 +6,112 @@ import cgeo.geocaching.utils.DisposableHandler;
 import android.os.Handler;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 abstract class AbstractImportGpxThread extends AbstractImportThread {
 
+    /** upper limit for files parsed at the same time over all running imports, parsing is CPU bound */
+    private static final int MAX_PARALLEL_PARSERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /** parser threads shared by all GPX imports, so that several imported files and zips are parsed in parallel */
+    private static final ThreadPoolExecutor PARSERS = createParserPool();
+
     protected AbstractImportGpxThread(final int listId, final Handler importStepHandler, final DisposableHandler progressHandler) {
         super(listId, importStepHandler, progressHandler);
     }
 
     @Override
     protected Collection<Geocache> doImport() throws IOException, ParserException {
-        try {
-            // try to parse cache file as GPX 10
-            return doImport(new GPX10Parser(listId));
-        } catch (final ParserException ignored) {
-            // didn't work -> lets try GPX11
-            return doImport(new GPX11Parser(listId));
+        // a failure when writing the remaining caches doesn't hide an exception of the import itself, but is added as suppressed
+        try (GpxImportWriter writer = GpxImportWriter.acquire()) {
+            try {
+                // try to parse cache file as GPX 10
+                return doImport(createParser(new GPX10Parser(listId), writer));
+            } catch (final ParserException ignored) {
+                // didn't work -> lets try GPX11
+                return doImport(createParser(new GPX11Parser(listId), writer));
+            }
         }
     }
 
+    private static GPXParser createParser(final GPXParser parser, final GpxImportWriter writer) {
+        parser.setWriter(writer);
+        return parser;
+    }
+
+    /**
+     * @param parser the parser to use, which hands its caches over to the writer shared by all running imports
+     */
     protected abstract Collection<Geocache> doImport(GPXParser parser) throws IOException, ParserException;
+
+    /**
+     * runs the given parse task on the parser threads shared by all GPX imports and waits for its result
+     */
+    protected static Collection<Geocache> parse(final Callable<Collection<Geocache>> task) throws IOException, ParserException {
+        return parseAll(Collections.singletonList(task)).get(0);
+    }
+
+    /**
+     * runs the given parse tasks on the parser threads shared by all GPX imports and waits for all of them.
+     * If one of them fails, the others are cancelled.
+     *
+     * @return the results in the order of the tasks
+     */
+    protected static List<Collection<Geocache>> parseAll(final List<Callable<Collection<Geocache>>> tasks) throws IOException, ParserException {
+        final List<Future<Collection<Geocache>>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (final Callable<Collection<Geocache>> task : tasks) {
+                futures.add(PARSERS.submit(task));
+            }
+            final List<Collection<Geocache>> results = new ArrayList<>(tasks.size());
+            for (final Future<Collection<Geocache>> future : futures) {
+                results.add(getResult(future));
+            }
+            return results;
+        } finally {
+            for (final Future<Collection<Geocache>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * waits for the given parse task, unwrapping the exceptions of parallel execution
+     */
+    private static Collection<Geocache> getResult(final Future<Collection<Geocache>> future) throws IOException, ParserException {
+        try {
+            return future.get();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof ParserException) {
+                throw (ParserException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("GPX import interrupted");
+        }
+    }
+
+    private static ThreadPoolExecutor createParserPool() {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_PARALLEL_PARSERS, MAX_PARALLEL_PARSERS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
 }
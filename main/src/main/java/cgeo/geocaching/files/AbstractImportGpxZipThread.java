@@ -2,21 +2,30 @@ package cgeo.geocaching.files;
 
 import cgeo.geocaching.R;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.LocalStorage;
 import cgeo.geocaching.utils.DisposableHandler;
 import cgeo.geocaching.utils.FileUtils;
+import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.TextUtils;
 
 import android.os.Handler;
 
 import androidx.annotation.StringRes;
 import androidx.annotation.WorkerThread;
-import androidx.core.util.Predicate;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
@@ -26,7 +35,7 @@ import org.apache.commons.lang3.StringUtils;
 abstract class AbstractImportGpxZipThread extends AbstractImportGpxThread {
 
     public static final String ENCODING = "cp437"; // Geocaching.com used windows cp 437 encoding
-    private Collection<Geocache> caches = Collections.emptySet();
+
     private String gpxFileName = null;
 
     protected AbstractImportGpxZipThread(final int listId, final Handler importStepHandler, final DisposableHandler progressHandler) {
@@ -35,75 +44,111 @@ abstract class AbstractImportGpxZipThread extends AbstractImportGpxThread {
 
     @Override
     protected Collection<Geocache> doImport(final GPXParser parser) throws IOException, ParserException {
-        // can't assume that GPX file comes before waypoint file in zip -> so we need two passes
-        // 1. parse GPX files (all except waypoint files)
-        if (!parseZipFileGpxContent(parser, filename -> !StringUtils.endsWithIgnoreCase(filename, GPXImporter.WAYPOINTS_FILE_SUFFIX_AND_EXTENSION),
-                GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches_with_filename)) {
-            throw new ParserException("Imported ZIP does not contain a GPX file.");
+        final Map<File, String> gpxFiles = new LinkedHashMap<>();
+        final Map<File, String> waypointFiles = new LinkedHashMap<>();
+        try {
+            // can't assume that GPX file comes before waypoint file in zip -> extract all of them in one pass first
+            if (!extractGpxFiles(gpxFiles, waypointFiles)) {
+                throw new ParserException("Imported ZIP does not contain a GPX file.");
+            }
+            final Map<String, Geocache> caches = new LinkedHashMap<>();
+            // 1. parse GPX files (all except waypoint files). All their caches are stored when this returns
+            parseFiles(parser, gpxFiles, GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches_with_filename, caches);
+            // 2. parse only waypoint files, which need the caches of step 1 in the database
+            parseFiles(parser, waypointFiles, GPXImporter.IMPORT_STEP_READ_WPT_FILE, R.string.gpx_import_loading_waypoints_with_filename, caches);
+            return caches.values();
+        } finally {
+            deleteFiles(gpxFiles.keySet());
+            deleteFiles(waypointFiles.keySet());
         }
-        // 2. parse only waypoint files
-        parseZipFileGpxContent(parser, filename -> StringUtils.endsWithIgnoreCase(filename, GPXImporter.WAYPOINTS_FILE_SUFFIX_AND_EXTENSION),
-                GPXImporter.IMPORT_STEP_READ_WPT_FILE, R.string.gpx_import_loading_waypoints_with_filename);
-        return caches;
     }
 
     /**
-     * parse the zip archive for GPX files which match the criteria given in the filename matcher
+     * read the zip archive once and extract all GPX files into temporary files
      *
-     * @param parser          the GPXParser object
-     * @param filenameMatcher pass true if the GPX file should be progressed in this run
-     * @param importStep      the GPXImporter step
-     * @param stepText        the description @StringRes which should be displayed
-     * @return true if at least one file is a GPX
+     * @param gpxFiles      receives the extracted GPX files (all except waypoint files) with their names inside the zip
+     * @param waypointFiles receives the extracted waypoint files with their names inside the zip
+     * @return true if the zip contains a GPX file or no other files at all
      */
-    private boolean parseZipFileGpxContent(final GPXParser parser, final Predicate<String> filenameMatcher, final int importStep, final @StringRes int stepText) throws IOException, ParserException {
+    private boolean extractGpxFiles(final Map<File, String> gpxFiles, final Map<File, String> waypointFiles) throws IOException {
         final ZipArchiveInputStream zisPass = new ZipArchiveInputStream(new BufferedInputStream(getInputStream()), ENCODING);
         try {
-            int acceptedFiles = 0;
             int ignoredFiles = 0;
             for (ZipEntry zipEntry = zisPass.getNextZipEntry(); zipEntry != null; zipEntry = zisPass.getNextZipEntry()) {
                 gpxFileName = zipEntry.getName();
                 if (StringUtils.endsWithIgnoreCase(gpxFileName, FileUtils.GPX_FILE_EXTENSION)) {
-                    if (filenameMatcher.test(gpxFileName)) {
-                        final long size = zipEntry.getSize();
-                        importStepHandler.sendMessage(importStepHandler.obtainMessage(importStep, stepText, (int) (size == -1 ? getZipFileSize(gpxFileName) : size), getSourceDisplayName()));
-                        caches = parser.parse(new NoCloseInputStream(zisPass), progressHandler);
-                        acceptedFiles++;
+                    final File file = File.createTempFile("gpximport", FileUtils.GPX_FILE_EXTENSION, LocalStorage.getInternalCgeoCacheDirectory());
+                    (StringUtils.endsWithIgnoreCase(gpxFileName, GPXImporter.WAYPOINTS_FILE_SUFFIX_AND_EXTENSION) ? waypointFiles : gpxFiles).put(file, gpxFileName);
+                    final OutputStream os = new BufferedOutputStream(new FileOutputStream(file));
+                    try {
+                        IOUtils.copy(zisPass, os);
+                    } finally {
+                        IOUtils.closeQuietly(os);
                     }
                 } else {
                     ignoredFiles++;
                 }
             }
-            if (ignoredFiles == 0 || acceptedFiles > 0) {
-                return true;
-            }
+            return ignoredFiles == 0 || !gpxFiles.isEmpty();
         } finally {
             IOUtils.closeQuietly(zisPass);
         }
-        return false;
     }
 
     /**
-     * Get the file size of a specific file inside the zip archive.
-     * It worth it to spend some extra time to gather the size so that we can visualize a progress while parsing afterwards.
-     * This method is rather time consuming, so don't call this if the size can also be found otherwise.
+     * parse the given files in parallel, together with the files of other imports running at the same time.
+     * Waypoints whose parent cache is contained in another of the files are added to it after all files are parsed.
      *
-     * @param filename the filename of the file inside the zip archive.
-     * @return the uncompressed size of the entry data
+     * @param parser     the GPXParser object, used for the first file. Further files get a parser of the same format and writer
+     * @param files      the extracted files with their names inside the zip
+     * @param importStep the GPXImporter step
+     * @param stepText   the description @StringRes which should be displayed
+     * @param caches     receives the imported caches
      */
-    private long getZipFileSize(final String filename) throws IOException {
-        final ZipArchiveInputStream zisPass = new ZipArchiveInputStream(new BufferedInputStream(getInputStream()), ENCODING);
-        try {
-            for (ZipEntry zipEntry = zisPass.getNextZipEntry(); zipEntry != null; zipEntry = zisPass.getNextZipEntry()) {
-                if (filename.equals(zipEntry.getName())) {
-                    zisPass.getNextZipEntry(); // internally this read everything until the next entry. The file size is sometimes included at the end of the file entry, and is therefore only available if everything was read.
-                    return zipEntry.getSize();
-                }
+    private void parseFiles(final GPXParser parser, final Map<File, String> files, final int importStep, final @StringRes int stepText, final Map<String, Geocache> caches) throws IOException, ParserException {
+        if (files.isEmpty()) {
+            return;
+        }
+        long totalSize = 0;
+        for (final File file : files.keySet()) {
+            totalSize += file.length();
+        }
+        importStepHandler.sendMessage(importStepHandler.obtainMessage(importStep, stepText, (int) totalSize, TextUtils.stripHtml(StringUtils.join(files.values(), ", "))));
+
+        final ImportProgressAggregator progress = new ImportProgressAggregator(progressHandler, files.size());
+        final List<Callable<Collection<Geocache>>> tasks = new ArrayList<>(files.size());
+        final List<GPXParser> parsers = new ArrayList<>(files.size());
+        for (final File file : files.keySet()) {
+            // the given parser is used for the first file, so that a format mismatch is detected as before
+            final GPXParser fileParser = parsers.isEmpty() ? parser : parser.createParserForSameFormat();
+            fileParser.setWriter(parser.getWriter());
+            // a waypoint's parent cache may be contained in a file parsed at the same time
+            fileParser.setKeepOrphanedWaypoints(files.size() > 1);
+            parsers.add(fileParser);
+            final DisposableHandler fileProgressHandler = progress.getProgressHandler(tasks.size());
+            tasks.add(() -> fileParser.parse(file, fileProgressHandler));
+        }
+        for (final Collection<Geocache> parsed : parseAll(tasks)) {
+            addAll(caches, parsed);
+        }
+        // all caches of the files are stored now
+        for (final GPXParser fileParser : parsers) {
+            fileParser.addOrphanedWaypoints();
+        }
+    }
+
+    private static void addAll(final Map<String, Geocache> caches, final Collection<Geocache> parsed) {
+        for (final Geocache cache : parsed) {
+            caches.put(cache.getGeocode(), cache);
+        }
+    }
+
+    private static void deleteFiles(final Collection<File> files) {
+        for (final File file : files) {
+            if (file.exists() && !file.delete()) {
+                Log.w("Could not delete temporary import file " + file);
             }
-        } finally {
-            IOUtils.closeQuietly(zisPass);
         }
-        return -1;
     }
 
     @Override
@@ -1,7 +1,5 @@
 package cgeo.geocaching.files;
 
-import android.sax.Element;
-
 import androidx.annotation.NonNull;
 
 public class GPX10Parser extends GPXParser {
@@ -10,19 +8,25 @@ public class GPX10Parser extends GPXParser {
         super(listIdIn, "http://www.topografix.com/GPX/1/0", "1.0");
     }
 
+    @NonNull
+    @Override
+    GPXParser createParserForSameFormat() {
+        return new GPX10Parser(getListId());
+    }
+
     @Override
-    protected Element getNodeForExtension(@NonNull final Element waypoint) {
+    protected PullElement getNodeForExtension(@NonNull final PullElement waypoint) {
         return waypoint;
     }
 
     @Override
-    protected void registerUrlAndUrlName(@NonNull final Element element) {
+    protected void registerUrlAndUrlName(@NonNull final PullElement element) {
         element.getChild(namespace, "url").setEndTextElementListener(this::setUrl);
         element.getChild(namespace, "urlname").setEndTextElementListener(this::setUrlName);
     }
 
     @Override
-    protected void registerScriptUrl(@NonNull final Element element) {
+    protected void registerScriptUrl(@NonNull final PullElement element) {
         element.getChild(namespace, "url").setEndTextElementListener(body -> scriptUrl = body);
     }
 }
@@ -2,8 +2,6 @@ package cgeo.geocaching.files;
 
 import cgeo.geocaching.utils.Log;
 
-import android.sax.Element;
-
 import androidx.annotation.NonNull;
 
 public final class GPX11Parser extends GPXParser {
@@ -12,14 +10,20 @@ public final class GPX11Parser extends GPXParser {
         super(listIdIn, "http://www.topografix.com/GPX/1/1", "1.1");
     }
 
+    @NonNull
+    @Override
+    GPXParser createParserForSameFormat() {
+        return new GPX11Parser(getListId());
+    }
+
     @Override
-    protected Element getNodeForExtension(@NonNull final Element waypoint) {
+    protected PullElement getNodeForExtension(@NonNull final PullElement waypoint) {
         return waypoint.getChild(namespace, "extensions");
     }
 
     @Override
-    protected void registerUrlAndUrlName(@NonNull final Element element) {
-        final Element linkElement = element.getChild(namespace, "link");
+    protected void registerUrlAndUrlName(@NonNull final PullElement element) {
+        final PullElement linkElement = element.getChild(namespace, "link");
         linkElement.setStartElementListener(attrs -> {
             try {
                 if (attrs.getIndex("href") > -1) {
@@ -36,7 +40,7 @@ public final class GPX11Parser extends GPXParser {
     }
 
     @Override
-    protected void registerScriptUrl(@NonNull final Element element) {
+    protected void registerScriptUrl(@NonNull final PullElement element) {
         element.getChild(namespace, "metadata").getChild(namespace, "link").setStartElementListener(attrs -> {
             try {
                 if (attrs.getIndex("href") > -1) {
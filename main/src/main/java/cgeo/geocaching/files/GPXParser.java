@@ -33,12 +33,6 @@ import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MatcherWrapper;
 import cgeo.geocaching.utils.SynchronizedDateFormat;
 
-import android.sax.Element;
-import android.sax.EndElementListener;
-import android.sax.EndTextElementListener;
-import android.sax.RootElement;
-import android.util.Xml;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -54,14 +48,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
-import org.xml.sax.SAXException;
+import org.xmlpull.v1.XmlPullParserException;
 
 abstract class GPXParser extends FileParser {
 
@@ -112,6 +108,11 @@ abstract class GPXParser extends FileParser {
             "https://github.com/opencaching/gpx-extension-v1"
     };
 
+    /**
+     * larger read chunks let the invalid character filter validate in bulk and reduce calls into the XML parser
+     */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
     private static final Pattern PATTERN_MILLISECONDS = Pattern.compile("\\.\\d{3,7}");
 
     private int listId = StoredList.STANDARD_LIST_ID;
@@ -164,7 +165,21 @@ abstract class GPXParser extends FileParser {
      */
     private String descriptionPrefix = "";
 
-    private final class UserDataListener implements EndTextElementListener {
+    /**
+     * Lookup caches for values repeated in nearly every waypoint/log of large files, avoiding repeated normalization of the raw values.
+     */
+    private final Map<String, CacheType> cacheTypes = new HashMap<>();
+    private final Map<String, CacheSize> cacheSizes = new HashMap<>();
+    private final Map<String, LogType> logTypes = new HashMap<>();
+
+    @Nullable private GpxImportWriter writer = null;
+    /** whether to keep waypoints whose parent cache was not found, see {@link #addOrphanedWaypoints()} */
+    private boolean keepOrphanedWaypoints = false;
+    private final List<ChildWaypoint> orphanedWaypoints = new ArrayList<>();
+    /** whether caches were handed over to the writer since the last flush */
+    private boolean writerPending = false;
+
+    private final class UserDataListener implements PullElement.EndTextElementListener {
         private final int index;
 
         UserDataListener(final int index) {
@@ -177,12 +192,151 @@ abstract class GPXParser extends FileParser {
         }
     }
 
+    /**
+     * A waypoint of a parsed file belonging to a cache ("child waypoint"), kept until it is added to its parent cache.
+     */
+    private static final class ChildWaypoint {
+        private final Geocache parsed;
+        private final String parentCacheCode;
+        private final WaypointType waypointType;
+        private final boolean userDefined;
+        private final boolean emptyCoordinates;
+        private final boolean visited;
+
+        ChildWaypoint(final Geocache parsed, final String parentCacheCode, final WaypointType waypointType, final boolean userDefined, final boolean emptyCoordinates, final boolean visited) {
+            this.parsed = parsed;
+            this.parentCacheCode = parentCacheCode;
+            this.waypointType = waypointType;
+            this.userDefined = userDefined;
+            this.emptyCoordinates = emptyCoordinates;
+            this.visited = visited;
+        }
+
+        /**
+         * adds this waypoint to its parent cache in the database
+         *
+         * @return false if the parent cache is not stored
+         */
+        boolean addToParent() {
+            final Geocache cacheForWaypoint = findParentCache(parentCacheCode);
+            if (cacheForWaypoint == null) {
+                return false;
+            }
+            final Waypoint waypoint = new Waypoint(parsed.getShortDescription(), waypointType, false);
+            if (userDefined) {
+                waypoint.setUserDefined();
+            }
+            waypoint.setId(-1);
+            waypoint.setGeocode(parentCacheCode);
+            String cacheName = parsed.getName();
+            if (userDefined) {
+                // try to deduct original prefix from wpt name
+                if (StringUtils.endsWithIgnoreCase(cacheName, parentCacheCode.substring(2))) {
+                    cacheName = cacheName.substring(0, cacheName.length() - parentCacheCode.length() + 2);
+                }
+                if (StringUtils.startsWithIgnoreCase(cacheName, Waypoint.PREFIX_OWN + "-")) {
+                    cacheName = cacheName.substring(4);
+                }
+            }
+            waypoint.setPrefix(cacheForWaypoint.getWaypointPrefix(cacheName));
+            waypoint.setLookup("---");
+            // there is no lookup code in gpx file
+
+            waypoint.setCoords(parsed.getCoords());
+
+            // set flag for user-modified coordinates of cache
+            if (waypoint.getWaypointType() == WaypointType.ORIGINAL) {
+                cacheForWaypoint.setUserModifiedCoords(true);
+            }
+
+            // user defined waypoint does not have original empty coordinates
+            if (emptyCoordinates || (!waypoint.isUserDefined() && null == waypoint.getCoords())) {
+                waypoint.setOriginalCoordsEmpty(true);
+            }
+
+            final WaypointUserNoteCombiner wpCombiner = new WaypointUserNoteCombiner(waypoint);
+            wpCombiner.updateNoteAndUserNote(parsed.getDescription());
+
+            waypoint.setVisited(visited);
+            final List<Waypoint> mergedWayPoints = new ArrayList<>(cacheForWaypoint.getWaypoints());
+
+            final List<Waypoint> newPoints = new ArrayList<>();
+            newPoints.add(waypoint);
+            Waypoint.mergeWayPoints(newPoints, mergedWayPoints, true);
+            cacheForWaypoint.setWaypoints(newPoints, false);
+            DataStore.saveCache(cacheForWaypoint, EnumSet.of(SaveFlag.DB));
+            return true;
+        }
+    }
+
     protected GPXParser(final int listIdIn, final String namespaceIn, final String versionIn) {
         listId = listIdIn;
         namespace = namespaceIn;
         version = versionIn;
     }
 
+    /**
+     * Hands parsed caches over to the given writer instead of storing each of them directly.
+     * Used to parse several files in parallel while writing to the database from a single thread.
+     */
+    void setWriter(@Nullable final GpxImportWriter writer) {
+        this.writer = writer;
+    }
+
+    @Nullable
+    GpxImportWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Makes sure the caches handed over to the writer by this parser are stored. Only waits for the writer if caches were handed
+     * over since the last call, so all waypoints following their parent cache (or a whole waypoint file) wait only once.
+     */
+    private void flushWriter() {
+        if (writer != null && writerPending) {
+            writer.flush();
+            writerPending = false;
+        }
+    }
+
+    /**
+     * Keeps the waypoints whose parent cache is not stored when they are parsed, instead of dropping them.
+     * Used when parsing several files in parallel, as the parent cache may be contained in another of those files.
+     */
+    void setKeepOrphanedWaypoints(final boolean keepOrphanedWaypoints) {
+        this.keepOrphanedWaypoints = keepOrphanedWaypoints;
+    }
+
+    /**
+     * Adds the kept waypoints to their parent caches, which must be stored by now. Waypoints whose parent cache is still
+     * missing are dropped.
+     *
+     * @return number of waypoints added
+     */
+    int addOrphanedWaypoints() {
+        int added = 0;
+        for (final ChildWaypoint childWaypoint : orphanedWaypoints) {
+            if (childWaypoint.addToParent()) {
+                added++;
+            }
+        }
+        if (added < orphanedWaypoints.size()) {
+            Log.i("GPX import: no parent cache found for " + (orphanedWaypoints.size() - added) + " waypoints");
+        }
+        orphanedWaypoints.clear();
+        return added;
+    }
+
+    /**
+     * creates a new parser for the same GPX version and list
+     */
+    @NonNull
+    abstract GPXParser createParserForSameFormat();
+
+    protected int getListId() {
+        return listId;
+    }
+
     static Date parseDate(final String inputUntrimmed) throws ParseException {
         // remove milliseconds to reduce number of needed patterns
         final MatcherWrapper matcher = new MatcherWrapper(PATTERN_MILLISECONDS, inputUntrimmed.trim());
@@ -207,8 +361,8 @@ abstract class GPXParser extends FileParser {
         terraChildWaypoint = false;
 
         resetCache();
-        final RootElement root = new RootElement(namespace, "gpx");
-        final Element waypoint = root.getChild(namespace, "wpt");
+        final PullElement root = new PullElement(namespace, "gpx");
+        final PullElement waypoint = root.getChild(namespace, "wpt");
 
         registerScriptUrl(root);
 
@@ -236,7 +390,7 @@ abstract class GPXParser extends FileParser {
         });
 
         // waypoint
-        waypoint.setEndElementListener(new EndElementListener() {
+        waypoint.setEndElementListener(new PullElement.EndElementListener() {
 
             @Override
             public void end() {
@@ -276,11 +430,16 @@ abstract class GPXParser extends FileParser {
 
                     // finally store the cache in the database
                     result.add(geocode);
-                    DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
-                    DataStore.saveLogs(cache.getGeocode(), logs, false);
-
-                    // avoid the cachecache using lots of memory for caches which the user did not actually look at
-                    DataStore.removeCache(geocode, EnumSet.of(RemoveFlag.CACHE));
+                    if (writer != null) {
+                        writer.add(cache, logs);
+                        writerPending = true;
+                    } else {
+                        DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+                        DataStore.saveLogs(cache.getGeocode(), logs, false);
+
+                        // avoid the cachecache using lots of memory for caches which the user did not actually look at
+                        DataStore.removeCache(geocode, EnumSet.of(RemoveFlag.CACHE));
+                    }
                     showProgressMessage(progressHandler, progressStream.getProgress());
                 } else if (StringUtils.isNotBlank(cache.getName())
                         && (StringUtils.containsIgnoreCase(type, "waypoint") || terraChildWaypoint)) {
@@ -308,52 +467,13 @@ abstract class GPXParser extends FileParser {
                         cache.setShortDescription("");
                     }
 
-                    final Geocache cacheForWaypoint = findParentCache();
-                    if (cacheForWaypoint != null) {
-                        final Waypoint waypoint = new Waypoint(cache.getShortDescription(), WaypointType.fromGPXString(sym, subtype), false);
-                        if (wptUserDefined) {
-                            waypoint.setUserDefined();
-                        }
-                        waypoint.setId(-1);
-                        waypoint.setGeocode(parentCacheCode);
-                        String cacheName = cache.getName();
-                        if (wptUserDefined) {
-                            // try to deduct original prefix from wpt name
-                            if (StringUtils.endsWithIgnoreCase(cacheName, parentCacheCode.substring(2))) {
-                                cacheName = cacheName.substring(0, cacheName.length() - parentCacheCode.length() + 2);
-                            }
-                            if (StringUtils.startsWithIgnoreCase(cacheName, Waypoint.PREFIX_OWN + "-")) {
-                                cacheName = cacheName.substring(4);
-                            }
-                        }
-                        waypoint.setPrefix(cacheForWaypoint.getWaypointPrefix(cacheName));
-                        waypoint.setLookup("---");
-                        // there is no lookup code in gpx file
-
-                        waypoint.setCoords(cache.getCoords());
-
-                        // set flag for user-modified coordinates of cache
-                        if (waypoint.getWaypointType() == WaypointType.ORIGINAL) {
-                            cacheForWaypoint.setUserModifiedCoords(true);
-                        }
-
-                        // user defined waypoint does not have original empty coordinates
-                        if (wptEmptyCoordinates || (!waypoint.isUserDefined() && null == waypoint.getCoords())) {
-                            waypoint.setOriginalCoordsEmpty(true);
-                        }
-
-                        final WaypointUserNoteCombiner wpCombiner = new WaypointUserNoteCombiner(waypoint);
-                        wpCombiner.updateNoteAndUserNote(cache.getDescription());
-
-                        waypoint.setVisited(wptVisited);
-                        final List<Waypoint> mergedWayPoints = new ArrayList<>(cacheForWaypoint.getWaypoints());
-
-                        final List<Waypoint> newPoints = new ArrayList<>();
-                        newPoints.add(waypoint);
-                        Waypoint.mergeWayPoints(newPoints, mergedWayPoints, true);
-                        cacheForWaypoint.setWaypoints(newPoints, false);
-                        DataStore.saveCache(cacheForWaypoint, EnumSet.of(SaveFlag.DB));
+                    // parent cache may still be waiting to be written
+                    flushWriter();
+                    final ChildWaypoint childWaypoint = new ChildWaypoint(cache, parentCacheCode, WaypointType.fromGPXString(sym, subtype), wptUserDefined, wptEmptyCoordinates, wptVisited);
+                    if (childWaypoint.addToParent()) {
                         showProgressMessage(progressHandler, progressStream.getProgress());
+                    } else if (keepOrphanedWaypoints) {
+                        orphanedWaypoints.add(childWaypoint);
                     }
                 }
             }
@@ -422,7 +542,7 @@ abstract class GPXParser extends FileParser {
 
         // for GPX 1.0, cache info comes from waypoint node (so called private children)
         // for GPX 1.1 from extensions node
-        final Element extensionNode = getNodeForExtension(waypoint);
+        final PullElement extensionNode = getNodeForExtension(waypoint);
         if (extensionNode != null) {
             registerExtensions(extensionNode);
         } else {
@@ -432,15 +552,16 @@ abstract class GPXParser extends FileParser {
 
         try {
             progressStream = new ProgressInputStream(stream);
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(progressStream, StandardCharsets.UTF_8));
-            Xml.parse(new InvalidXMLCharacterFilterReader(reader), root.getContentHandler());
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(progressStream, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+            root.parse(new InvalidXMLCharacterFilterReader(reader));
+            flushWriter();
             return DataStore.loadCaches(result, EnumSet.of(LoadFlag.DB_MINIMAL));
-        } catch (final SAXException e) {
+        } catch (final XmlPullParserException e) {
             throw new ParserException("Cannot parse .gpx file as GPX " + version + ": could not parse XML", e);
         }
     }
 
-    private void registerExtensions(@NonNull final Element cacheParent) {
+    private void registerExtensions(@NonNull final PullElement cacheParent) {
         registerGsakExtensions(cacheParent);
         registerTerraCachingExtensions(cacheParent);
         registerCgeoExtensions(cacheParent);
@@ -451,11 +572,11 @@ abstract class GPXParser extends FileParser {
     /**
      * Add listeners for groundspeak extensions
      */
-    private void registerGroundspeakExtensions(final Element cacheParent) {
+    private void registerGroundspeakExtensions(final PullElement cacheParent) {
         // 3 different versions of the GC schema
         for (final String nsGC : GROUNDSPEAK_NAMESPACE) {
             // waypoints.cache
-            final Element gcCache = cacheParent.getChild(nsGC, "cache");
+            final PullElement gcCache = cacheParent.getChild(nsGC, "cache");
 
             registerGsakExtensionsCache(nsGC, gcCache);
             registerGsakExtensionsAttribute(nsGC, gcCache);
@@ -469,7 +590,7 @@ abstract class GPXParser extends FileParser {
      */
     // method readability will not improve by splitting it up
     @SuppressWarnings("PMD.NPathComplexity")
-    private void registerGsakExtensionsCache(final String nsGC, final Element gcCache) {
+    private void registerGsakExtensionsCache(final String nsGC, final PullElement gcCache) {
         gcCache.setStartElementListener(attrs -> {
             try {
                 if (attrs.getIndex("id") > -1) {
@@ -502,11 +623,11 @@ abstract class GPXParser extends FileParser {
             if (body.startsWith("Geocache|")) {
                 body = StringUtils.substringAfter(body, "Geocache|").trim();
             }
-            cache.setType(CacheType.getByPattern(body));
+            cache.setType(cacheTypes.computeIfAbsent(body, CacheType::getByPattern));
         });
 
         // waypoint.cache.container
-        gcCache.getChild(nsGC, "container").setEndTextElementListener(body -> cache.setSize(CacheSize.getById(validate(body))));
+        gcCache.getChild(nsGC, "container").setEndTextElementListener(body -> cache.setSize(cacheSizes.computeIfAbsent(validate(body), CacheSize::getById)));
 
         // waypoint.cache.getDifficulty()
         gcCache.getChild(nsGC, "difficulty").setEndTextElementListener(body -> {
@@ -558,7 +679,7 @@ abstract class GPXParser extends FileParser {
     /**
      * Add listeners for Groundspeak attributes
      */
-    private void registerGsakExtensionsAttribute(final String nsGC, final Element gcCache) {
+    private void registerGsakExtensionsAttribute(final String nsGC, final PullElement gcCache) {
         // waypoint.cache.getAttributes()
         // @see issue #299
 
@@ -567,10 +688,10 @@ abstract class GPXParser extends FileParser {
         //   <groundspeak:attribute id="13" inc="1">Available at all times</groundspeak:attribute>
         // where inc = 0 => _no, inc = 1 => _yes
         // IDs see array CACHE_ATTRIBUTES
-        final Element gcAttributes = gcCache.getChild(nsGC, "attributes");
+        final PullElement gcAttributes = gcCache.getChild(nsGC, "attributes");
 
         // waypoint.cache.attribute
-        final Element gcAttribute = gcAttributes.getChild(nsGC, "attribute");
+        final PullElement gcAttribute = gcAttributes.getChild(nsGC, "attribute");
 
         gcAttribute.setStartElementListener(attrs -> {
             try {
@@ -591,12 +712,12 @@ abstract class GPXParser extends FileParser {
     /**
      * Add listeners for Groundspeak TBs
      */
-    private void registerGsakExtensionsTb(final String nsGC, final Element gcCache) {
+    private void registerGsakExtensionsTb(final String nsGC, final PullElement gcCache) {
         // waypoint.cache.travelbugs
-        final Element gcTBs = gcCache.getChild(nsGC, "travelbugs");
+        final PullElement gcTBs = gcCache.getChild(nsGC, "travelbugs");
 
         // waypoint.cache.travelbug
-        final Element gcTB = gcTBs.getChild(nsGC, "travelbug");
+        final PullElement gcTB = gcTBs.getChild(nsGC, "travelbug");
 
         // waypoint.cache.travelbugs.travelbug
         gcTB.setStartElementListener(attrs -> {
@@ -624,12 +745,12 @@ abstract class GPXParser extends FileParser {
     /**
      * Add listeners for Groundspeak logs
      */
-    private void registerGsakExtensionsLog(final String nsGC, final Element gcCache) {
+    private void registerGsakExtensionsLog(final String nsGC, final PullElement gcCache) {
         // waypoint.cache.logs
-        final Element gcLogs = gcCache.getChild(nsGC, "logs");
+        final PullElement gcLogs = gcCache.getChild(nsGC, "logs");
 
         // waypoint.cache.log
-        final Element gcLog = gcLogs.getChild(nsGC, "log");
+        final PullElement gcLog = gcLogs.getChild(nsGC, "log");
 
         gcLog.setStartElementListener(attrs -> {
             logBuilder = new LogEntry.Builder();
@@ -674,7 +795,7 @@ abstract class GPXParser extends FileParser {
         // waypoint.cache.logs.log.getType()
         gcLog.getChild(nsGC, "type").setEndTextElementListener(body -> {
             final String logType = validate(body);
-            logBuilder.setLogType(LogType.getByType(logType));
+            logBuilder.setLogType(logTypes.computeIfAbsent(logType, LogType::getByType));
         });
 
         // waypoint.cache.logs.log.finder
@@ -687,9 +808,9 @@ abstract class GPXParser extends FileParser {
     /**
      * Add listeners for GSAK extensions
      */
-    private void registerGsakExtensions(final Element cacheParent) {
+    private void registerGsakExtensions(final PullElement cacheParent) {
         for (final String gsakNamespace : GSAK_NS) {
-            final Element gsak = cacheParent.getChild(gsakNamespace, "wptExtension");
+            final PullElement gsak = cacheParent.getChild(gsakNamespace, "wptExtension");
             gsak.getChild(gsakNamespace, "Watch").setEndTextElementListener(watchList -> cache.setOnWatchlist(Boolean.parseBoolean(watchList.trim())));
 
             gsak.getChild(gsakNamespace, "UserData").setEndTextElementListener(new UserDataListener(1));
@@ -760,9 +881,9 @@ abstract class GPXParser extends FileParser {
     /**
      * Add listeners for TerraCaching extensions
      */
-    private void registerTerraCachingExtensions(final Element cacheParent) {
+    private void registerTerraCachingExtensions(final PullElement cacheParent) {
         final String terraNamespace = "http://www.TerraCaching.com/GPX/1/0";
-        final Element terraCache = cacheParent.getChild(terraNamespace, "terracache");
+        final PullElement terraCache = cacheParent.getChild(terraNamespace, "terracache");
 
         terraCache.getChild(terraNamespace, "name").setEndTextElementListener(name -> cache.setName(StringUtils.trim(name)));
 
@@ -793,8 +914,8 @@ abstract class GPXParser extends FileParser {
 
         terraCache.getChild(terraNamespace, "hint").setEndTextElementListener(hint -> cache.setHint(HtmlUtils.extractText(hint)));
 
-        final Element terraLogs = terraCache.getChild(terraNamespace, "logs");
-        final Element terraLog = terraLogs.getChild(terraNamespace, "log");
+        final PullElement terraLogs = terraCache.getChild(terraNamespace, "logs");
+        final PullElement terraLog = terraLogs.getChild(terraNamespace, "log");
 
         terraLog.setStartElementListener(attrs -> {
             logBuilder = new LogEntry.Builder();
@@ -860,19 +981,19 @@ abstract class GPXParser extends FileParser {
     /**
      * Add listeners for c:geo extensions
      */
-    private void registerCgeoExtensions(final Element cacheParent) {
+    private void registerCgeoExtensions(final PullElement cacheParent) {
         for (final String cgeoNamespace : CGEO_NS) {
-            final Element cgeoVisited = cacheParent.getChild(cgeoNamespace, "visited");
+            final PullElement cgeoVisited = cacheParent.getChild(cgeoNamespace, "visited");
             cgeoVisited.setEndTextElementListener(visited -> wptVisited = Boolean.parseBoolean(visited.trim()));
 
-            final Element cgeoUserDefined = cacheParent.getChild(cgeoNamespace, "userdefined");
+            final PullElement cgeoUserDefined = cacheParent.getChild(cgeoNamespace, "userdefined");
             cgeoUserDefined.setEndTextElementListener(userDefined -> wptUserDefined = Boolean.parseBoolean(userDefined.trim()));
 
-            final Element cgeoEmptyCoords = cacheParent.getChild(cgeoNamespace, "originalCoordsEmpty");
+            final PullElement cgeoEmptyCoords = cacheParent.getChild(cgeoNamespace, "originalCoordsEmpty");
             cgeoEmptyCoords.setEndTextElementListener(originalCoordsEmpty -> wptEmptyCoordinates = Boolean.parseBoolean(originalCoordsEmpty.trim()));
 
-            final Element cgeo = cacheParent.getChild(cgeoNamespace, "cacheExtension");
-            final Element cgeoAssignedEmoji = cgeo.getChild(cgeoNamespace, "assignedEmoji");
+            final PullElement cgeo = cacheParent.getChild(cgeoNamespace, "cacheExtension");
+            final PullElement cgeoAssignedEmoji = cgeo.getChild(cgeoNamespace, "assignedEmoji");
             cgeoAssignedEmoji.setEndTextElementListener(assignedEmoji -> cacheAssignedEmoji = Integer.parseInt(assignedEmoji.trim()));
         }
     }
@@ -880,18 +1001,18 @@ abstract class GPXParser extends FileParser {
     /**
      * Add listeners for opencaching extensions
      */
-    private void registerOpenCachingExtensions(final Element cacheParent) {
+    private void registerOpenCachingExtensions(final PullElement cacheParent) {
         for (final String namespace : OPENCACHING_NS) {
             // waypoints.oc:cache
-            final Element ocCache = cacheParent.getChild(namespace, "cache");
-            final Element requiresPassword = ocCache.getChild(namespace, "requires_password");
+            final PullElement ocCache = cacheParent.getChild(namespace, "cache");
+            final PullElement requiresPassword = ocCache.getChild(namespace, "requires_password");
 
             requiresPassword.setEndTextElementListener(requiresPassword1 -> logPasswordRequired = Boolean.parseBoolean(requiresPassword1.trim()));
 
-            final Element otherCode = ocCache.getChild(namespace, "other_code");
+            final PullElement otherCode = ocCache.getChild(namespace, "other_code");
             otherCode.setEndTextElementListener(otherCode1 -> descriptionPrefix = Geocache.getAlternativeListingText(otherCode1.trim()));
 
-            final Element ocSize = ocCache.getChild(namespace, "size");
+            final PullElement ocSize = ocCache.getChild(namespace, "size");
             ocSize.setEndTextElementListener(ocSize1 -> {
                 final CacheSize size = CacheSize.getById(ocSize1);
                 if (size != CacheSize.UNKNOWN) {
@@ -918,11 +1039,11 @@ abstract class GPXParser extends FileParser {
      * version specific subclasses
      */
     protected abstract @Nullable
-    Element getNodeForExtension(@NonNull Element waypoint);
+    PullElement getNodeForExtension(@NonNull PullElement waypoint);
 
-    protected abstract void registerUrlAndUrlName(@NonNull Element waypoint);
+    protected abstract void registerUrlAndUrlName(@NonNull PullElement waypoint);
 
-    protected abstract void registerScriptUrl(@NonNull Element element);
+    protected abstract void registerScriptUrl(@NonNull PullElement element);
 
     protected static String validate(final String input) {
         if ("nil".equalsIgnoreCase(input)) {
@@ -1036,7 +1157,7 @@ abstract class GPXParser extends FileParser {
     }
 
     @Nullable
-    private Geocache findParentCache() {
+    private static Geocache findParentCache(@Nullable final String parentCacheCode) {
         if (StringUtils.isBlank(parentCacheCode)) {
             return null;
         }
@@ -0,0 +1,164 @@
+package cgeo.geocaching.files;
+
+import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.utils.Log;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+/**
+ * Single database writer for GPX imports. Parsers (possibly running in parallel) hand over their parsed caches,
+ * which are committed to the database in batches by one background worker.
+ * <br>
+ * All GPX imports running at the same time share one writer, see {@link #acquire()}. Each of them has to {@link #close()} it when done.
+ * <br>
+ * Parsers which need to read back caches they handed over before (e.g. to attach waypoints to them)
+ * have to {@link #flush()} first.
+ * <br>
+ * Methods are meant to be called from within parser callbacks and therefore only throw unchecked exceptions:
+ * {@link CancellationException} if the calling thread gets interrupted, {@link IllegalStateException} if writing failed.
+ */
+final class GpxImportWriter implements Closeable {
+
+    private static final int BATCH_SIZE = 50;
+    private static final int QUEUE_CAPACITY = 4 * BATCH_SIZE;
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private static final Object SHARED_LOCK = new Object();
+    /** writer of the imports currently running, guarded by SHARED_LOCK */
+    private static GpxImportWriter shared = null;
+
+    private final BlockingQueue<ImmutablePair<Geocache, List<LogEntry>>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private final Object lock = new Object();
+    /** number of caches handed over, guarded by lock */
+    private long submitted = 0;
+    /** number of caches written to the database, guarded by lock */
+    private long committed = 0;
+
+    private volatile boolean closed = false;
+    private volatile boolean finished = false;
+    private volatile Exception error = null;
+    /** number of imports using this writer, guarded by SHARED_LOCK */
+    private int users = 0;
+
+    private GpxImportWriter() {
+        Schedulers.io().scheduleDirect(this::writeLoop);
+    }
+
+    /**
+     * returns the writer shared by all GPX imports currently running, starting a new one if there is none (or it failed)
+     */
+    static GpxImportWriter acquire() {
+        synchronized (SHARED_LOCK) {
+            if (shared == null || shared.finished) {
+                shared = new GpxImportWriter();
+            }
+            shared.users++;
+            return shared;
+        }
+    }
+
+    /**
+     * hands over a parsed cache with its logs. Blocks if the writer is too far behind.
+     */
+    void add(final Geocache cache, final List<LogEntry> logs) {
+        synchronized (lock) {
+            submitted++;
+        }
+        final ImmutablePair<Geocache, List<LogEntry>> item = new ImmutablePair<>(cache, logs);
+        try {
+            while (!queue.offer(item, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                checkWriter();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while handing over cache " + cache.getGeocode());
+        }
+    }
+
+    /**
+     * waits until all caches handed over so far are written to the database
+     */
+    void flush() {
+        synchronized (lock) {
+            final long target = submitted;
+            try {
+                while (committed < target) {
+                    checkWriter();
+                    lock.wait(POLL_TIMEOUT_MS);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for database writes");
+            }
+        }
+    }
+
+    /**
+     * writes all remaining caches and stops the writer once the last import using it is done
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            synchronized (SHARED_LOCK) {
+                users--;
+                if (users <= 0) {
+                    closed = true;
+                    if (shared == this) {
+                        shared = null;
+                    }
+                }
+            }
+        }
+    }
+
+    private void checkWriter() {
+        if (error != null) {
+            throw new IllegalStateException("Writing imported caches failed", error);
+        }
+        if (finished) {
+            throw new IllegalStateException("Writer for imported caches already closed");
+        }
+    }
+
+    private void writeLoop() {
+        final List<ImmutablePair<Geocache, List<LogEntry>>> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (!closed) {
+                final ImmutablePair<Geocache, List<LogEntry>> first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                DataStore.saveImportedCaches(batch);
+                synchronized (lock) {
+                    committed += batch.size();
+                    lock.notifyAll();
+                }
+                batch.clear();
+            }
+        } catch (final Exception e) {
+            Log.e("GpxImportWriter: writing imported caches failed", e);
+            error = e;
+        } finally {
+            finished = true;
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+}
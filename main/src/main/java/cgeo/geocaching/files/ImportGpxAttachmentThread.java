@@ -44,7 +44,7 @@ public class ImportGpxAttachmentThread extends AbstractImportGpxThread {
         }
         importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches_with_filename, streamSize, getSourceDisplayName()));
         try {
-            return parser.parse(inputStream, progressHandler);
+            return parse(() -> parser.parse(inputStream, progressHandler));
         } finally {
             IOUtils.closeQuietly(inputStream);
         }
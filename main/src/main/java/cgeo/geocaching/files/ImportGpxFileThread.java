@@ -23,7 +23,7 @@ class ImportGpxFileThread extends AbstractImportGpxThread {
     protected Collection<Geocache> doImport(final GPXParser parser) throws IOException, ParserException {
         Log.i("Import GPX file: " + cacheFile.getAbsolutePath());
         importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches_with_filename, (int) cacheFile.length(), getSourceDisplayName()));
-        Collection<Geocache> caches = parser.parse(cacheFile, progressHandler);
+        Collection<Geocache> caches = parse(() -> parser.parse(cacheFile, progressHandler));
 
         final String wptsFilename = GPXImporter.getWaypointsFileNameForGpxFile(cacheFile);
         if (wptsFilename != null) {
@@ -31,7 +31,7 @@ class ImportGpxFileThread extends AbstractImportGpxThread {
             if (wptsFile.canRead()) {
                 Log.i("Import GPX waypoint file: " + wptsFile.getAbsolutePath());
                 importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_WPT_FILE, R.string.gpx_import_loading_waypoints_with_filename, (int) wptsFile.length(), wptsFilename));
-                caches = parser.parse(wptsFile, progressHandler);
+                caches = parse(() -> parser.parse(wptsFile, progressHandler));
             }
         }
         return caches;
@@ -0,0 +1,62 @@
+package cgeo.geocaching.files;
+
+import cgeo.geocaching.utils.DisposableHandler;
+
+import android.os.Looper;
+import android.os.Message;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Combines the progress of several files parsed in parallel into the progress of the overall import.
+ * <br>
+ * Each file gets its own progress handler receiving the bytes read from that file. The sum over all files
+ * is forwarded to the progress handler of the import. Disposing the import progress handler cancels all files.
+ */
+final class ImportProgressAggregator {
+
+    @Nullable private final DisposableHandler importProgressHandler;
+    /** bytes read per file, only accessed on the main looper */
+    private final int[] bytesRead;
+
+    ImportProgressAggregator(@Nullable final DisposableHandler importProgressHandler, final int fileCount) {
+        this.importProgressHandler = importProgressHandler;
+        this.bytesRead = new int[fileCount];
+    }
+
+    /**
+     * progress handler to pass to the parser of the file with the given index
+     */
+    @Nullable
+    DisposableHandler getProgressHandler(final int fileIndex) {
+        return importProgressHandler == null ? null : new FileProgressHandler(fileIndex);
+    }
+
+    private void setProgress(final int fileIndex, final int bytes) {
+        bytesRead[fileIndex] = bytes;
+        int total = 0;
+        for (final int fileBytes : bytesRead) {
+            total += fileBytes;
+        }
+        importProgressHandler.sendMessage(importProgressHandler.obtainMessage(0, total, 0));
+    }
+
+    private final class FileProgressHandler extends DisposableHandler {
+        private final int fileIndex;
+
+        FileProgressHandler(final int fileIndex) {
+            super(Looper.getMainLooper());
+            this.fileIndex = fileIndex;
+        }
+
+        @Override
+        protected void handleRegularMessage(final Message message) {
+            setProgress(fileIndex, message.arg1);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return super.isDisposed() || importProgressHandler.isDisposed();
+        }
+    }
+}
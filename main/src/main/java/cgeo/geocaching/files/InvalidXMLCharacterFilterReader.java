@@ -4,13 +4,17 @@ import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
 
-import org.apache.commons.lang3.StringUtils;
-
 /**
  * Filter reader which can filter out invalid XML characters and character references.
+ * <br>
+ * Validation is done on the whole chunk read from the underlying reader. As long as a chunk
+ * contains neither invalid characters nor character references, it is passed through without copying.
  */
 public class InvalidXMLCharacterFilterReader extends FilterReader {
 
+    /** longest character reference we check: &#xFFFD; */
+    private static final int MAX_ENTITY_LENGTH = 8;
+
     public InvalidXMLCharacterFilterReader(final Reader in) {
         super(in);
     }
@@ -32,52 +36,76 @@ public class InvalidXMLCharacterFilterReader extends FilterReader {
         if (read == -1) {
             return -1;
         }
-        // target position
-        int pos = off - 1;
+        final int end = off + read;
 
+        // fast path: skip everything which needs no attention at all
+        int readPos = off;
+        while (readPos < end && isPlainChar(cbuf[readPos])) {
+            readPos++;
+        }
+        if (readPos == end) {
+            return read;
+        }
+
+        // target position
+        int pos = readPos;
         int entityStart = -1;
-        for (int readPos = off; readPos < off + read; readPos++) {
-            boolean useChar = true;
-            switch (cbuf[readPos]) {
-                case '&':
-                    pos++;
-                    entityStart = readPos;
-                    break;
-                case ';':
-                    pos++;
-                    if (entityStart >= 0) {
-                        final int entityLength = readPos - entityStart + 1;
-                        if (entityLength <= 8) { // &#xFFFD;
-                            final String entity = new String(cbuf, entityStart, entityLength);
-                            if (StringUtils.startsWith(entity, "&#")) {
-                                final String numberString = StringUtils.substringBetween(entity, "&#", ";");
-                                final int value;
-                                if (StringUtils.startsWith(numberString, "x")) {
-                                    value = Integer.parseInt(numberString.substring(1), 16);
-                                } else {
-                                    value = Integer.parseInt(numberString);
-                                }
-                                if (!isValidXMLChar((char) value)) {
-                                    pos -= entityLength;
-                                    useChar = false;
-                                }
-                            }
-                        }
-                    }
-                    break;
-                default:
-                    if (isValidXMLChar(cbuf[readPos])) {
-                        pos++;
-                    } else {
-                        continue;
-                    }
+        for (; readPos < end; readPos++) {
+            final char c = cbuf[readPos];
+            if (c == '&') {
+                entityStart = pos;
+            } else if (c == ';' && entityStart >= 0) {
+                final int entityLength = pos - entityStart + 1;
+                if (entityLength <= MAX_ENTITY_LENGTH && isInvalidCharacterReference(cbuf, entityStart, pos)) {
+                    // drop the already copied start of the reference and the terminating ';'
+                    pos = entityStart;
+                    entityStart = -1;
+                    continue;
+                }
+                entityStart = -1;
+            } else if (!isValidXMLChar(c)) {
+                continue;
             }
             // copy, and skip unwanted characters
-            if (pos < readPos && useChar) {
-                cbuf[pos] = cbuf[readPos];
+            cbuf[pos++] = c;
+        }
+        return pos - off;
+    }
+
+    /**
+     * Checks whether cbuf[start..semicolon) is a numeric character reference (&amp;#123 or &amp;#x7B) denoting an
+     * invalid XML character. Parses the number in place to avoid String allocations.
+     */
+    private static boolean isInvalidCharacterReference(final char[] cbuf, final int start, final int semicolon) {
+        int index = start + 1;
+        if (index >= semicolon || cbuf[index] != '#') {
+            return false;
+        }
+        index++;
+        final int radix;
+        if (index < semicolon && (cbuf[index] == 'x' || cbuf[index] == 'X')) {
+            radix = 16;
+            index++;
+        } else {
+            radix = 10;
+        }
+        if (index >= semicolon) {
+            return false;
+        }
+        int value = 0;
+        for (; index < semicolon; index++) {
+            final int digit = Character.digit(cbuf[index], radix);
+            if (digit < 0) {
+                return false;
             }
+            value = value * radix + digit;
         }
-        return pos - off + 1;
+        return !isValidXMLChar((char) value);
+    }
+
+    /** character which is valid and can not start or end a character reference */
+    private static boolean isPlainChar(final char c) {
+        return c != '&' && c != ';' && isValidXMLChar(c);
     }
 
     private static boolean isValidXMLChar(final char c) {
@@ -0,0 +1,182 @@
+package cgeo.geocaching.files;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+/**
+ * Element of an expected XML document structure, with listeners called while the document is read by a pull parser.
+ * <br>
+ * Listeners are registered per element path like with android.sax elements. The document is streamed: text is collected
+ * only for elements having a text listener, into a single buffer reused for all elements, and subtrees without registered
+ * elements are skipped without collecting anything.
+ */
+final class PullElement {
+
+    interface StartElementListener {
+        void start(@NonNull Attributes attrs);
+    }
+
+    interface EndElementListener {
+        void end();
+    }
+
+    interface EndTextElementListener {
+        void end(@NonNull String body);
+    }
+
+    /**
+     * Attributes of the current start tag, only valid while {@link StartElementListener#start(Attributes)} is called.
+     */
+    static final class Attributes {
+        private final XmlPullParser parser;
+
+        private Attributes(@NonNull final XmlPullParser parser) {
+            this.parser = parser;
+        }
+
+        /** @return index of the attribute with the given (local) name, -1 if there is none */
+        int getIndex(@NonNull final String name) {
+            final int count = parser.getAttributeCount();
+            for (int i = 0; i < count; i++) {
+                if (name.equals(parser.getAttributeName(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Nullable
+        String getValue(@NonNull final String name) {
+            final int index = getIndex(name);
+            return index < 0 ? null : parser.getAttributeValue(index);
+        }
+    }
+
+    private final String namespace;
+    private final String name;
+    /** children by namespace and name, so that looking up the element of a start tag needs no string concatenation */
+    private final Map<String, Map<String, PullElement>> children = new HashMap<>();
+
+    private StartElementListener startElementListener;
+    private EndElementListener endElementListener;
+    private EndTextElementListener endTextElementListener;
+
+    PullElement(@NonNull final String namespace, @NonNull final String name) {
+        this.namespace = namespace;
+        this.name = name;
+    }
+
+    /** gets or creates the child element with the given namespace and name */
+    @NonNull
+    PullElement getChild(@NonNull final String childNamespace, @NonNull final String childName) {
+        return children.computeIfAbsent(childNamespace, ns -> new HashMap<>()).computeIfAbsent(childName, n -> new PullElement(childNamespace, n));
+    }
+
+    @Nullable
+    private PullElement findChild(@Nullable final String childNamespace, @NonNull final String childName) {
+        final Map<String, PullElement> namespaceChildren = children.get(childNamespace == null ? "" : childNamespace);
+        return namespaceChildren == null ? null : namespaceChildren.get(childName);
+    }
+
+    void setStartElementListener(@NonNull final StartElementListener listener) {
+        startElementListener = listener;
+    }
+
+    void setEndElementListener(@NonNull final EndElementListener listener) {
+        endElementListener = listener;
+    }
+
+    void setEndTextElementListener(@NonNull final EndTextElementListener listener) {
+        endTextElementListener = listener;
+    }
+
+    /**
+     * Reads the given document, which must have this element as root, calling the listeners of all registered elements.
+     *
+     * @throws XmlPullParserException if the document is not well-formed or has another root element
+     */
+    void parse(@NonNull final Reader reader) throws IOException, XmlPullParserException {
+        final XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final XmlPullParser parser = factory.newPullParser();
+        parser.setInput(skipByteOrderMark(reader));
+
+        final Attributes attributes = new Attributes(parser);
+        final StringBuilder text = new StringBuilder(1024);
+        final Deque<PullElement> path = new ArrayDeque<>();
+        boolean rootFound = false;
+        // depth within an element without registered listeners, whose content is skipped
+        int skippedDepth = 0;
+
+        for (int event = parser.next(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+            if (event == XmlPullParser.START_TAG) {
+                if (skippedDepth > 0) {
+                    skippedDepth++;
+                    continue;
+                }
+                final PullElement element;
+                if (path.isEmpty()) {
+                    if (rootFound || !name.equals(parser.getName()) || !namespace.equals(parser.getNamespace())) {
+                        throw new XmlPullParserException("Root element name does not match. Expected: " + namespace + ":" + name + ", got: " + parser.getNamespace() + ":" + parser.getName(), parser, null);
+                    }
+                    rootFound = true;
+                    element = this;
+                } else {
+                    element = path.peek().findChild(parser.getNamespace(), parser.getName());
+                }
+                if (element == null) {
+                    skippedDepth = 1;
+                    continue;
+                }
+                path.push(element);
+                text.setLength(0);
+                if (element.startElementListener != null) {
+                    element.startElementListener.start(attributes);
+                }
+            } else if (event == XmlPullParser.TEXT) {
+                if (skippedDepth == 0 && !path.isEmpty() && path.peek().endTextElementListener != null) {
+                    text.append(parser.getText());
+                }
+            } else if (event == XmlPullParser.END_TAG) {
+                if (skippedDepth > 0) {
+                    skippedDepth--;
+                    continue;
+                }
+                final PullElement element = path.pop();
+                if (element.endTextElementListener != null) {
+                    element.endTextElementListener.end(text.toString());
+                    text.setLength(0);
+                }
+                if (element.endElementListener != null) {
+                    element.endElementListener.end();
+                }
+            }
+        }
+        if (!rootFound) {
+            throw new XmlPullParserException("Document has no root element");
+        }
+    }
+
+    /** pull parsers reading from a reader don't expect a byte order mark, which is left over when decoding UTF-8 files */
+    @NonNull
+    private static Reader skipByteOrderMark(@NonNull final Reader reader) throws IOException {
+        final PushbackReader pushbackReader = new PushbackReader(reader, 1);
+        final int first = pushbackReader.read();
+        if (first >= 0 && first != '\uFEFF') {
+            pushbackReader.unread(first);
+        }
+        return pushbackReader;
+    }
+}
@@ -26,6 +26,7 @@ import static java.lang.Boolean.TRUE;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
 
 public class GeocacheFilter implements Cloneable {
@@ -42,6 +43,9 @@ public class GeocacheFilter implements Cloneable {
     private static final String CONFIG_KEY_INCLUDE_INCLUSIVE = "inconclusive";
     private static final String CONFIG_KEY_TREE = "tree";
 
+    /** number of caches whose logs are loaded from database at once when filtering by log properties */
+    private static final int FILTER_BATCH_SIZE = 50;
+
     private final String name;
     private IGeocacheFilter tree;
 
@@ -196,10 +200,17 @@ public class GeocacheFilter implements Cloneable {
 
     public void filterList(final Collection<Geocache> list) {
 
+        final boolean usesLogs = containsAny(LogEntryGeocacheFilter.class, LogEntryGeocacheFilter::isFiltering);
         final List<Geocache> itemsToKeep = new ArrayList<>();
-        for (final Geocache item : list) {
-            if (filter(item)) {
-                itemsToKeep.add(item);
+        for (final List<Geocache> batch : ListUtils.partition(new ArrayList<>(list), FILTER_BATCH_SIZE)) {
+            if (usesLogs) {
+                // load logs of many caches at once instead of one query per cache
+                DataStore.prefetchLogs(Geocache.getGeocodes(batch));
+            }
+            for (final Geocache item : batch) {
+                if (filter(item)) {
+                    itemsToKeep.add(item);
+                }
             }
         }
 
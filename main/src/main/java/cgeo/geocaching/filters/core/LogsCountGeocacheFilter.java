@@ -76,6 +76,11 @@ public class LogsCountGeocacheFilter extends NumberRangeGeocacheFilter<Integer>
 
     @Override
     public void addToSql(final SqlBuilder sqlBuilder) {
+        if (logType == FOUND_IT || logType == LogType.DIDNT_FIND_IT) {
+            final String column = logType == FOUND_IT ? DataStore.dbFieldCacheStats_foundCount : DataStore.dbFieldCacheStats_dnfCount;
+            addRangeToSqlBuilder(sqlBuilder, "IFNULL(" + sqlBuilder.joinCacheStats() + "." + column + ", 0)");
+            return;
+        }
         final String newTableId = sqlBuilder.getNewTableId();
         sqlBuilder.addJoin("LEFT JOIN (" + getGroupClause(sqlBuilder.getNewTableId()) + ") " + newTableId + " ON " + sqlBuilder.getMainTableId() + "." + DataStore.dbField_Geocode + " = " + newTableId + "." + DataStore.dbField_Geocode);
         addRangeToSqlBuilder(sqlBuilder,
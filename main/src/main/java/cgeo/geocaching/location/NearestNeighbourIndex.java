@@ -0,0 +1,194 @@
+package cgeo.geocaching.location;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Spatial index for fast nearest neighbour queries over a changing set of items with coordinates.
+ * <br>
+ * Items are put into a grid of lat/lon cells. A query searches rings of cells around the query point until
+ * no unvisited cell can contain a closer item. For typical item distributions this visits only a few cells,
+ * independent of the total number of items. The index can be updated via {@link #update(Collection)}
+ * without rebuilding the grid, removing items which are gone and replacing the others by their current instances.
+ * <br>
+ * Class is not thread-safe.
+ *
+ * @param <T> type of the indexed items. Items must implement equals/hashCode consistently
+ */
+public class NearestNeighbourIndex<T> {
+
+    /** default cell size, about 1 km in north-south direction */
+    public static final double DEFAULT_CELL_SIZE_DEGREE = 0.01;
+
+    /** lower bounds for the size of one degree (on the WGS84 ellipsoid), including a safety margin */
+    private static final double MIN_METERS_PER_DEGREE_LATITUDE = 110_574 * 0.99;
+    private static final double MIN_METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR = 111_319 * 0.99;
+
+    private final Function<T, Geopoint> coordsGetter;
+    private final double cellSize;
+    private final int lonCellCount;
+
+    private final Map<Long, List<T>> cells = new HashMap<>();
+    private final Map<T, Geopoint> itemCoords = new HashMap<>();
+
+    public NearestNeighbourIndex(@NonNull final Function<T, Geopoint> coordsGetter) {
+        this(coordsGetter, DEFAULT_CELL_SIZE_DEGREE);
+    }
+
+    public NearestNeighbourIndex(@NonNull final Function<T, Geopoint> coordsGetter, final double cellSizeDegree) {
+        this.coordsGetter = coordsGetter;
+        this.cellSize = cellSizeDegree;
+        this.lonCellCount = (int) Math.ceil(360 / cellSizeDegree);
+    }
+
+    public int size() {
+        return itemCoords.size();
+    }
+
+    public void clear() {
+        cells.clear();
+        itemCoords.clear();
+    }
+
+    /**
+     * Adds an item or updates its position. Items without coordinates are not indexed.
+     * An equal item already indexed is replaced by the given instance, which might carry other data (e.g. a new name).
+     */
+    public void add(@NonNull final T item) {
+        final Geopoint coords = coordsGetter.apply(item);
+        if (itemCoords.containsKey(item)) {
+            remove(item);
+        }
+        if (coords == null) {
+            return;
+        }
+        itemCoords.put(item, coords);
+        final long key = getCellKey(getLatIndex(coords.getLatitude()), getLonIndex(coords.getLongitude()));
+        List<T> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+        cell.add(item);
+    }
+
+    public void remove(@NonNull final T item) {
+        final Geopoint coords = itemCoords.remove(item);
+        if (coords == null) {
+            return;
+        }
+        final long key = getCellKey(getLatIndex(coords.getLatitude()), getLonIndex(coords.getLongitude()));
+        final List<T> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(item);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Makes the index contain exactly the given items. Items which are already indexed are replaced by the given instances.
+     */
+    public void update(@NonNull final Collection<? extends T> items) {
+        final Set<T> current = new HashSet<>(items);
+        for (final T item : new ArrayList<>(itemCoords.keySet())) {
+            if (!current.contains(item)) {
+                remove(item);
+            }
+        }
+        for (final T item : current) {
+            add(item);
+        }
+    }
+
+    /**
+     * Finds the item closest to the given point. Items closer than one meter (e.g. the point itself) are ignored.
+     *
+     * @return closest item, or null if the index contains no (other) items
+     */
+    @Nullable
+    public T getNearest(@NonNull final Geopoint point) {
+        if (cells.isEmpty()) {
+            return null;
+        }
+        final int latIndex = getLatIndex(point.getLatitude());
+        final int lonIndex = getLonIndex(point.getLongitude());
+        final Nearest<T> nearest = new Nearest<>();
+
+        for (int ring = 0; ; ring++) {
+            if (getRingCellCount(ring) > cells.size()) {
+                // ring grew larger than the number of occupied cells -> cheaper to just check all of them
+                for (final List<T> cell : cells.values()) {
+                    checkCell(cell, point, nearest);
+                }
+                return nearest.item;
+            }
+            for (int lat = latIndex - ring; lat <= latIndex + ring; lat++) {
+                final boolean fullRow = lat == latIndex - ring || lat == latIndex + ring;
+                for (int lon = lonIndex - ring; lon <= lonIndex + ring; lon += fullRow ? 1 : 2 * ring) {
+                    checkCell(cells.get(getCellKey(lat, lon)), point, nearest);
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+            if (nearest.item != null && nearest.meters <= getMinDistanceOutsideRing(point, ring)) {
+                return nearest.item;
+            }
+        }
+    }
+
+    private void checkCell(@Nullable final List<T> cell, @NonNull final Geopoint point, @NonNull final Nearest<T> nearest) {
+        if (cell == null) {
+            return;
+        }
+        for (final T item : cell) {
+            final float meters = 1000f * point.distanceTo(itemCoords.get(item));
+            if (meters >= 1 && meters < nearest.meters) {
+                nearest.item = item;
+                nearest.meters = meters;
+            }
+        }
+    }
+
+    /** lower bound for the distance between the point and any item in a cell outside of the given ring */
+    private double getMinDistanceOutsideRing(@NonNull final Geopoint point, final int ring) {
+        final double degrees = ring * cellSize;
+        final double maxAbsLatitude = Math.min(90, Math.abs(point.getLatitude()) + degrees + cellSize);
+        final double metersPerDegreeLongitude = MIN_METERS_PER_DEGREE_LONGITUDE_AT_EQUATOR * Math.cos(Math.toRadians(maxAbsLatitude));
+        return degrees * Math.min(MIN_METERS_PER_DEGREE_LATITUDE, metersPerDegreeLongitude);
+    }
+
+    private static int getRingCellCount(final int ring) {
+        return ring == 0 ? 1 : 8 * ring;
+    }
+
+    private int getLatIndex(final double latitude) {
+        return (int) Math.floor((latitude + 90) / cellSize);
+    }
+
+    private int getLonIndex(final double longitude) {
+        return (int) Math.floor((longitude + 180) / cellSize);
+    }
+
+    private long getCellKey(final int latIndex, final int lonIndex) {
+        // wrap around at the antimeridian
+        final int lon = Math.floorMod(lonIndex, lonCellCount);
+        return ((long) latIndex << 32) | lon;
+    }
+
+    private static final class Nearest<T> {
+        private T item = null;
+        private float meters = Float.MAX_VALUE;
+    }
+}
@@ -61,15 +61,30 @@ public class CacheLogsViewCreator extends LogsViewCreator {
         return activity.getCache();
     }
 
+    private boolean isAllLogs() {
+        final Bundle arguments = getArguments();
+        return arguments == null || arguments.getBoolean(BUNDLE_ALLLOGS);
+    }
+
     @Override
     protected List<LogEntry> getLogs() {
         final Geocache cache = getCache();
-        final Bundle arguments = getArguments();
-        final boolean allLogs = arguments == null || arguments.getBoolean(BUNDLE_ALLLOGS);
-        final List<LogEntry> logs = allLogs ? cache.getLogs() : cache.getFriendsLogs();
+        final List<LogEntry> logs = isAllLogs() ? cache.getLogs() : cache.getFriendsLogs();
         return addOwnOfflineLog(cache, logs);
     }
 
+    @Override
+    protected boolean mayHaveMoreLogs(@NonNull final List<LogEntry> logs) {
+        // the own offline log is not part of the logs loaded from database
+        return isAllLogs() && getCache().getLogs().size() >= DataStore.MAX_LOADED_LOGS;
+    }
+
+    @Override
+    @NonNull
+    protected List<LogEntry> loadMoreLogs(final String geocode, @NonNull final LogEntry lastLog, final int limit) {
+        return DataStore.loadLogs(geocode, lastLog, limit);
+    }
+
     private List<LogEntry> addOwnOfflineLog(final Geocache cache, final List<LogEntry> logsIn) {
         final LogEntry log = DataStore.loadLogOffline(cache.getGeocode());
         final List<LogEntry> logs = new ArrayList<>(logsIn);
@@ -15,6 +15,7 @@ import cgeo.geocaching.ui.FastScrollListener;
 import cgeo.geocaching.ui.TextParam;
 import cgeo.geocaching.ui.dialog.ContextMenuDialog;
 import cgeo.geocaching.ui.dialog.SimpleDialog;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.ClipboardUtils;
 import cgeo.geocaching.utils.Formatter;
 import cgeo.geocaching.utils.HtmlUtils;
@@ -35,14 +36,24 @@ import androidx.annotation.NonNull;
 import androidx.core.text.HtmlCompat;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 
 public abstract class LogsViewCreator extends TabbedViewPagerFragment<LogsPageBinding> {
 
+    /** number of older logs loaded at once when scrolling to the end of the list */
+    private static final int LOGS_PAGE_SIZE = 50;
+    /** start loading older logs when scrolled this close to the end of the list */
+    private static final int LOAD_MORE_THRESHOLD = 10;
+
+    private boolean moreLogsAvailable = false;
+    private boolean loadingMoreLogs = false;
+
     @Override
     public LogsPageBinding createView(@NonNull final LayoutInflater inflater, final ViewGroup container, final Bundle savedInstanceState) {
         return LogsPageBinding.inflate(inflater, container, false);
@@ -56,6 +67,8 @@ public abstract class LogsViewCreator extends TabbedViewPagerFragment<LogsPageBi
         binding.getRoot().setVisibility(View.VISIBLE);
 
         final List<LogEntry> logs = getLogs();
+        moreLogsAvailable = mayHaveMoreLogs(logs);
+        loadingMoreLogs = false;
 
         addHeaderView();
         binding.getRoot().setAdapter(new ArrayAdapter<LogEntry>(getActivity(), R.layout.logs_item, logs) {
@@ -77,12 +90,34 @@ public abstract class LogsViewCreator extends TabbedViewPagerFragment<LogsPageBi
                 if (log != null) {
                     fillViewHolder(convertView, holder, log);
                 }
+                if (moreLogsAvailable && !loadingMoreLogs && position >= getCount() - LOAD_MORE_THRESHOLD) {
+                    loadOlderLogs(this);
+                }
                 return rowView;
             }
         });
         binding.getRoot().setOnScrollListener(new FastScrollListener(binding.getRoot()));
     }
 
+    private void loadOlderLogs(final ArrayAdapter<LogEntry> adapter) {
+        final LogEntry lastLog = adapter.getItem(adapter.getCount() - 1);
+        if (lastLog == null) {
+            moreLogsAvailable = false;
+            return;
+        }
+        final String geocode = getGeocode();
+        loadingMoreLogs = true;
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> loadMoreLogs(geocode, lastLog, LOGS_PAGE_SIZE), page -> {
+            // the list might have been recreated meanwhile
+            if (binding == null || binding.getRoot().getAdapter() != adapter) {
+                return;
+            }
+            adapter.addAll(page);
+            moreLogsAvailable = page.size() >= LOGS_PAGE_SIZE;
+            loadingMoreLogs = false;
+        });
+    }
+
     protected void fillViewHolder(@SuppressWarnings("unused") final View convertView, final LogViewHolder holder, final LogEntry log) {
         if (log.date > 0) {
             holder.binding.added.setText(Formatter.formatShortDateVerbally(log.date));
@@ -212,6 +247,25 @@ public abstract class LogsViewCreator extends TabbedViewPagerFragment<LogsPageBi
 
     protected abstract List<LogEntry> getLogs();
 
+    /**
+     * for subclasses to overwrite if {@link #getLogs()} returns only the first page of logs
+     *
+     * @return true if older logs than the given ones may be loaded using {@link #loadMoreLogs(String, LogEntry, int)}
+     */
+    protected boolean mayHaveMoreLogs(@NonNull final List<LogEntry> logs) {
+        return false;
+    }
+
+    /**
+     * for subclasses to overwrite if {@link #getLogs()} returns only the first page of logs. Called on a background thread.
+     *
+     * @return at most limit logs following the given one
+     */
+    @NonNull
+    protected List<LogEntry> loadMoreLogs(final String geocode, @NonNull final LogEntry lastLog, final int limit) {
+        return Collections.emptyList();
+    }
+
     protected abstract void addHeaderView();
 
     protected abstract void fillCountOrLocation(LogViewHolder holder, LogEntry log);
@@ -2,6 +2,8 @@ package cgeo.geocaching.maps.mapsforge;
 
 import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.R;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.AbstractMapProvider;
 import cgeo.geocaching.maps.MapProviderFactory;
 import cgeo.geocaching.maps.interfaces.MapItemFactory;
@@ -14,6 +16,7 @@ import cgeo.geocaching.maps.mapsforge.v6.layers.RendererLayer;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.PersistableFolder;
+import cgeo.geocaching.storage.extension.FileMetadataIndex;
 import cgeo.geocaching.utils.CollectionStream;
 import cgeo.geocaching.utils.FileUtils;
 import cgeo.geocaching.utils.Log;
@@ -44,12 +47,13 @@ import org.mapsforge.map.layer.download.tilesource.OpenStreetMapMapnik;
 import org.mapsforge.map.model.IMapViewPosition;
 import org.mapsforge.map.reader.MapFile;
 import org.mapsforge.map.reader.header.MapFileException;
+import org.mapsforge.map.reader.header.MapFileInfo;
 
 
 public final class MapsforgeMapProvider extends AbstractMapProvider {
 
     private static final String OFFLINE_MAP_DEFAULT_ATTRIBUTION = "---";
-    private static final Map<Uri, String> OFFLINE_MAP_ATTRIBUTIONS = new HashMap<>();
+    private static final Map<Uri, String> OFFLINE_MAP_ATTRIBUTIONS = Collections.synchronizedMap(new HashMap<>());
 
     private MapItemFactory mapItemFactory = new MapsforgeMapItemFactory();
 
@@ -83,6 +87,49 @@ public final class MapsforgeMapProvider extends AbstractMapProvider {
 
     }
 
+    /**
+     * Returns all valid offline map files together with their header metadata.
+     * Metadata of unchanged files is taken from {@link FileMetadataIndex}, new or changed files are parsed in parallel.
+     * Metadata may be null if the index is not available.
+     */
+    @NonNull
+    public static Map<ContentStorage.FileInformation, FileMetadataIndex> getValidOfflineMaps() {
+        final List<ContentStorage.FileInformation> candidates = getOfflineMapFiles();
+        final Map<Uri, FileMetadataIndex> index = FileMetadataIndex.getOrParseAll(FileMetadataIndex.KIND_MAP_FILE, getOfflineMapsScope(), candidates, MapsforgeMapProvider::readMapFileMetadata);
+        final Map<ContentStorage.FileInformation, FileMetadataIndex> result = new HashMap<>();
+        for (ContentStorage.FileInformation fi : candidates) {
+            final FileMetadataIndex metadata = index.get(fi.uri);
+            if (metadata != null) {
+                OFFLINE_MAP_ATTRIBUTIONS.put(fi.uri, metadata.isValid() ? metadata.getName() : null);
+                if (metadata.isValid()) {
+                    result.put(fi, metadata);
+                }
+            } else if (isValidMapFile(fi.uri)) {
+                result.put(fi, null);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads new or changed offline map files into {@link FileMetadataIndex} in background,
+     * so that a later call to {@link #getValidOfflineMaps()} (e.g. on map start) returns without parsing.
+     */
+    public static void revalidateOfflineMaps() {
+        FileMetadataIndex.revalidateInBackground(FileMetadataIndex.KIND_MAP_FILE, getOfflineMapsScope(), MapsforgeMapProvider::getOfflineMapFiles, MapsforgeMapProvider::readMapFileMetadata);
+    }
+
+    @Nullable
+    private static Uri getOfflineMapsScope() {
+        return FileMetadataIndex.getScope(PersistableFolder.OFFLINE_MAPS.getFolder());
+    }
+
+    @NonNull
+    private static List<ContentStorage.FileInformation> getOfflineMapFiles() {
+        return CollectionStream.of(getOfflineMaps())
+                .filter(fi -> !fi.isDirectory && fi.name.toLowerCase(Locale.getDefault()).endsWith(FileUtils.MAP_FILE_EXTENSION)).toList();
+    }
+
     @Override
     public boolean isSameActivity(final MapSource source1, final MapSource source2) {
         return source1.getNumericalId() == source2.getNumericalId() || (!(source1 instanceof OfflineMapSource) && !(source2 instanceof OfflineMapSource));
@@ -314,15 +361,8 @@ public final class MapsforgeMapProvider extends AbstractMapProvider {
         MapFile mapFile = null;
         try {
             mapFile = createMapFile(mapFileCtx, mapStream);
-            if (mapFile != null && mapFile.getMapFileInfo() != null && mapFile.getMapFileInfo().fileVersion <= 5) {
-                if (StringUtils.isNotBlank(mapFile.getMapFileInfo().comment)) {
-                    return mapFile.getMapFileInfo().comment;
-                }
-                if (StringUtils.isNotBlank(mapFile.getMapFileInfo().createdBy)) {
-                    return mapFile.getMapFileInfo().createdBy;
-                }
-                //map file is valid but has no attribution -> return default value
-                return OFFLINE_MAP_DEFAULT_ATTRIBUTION;
+            if (mapFile != null && isValidMapFileInfo(mapFile.getMapFileInfo())) {
+                return getAttribution(mapFile.getMapFileInfo());
             }
         } catch (MapFileException ex) {
             Log.w(String.format("Exception reading mapfile '%s'", mapFileCtx), ex);
@@ -332,6 +372,49 @@ public final class MapsforgeMapProvider extends AbstractMapProvider {
         return null;
     }
 
+    /**
+     * Reads the header of given map file for {@link FileMetadataIndex}.
+     * Returns null if file could not be opened (might be a temporary access problem)
+     */
+    @Nullable
+    private static FileMetadataIndex readMapFileMetadata(final ContentStorage.FileInformation fi) {
+        final InputStream mapStream = createMapFileInputStream(fi.uri);
+        if (mapStream == null) {
+            return null;
+        }
+        MapFile mapFile = null;
+        try {
+            mapFile = createMapFile(String.valueOf(fi.uri), mapStream);
+            if (mapFile != null && isValidMapFileInfo(mapFile.getMapFileInfo())) {
+                final MapFileInfo info = mapFile.getMapFileInfo();
+                final Viewport bounds = info.boundingBox == null ? null :
+                        new Viewport(new Geopoint(info.boundingBox.minLatitude, info.boundingBox.minLongitude), new Geopoint(info.boundingBox.maxLatitude, info.boundingBox.maxLongitude));
+                return FileMetadataIndex.forMapFile(fi, getAttribution(info), bounds, info.zoomLevelMin, info.zoomLevelMax);
+            }
+        } catch (MapFileException ex) {
+            Log.w(String.format("Exception reading mapfile '%s'", fi.uri), ex);
+        } finally {
+            closeMapFileQuietly(mapFile);
+        }
+        return FileMetadataIndex.invalid(fi, FileMetadataIndex.KIND_MAP_FILE);
+    }
+
+    private static boolean isValidMapFileInfo(@Nullable final MapFileInfo info) {
+        return info != null && info.fileVersion <= 5;
+    }
+
+    @NonNull
+    private static String getAttribution(@NonNull final MapFileInfo info) {
+        if (StringUtils.isNotBlank(info.comment)) {
+            return info.comment;
+        }
+        if (StringUtils.isNotBlank(info.createdBy)) {
+            return info.createdBy;
+        }
+        //map file is valid but has no attribution -> return default value
+        return OFFLINE_MAP_DEFAULT_ATTRIBUTION;
+    }
+
     private static InputStream createMapFileInputStream(final Uri mapUri) {
         if (mapUri == null) {
             return null;
@@ -366,8 +449,7 @@ public final class MapsforgeMapProvider extends AbstractMapProvider {
         MapProviderFactory.deleteOfflineMapSources();
         final Resources resources = CgeoApplication.getInstance().getResources();
         final List<ImmutablePair<String, Uri>> offlineMaps =
-                CollectionStream.of(getOfflineMaps())
-                        .filter(fi -> !fi.isDirectory && fi.name.toLowerCase(Locale.getDefault()).endsWith(FileUtils.MAP_FILE_EXTENSION) && isValidMapFile(fi.uri))
+                CollectionStream.of(getValidOfflineMaps().keySet())
                         .map(fi -> new ImmutablePair<>(fi.name, fi.uri)).toList();
         Collections.sort(offlineMaps, (o1, o2) -> TextUtils.COLLATOR.compare(o1.left, o2.left));
         if (offlineMaps.size() > 1) {
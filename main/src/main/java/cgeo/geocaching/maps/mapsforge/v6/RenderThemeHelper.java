@@ -11,6 +11,7 @@ import cgeo.geocaching.storage.Folder;
 import cgeo.geocaching.storage.FolderUtils;
 import cgeo.geocaching.storage.LocalStorage;
 import cgeo.geocaching.storage.PersistableFolder;
+import cgeo.geocaching.storage.extension.FileMetadataIndex;
 import cgeo.geocaching.storage.extension.OneTimeDialogs;
 import cgeo.geocaching.ui.dialog.Dialogs;
 import cgeo.geocaching.utils.FileUtils;
@@ -27,6 +28,7 @@ import android.content.SharedPreferences;
 import android.os.AsyncTask;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.core.util.Consumer;
 import androidx.preference.PreferenceManager;
@@ -435,15 +437,12 @@ public class RenderThemeHelper implements XmlRenderThemeMenuCallback {
                 themes.add(new ThemeData(themeId, toUserDisplayableName(candidate, null), candidate, dir));
 
             } else if (candidate.name.endsWith(".zip") && candidate.size <= ZIP_FILE_SIZE_LIMIT) {
-                try (InputStream is = ContentStorage.get().openForRead(candidate.uri)) {
-                    for (String zipXmlTheme : ZipXmlThemeResourceProvider.scanXmlThemes(new ZipInputStream(is))) {
+                final FileMetadataIndex metadata = FileMetadataIndex.getOrParse(FileMetadataIndex.KIND_THEME_ZIP, candidate, fi -> FileMetadataIndex.scanThemeZip(fi, ZipXmlThemeResourceProvider::scanXmlThemes));
+                if (metadata != null) {
+                    for (String zipXmlTheme : metadata.getXmlThemes()) {
                         final String themeId = prefix + candidate.name + ZIP_THEME_SEPARATOR + zipXmlTheme;
                         themes.add(new ThemeData(themeId, toUserDisplayableName(candidate, zipXmlTheme), candidate, dir));
                     }
-                } catch (IOException ioe) {
-                    Log.w("Map Theme ZIP '" + candidate + "' could not be read", ioe);
-                } catch (Exception e) {
-                    Log.w("Problem opening map Theme ZIP '" + candidate + "'", e);
                 }
             }
         }
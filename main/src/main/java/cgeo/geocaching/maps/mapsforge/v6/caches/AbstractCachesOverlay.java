@@ -4,12 +4,14 @@ import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.filters.core.GeocacheFilterContext;
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.NearestNeighbourIndex;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.location.WaypointDistanceInfo;
 import cgeo.geocaching.maps.mapsforge.v6.MapHandlers;
 import cgeo.geocaching.maps.mapsforge.v6.NewMap;
 import cgeo.geocaching.maps.mapsforge.v6.TapHandler;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.models.IWaypoint;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
@@ -17,6 +19,7 @@ import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MapMarkerUtils;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +47,10 @@ public abstract class AbstractCachesOverlay {
     private GeocacheFilterContext filterContext;
     private final WeakReference<NewMap> mapRef;
 
+    private final NearestNeighbourIndex<IWaypoint> proximityIndex = new NearestNeighbourIndex<>(IWaypoint::getCoords);
+    /** set on every load or invalidation of the overlay, as caches or waypoints might have been added, moved or renamed */
+    private volatile boolean proximityIndexOutdated = true;
+
     public AbstractCachesOverlay(final NewMap map, final int overlayId, final Set<GeoEntry> geoEntries, final CachesBundle bundle, final Layer anchorLayer, final MapHandlers mapHandlers) {
         this.overlayId = overlayId;
         this.geoEntries = geoEntries;
@@ -97,6 +104,7 @@ public abstract class AbstractCachesOverlay {
 
     public void invalidate() {
         invalidated = true;
+        proximityIndexOutdated = true;
         showCircles = Settings.isShowCircles();
     }
 
@@ -148,6 +156,7 @@ public abstract class AbstractCachesOverlay {
     }
 
     protected void update(final Set<Geocache> cachesToDisplay) {
+        proximityIndexOutdated = true;
 
         final Collection<String> removeCodes = getGeocodes();
         final Collection<String> newCodes = new HashSet<>();
@@ -314,6 +323,7 @@ public abstract class AbstractCachesOverlay {
     }
 
     protected void syncLayers(final Collection<String> removeCodes, final Collection<String> newCodes) {
+        proximityIndexOutdated = true;
 
         // check if there is something to do
         if (removeCodes.isEmpty() && newCodes.isEmpty()) {
@@ -409,30 +419,28 @@ public abstract class AbstractCachesOverlay {
     }
 
     public WaypointDistanceInfo getClosestDistanceInM(final Geopoint coord) {
-        int minDistance = 50000000;
-        String name = "";
-        final Set<Geocache> caches = DataStore.loadCaches(getCacheGeocodes(), LoadFlags.LOAD_CACHE_OR_DB);
-        for (final Geocache cache : caches) {
-            final Geopoint cacheCoords = cache.getCoords();
-            if (cacheCoords != null) {
-                final int distance = (int) (1000f * cacheCoords.distanceTo(coord));
-                if (distance > 0 && distance < minDistance) {
-                    minDistance = distance;
-                    name = cache.getShortGeocode() + " " + cache.getName();
-                }
-                final List<Waypoint> waypoints = cache.getWaypoints();
-                for (final Waypoint waypoint : waypoints) {
-                    final Geopoint wpCoords = waypoint.getCoords();
-                    if (wpCoords != null) {
-                        final int wpDistance = (int) (1000f * wpCoords.distanceTo(coord));
-                        if (wpDistance > 0 && wpDistance < minDistance) {
-                            minDistance = wpDistance;
-                            name = waypoint.getName() + " (" + waypoint.getWaypointType().gpx + ")";
-                        }
-                    }
+        synchronized (proximityIndex) {
+            // only reload caches from database if the overlay was loaded or invalidated since the last check
+            if (proximityIndexOutdated) {
+                proximityIndexOutdated = false;
+                final List<IWaypoint> items = new ArrayList<>();
+                for (final Geocache cache : DataStore.loadCaches(getCacheGeocodes(), LoadFlags.LOAD_CACHE_OR_DB)) {
+                    items.add(cache);
+                    items.addAll(cache.getWaypoints());
                 }
+                proximityIndex.update(items);
+            }
+            final IWaypoint nearest = proximityIndex.getNearest(coord);
+            if (nearest == null) {
+                return new WaypointDistanceInfo("", 50000000);
+            }
+            final String name;
+            if (nearest instanceof Geocache) {
+                name = ((Geocache) nearest).getShortGeocode() + " " + ((Geocache) nearest).getName();
+            } else {
+                name = ((Waypoint) nearest).getName() + " (" + ((Waypoint) nearest).getWaypointType().gpx + ")";
             }
+            return new WaypointDistanceInfo(name, (int) (1000f * nearest.getCoords().distanceTo(coord)));
         }
-        return new WaypointDistanceInfo(name, minDistance);
     }
 }
@@ -0,0 +1,286 @@
+package cgeo.geocaching.models;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.utils.TextUtils;
+import cgeo.geocaching.utils.formulas.Formula;
+import cgeo.geocaching.utils.formulas.FormulaException;
+import cgeo.geocaching.utils.formulas.Value;
+import cgeo.geocaching.utils.formulas.VariableList;
+import cgeo.geocaching.utils.formulas.VariableMap;
+import cgeo.geocaching.utils.functions.Action1;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calculates the coordinates of a {@link CalculatedCoordinate} for all combinations of the values of its range variables
+ * (variables whose formula contains ranges, e.g. "[:0-9]").
+ * <br>
+ * Combinations are calculated in parallel using fork/join without changing the variable list: each task keeps its own
+ * variable values and recalculates only the variables depending on a range variable. Solutions can be restricted to a maximum
+ * distance from a center coordinate (e.g. the listing coordinates) and are handed over to a consumer while calculation is running.
+ */
+public class CalculatedCoordinateRangeSolver {
+
+    /** upper limit for combinations to calculate */
+    public static final long MAX_COMBINATIONS = 10_000_000L;
+    /** calculation stops after this number of solutions was found */
+    public static final int MAX_SOLUTIONS = 1000;
+
+    /** number of combinations calculated sequentially by one task */
+    private static final int BATCH_SIZE = 1024;
+
+    private final CalculatedCoordinate calcCoord;
+    private final List<String> rangeVars;
+    private final int[] rangeSizes;
+    private final long combinationCount;
+
+    /** variables to recalculate per combination, in calculation order */
+    private final String[] calcVars;
+    private final Formula[] calcFormulas;
+    /** index into rangeVars for each calculated variable, -1 if variable is no range variable */
+    private final int[] calcRangeVarIndex;
+    /** values of all variables not depending on a range variable */
+    private final Map<String, Value> fixedValues = new HashMap<>();
+
+    private Geopoint center = null;
+    private float maxDistanceKm = -1;
+
+    private volatile boolean cancelled = false;
+    private volatile boolean solutionLimitReached = false;
+    private final AtomicLong calculated = new AtomicLong();
+    private final AtomicInteger solutionCount = new AtomicInteger();
+
+    /** a coordinate calculated for one combination of range variable values */
+    public static class Solution {
+        public final long combination;
+        @NonNull public final String description;
+        @NonNull public final Geopoint coords;
+
+        Solution(final long combination, @NonNull final String description, @NonNull final Geopoint coords) {
+            this.combination = combination;
+            this.description = description;
+            this.coords = coords;
+        }
+    }
+
+    public CalculatedCoordinateRangeSolver(@NonNull final CalculatedCoordinate calcCoord, @NonNull final VariableList varList) {
+        this.calcCoord = calcCoord;
+
+        final Set<String> vars = varList.getDependentVariables(calcCoord.getNeededVars());
+        final List<String> ranges = new ArrayList<>();
+        for (String var : vars) {
+            final VariableMap.VariableState state = varList.getState(var);
+            if (state != null && state.getFormula() != null && state.getState() != VariableMap.State.CYCLE && state.getFormula().getRangeIndexSize() > 1) {
+                ranges.add(var);
+            }
+        }
+        TextUtils.sortListLocaleAware(ranges);
+        this.rangeVars = Collections.unmodifiableList(ranges);
+        this.rangeSizes = new int[ranges.size()];
+        long count = ranges.isEmpty() ? 0 : 1;
+        for (int i = 0; i < rangeSizes.length; i++) {
+            rangeSizes[i] = varList.getState(ranges.get(i)).getFormula().getRangeIndexSize();
+            if (count <= MAX_COMBINATIONS) {
+                count *= rangeSizes[i];
+            }
+        }
+        this.combinationCount = count;
+
+        //sort variables depending on range variables in calculation order, all others have fixed values
+        final List<String> calcOrder = new ArrayList<>();
+        final Map<String, Boolean> dependsOnRange = new HashMap<>();
+        for (String var : vars) {
+            collectCalculationOrder(varList, var, dependsOnRange, new HashSet<>(), calcOrder);
+        }
+        this.calcVars = calcOrder.toArray(new String[0]);
+        this.calcFormulas = new Formula[calcVars.length];
+        this.calcRangeVarIndex = new int[calcVars.length];
+        for (int i = 0; i < calcVars.length; i++) {
+            calcFormulas[i] = varList.getState(calcVars[i]).getFormula();
+            calcRangeVarIndex[i] = rangeVars.indexOf(calcVars[i]);
+        }
+        for (String var : vars) {
+            if (!Boolean.TRUE.equals(dependsOnRange.get(var))) {
+                fixedValues.put(var, varList.getValue(var));
+            }
+        }
+    }
+
+    private boolean collectCalculationOrder(final VariableList varList, final String var, final Map<String, Boolean> dependsOnRange,
+                                            final Set<String> visiting, final List<String> calcOrder) {
+        final Boolean known = dependsOnRange.get(var);
+        if (known != null) {
+            return known;
+        }
+        final VariableMap.VariableState state = varList.getState(var);
+        if (state == null || state.getFormula() == null || state.getState() == VariableMap.State.CYCLE) {
+            //no formula or cyclic dependency -> value can't change with ranges
+            dependsOnRange.put(var, false);
+            return false;
+        }
+        if (!visiting.add(var)) {
+            return false;
+        }
+        boolean result = rangeVars.contains(var);
+        for (String needed : state.getFormula().getNeededVariables()) {
+            result |= collectCalculationOrder(varList, needed, dependsOnRange, visiting, calcOrder);
+        }
+        visiting.remove(var);
+        dependsOnRange.put(var, result);
+        if (result) {
+            calcOrder.add(var);
+        }
+        return result;
+    }
+
+    /** range variables the coordinate depends on, sorted by name */
+    @NonNull
+    public List<String> getRangeVariables() {
+        return rangeVars;
+    }
+
+    /** number of value combinations of all range variables. Not exact if above {@link #MAX_COMBINATIONS} */
+    public long getCombinationCount() {
+        return combinationCount;
+    }
+
+    /** only solutions within the given distance of the center are reported. Pass null to report all solutions */
+    public CalculatedCoordinateRangeSolver setMaxDistance(@Nullable final Geopoint center, final float maxDistanceKm) {
+        this.center = center;
+        this.maxDistanceKm = maxDistanceKm;
+        return this;
+    }
+
+    /** stops a running calculation */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** true if calculation stopped because {@link #MAX_SOLUTIONS} were found */
+    public boolean isSolutionLimitReached() {
+        return solutionLimitReached;
+    }
+
+    /**
+     * Calculates all combinations in parallel and blocks until done or cancelled.
+     *
+     * @param solutionConsumer receives the solutions in no specific order, called from worker threads
+     * @param progressListener receives calculation progress in percent, called from worker threads. May be null
+     */
+    @WorkerThread
+    public void solve(@NonNull final Action1<Solution> solutionConsumer, @Nullable final Action1<Integer> progressListener) {
+        if (combinationCount == 0 || combinationCount > MAX_COMBINATIONS) {
+            return;
+        }
+        final ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pool.invoke(new SolveTask(0, combinationCount, solutionConsumer, progressListener));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Calculates the coordinates for the given combination
+     *
+     * @param values variable values to use and update, must contain all fixed values
+     */
+    @Nullable
+    private Geopoint calculate(final long combination, final Map<String, Value> values) {
+        for (int i = 0; i < calcVars.length; i++) {
+            final int rangeIndex = calcRangeVarIndex[i] < 0 ? 0 : getRangeIndex(combination, calcRangeVarIndex[i]);
+            Value value;
+            try {
+                value = calcFormulas[i].evaluate(values::get, rangeIndex);
+            } catch (FormulaException fe) {
+                value = null;
+            }
+            values.put(calcVars[i], value);
+        }
+        return calcCoord.calculateGeopoint(values::get);
+    }
+
+    /** the first range variable changes slowest, thus solutions are ordered like nested loops over the sorted range variables */
+    private int getRangeIndex(final long combination, final int rangeVarIndex) {
+        long rest = combination;
+        for (int i = rangeSizes.length - 1; i > rangeVarIndex; i--) {
+            rest /= rangeSizes[i];
+        }
+        return (int) (rest % rangeSizes[rangeVarIndex]);
+    }
+
+    private String getDescription(final Map<String, Value> values) {
+        final StringBuilder sb = new StringBuilder();
+        for (String var : rangeVars) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(var).append("=").append(values.get(var));
+        }
+        return sb.toString();
+    }
+
+    private class SolveTask extends RecursiveAction {
+
+        private final long from;
+        private final long to;
+        private final Action1<Solution> solutionConsumer;
+        private final Action1<Integer> progressListener;
+
+        SolveTask(final long from, final long to, final Action1<Solution> solutionConsumer, final Action1<Integer> progressListener) {
+            this.from = from;
+            this.to = to;
+            this.solutionConsumer = solutionConsumer;
+            this.progressListener = progressListener;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            if (to - from > BATCH_SIZE) {
+                final long middle = from + (to - from) / 2;
+                invokeAll(new SolveTask(from, middle, solutionConsumer, progressListener), new SolveTask(middle, to, solutionConsumer, progressListener));
+                return;
+            }
+            final Map<String, Value> values = new HashMap<>(fixedValues);
+            for (long combination = from; combination < to && !cancelled; combination++) {
+                final Geopoint gp = calculate(combination, values);
+                if (gp != null && (center == null || maxDistanceKm < 0 || center.distanceTo(gp) <= maxDistanceKm)) {
+                    if (solutionCount.incrementAndGet() > MAX_SOLUTIONS) {
+                        solutionLimitReached = true;
+                        cancelled = true;
+                        return;
+                    }
+                    solutionConsumer.call(new Solution(combination, getDescription(values), gp));
+                }
+            }
+            final long done = calculated.addAndGet(to - from);
+            if (progressListener != null) {
+                final int percent = (int) (done * 100 / combinationCount);
+                if (percent != (int) ((done - (to - from)) * 100 / combinationCount)) {
+                    progressListener.call(percent);
+                }
+            }
+        }
+    }
+}
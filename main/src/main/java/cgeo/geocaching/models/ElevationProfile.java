@@ -0,0 +1,239 @@
+package cgeo.geocaching.models;
+
+import cgeo.geocaching.location.Geopoint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Elevation profile of a route or track, prepared for displaying it in a chart.
+ * <br>
+ * Cumulative distances and elevations of all points are stored in primitive arrays, computed once per route
+ * (see {@link Route#getElevationProfile()}). For charts, downsampled series are provided for several levels of detail,
+ * each level doubling the number of points of the level before, up to the full resolution. The series are reduced
+ * using the largest triangle three buckets (LTTB) algorithm, which keeps the visual shape (peaks and valleys) of the
+ * profile. Series are calculated on first use and cached.
+ */
+public final class ElevationProfile {
+
+    /** number of points of the coarsest series */
+    public static final int BASE_SAMPLES = 300;
+
+    private final Geopoint[] points;
+    /** distance from start in kilometers, for each point */
+    private final float[] distances;
+
+    /** distance and elevation of all points having an elevation */
+    private final float[] elevationDistances;
+    private final float[] elevations;
+
+    private final int numLevels;
+    private final Series[] levels;
+
+    /** fingerprint of the route this profile was created for */
+    private final int routeSegments;
+    private final int routePoints;
+    private final float routeDistance;
+
+    /** a chart series: x values are distances in kilometers, y values elevations */
+    public static final class Series {
+        @NonNull public final float[] x;
+        @NonNull public final float[] y;
+
+        Series(@NonNull final float[] x, @NonNull final float[] y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public int size() {
+            return x.length;
+        }
+    }
+
+    private ElevationProfile(@NonNull final List<Geopoint> points, @NonNull final float[] elevationPerPoint, final int routeSegments, final int routePoints, final float routeDistance) {
+        this.points = points.toArray(new Geopoint[0]);
+        this.routeSegments = routeSegments;
+        this.routePoints = routePoints;
+        this.routeDistance = routeDistance;
+
+        final int size = this.points.length;
+        distances = new float[size];
+        int withElevation = 0;
+        for (int i = 0; i < size; i++) {
+            distances[i] = i == 0 ? 0 : distances[i - 1] + this.points[i - 1].distanceTo(this.points[i]);
+            if (!Float.isNaN(elevationPerPoint[i])) {
+                withElevation++;
+            }
+        }
+        elevationDistances = new float[withElevation];
+        elevations = new float[withElevation];
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            if (!Float.isNaN(elevationPerPoint[i])) {
+                elevationDistances[pos] = distances[i];
+                elevations[pos] = elevationPerPoint[i];
+                pos++;
+            }
+        }
+
+        int level = 0;
+        while (BASE_SAMPLES << level < withElevation) {
+            level++;
+        }
+        numLevels = level + 1;
+        levels = new Series[numLevels];
+    }
+
+    /** creates the profile of the given route, points without elevation are only used for distances */
+    @NonNull
+    static ElevationProfile create(@NonNull final Route route) {
+        final List<Geopoint> points = new ArrayList<>(route.getNumPoints());
+        float[] elevationPerPoint = new float[route.getNumPoints()];
+        final RouteSegment[] segments = route.getSegments();
+        if (segments != null) {
+            for (RouteSegment segment : segments) {
+                final ArrayList<Float> elevation = segment.getElevation();
+                int i = 0;
+                for (Geopoint point : segment.getPoints()) {
+                    if (points.size() == elevationPerPoint.length) {
+                        // segments without own points return their route item point additionally
+                        elevationPerPoint = Arrays.copyOf(elevationPerPoint, elevationPerPoint.length * 2 + 1);
+                    }
+                    final Float elev = elevation != null && i < elevation.size() ? elevation.get(i) : null;
+                    elevationPerPoint[points.size()] = elev == null ? Float.NaN : elev;
+                    points.add(point);
+                    i++;
+                }
+            }
+        }
+        return new ElevationProfile(points, elevationPerPoint, route.getNumSegments(), route.getNumPoints(), route.getDistance());
+    }
+
+    /** whether this profile still reflects the given state of its route */
+    boolean isValidFor(final int numSegments, final int numPoints, final float distance) {
+        return routeSegments == numSegments && routePoints == numPoints && Float.compare(routeDistance, distance) == 0;
+    }
+
+    public boolean hasElevation() {
+        return elevations.length > 0;
+    }
+
+    /** total distance of the route in kilometers */
+    public float getTotalDistance() {
+        return distances.length == 0 ? 0 : distances[distances.length - 1];
+    }
+
+    public int getNumLevels() {
+        return numLevels;
+    }
+
+    /**
+     * Level of detail to use for showing the given fraction of the total distance, so that the visible part contains
+     * at least {@link #BASE_SAMPLES} points (if available).
+     */
+    public int getLevelForVisibleFraction(final float visibleFraction) {
+        int level = 0;
+        while (level < numLevels - 1 && (1 << level) * visibleFraction < 1) {
+            level++;
+        }
+        return level;
+    }
+
+    /** downsampled series for the given level of detail, the last level contains all points having an elevation */
+    @NonNull
+    public synchronized Series getSeries(final int level) {
+        final int l = Math.max(0, Math.min(numLevels - 1, level));
+        if (levels[l] == null) {
+            final int[] indices = downsample(elevationDistances, elevations, BASE_SAMPLES << l);
+            final float[] x = new float[indices.length];
+            final float[] y = new float[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                x[i] = elevationDistances[indices[i]];
+                y[i] = elevations[indices[i]];
+            }
+            levels[l] = new Series(x, y);
+        }
+        return levels[l];
+    }
+
+    /** first point of the route at least the given distance (in kilometers) away from start */
+    @Nullable
+    public Geopoint findByDistance(final float distance) {
+        if (points.length == 0 || distance > distances[distances.length - 1]) {
+            return null;
+        }
+        final int pos = Arrays.binarySearch(distances, distance);
+        if (pos >= 0) {
+            // several points may have the same distance, use the first one
+            int first = pos;
+            while (first > 0 && distances[first - 1] == distance) {
+                first--;
+            }
+            return points[first];
+        }
+        return points[-pos - 1];
+    }
+
+    /**
+     * Selects up to threshold points from the given series using the largest triangle three buckets algorithm.
+     * First and last point are always kept.
+     *
+     * @return indices of the selected points, ascending
+     */
+    @NonNull
+    @VisibleForTesting
+    static int[] downsample(@NonNull final float[] x, @NonNull final float[] y, final int threshold) {
+        final int size = x.length;
+        if (threshold >= size || threshold < 3) {
+            final int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        final int[] result = new int[threshold];
+        // all points except first and last are distributed to threshold - 2 buckets
+        final double bucketSize = (double) (size - 2) / (threshold - 2);
+        int selected = 0;
+        result[0] = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // average of the next bucket (or the last point) is the third point of the triangle
+            final int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            final int nextEnd = Math.min(size, (int) Math.floor((bucket + 2) * bucketSize) + 1);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            final int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            // point of the current bucket spanning the largest triangle with the selected point and the average
+            final int start = (int) Math.floor(bucket * bucketSize) + 1;
+            final int end = bucket == threshold - 3 ? size - 1 : (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            final double ax = x[selected];
+            final double ay = y[selected];
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                final double area = Math.abs((ax - avgX) * (y[i] - ay) - (ax - x[i]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            result[bucket + 1] = maxIndex;
+            selected = maxIndex;
+        }
+        result[threshold - 1] = size - 1;
+        return result;
+    }
+}
@@ -55,6 +55,8 @@ import cgeo.geocaching.utils.LazyInitializedList;
 import cgeo.geocaching.utils.LazyInitializedSet;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MatcherWrapper;
+import cgeo.geocaching.utils.SharedDisposableHandler;
+import cgeo.geocaching.utils.SingleFlight;
 import cgeo.geocaching.utils.functions.Func1;
 import static cgeo.geocaching.utils.Formatter.generateShortGeocode;
 
@@ -207,6 +209,10 @@ public class Geocache implements IWaypoint {
 
     private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+");
 
+    private static final SingleFlight<String, SearchResult> ONLINE_SEARCHES = new SingleFlight<>("cache downloads");
+    /** handlers of the downloads in {@link #ONLINE_SEARCHES}, forwarding progress to all waiting callers */
+    private static final Map<String, SharedDisposableHandler> ONLINE_SEARCH_HANDLERS = new HashMap<>();
+
     private Handler changeNotificationHandler = null;
 
     private CacheVariableList variables;
@@ -964,12 +970,7 @@ public class Geocache implements IWaypoint {
     @Nullable
     public Date getLastFound() {
         if (lastFound == null && inDatabase()) {
-            for (LogEntry logEntry : getLogs()) {
-                if (logEntry.logType.isFoundLog()) {
-                    lastFound = new Date(logEntry.date);
-                    break;
-                }
-            }
+            lastFound = DataStore.loadLastFound(geocode);
         }
         if (lastFound != null) {
             return new Date(lastFound.getTime());
@@ -1365,6 +1366,9 @@ public class Geocache implements IWaypoint {
      * The list of logs is immutable, because it is directly fetched from the database on demand, and not stored at this
      * object. If you want to modify logs, you have to load all logs of the cache, create a new list from the existing
      * list and store that new list in the database.
+     * <br>
+     * At most {@link DataStore#MAX_LOADED_LOGS} newest logs are returned. Loaded logs are memoized, use
+     * {@link DataStore#loadLogs(String, LogEntry, int)} to page through older ones.
      *
      * @return immutable list of logs
      */
@@ -1389,6 +1393,13 @@ public class Geocache implements IWaypoint {
         return Collections.unmodifiableList(friendLogs);
     }
 
+    /**
+     * @return whether there are logs of friends, without loading the logs
+     */
+    public boolean hasFriendsLogs() {
+        return DataStore.hasFriendLogs(geocode);
+    }
+
     public boolean isStatusChecked() {
         return statusChecked;
     }
@@ -2065,8 +2076,38 @@ public class Geocache implements IWaypoint {
      * @return true, if the cache was stored successfully
      */
     @WorkerThread
-    @SuppressWarnings("PMD.NPathComplexity")
     public static boolean storeCache(@Nullable final Geocache origCache, @Nullable final String geocode, @NonNull final Set<Integer> lists, final boolean forceRedownload, @Nullable final DisposableHandler handler) {
+        final Geocache cache = downloadForStore(origCache, geocode, lists, forceRedownload, handler);
+        if (cache == null) {
+            return false;
+        }
+        try {
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+
+            if (DisposableHandler.isDisposed(handler)) {
+                return false;
+            }
+
+            if (handler != null) {
+                handler.sendEmptyMessage(DisposableHandler.DONE);
+            }
+            return true;
+        } catch (final Exception e) {
+            Log.e("Geocache.storeCache", e);
+            return false;
+        }
+    }
+
+    /**
+     * Download a cache and its images synchronous like {@link #storeCache}, but don't save it to the database.
+     * This way several downloaded caches can be saved at once using {@link DataStore#saveCaches}.
+     *
+     * @return the downloaded cache with the given lists set, to be saved using {@link SaveFlag#DB}. null if download failed or was canceled
+     */
+    @Nullable
+    @WorkerThread
+    @SuppressWarnings("PMD.NPathComplexity")
+    public static Geocache downloadForStore(@Nullable final Geocache origCache, @Nullable final String geocode, @NonNull final Set<Integer> lists, final boolean forceRedownload, @Nullable final DisposableHandler handler) {
         try {
             final Geocache cache;
             // get cache details, they may not yet be complete
@@ -2096,11 +2137,11 @@ public class Geocache implements IWaypoint {
                     handler.sendMessage(Message.obtain());
                 }
 
-                return false;
+                return null;
             }
 
             if (DisposableHandler.isDisposed(handler)) {
-                return false;
+                return null;
             }
 
             final HtmlImage imgGetter = new HtmlImage(cache.getGeocode(), false, true, forceRedownload);
@@ -2111,7 +2152,7 @@ public class Geocache implements IWaypoint {
             }
 
             if (DisposableHandler.isDisposed(handler)) {
-                return false;
+                return null;
             }
 
             // store spoilers
@@ -2122,7 +2163,7 @@ public class Geocache implements IWaypoint {
             }
 
             if (DisposableHandler.isDisposed(handler)) {
-                return false;
+                return null;
             }
 
             // store images from logs
@@ -2137,26 +2178,17 @@ public class Geocache implements IWaypoint {
             }
 
             if (DisposableHandler.isDisposed(handler)) {
-                return false;
+                return null;
             }
 
             // Need to wait for images loading since HtmlImage.getDrawable is non-blocking here
             imgGetter.waitForEndCompletable(null).blockingAwait();
 
             cache.setLists(lists);
-            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
-
-            if (DisposableHandler.isDisposed(handler)) {
-                return false;
-            }
-
-            if (handler != null) {
-                handler.sendEmptyMessage(DisposableHandler.DONE);
-            }
-            return true;
+            return cache;
         } catch (final Exception e) {
-            Log.e("Geocache.storeCache", e);
-            return false;
+            Log.e("Geocache.downloadForStore", e);
+            return null;
         }
     }
 
@@ -2175,7 +2207,45 @@ public class Geocache implements IWaypoint {
             return search;
         }
 
+        // concurrent downloads of the same cache (e.g. from map popup and cache details) share one download,
+        // which is only cancelled if all waiting callers are disposed
+        final String key = StringUtils.isNotBlank(geocode) ? StringUtils.upperCase(geocode) : "guid:" + guid;
+        boolean retried = false;
+        while (true) {
+            final SharedDisposableHandler sharedHandler;
+            synchronized (ONLINE_SEARCH_HANDLERS) {
+                SharedDisposableHandler existing = ONLINE_SEARCH_HANDLERS.get(key);
+                if (existing == null) {
+                    existing = new SharedDisposableHandler();
+                    ONLINE_SEARCH_HANDLERS.put(key, existing);
+                }
+                existing.addCaller(handler);
+                sharedHandler = existing;
+            }
+            final SearchResult result;
+            try {
+                result = ONLINE_SEARCHES.execute(key, () -> searchByGeocodeOnline(geocode, guid, sharedHandler));
+            } finally {
+                synchronized (ONLINE_SEARCH_HANDLERS) {
+                    if (sharedHandler.removeCaller(handler) && ONLINE_SEARCH_HANDLERS.get(key) == sharedHandler) {
+                        ONLINE_SEARCH_HANDLERS.remove(key);
+                    }
+                }
+            }
+            // a caller joining a download already cancelled by all others starts it again
+            if (!retried && sharedHandler.wasCancelled() && !DisposableHandler.isDisposed(handler) && (result == null || result.getError() != StatusCode.NO_ERROR)) {
+                Log.d("Geocache.searchByGeocode: shared download of " + key + " was cancelled, retrying");
+                retried = true;
+                continue;
+            }
+            // each caller gets its own copy, as search results are modified by some callers
+            return result == null ? null : new SearchResult(result);
+        }
+    }
 
+    @Nullable
+    @WorkerThread
+    private static SearchResult searchByGeocodeOnline(@Nullable final String geocode, @Nullable final String guid, @Nullable final DisposableHandler handler) {
         SearchResult result = null;
         // if we have no geocode, we can't dynamically select the handler, but must explicitly use GC
         if (geocode == null) {
@@ -5,6 +5,7 @@ import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.AndroidRxUtils;
+import cgeo.geocaching.utils.LeastRecentlyUsedMap;
 import cgeo.geocaching.utils.Log;
 
 import android.content.Context;
@@ -12,10 +13,16 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 public class IndividualRoute extends Route implements Parcelable {
@@ -26,9 +33,18 @@ public class IndividualRoute extends Route implements Parcelable {
         ERROR_NO_POINT
     }
 
+    /** number of calculated segment tracks kept for reuse, e.g. after reordering the route */
+    private static final int MAX_CACHED_TRACKS = 200;
+
     private boolean loadingRoute = false;
     private SetTarget setTarget = null;
 
+    /** segments whose track needs to be (re)calculated, as their predecessor changed */
+    private final Set<RouteSegment> outdatedSegments = Collections.synchronizedSet(new HashSet<>());
+    /** running segment calculations, disposed whenever the route changes */
+    private final CompositeDisposable pendingCalculations = new CompositeDisposable();
+    private final LeastRecentlyUsedMap<String, SegmentTrack> trackCache = new LeastRecentlyUsedMap.LruCache<>(MAX_CACHED_TRACKS);
+
     public IndividualRoute(@Nullable final SetTarget setTarget) {
         super(true);
         this.setTarget = setTarget;
@@ -70,6 +86,7 @@ public class IndividualRoute extends Route implements Parcelable {
             Log.d("[RouteTrackDebug] Individual route: Removed first element from route (" + item.getIdentifier() + ")");
         }
         Toast.makeText(context, result == ToggleItemState.ADDED ? R.string.individual_route_added : result == ToggleItemState.REMOVED ? R.string.individual_route_removed : R.string.individual_route_error_toggling_waypoint, Toast.LENGTH_SHORT).show();
+        calculateOutdatedSegments(routeUpdater);
         updateRoute(routeUpdater);
         saveRoute();
     }
@@ -77,13 +94,81 @@ public class IndividualRoute extends Route implements Parcelable {
     public void removeItem(final Context context, final int pos, final UpdateIndividualRoute routeUpdater) {
         final ToggleItemState result = removeItem(pos);
         Toast.makeText(context, result == ToggleItemState.REMOVED ? R.string.individual_route_removed : R.string.individual_route_error_toggling_waypoint, Toast.LENGTH_SHORT).show();
+        calculateOutdatedSegments(routeUpdater);
         updateRoute(routeUpdater);
         saveRoute();
     }
 
     public void reloadRoute(final UpdateIndividualRoute updateRoute) {
         clearRouteInternal(null, false);
-        AndroidRxUtils.andThenOnUi(Schedulers.io(), this::loadRouteInternal, () -> updateRoute(updateRoute));
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), this::loadRouteInternal, () -> {
+            calculateOutdatedSegments(updateRoute);
+            updateRoute(updateRoute);
+        });
+    }
+
+    /**
+     * Calculates the tracks of all outdated segments in the background, in parallel. Unchanged segments (e.g. after
+     * reordering or reloading the route) are taken from the track cache. Calculations still running for a previous
+     * state of the route are cancelled. Segments are shown as straight lines until their calculation finished, then
+     * each segment is shown immediately via the routeUpdater.
+     * <br>
+     * Must be called on the UI thread, before showing the changed route.
+     */
+    private void calculateOutdatedSegments(@Nullable final UpdateIndividualRoute routeUpdater) {
+        pendingCalculations.clear();
+        if (segments == null || loadingRoute) {
+            return;
+        }
+        for (int pos = 0; pos < segments.size(); pos++) {
+            final RouteSegment segment = segments.get(pos);
+            if (!outdatedSegments.contains(segment)) {
+                continue;
+            }
+            if (pos == 0) {
+                applyTrack(segment, SegmentTrack.EMPTY);
+                continue;
+            }
+            final Geopoint start = segments.get(pos - 1).getPoint();
+            final Geopoint destination = segment.getPoint();
+            final String key = getTrackCacheKey(start, destination);
+            final SegmentTrack cached = trackCache.get(key);
+            if (cached != null) {
+                applyTrack(segment, cached);
+                continue;
+            }
+            applyTrack(pos, SegmentTrack.EMPTY);
+            pendingCalculations.add(Maybe.fromCallable(() -> SegmentTrack.calculate(start, destination))
+                    .subscribeOn(AndroidRxUtils.routingScheduler)
+                    .observeOn(AndroidRxUtils.mainThreadScheduler)
+                    .subscribe(track -> {
+                        if (track.isRouted()) {
+                            trackCache.put(key, track);
+                        }
+                        // route was not changed in between, otherwise this calculation would have been disposed
+                        applyTrack(segment, track);
+                        notifyUpdated(routeUpdater);
+                    }, throwable -> Log.w("[RouteTrackDebug] Individual route: segment calculation failed", throwable)));
+        }
+    }
+
+    private void applyTrack(@NonNull final RouteSegment segment, @NonNull final SegmentTrack track) {
+        final int pos = segments == null ? -1 : segments.indexOf(segment);
+        if (pos >= 0) {
+            applyTrack(pos, track);
+        }
+        outdatedSegments.remove(segment);
+    }
+
+    private void notifyUpdated(@Nullable final UpdateIndividualRoute routeUpdater) {
+        if (null != routeUpdater) {
+            routeUpdater.updateIndividualRoute(this);
+        }
+    }
+
+    @NonNull
+    private static String getTrackCacheKey(@NonNull final Geopoint start, @NonNull final Geopoint destination) {
+        return Settings.getRoutingMode().parameterValue + ":" + start.getLatitudeE6() + "," + start.getLongitudeE6() + ":" + destination.getLatitudeE6() + "," + destination.getLongitudeE6();
     }
 
     public void updateRoute(final UpdateIndividualRoute routeUpdater) {
@@ -139,6 +224,8 @@ public class IndividualRoute extends Route implements Parcelable {
     }
 
     private void clearRouteInternal(final UpdateIndividualRoute routeUpdater, final boolean deleteInDatabase) {
+        pendingCalculations.clear();
+        outdatedSegments.clear();
         distance = 0.0f;
         if (deleteInDatabase) {
             Schedulers.io().scheduleDirect(DataStore::clearIndividualRoute);
@@ -164,12 +251,12 @@ public class IndividualRoute extends Route implements Parcelable {
                 if (addToRouteStart) {
                     segments.add(0, segment);
                     if (segments.size() > 1) {
-                        calculateNavigationRoute(1);
+                        outdatedSegments.add(segments.get(1));
                     }
                 } else {
                     segments.add(segment);
-                    calculateNavigationRoute(segments.size() - 1);
                 }
+                outdatedSegments.add(segment);
                 return ToggleItemState.ADDED;
             } else {
                 return ToggleItemState.ERROR_NO_POINT;
@@ -184,10 +271,10 @@ public class IndividualRoute extends Route implements Parcelable {
             return ToggleItemState.ERROR_NO_POINT;
         }
         distance -= segments.get(pos).getDistance();
-        segments.remove(pos);
-        calculateNavigationRoute(pos);
+        outdatedSegments.remove(segments.remove(pos));
         if (pos < segments.size()) {
-            calculateNavigationRoute(pos + 1);
+            // successor is now connected to another point
+            outdatedSegments.add(segments.get(pos));
         }
         return ToggleItemState.REMOVED;
     }
@@ -7,19 +7,26 @@ import cgeo.geocaching.models.geoitem.GeoGroup;
 import cgeo.geocaching.models.geoitem.GeoItem;
 import cgeo.geocaching.models.geoitem.GeoPrimitive;
 import cgeo.geocaching.models.geoitem.IGeoItemSupplier;
+import cgeo.geocaching.utils.AndroidRxUtils;
 
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
 import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Observable;
+
 public class Route implements IGeoItemSupplier, Parcelable {
     private String name = "";
     protected ArrayList<RouteSegment> segments = new ArrayList<>();
     private boolean routeable;
     protected float distance = 0.0f;
     protected boolean isHidden = false;
+    private ElevationProfile elevationProfile = null;
 
     public Route() {
         // should use setRouteable later if using this constructor
@@ -124,6 +131,15 @@ public class Route implements IGeoItemSupplier, Parcelable {
         return distance;
     }
 
+    /** elevation profile of this route, calculated once and cached until the route changes */
+    @NonNull
+    public synchronized ElevationProfile getElevationProfile() {
+        if (elevationProfile == null || !elevationProfile.isValidFor(getNumSegments(), getNumPoints(), distance)) {
+            elevationProfile = ElevationProfile.create(this);
+        }
+        return elevationProfile;
+    }
+
     public void setCenter(final CenterOnPosition centerOnPosition) {
         if (null != segments && segments.size() > 0) {
             final ArrayList<Geopoint> points0 = segments.get(0).getPoints();
@@ -160,33 +176,63 @@ public class Route implements IGeoItemSupplier, Parcelable {
         }
     }
 
+    /**
+     * Recalculates all segments of a routeable route. Segments are independent of each other, so they are calculated
+     * in parallel. Blocks until all segments are calculated.
+     */
+    @WorkerThread
     public void calculateNavigationRoute() {
         final int numSegments = getNumSegments();
         if (routeable && numSegments > 0) {
-            for (int segment = 0; segment < numSegments; segment++) {
-                calculateNavigationRoute(segment);
+            final Geopoint[] points = new Geopoint[numSegments];
+            for (int pos = 0; pos < numSegments; pos++) {
+                points[pos] = segments.get(pos).getPoint();
+            }
+            final List<SegmentTrack> tracks = Observable.range(0, numSegments)
+                    .concatMapEager(pos -> pos == 0 ? Observable.just(SegmentTrack.EMPTY) : Observable.fromCallable(() -> SegmentTrack.calculate(points[pos - 1], points[pos])).subscribeOn(AndroidRxUtils.routingScheduler))
+                    .toList().blockingGet();
+            for (int pos = 0; pos < numSegments; pos++) {
+                applyTrack(pos, tracks.get(pos));
             }
         }
     }
 
-    protected void calculateNavigationRoute(final int pos) {
-        if (routeable && segments != null && pos < segments.size()) {
-            final RouteSegment segment = segments.get(pos);
-            distance -= segment.getDistance();
-            if (routeable) {
-                // clear info for current segment
-                segment.resetPoints();
-                // calculate route for segment between current point and its predecessor
-                if (pos > 0) {
-                    final ArrayList<Float> elevation = new ArrayList<>();
-                    final Geopoint[] temp = Routing.getTrackNoCaching(segments.get(pos - 1).getPoint(), segment.getPoint(), elevation);
-                    for (Geopoint geopoint : temp) {
-                        segment.addPoint(geopoint);
-                    }
-                    segment.setElevation(elevation);
-                }
-            }
-            distance += segment.calculateDistance();
+    /** replaces the points of the segment at the given position by the given track */
+    protected void applyTrack(final int pos, @NonNull final SegmentTrack track) {
+        final RouteSegment segment = segments.get(pos);
+        distance -= segment.getDistance();
+        // clear info for current segment
+        segment.resetPoints();
+        for (Geopoint geopoint : track.points) {
+            segment.addPoint(geopoint);
+        }
+        segment.setElevation(track.elevation);
+        distance += segment.calculateDistance();
+    }
+
+    /** calculated track of a segment, leading from the point of its predecessor to its own point */
+    protected static final class SegmentTrack {
+        static final SegmentTrack EMPTY = new SegmentTrack(new Geopoint[0], new ArrayList<>());
+
+        @NonNull final Geopoint[] points;
+        @NonNull final ArrayList<Float> elevation;
+
+        private SegmentTrack(@NonNull final Geopoint[] points, @NonNull final ArrayList<Float> elevation) {
+            this.points = points;
+            this.elevation = elevation;
+        }
+
+        @NonNull
+        @WorkerThread
+        static SegmentTrack calculate(final Geopoint start, final Geopoint destination) {
+            final ArrayList<Float> elevation = new ArrayList<>();
+            final Geopoint[] track = Routing.getTrackNoCaching(start, destination, elevation);
+            return new SegmentTrack(track, elevation);
+        }
+
+        /** whether the track was calculated by the routing service, and not just a straight line */
+        boolean isRouted() {
+            return points.length > 2;
         }
     }
 
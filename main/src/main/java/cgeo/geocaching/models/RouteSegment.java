@@ -59,7 +59,7 @@ public class RouteSegment implements Parcelable {
     }
 
     public int getSize() {
-        return points.size();
+        return null == points ? 0 : points.size();
     }
 
     public Geopoint getPoint() {
@@ -283,6 +283,12 @@ public class GeoIcon implements Parcelable {
         return GeoItemUtils.touchesPixelArea(tap, iconBase, bmWidth, bmHeight, xAnchor, yAnchor, toScreenCoordFunc);
     }
 
+    /** largest distance (in pixel) from its base at which this icon can be touched */
+    public int getMaxTouchDistancePx() {
+        ensureBmSizes();
+        return Math.max(bmWidth, bmHeight);
+    }
+
     private void ensureBmSizes() {
         if (bmHeight >= 0) {
             return;
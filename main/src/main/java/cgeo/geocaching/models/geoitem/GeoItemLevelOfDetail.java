@@ -0,0 +1,109 @@
+package cgeo.geocaching.models.geoitem;
+
+import cgeo.geocaching.location.Geopoint;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds a GeoItem together with zoom-level-dependent simplified versions of it.
+ * <br>
+ * Polylines and polygons are simplified (using Douglas-Peucker) such that the deviation from the
+ * original item stays below about one screen pixel at the respective zoom level. Simplified versions are
+ * calculated lazily on first request and cached afterwards. Use {@link #precompute()} to calculate
+ * all levels upfront (e.g. on a background thread).
+ * <br>
+ * Class is thread-safe.
+ */
+public class GeoItemLevelOfDetail {
+
+    /** From this zoom level on, the original (non-simplified) item is used */
+    public static final int FULL_DETAIL_ZOOM = 18;
+
+    /** map tile size in pixels, used to calculate the size of one pixel in degrees for a zoom level */
+    private static final int TILE_SIZE = 256;
+
+    @NonNull private final GeoItem source;
+    private final GeoItem[] levels = new GeoItem[FULL_DETAIL_ZOOM];
+
+    public GeoItemLevelOfDetail(@NonNull final GeoItem source) {
+        this.source = source;
+    }
+
+    @NonNull
+    public GeoItem getSource() {
+        return source;
+    }
+
+    /** returns the item version to use for the given zoom level */
+    @NonNull
+    public GeoItem getForZoom(final int zoomLevel) {
+        if (zoomLevel < 0 || zoomLevel >= FULL_DETAIL_ZOOM) {
+            return source;
+        }
+        synchronized (levels) {
+            if (levels[zoomLevel] == null) {
+                levels[zoomLevel] = simplify(source, getToleranceForZoom(zoomLevel));
+            }
+            return levels[zoomLevel];
+        }
+    }
+
+    /** calculates all simplified levels which were not calculated yet */
+    public void precompute() {
+        for (int zoom = 0; zoom < FULL_DETAIL_ZOOM; zoom++) {
+            getForZoom(zoom);
+        }
+    }
+
+    /** size of one pixel (in degrees latitude at the equator) for the given zoom level */
+    public static double getToleranceForZoom(final int zoomLevel) {
+        return 360d / TILE_SIZE / (1L << Math.max(0, zoomLevel));
+    }
+
+    /**
+     * Creates a simplified version of the given item. Polylines and polygons are simplified,
+     * all other primitives are returned as-is. If nothing could be simplified, the item itself is returned
+     */
+    @NonNull
+    public static GeoItem simplify(@NonNull final GeoItem item, final double toleranceDegree) {
+        if (item instanceof GeoGroup) {
+            final List<GeoItem> children = ((GeoGroup) item).getItems();
+            final GeoGroup.Builder builder = GeoGroup.builder();
+            boolean changed = false;
+            for (GeoItem child : children) {
+                final GeoItem simplified = simplify(child, toleranceDegree);
+                changed |= simplified != child;
+                builder.addItems(simplified);
+            }
+            return changed ? builder.build() : item;
+        }
+        if (!(item instanceof GeoPrimitive)) {
+            return item;
+        }
+
+        final GeoPrimitive primitive = (GeoPrimitive) item;
+        final GeoItem.GeoType type = primitive.getType();
+        if (type != GeoItem.GeoType.POLYLINE && type != GeoItem.GeoType.POLYGON) {
+            return item;
+        }
+        final List<Geopoint> points = primitive.getPoints();
+        final List<Geopoint> simplified = GeoItemUtils.simplifyLine(points, toleranceDegree);
+        //a valid polygon needs 4 points (with start/end being the same point)
+        if (simplified == points || (type == GeoItem.GeoType.POLYGON && simplified.size() < 4)) {
+            return item;
+        }
+
+        final GeoPrimitive.Builder builder = GeoPrimitive.builder().setType(type).addPoints(simplified)
+                .setIcon(primitive.getIcon()).setRadius(primitive.getRadius()).setStyle(primitive.getStyle())
+                .setZLevel(primitive.getZLevel());
+        if (primitive.getHoles() != null) {
+            for (List<Geopoint> hole : primitive.getHoles()) {
+                builder.addHole(new ArrayList<>(hole));
+            }
+        }
+        return builder.build();
+    }
+}
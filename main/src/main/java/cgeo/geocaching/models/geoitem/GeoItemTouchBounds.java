@@ -0,0 +1,120 @@
+package cgeo.geocaching.models.geoitem;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Conservative bounds of the area in which a GeoItem can be touched: its geographic extent (including circle radius)
+ * plus a margin in screen pixels for icons and line widths.
+ * <br>
+ * Used to narrow down touch tests to candidate items before running the exact (but expensive) pixel tests
+ * of {@link GeoItem#touches(Geopoint, ToScreenProjector)}.
+ */
+public final class GeoItemTouchBounds {
+
+    /** start distance (in degrees) used to measure the current map scale */
+    private static final double SCALE_PROBE_DEGREES = 0.001;
+    /** minimum pixel distance of the scale probe to get a reasonably exact measurement */
+    private static final int SCALE_PROBE_MIN_PIXELS = 32;
+    /** pixel margins are enlarged by this factor to compensate for projection distortions and rounding */
+    private static final double MARGIN_SAFETY_FACTOR = 1.5;
+
+    private double latMin = Double.POSITIVE_INFINITY;
+    private double latMax = Double.NEGATIVE_INFINITY;
+    private double lonMin = Double.POSITIVE_INFINITY;
+    private double lonMax = Double.NEGATIVE_INFINITY;
+    private int marginPx = 0;
+
+    private GeoItemTouchBounds() {
+        // use of(...)
+    }
+
+    @NonNull
+    public static GeoItemTouchBounds of(@Nullable final GeoItem item) {
+        final GeoItemTouchBounds bounds = new GeoItemTouchBounds();
+        bounds.add(item);
+        return bounds;
+    }
+
+    private void add(@Nullable final GeoItem item) {
+        if (item instanceof GeoGroup) {
+            for (GeoItem child : ((GeoGroup) item).getItems()) {
+                add(child);
+            }
+        } else if (item instanceof GeoPrimitive) {
+            final GeoPrimitive primitive = (GeoPrimitive) item;
+            add(primitive.getViewport());
+            if (primitive.getType() == GeoItem.GeoType.CIRCLE && primitive.getCenter() != null && primitive.getRadius() > 0) {
+                add(new Viewport(primitive.getCenter(), primitive.getRadius()));
+            }
+            if (primitive.getType() == GeoItem.GeoType.POLYLINE || primitive.getType() == GeoItem.GeoType.POLYGON || primitive.getType() == GeoItem.GeoType.CIRCLE) {
+                marginPx = Math.max(marginPx, GeoItemUtils.getHalfLineWithPx(GeoStyle.getStrokeWidth(primitive.getStyle())));
+            }
+            if (primitive.getIcon() != null) {
+                marginPx = Math.max(marginPx, primitive.getIcon().getMaxTouchDistancePx());
+            }
+        }
+    }
+
+    private void add(@Nullable final Viewport viewport) {
+        if (viewport == null) {
+            return;
+        }
+        latMin = Math.min(latMin, viewport.getLatitudeMin());
+        latMax = Math.max(latMax, viewport.getLatitudeMax());
+        lonMin = Math.min(lonMin, viewport.getLongitudeMin());
+        lonMax = Math.max(lonMax, viewport.getLongitudeMax());
+    }
+
+    /**
+     * Returns false if the item can definitely not be touched by the given tap, true if it might be touched.
+     *
+     * @param degreesPerPixel current map scale as returned by {@link #getDegreesPerPixel(Geopoint, ToScreenProjector)}.
+     *                        If null (unknown scale), true is returned for all non-empty items
+     */
+    public boolean mayBeTouched(@NonNull final Geopoint tapped, @Nullable final double[] degreesPerPixel) {
+        if (latMin > latMax) {
+            return false;
+        }
+        if (degreesPerPixel == null) {
+            return true;
+        }
+        final double margin = marginPx * MARGIN_SAFETY_FACTOR + 1;
+        final double latMargin = margin * degreesPerPixel[0];
+        final double lonMargin = margin * degreesPerPixel[1];
+        return tapped.getLatitude() >= latMin - latMargin && tapped.getLatitude() <= latMax + latMargin &&
+                tapped.getLongitude() >= lonMin - lonMargin && tapped.getLongitude() <= lonMax + lonMargin;
+    }
+
+    /**
+     * Measures the current map scale around the given point.
+     *
+     * @return degrees per screen pixel in latitude and longitude direction. Without a projector no pixel based
+     * touch tests are possible, thus {0, 0} is returned. Returns null if the scale could not be determined.
+     */
+    @Nullable
+    public static double[] getDegreesPerPixel(@NonNull final Geopoint point, @Nullable final ToScreenProjector projector) {
+        if (projector == null) {
+            return new double[]{0, 0};
+        }
+        final int[] base = projector.project(point);
+        if (base == null) {
+            return null;
+        }
+        for (double probe = SCALE_PROBE_DEGREES; probe <= 10; probe *= 10) {
+            final double latPixels = getPixelDistance(base, projector.project(new Geopoint(point.getLatitude() + (point.getLatitude() > 0 ? -probe : probe), point.getLongitude())));
+            final double lonPixels = getPixelDistance(base, projector.project(new Geopoint(point.getLatitude(), point.getLongitude() + (point.getLongitude() > 0 ? -probe : probe))));
+            if (latPixels >= SCALE_PROBE_MIN_PIXELS && lonPixels >= SCALE_PROBE_MIN_PIXELS) {
+                return new double[]{probe / latPixels, probe / lonPixels};
+            }
+        }
+        return null;
+    }
+
+    private static double getPixelDistance(@NonNull final int[] p1, @Nullable final int[] p2) {
+        return p2 == null ? 0 : Math.hypot(p2[0] - p1[0], p2[1] - p1[1]);
+    }
+}
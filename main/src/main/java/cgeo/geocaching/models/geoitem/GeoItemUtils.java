@@ -5,6 +5,7 @@ import cgeo.geocaching.ui.ViewUtils;
 
 import androidx.annotation.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -98,7 +99,7 @@ public final class GeoItemUtils {
         return false;
     }
 
-    private static int getHalfLineWithPx(final float lineWidthDp) {
+    static int getHalfLineWithPx(final float lineWidthDp) {
         final int lineWidthPx = ViewUtils.dpToPixel(Math.max(lineWidthDp, MIN_DP_TOUCH_WIDTH));
         return (lineWidthPx + 1) / 2;
     }
@@ -185,4 +186,84 @@ public final class GeoItemUtils {
     private static boolean pointsEqual(final int[] pt1, final int[] pt2) {
         return Arrays.equals(pt1, pt2);
     }
+
+    /**
+     * Simplifies a line using the Douglas-Peucker algorithm.
+     * <br>
+     * Distances are calculated on a local equirectangular projection (longitudes are scaled by the cosine
+     * of the line's mean latitude), which is more than precise enough for display purposes.
+     * First and last point of the line are always retained.
+     *
+     * @param line line to simplify
+     * @param toleranceDegree maximum allowed deviation (in degrees latitude) of the simplified line from the original one
+     * @return simplified line. If no point can be removed then the given list itself is returned
+     */
+    public static List<Geopoint> simplifyLine(final List<Geopoint> line, final double toleranceDegree) {
+        final int size = line == null ? 0 : line.size();
+        if (size <= 2 || toleranceDegree <= 0) {
+            return line;
+        }
+
+        final double[] lats = new double[size];
+        final double[] lons = new double[size];
+        double latSum = 0;
+        for (int i = 0; i < size; i++) {
+            lats[i] = line.get(i).getLatitude();
+            latSum += lats[i];
+        }
+        final double lonFactor = Math.cos(Math.toRadians(latSum / size));
+        for (int i = 0; i < size; i++) {
+            lons[i] = line.get(i).getLongitude() * lonFactor;
+        }
+
+        final boolean[] keep = new boolean[size];
+        keep[0] = true;
+        keep[size - 1] = true;
+        final double toleranceSquared = toleranceDegree * toleranceDegree;
+
+        //iterative instead of recursive to be safe for very long tracks
+        final int[] stack = new int[2 * size];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        stack[stackSize++] = size - 1;
+        while (stackSize > 0) {
+            final int last = stack[--stackSize];
+            final int first = stack[--stackSize];
+            double maxDistance = -1;
+            int maxIndex = -1;
+            for (int i = first + 1; i < last; i++) {
+                final double distance = getSegmentDistanceSquared(lons[i], lats[i], lons[first], lats[first], lons[last], lats[last]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    maxIndex = i;
+                }
+            }
+            if (maxIndex >= 0 && maxDistance > toleranceSquared) {
+                keep[maxIndex] = true;
+                stack[stackSize++] = first;
+                stack[stackSize++] = maxIndex;
+                stack[stackSize++] = maxIndex;
+                stack[stackSize++] = last;
+            }
+        }
+
+        final List<Geopoint> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (keep[i]) {
+                result.add(line.get(i));
+            }
+        }
+        return result.size() == size ? line : result;
+    }
+
+    private static double getSegmentDistanceSquared(final double px, final double py, final double x1, final double y1, final double x2, final double y2) {
+        final double dx = x2 - x1;
+        final double dy = y2 - y1;
+        final double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - x1) * dx + (py - y1) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        final double ex = px - (x1 + t * dx);
+        final double ey = py - (y1 + t * dy);
+        return ex * ex + ey * ey;
+    }
 }
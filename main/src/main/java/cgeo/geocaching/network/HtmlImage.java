@@ -6,14 +6,17 @@ import cgeo.geocaching.connector.ConnectorFactory;
 import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.LocalStorage;
 import cgeo.geocaching.utils.AndroidRxUtils;
+import cgeo.geocaching.utils.BitmapDecoder;
 import cgeo.geocaching.utils.DisplayUtils;
 import cgeo.geocaching.utils.DisposableHandler;
 import cgeo.geocaching.utils.FileUtils;
+import cgeo.geocaching.utils.ImageCache;
 import cgeo.geocaching.utils.ImageUtils;
 import cgeo.geocaching.utils.ImageUtils.ContainerDrawable;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MetadataUtils;
 import cgeo.geocaching.utils.RxUtils.ObservableCache;
+import cgeo.geocaching.utils.SingleFlight;
 import cgeo.geocaching.utils.UriUtils;
 
 import android.content.res.Resources;
@@ -46,7 +49,6 @@ import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.internal.disposables.CancellableDisposable;
 import io.reactivex.rxjava3.processors.PublishProcessor;
 import okhttp3.Response;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 
@@ -79,6 +81,9 @@ public class HtmlImage implements Html.ImageGetter {
 
     public static final ImageData IMAGE_ERROR_DATA = new ImageData(null, null, null);
 
+    /** coalesces downloads of the same image file across all instances */
+    private static final SingleFlight<String, Boolean> IMAGE_DOWNLOADS = new SingleFlight<>("image downloads");
+
     @NonNull private final String geocode;
     /**
      * on error: return large error image, if {@code true}, otherwise empty 1x1 image
@@ -268,7 +273,7 @@ public class HtmlImage implements Html.ImageGetter {
             }).subscribeOn(AndroidRxUtils.computationScheduler);
         }
 
-        final boolean shared = url.contains("/images/icons/icon_");
+        final boolean shared = isSharedImage(url);
         final String pseudoGeocode = shared ? SHARED : geocode;
 
         return Observable.create(new ObservableOnSubscribe<ImageData>() {
@@ -317,6 +322,7 @@ public class HtmlImage implements Html.ImageGetter {
                     emitter.onComplete();
                     return;
                 }
+                ImageCache.get().recordDiskWrite(file);
                 if (onlySave) {
                     emitter.onComplete();
                     return;
@@ -335,6 +341,30 @@ public class HtmlImage implements Html.ImageGetter {
         });
     }
 
+    /**
+     * Loads an image only if a local copy of it exists, regardless of its age. The network is never accessed.
+     *
+     * @return image data, or empty if there is no usable local copy of the image
+     */
+    public Maybe<ImageData> fetchLocalDrawableWithMetadata(final String url) {
+        if (StringUtils.isBlank(url) || ImageUtils.containsPattern(url, BLOCKED)) {
+            return Maybe.empty();
+        }
+        if (FileUtils.isFileUrl(url) || UriUtils.isContentUri(Uri.parse(url))) {
+            return fetchDrawableWithMetadata(url).firstElement().filter(data -> data.bitmapDrawable != null);
+        }
+        return Maybe.fromCallable(() -> {
+            final boolean shared = isSharedImage(url);
+            final InternalImageData loaded = loadImageFromStorage(url, shared ? SHARED : geocode, true);
+            final BitmapDrawable bitmap = scaleImage(loaded.bitmap);
+            return bitmap == null ? null : new ImageData(bitmap, loaded.metadata, loaded.localUri);
+        }).subscribeOn(AndroidRxUtils.computationScheduler);
+    }
+
+    private static boolean isSharedImage(final String url) {
+        return url.contains("/images/icons/icon_");
+    }
+
     private BitmapDrawable getErrorImage() {
         return getErrorImage(resources, returnErrorImage);
     }
@@ -370,6 +400,11 @@ public class HtmlImage implements Html.ImageGetter {
      * @return {@code true} if the existing file was up-to-date, {@code false} otherwise
      */
     private boolean downloadOrRefreshCopy(@NonNull final String url, final File file) {
+        // several instances (e.g. cache details and image gallery) may download the same file at the same time
+        return Boolean.TRUE.equals(IMAGE_DOWNLOADS.execute(file.getAbsolutePath(), () -> downloadOrRefreshCopyUncoalesced(url, file)));
+    }
+
+    private boolean downloadOrRefreshCopyUncoalesced(@NonNull final String url, final File file) {
         final String absoluteURL = makeAbsoluteURL(url);
 
         if (absoluteURL != null) {
@@ -421,6 +456,7 @@ public class HtmlImage implements Html.ImageGetter {
     private InternalImageData loadImageFromStorage(final String url, @NonNull final String pseudoGeocode, final boolean forceKeep) {
         try {
             final File file = LocalStorage.getGeocacheDataFile(pseudoGeocode, url, true, false);
+            ImageCache.get().recordDiskAccess(file);
             final ImmutableTriple<Bitmap, Metadata, Boolean> image = loadCachedImage(file, forceKeep);
             if (image.right || image.left != null) {
                 return new InternalImageData(image.left, null, image.middle, Uri.fromFile(file), image.right);
@@ -491,11 +527,11 @@ public class HtmlImage implements Html.ImageGetter {
         if (freshEnough && onlySave) {
             return ImmutableTriple.of(null, null, true);
         }
-        final BitmapFactory.Options bfOptions = new BitmapFactory.Options();
-        bfOptions.inTempStorage = new byte[16 * 1024];
-        bfOptions.inPreferredConfig = Bitmap.Config.RGB_565;
-        setSampleSize(uri, bfOptions);
-        final Bitmap image = ImageUtils.readImageFromStream(() -> ContentStorage.get().openForRead(uri), bfOptions, uri);
+        final ImageCache.Decoded decoded = ImageCache.get().getDecoded(uri, lastModified, loadMetadata);
+        if (decoded != null) {
+            return ImmutableTriple.of(decoded.bitmap, decoded.metadata, freshEnough);
+        }
+        final Bitmap image = BitmapDecoder.decode(() -> ContentStorage.get().openForRead(uri), maxWidth, maxHeight, Bitmap.Config.RGB_565, uri);
         if (image == null) {
             return ImmutableTriple.of(null, null, false);
         }
@@ -508,35 +544,10 @@ public class HtmlImage implements Html.ImageGetter {
             }
             metadata = MetadataUtils.readImageMetadata("[HtmlImage]" + uri, imageStream, true);
         }
+        ImageCache.get().putDecoded(uri, lastModified, image, metadata, loadMetadata);
         return ImmutableTriple.of(image, metadata, freshEnough);
     }
 
-    private void setSampleSize(final Uri uri, final BitmapFactory.Options bfOptions) {
-        //Decode image size only
-        final BitmapFactory.Options options = new BitmapFactory.Options();
-        options.inJustDecodeBounds = true;
-
-        InputStream stream = null;
-        try {
-            stream = ContentStorage.get().openForRead(uri);
-            if (stream == null) {
-                Log.i("Cannot open file from " + uri + ", maybe it doesnt exist");
-                return;
-            }
-            BitmapFactory.decodeStream(stream, null, options);
-        } catch (final Exception e) {
-            Log.e("HtmlImage.setSampleSize", e);
-        } finally {
-            IOUtils.closeQuietly(stream);
-        }
-
-        int scale = 1;
-        if (options.outHeight > maxHeight || options.outWidth > maxWidth) {
-            scale = Math.max(options.outHeight / maxHeight, options.outWidth / maxWidth);
-        }
-        bfOptions.inSampleSize = scale;
-    }
-
     private static void delayForTest() {
         //simulate an image fetch delay for testing purposes
         if (TEST_DELAY_TIME_MS <= 0) {
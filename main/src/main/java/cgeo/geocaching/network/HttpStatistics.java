@@ -0,0 +1,134 @@
+package cgeo.geocaching.network;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import okhttp3.Response;
+
+/**
+ * Collects per host statistics of HTTP requests done via {@link Network}: number of requests, how many of them were
+ * served from the HTTP cache (with or without revalidation) and average latency of requests going to the network.
+ */
+public final class HttpStatistics {
+
+    /** number of hosts listed in {@link #getStatistics()} */
+    private static final int MAX_LISTED_HOSTS = 10;
+
+    private static final Map<String, HostStatistics> HOSTS = new HashMap<>();
+
+    static final class HostStatistics {
+        final String host;
+        int requests;
+        int cacheHits;
+        int conditionalHits;
+        int failures;
+        long networkTimeMs;
+
+        HostStatistics(final String host) {
+            this.host = host;
+        }
+
+        int getNetworkRequests() {
+            return requests - cacheHits;
+        }
+
+        long getAverageNetworkTimeMs() {
+            final int networkRequests = getNetworkRequests();
+            return networkRequests == 0 ? 0 : networkTimeMs / networkRequests;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %d requests, %d%% from cache (+%d revalidated), avg %d ms%s", host, requests,
+                    requests == 0 ? 0 : cacheHits * 100 / requests, conditionalHits, getAverageNetworkTimeMs(),
+                    failures == 0 ? "" : ", " + failures + " failed");
+        }
+    }
+
+    private HttpStatistics() {
+        // utility class
+    }
+
+    /** records a finished request. Responses from cache are detected by their network and cache response */
+    static void record(@NonNull final String host, @NonNull final Response response, final long durationMs) {
+        final boolean fromCache = response.networkResponse() == null && response.cacheResponse() != null;
+        final boolean revalidated = response.networkResponse() != null && response.cacheResponse() != null;
+        synchronized (HOSTS) {
+            final HostStatistics stats = get(host);
+            stats.requests++;
+            if (fromCache) {
+                stats.cacheHits++;
+            } else {
+                stats.networkTimeMs += durationMs;
+            }
+            if (revalidated) {
+                stats.conditionalHits++;
+            }
+        }
+    }
+
+    static void recordFailure(@NonNull final String host, final long durationMs) {
+        synchronized (HOSTS) {
+            final HostStatistics stats = get(host);
+            stats.requests++;
+            stats.failures++;
+            stats.networkTimeMs += durationMs;
+        }
+    }
+
+    @NonNull
+    private static HostStatistics get(@NonNull final String host) {
+        HostStatistics stats = HOSTS.get(host);
+        if (stats == null) {
+            stats = new HostStatistics(host);
+            HOSTS.put(host, stats);
+        }
+        return stats;
+    }
+
+    /** returns a copy of the statistics of all hosts, ordered by number of requests */
+    @NonNull
+    static List<HostStatistics> getHostStatistics() {
+        final List<HostStatistics> result = new ArrayList<>();
+        synchronized (HOSTS) {
+            for (HostStatistics stats : HOSTS.values()) {
+                final HostStatistics copy = new HostStatistics(stats.host);
+                copy.requests = stats.requests;
+                copy.cacheHits = stats.cacheHits;
+                copy.conditionalHits = stats.conditionalHits;
+                copy.failures = stats.failures;
+                copy.networkTimeMs = stats.networkTimeMs;
+                result.add(copy);
+            }
+        }
+        Collections.sort(result, (s1, s2) -> Integer.compare(s2.requests, s1.requests));
+        return result;
+    }
+
+    static void clear() {
+        synchronized (HOSTS) {
+            HOSTS.clear();
+        }
+    }
+
+    /** statistics of the most used hosts, for system information */
+    @NonNull
+    public static String getStatistics() {
+        final List<HostStatistics> hosts = getHostStatistics();
+        final StringBuilder sb = new StringBuilder(Network.getHttpCacheStatistics());
+        for (HostStatistics stats : hosts.subList(0, Math.min(MAX_LISTED_HOSTS, hosts.size()))) {
+            sb.append("\n  - ").append(stats);
+        }
+        if (hosts.size() > MAX_LISTED_HOSTS) {
+            sb.append("\n  - (").append(hosts.size() - MAX_LISTED_HOSTS).append(" more hosts)");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,131 @@
+package cgeo.geocaching.network;
+
+import cgeo.geocaching.utils.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import okhttp3.Response;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Keeps track of hosts asking to slow down, by answering requests done via {@link Network} with HTTP 429 (too many requests)
+ * or 503 (service unavailable). Such a host is considered throttled for the time given in its Retry-After header,
+ * or a default time if there is none. Bulk operations like background cache downloads wait for that time before
+ * sending further requests to the host.
+ */
+public final class HttpThrottling {
+
+    static final int HTTP_TOO_MANY_REQUESTS = 429;
+    static final int HTTP_SERVICE_UNAVAILABLE = 503;
+
+    /** throttle time if a host gives no Retry-After header */
+    static final long DEFAULT_RETRY_AFTER_MS = 30 * 1000;
+    /** upper limit for the throttle time, a host might ask for an unreasonably long time */
+    static final long MAX_RETRY_AFTER_MS = 10 * 60 * 1000;
+
+    private static final Map<String, Throttle> HOSTS = new HashMap<>();
+
+    private static final class Throttle {
+        /** time the host last asked to slow down */
+        final long since;
+        final long until;
+
+        Throttle(final long since, final long until) {
+            this.since = since;
+            this.until = until;
+        }
+    }
+
+    private HttpThrottling() {
+        // utility class
+    }
+
+    /** checks a finished request whether the host asks to slow down */
+    static void record(@NonNull final String host, @NonNull final Response response) {
+        if (response.code() != HTTP_TOO_MANY_REQUESTS && response.code() != HTTP_SERVICE_UNAVAILABLE) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final long retryAfterMs = getRetryAfterMs(response, now);
+        Log.i("HttpThrottling: " + host + " answered " + response.code() + ", throttling requests for " + retryAfterMs + " ms");
+        synchronized (HOSTS) {
+            final Throttle previous = HOSTS.get(host);
+            HOSTS.put(host, new Throttle(now, Math.max(now + retryAfterMs, previous == null ? 0 : previous.until)));
+        }
+    }
+
+    /**
+     * Time to wait as given by the Retry-After header of the response, either in seconds or as HTTP date.
+     * Limited to {@link #MAX_RETRY_AFTER_MS}, {@link #DEFAULT_RETRY_AFTER_MS} if header is missing or invalid.
+     */
+    @VisibleForTesting
+    static long getRetryAfterMs(@NonNull final Response response, final long now) {
+        final String retryAfter = StringUtils.trim(response.header("Retry-After"));
+        long result = DEFAULT_RETRY_AFTER_MS;
+        if (StringUtils.isNumeric(retryAfter)) {
+            try {
+                result = Math.min(Long.parseLong(retryAfter), MAX_RETRY_AFTER_MS / 1000) * 1000;
+            } catch (final NumberFormatException ignore) {
+                result = MAX_RETRY_AFTER_MS;
+            }
+        } else if (StringUtils.isNotEmpty(retryAfter)) {
+            final Date date = response.headers().getDate("Retry-After");
+            if (date != null) {
+                result = date.getTime() - now;
+            }
+        }
+        return Math.max(0, Math.min(MAX_RETRY_AFTER_MS, result));
+    }
+
+    /**
+     * Remaining time the given host (or one of its subdomains, e.g. "api.example.com" for "www.example.com") asked to
+     * wait before further requests.
+     *
+     * @return remaining time in milliseconds, 0 if the host is not throttled
+     */
+    public static long getRemainingMs(@Nullable final String host) {
+        long until = 0;
+        synchronized (HOSTS) {
+            for (Map.Entry<String, Throttle> entry : HOSTS.entrySet()) {
+                if (matches(entry.getKey(), host)) {
+                    until = Math.max(until, entry.getValue().until);
+                }
+            }
+        }
+        return Math.max(0, until - System.currentTimeMillis());
+    }
+
+    /**
+     * Whether the given host (or one of its subdomains) asked to slow down at or after the given time
+     */
+    public static boolean wasThrottledSince(@Nullable final String host, final long time) {
+        synchronized (HOSTS) {
+            for (Map.Entry<String, Throttle> entry : HOSTS.entrySet()) {
+                if (entry.getValue().since >= time && matches(entry.getKey(), host)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(@NonNull final String requestHost, @Nullable final String host) {
+        final String domain = StringUtils.removeStart(host, "www.");
+        if (StringUtils.isBlank(domain)) {
+            return false;
+        }
+        return requestHost.equals(domain) || requestHost.endsWith("." + domain);
+    }
+
+    static void clear() {
+        synchronized (HOSTS) {
+            HOSTS.clear();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import cgeo.geocaching.BuildConfig;
 import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.utils.CollectionStream;
 import cgeo.geocaching.utils.FileUtils;
+import cgeo.geocaching.utils.Formatter;
 import cgeo.geocaching.utils.JsonUtils;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.RxOkHttpUtils;
@@ -16,6 +17,7 @@ import android.os.Build;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
 import java.io.File;
@@ -45,7 +47,11 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.functions.Function;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.ConnectionPool;
 import okhttp3.ConnectionSpec;
+import okhttp3.Dispatcher;
 import okhttp3.FormBody;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
@@ -75,23 +81,82 @@ public final class Network {
 
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    /** maximum size of the HTTP response cache */
+    private static final long HTTP_CACHE_SIZE = 20 * 1024 * 1024;
+    /** downloads of cache details and their images run in parallel, often against the same host */
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+
+    /** request header defining how long a response may be served from the HTTP cache, see {@link #cacheFor(long, TimeUnit)} */
+    static final String HEADER_CACHE_MAX_AGE = "X-cgeo-Cache-Max-Age";
+
+    @Nullable private static final Cache HTTP_CACHE = createHttpCache();
+
     protected static final OkHttpClient OK_HTTP_CLIENT = getNewHttpClient();
 
     protected static final MediaType MEDIA_TYPE_APPLICATION_JSON = MediaType.parse("application/json; charset=utf-8");
     protected static final MediaType MEDIA_TYPE_TEXT_PLAIN = MediaType.parse("text/plain; charset=utf-8");
 
     private static OkHttpClient getNewHttpClient() {
-        final OkHttpClient.Builder client = new OkHttpClient.Builder()
+        return enableTls12OnPreLollipop(newHttpClientBuilder(HTTP_CACHE)).build();
+    }
+
+    /**
+     * Client configuration shared by all requests. HTTP/2 is negotiated automatically for TLS connections, so parallel
+     * requests to the same host are multiplexed over one connection where the server supports it.
+     */
+    @NonNull
+    @VisibleForTesting
+    static OkHttpClient.Builder newHttpClientBuilder(@Nullable final Cache cache) {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        return new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
                 .followRedirects(true)
                 .followSslRedirects(true)
+                .cache(cache)
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, 5, TimeUnit.MINUTES))
                 .cookieJar(Cookies.cookieJar)
                 .addInterceptor(new HeadersInterceptor())
-                .addInterceptor(new LoggingInterceptor());
+                .addInterceptor(new LoggingInterceptor())
+                .addNetworkInterceptor(new CachePolicyInterceptor());
+    }
 
-        return enableTls12OnPreLollipop(client).build();
+    @Nullable
+    private static Cache createHttpCache() {
+        final CgeoApplication app = CgeoApplication.getInstance();
+        if (app == null) {
+            // no application context, e.g. in unit tests
+            return null;
+        }
+        return new Cache(new File(app.getCacheDir(), "http"), HTTP_CACHE_SIZE);
+    }
+
+    /**
+     * Headers allowing the response of a GET request to be served from the HTTP cache for the given time, regardless of
+     * the caching headers sent by the server. Meant for rarely changing, non-personalized pages like download indexes.
+     */
+    @NonNull
+    public static Parameters cacheFor(final long duration, @NonNull final TimeUnit unit) {
+        return new Parameters(HEADER_CACHE_MAX_AGE, String.valueOf(unit.toSeconds(duration)));
+    }
+
+    /** size and hit counts of the HTTP cache, for system information */
+    @NonNull
+    static String getHttpCacheStatistics() {
+        if (HTTP_CACHE == null) {
+            return "no HTTP cache";
+        }
+        try {
+            return "HTTP cache " + Formatter.formatBytes(HTTP_CACHE.size()) + " / " + Formatter.formatBytes(HTTP_CACHE.maxSize())
+                    + ", requests: " + HTTP_CACHE.requestCount() + ", network: " + HTTP_CACHE.networkCount() + ", hits: " + HTTP_CACHE.hitCount();
+        } catch (final IOException e) {
+            return "HTTP cache unavailable (" + e.getMessage() + ")";
+        }
     }
 
     private static OkHttpClient.Builder enableTls12OnPreLollipop(final OkHttpClient.Builder builder) {
@@ -385,6 +450,35 @@ public final class Network {
         for (final ImmutablePair<String, String> header : Parameters.extend(Parameters.merge(headers, cacheHeaders(cacheFile)))) {
             request.header(header.left, header.right);
         }
+        if (cacheFile != null) {
+            // caller stores the response on its own, don't store it in HTTP cache a second time
+            request.cacheControl(new CacheControl.Builder().noStore().build());
+        }
+    }
+
+    /**
+     * Applies the cache policy requested via {@link #cacheFor(long, TimeUnit)} to a response received from network.
+     */
+    private static class CachePolicyInterceptor implements Interceptor {
+
+        @Override
+        @NonNull
+        public Response intercept(final Interceptor.Chain chain) throws IOException {
+            final Request request = chain.request();
+            final String maxAge = request.header(HEADER_CACHE_MAX_AGE);
+            if (maxAge == null) {
+                return chain.proceed(request);
+            }
+            final Response response = chain.proceed(request.newBuilder().removeHeader(HEADER_CACHE_MAX_AGE).build());
+            if (!response.isSuccessful()) {
+                return response;
+            }
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .removeHeader("Expires")
+                    .header("Cache-Control", "max-age=" + maxAge)
+                    .build();
+        }
     }
 
     private static class HeadersInterceptor implements Interceptor {
@@ -415,7 +509,9 @@ public final class Network {
             final long before = System.currentTimeMillis();
             try {
                 final Response response = chain.proceed(request);
-                final String protocol = " (" + response.protocol() + ')';
+                HttpStatistics.record(request.url().host(), response, System.currentTimeMillis() - before);
+                HttpThrottling.record(request.url().host(), response);
+                final String protocol = " (" + response.protocol() + (response.networkResponse() == null ? ", from cache" : "") + ')';
                 final String redirect = request.url().equals(response.request().url()) ? "" : " (=> " + response.request().url() + ")";
                 if (response.isSuccessful()) {
                     Log.d("HTTP-RESP:" + response.code() + formatTimeSpan(before) + reqLogStr + protocol + redirect + ", headers=[" + headerToString(response.headers()) + "]");
@@ -424,6 +520,7 @@ public final class Network {
                 }
                 return response;
             } catch (final IOException e) {
+                HttpStatistics.recordFailure(request.url().host(), System.currentTimeMillis() - before);
                 Log.w("HTTP-ERROR:" +  formatTimeSpan(before) + reqLogStr + " (" + e + ")", e);
                 throw e;
             }
@@ -0,0 +1,100 @@
+package cgeo.geocaching.service;
+
+import cgeo.geocaching.connector.ConnectorFactory;
+import cgeo.geocaching.connector.IConnector;
+import cgeo.geocaching.connector.capability.IChangeMarkerCapability;
+import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.extension.CacheChangeMarker;
+import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.functions.Func0;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.collections4.ListUtils;
+
+/**
+ * Detects stored caches which did not change online since their last download, so that refreshing them can be skipped.
+ * <br>
+ * The current change markers of all caches of connectors supporting {@link IChangeMarkerCapability} are queried in
+ * bulk before downloading. A cache is unchanged if its details are stored and the marker saved on its last download
+ * equals the current one. After a full download, the marker queried before is saved for the next refresh. As a
+ * cache might change in between, this errs on the side of downloading once more.
+ */
+class CacheChangeDetector {
+
+    private final Map<String, String> currentMarkers = new HashMap<>();
+    private final Set<String> unchanged = new HashSet<>();
+
+    /**
+     * queries the current change markers of the given caches
+     *
+     * @param isCanceled checked between requests, to stop early
+     */
+    @WorkerThread
+    void checkForChanges(@NonNull final Collection<String> geocodes, @NonNull final Func0<Boolean> isCanceled) {
+        final Map<IChangeMarkerCapability, List<String>> geocodesByConnector = new HashMap<>();
+        for (String geocode : geocodes) {
+            final IConnector connector = ConnectorFactory.getConnector(geocode);
+            if (connector instanceof IChangeMarkerCapability) {
+                geocodesByConnector.computeIfAbsent((IChangeMarkerCapability) connector, c -> new ArrayList<>()).add(geocode);
+            }
+        }
+
+        for (Map.Entry<IChangeMarkerCapability, List<String>> connectorGeocodes : geocodesByConnector.entrySet()) {
+            final IChangeMarkerCapability connector = connectorGeocodes.getKey();
+            for (List<String> batch : ListUtils.partition(connectorGeocodes.getValue(), connector.getMaxChangeMarkerRequestSize())) {
+                if (isCanceled.call()) {
+                    return;
+                }
+                final Map<String, String> markers = connector.getChangeMarkers(batch);
+                int batchUnchanged = 0;
+                for (String geocode : batch) {
+                    final String marker = markers.get(geocode);
+                    if (marker == null) {
+                        continue;
+                    }
+                    final boolean isUnchanged = isStoredWithMarker(geocode, marker);
+                    synchronized (this) {
+                        currentMarkers.put(geocode, marker);
+                        if (isUnchanged) {
+                            unchanged.add(geocode);
+                        }
+                    }
+                    batchUnchanged += isUnchanged ? 1 : 0;
+                }
+                Log.d("CacheChangeDetector: " + connector.getName() + ": " + markers.size() + "/" + batch.size() + " markers received, " + batchUnchanged + " caches unchanged");
+            }
+        }
+    }
+
+    /** whether the stored details of the cache are known to be up to date */
+    synchronized boolean isUnchanged(@NonNull final String geocode) {
+        return unchanged.contains(geocode);
+    }
+
+    /** to be called after the cache details were downloaded and stored completely */
+    void onDownloaded(@NonNull final String geocode) {
+        final String marker;
+        synchronized (this) {
+            marker = currentMarkers.get(geocode);
+        }
+        if (marker != null && !CacheChangeMarker.set(geocode, marker)) {
+            // the previous marker is kept. It doesn't match the current one, so the next refresh just downloads once more
+            Log.w("CacheChangeDetector: could not store change marker of " + geocode);
+        }
+    }
+
+    private static boolean isStoredWithMarker(@NonNull final String geocode, @NonNull final String marker) {
+        final CacheChangeMarker stored = CacheChangeMarker.load(geocode);
+        return stored != null && marker.equals(stored.getMarker()) && DataStore.isThere(geocode, null, false);
+    }
+}
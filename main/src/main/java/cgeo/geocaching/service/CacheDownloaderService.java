@@ -2,11 +2,15 @@ package cgeo.geocaching.service;
 
 import cgeo.geocaching.R;
 import cgeo.geocaching.activity.ActivityMixin;
+import cgeo.geocaching.connector.ConnectorFactory;
 import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.enumerations.LoadFlags.SaveFlag;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.network.HttpThrottling;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.extension.PendingCacheDownload;
 import cgeo.geocaching.ui.dialog.Dialogs;
 import cgeo.geocaching.ui.notifications.NotificationChannels;
 import cgeo.geocaching.ui.notifications.Notifications;
@@ -15,6 +19,7 @@ import cgeo.geocaching.utils.Log;
 
 import android.app.Activity;
 import android.app.PendingIntent;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
 import android.view.LayoutInflater;
@@ -22,14 +27,19 @@ import android.view.View;
 import android.widget.RadioGroup;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -37,6 +47,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.ObservableOnSubscribe;
 import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.observables.GroupedObservable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 public class CacheDownloaderService extends AbstractForegroundIntentService {
     static {
@@ -45,10 +57,30 @@ public class CacheDownloaderService extends AbstractForegroundIntentService {
 
     private static final String EXTRA_GEOCODES = "extra_geocodes";
 
+    /**
+     * maximum number of parallel downloads for caches of the same connector (to respect the rate limits of the services).
+     * Caches of different connectors are downloaded in parallel to each other. If a service asks to slow down nevertheless
+     * (see {@link HttpThrottling}), all downloads of its connector wait as long as requested.
+     */
+    private static final int MAX_PARALLEL_DOWNLOADS_PER_CONNECTOR = 3;
+
+    /** downloads which failed because their service asked to slow down meanwhile are retried this often, without counting as failed attempt */
+    private static final int MAX_THROTTLED_RETRIES = 3;
+    private static final long THROTTLE_POLL_MS = 1000;
+
+    /** number of downloaded caches saved to the database at once */
+    private static final int SAVE_BATCH_SIZE = 20;
+
+    /** persisted downloads which failed this often are not resumed anymore */
+    private static final int MAX_FAILED_ATTEMPTS = 3;
+
     private static volatile boolean shouldStop = false;
     private static final Map<String, DownloadTaskProperties> downloadQuery = new HashMap<>();
 
     final AtomicInteger cachesDownloaded = new AtomicInteger();
+    /** subset of cachesDownloaded which was skipped as it did not change online */
+    final AtomicInteger cachesUnchanged = new AtomicInteger();
+    private long downloadStartTime = 0;
 
     public static boolean isDownloadPending(final String geocode) {
         return downloadQuery.containsKey(geocode);
@@ -114,11 +146,27 @@ public class CacheDownloaderService extends AbstractForegroundIntentService {
     }
 
     private static void downloadCachesInternal(final Activity context, final Set<String> geocodes, @Nullable final Set<Integer> listIds, final boolean keepExistingLists, final boolean forceRedownload, @Nullable final Runnable onStartCallback) {
+        final Map<String, DownloadTaskProperties> downloads = new HashMap<>();
+        for (String geocode : geocodes) {
+            downloads.put(geocode, new DownloadTaskProperties(listIds, keepExistingLists, forceRedownload));
+        }
+        if (queueDownloads(context, downloads)) {
+            Toast.makeText(context, R.string.download_started, Toast.LENGTH_LONG).show();
+
+            if (onStartCallback != null) {
+                onStartCallback.run();
+            }
+        }
+    }
+
+    /** adds the given downloads to the queue and starts the service for them. Returns false if all downloads were already queued */
+    private static boolean queueDownloads(final Context context, final Map<String, DownloadTaskProperties> downloads) {
 
         final ArrayList<String> newGeocodes = new ArrayList<>();
 
-        for (String geocode : geocodes) {
-            final DownloadTaskProperties properties = new DownloadTaskProperties(listIds, keepExistingLists, forceRedownload);
+        for (Map.Entry<String, DownloadTaskProperties> download : downloads.entrySet()) {
+            final String geocode = download.getKey();
+            final DownloadTaskProperties properties = download.getValue();
             final boolean isNewGeocode;
             synchronized (downloadQuery) {
                 isNewGeocode = downloadQuery.get(geocode) == null;
@@ -131,17 +179,38 @@ public class CacheDownloaderService extends AbstractForegroundIntentService {
         }
 
         if (newGeocodes.isEmpty()) {
-            return;
+            return false;
         }
 
         final Intent intent = new Intent(context, CacheDownloaderService.class);
         intent.putStringArrayListExtra(EXTRA_GEOCODES, newGeocodes);
         ContextCompat.startForegroundService(context, intent);
-        Toast.makeText(context, R.string.download_started, Toast.LENGTH_LONG).show();
+        return true;
+    }
 
-        if (onStartCallback != null) {
-            onStartCallback.run();
+    /**
+     * Resumes cache downloads which were queued persistently but not finished yet
+     * (e.g. because the app process was killed in between)
+     */
+    public static void resumePendingDownloads(final Activity context) {
+        synchronized (downloadQuery) {
+            if (!downloadQuery.isEmpty()) {
+                // service is currently running, nothing to resume
+                return;
+            }
         }
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> {
+            final Map<String, DownloadTaskProperties> downloads = new HashMap<>();
+            for (PendingCacheDownload pending : PendingCacheDownload.getAllPendingCacheDownloads()) {
+                downloads.put(pending.getGeocode(), new DownloadTaskProperties(pending));
+            }
+            return downloads;
+        }, downloads -> {
+            if (!downloads.isEmpty() && queueDownloads(context, downloads)) {
+                Log.i("Resuming " + downloads.size() + " pending cache downloads");
+                Toast.makeText(context, context.getResources().getQuantityString(R.plurals.caches_store_background_resumed, downloads.size(), downloads.size()), Toast.LENGTH_LONG).show();
+            }
+        });
     }
 
     public static void requestStopService() {
@@ -171,20 +240,56 @@ public class CacheDownloaderService extends AbstractForegroundIntentService {
             return;
         }
 
-        // schedule download on multiple threads...
+        final ArrayList<String> geocodeList = intent.getStringArrayListExtra(EXTRA_GEOCODES);
+        if (geocodeList == null) {
+            return;
+        }
+        if (downloadStartTime == 0) {
+            downloadStartTime = System.currentTimeMillis();
+        }
+
+        // persist queue so that it can be resumed if process gets killed
+        if (!persistQueue(geocodeList)) {
+            Log.w("Download queue could not be persisted, it can't be resumed if the process gets killed");
+        }
+
+        // query in bulk which caches changed at all, where supported by the connector
+        final CacheChangeDetector changeDetector = new CacheChangeDetector();
+        changeDetector.checkForChanges(geocodeList, () -> shouldStop);
+
+        // schedule download on multiple threads: parallel for different connectors, limited parallelism per connector
 
         Log.d("Download task started");
 
-        final Observable<String> geocodes = Observable.fromIterable(intent.getStringArrayListExtra(EXTRA_GEOCODES));
-        geocodes.flatMap((Function<String, Observable<String>>) geocode -> Observable.create((ObservableOnSubscribe<String>) emitter -> {
-            handleDownload(geocode);
-            emitter.onComplete();
-        }).subscribeOn(AndroidRxUtils.refreshScheduler)).blockingSubscribe();
+        final DownloadedCaches downloadedCaches = new DownloadedCaches();
+        final Observable<String> geocodes = Observable.fromIterable(geocodeList);
+        geocodes.groupBy(geocode -> ConnectorFactory.getConnector(geocode).getName())
+                .flatMap((Function<GroupedObservable<String, String>, Observable<String>>) connectorGeocodes -> connectorGeocodes.flatMap(
+                        (Function<String, Observable<String>>) geocode -> Observable.create((ObservableOnSubscribe<String>) emitter -> {
+                            handleDownload(geocode, changeDetector, downloadedCaches);
+                            emitter.onComplete();
+                        }).subscribeOn(AndroidRxUtils.refreshScheduler), MAX_PARALLEL_DOWNLOADS_PER_CONNECTOR))
+                .blockingSubscribe();
+        downloadedCaches.save();
 
         Log.d("Download task completed");
     }
 
-    private void handleDownload(final String geocode) {
+    private static boolean persistQueue(final Collection<String> geocodes) {
+        return PendingCacheDownload.runBatch(() -> {
+            for (String geocode : geocodes) {
+                final DownloadTaskProperties properties;
+                synchronized (downloadQuery) {
+                    properties = downloadQuery.get(geocode);
+                }
+                if (properties != null) {
+                    PendingCacheDownload.add(geocode, properties.listIds, properties.keepExistingLists, properties.forceDownload, properties.failedAttempts);
+                }
+            }
+        });
+    }
+
+    private void handleDownload(final String geocode, final CacheChangeDetector changeDetector, final DownloadedCaches downloadedCaches) {
         try {
             if (shouldStop) {
                 Log.i("download canceled");
@@ -193,18 +298,25 @@ public class CacheDownloaderService extends AbstractForegroundIntentService {
 
             Log.d("Download #" + cachesDownloaded.get() + " " + geocode + " started");
 
-            final DownloadTaskProperties properties;
+            DownloadTaskProperties properties;
             synchronized (downloadQuery) {
                 properties = downloadQuery.put(geocode, null); // set the properties to null, to point out that the download is currently ongoing
 
             }
             if (properties == null) {
-                throw new IllegalStateException("The cache is not present in the download query");
+                // intent might have been redelivered after process restart, try to restore from persisted queue
+                final PendingCacheDownload pending = PendingCacheDownload.load(geocode);
+                if (pending == null) {
+                    throw new IllegalStateException("The cache is not present in the download query");
+                }
+                properties = new DownloadTaskProperties(pending);
             }
 
             // update foreground service notification
-            notification.setProgress(downloadQuery.size() + cachesDownloaded.get(), cachesDownloaded.get(), false);
-            notification.setContentText(cachesDownloaded.get() + "/" + (downloadQuery.size() + cachesDownloaded.get()));
+            final int downloaded = cachesDownloaded.get();
+            final int total = downloadQuery.size() + downloaded;
+            notification.setProgress(total, downloaded, false);
+            notification.setContentText(getProgressText(downloaded, total));
             updateForegroundNotification();
 
             // merge current lists and additional lists
@@ -217,29 +329,118 @@ public class CacheDownloaderService extends AbstractForegroundIntentService {
                 combinedListIds.addAll(cache.getLists());
             }
 
+            // a forced download also refreshes data the change marker might not cover
+            if (cache != null && !properties.forceDownload && changeDetector.isUnchanged(geocode)) {
+                // stored details are up to date, only update lists
+                DataStore.saveLists(Collections.singleton(cache), combinedListIds);
+                DataStore.setDetailedUpdatedNow(geocode);
+                cachesUnchanged.incrementAndGet();
+                onDownloadStored(geocode);
+                return;
+            }
+
             // download...
-            if (Geocache.storeCache(null, geocode, combinedListIds, properties.forceDownload, null)) {
-                // send a broadcast so that foreground activities know that they might need to update their content
-                GeocacheChangedBroadcastReceiver.sendBroadcast(this, geocode);
-                // check whether the download properties are still null,
-                // otherwise there is a new download task...
-                synchronized (downloadQuery) {
-                    if (downloadQuery.get(geocode) == null) {
-                        downloadQuery.remove(geocode);
+            final boolean downloadsDetails = properties.forceDownload || cache == null || !cache.isDetailed();
+            final Geocache downloadedCache = download(geocode, combinedListIds, properties.forceDownload);
+            if (downloadedCache != null) {
+                // saved together with other downloaded caches, the download is complete only then
+                downloadedCaches.add(downloadedCache, () -> {
+                    if (downloadsDetails) {
+                        changeDetector.onDownloaded(geocode);
                     }
-                }
-                Log.d("Download #" + cachesDownloaded.get() + " " + geocode + " completed");
-                cachesDownloaded.incrementAndGet();
+                    onDownloadStored(geocode);
+                });
             } else {
                 Log.d("Download #" + cachesDownloaded.get() + " " + geocode + " failed");
+                // keep in persisted queue for a later retry, but don't retry forever
+                if (properties.failedAttempts + 1 < MAX_FAILED_ATTEMPTS) {
+                    PendingCacheDownload.add(geocode, properties.listIds, properties.keepExistingLists, properties.forceDownload, properties.failedAttempts + 1);
+                } else {
+                    PendingCacheDownload.remove(geocode);
+                }
             }
         } catch (Exception ex) {
             Log.e("exception while background download", ex);
         }
     }
 
+    private void onDownloadStored(final String geocode) {
+        // send a broadcast so that foreground activities know that they might need to update their content
+        GeocacheChangedBroadcastReceiver.sendBroadcast(this, geocode);
+        // check whether the download properties are still null,
+        // otherwise there is a new download task...
+        synchronized (downloadQuery) {
+            if (downloadQuery.get(geocode) == null) {
+                downloadQuery.remove(geocode);
+                PendingCacheDownload.remove(geocode);
+            }
+        }
+        Log.d("Download #" + cachesDownloaded.get() + " " + geocode + " completed");
+        cachesDownloaded.incrementAndGet();
+    }
+
+    /**
+     * Downloads a cache without saving it, waiting as long as its service asked to slow down.
+     * If the service asks to slow down during the download and it fails, it is retried.
+     *
+     * @return the downloaded cache, null if download failed
+     */
+    @Nullable
+    private static Geocache download(final String geocode, final Set<Integer> listIds, final boolean forceDownload) {
+        final String host = ConnectorFactory.getConnector(geocode).getHost();
+        Geocache cache = null;
+        for (int attempt = 0; attempt <= MAX_THROTTLED_RETRIES; attempt++) {
+            waitWhileThrottled(host);
+            if (shouldStop) {
+                break;
+            }
+            final long start = System.currentTimeMillis();
+            cache = Geocache.downloadForStore(null, geocode, listIds, forceDownload, null);
+            if (cache != null || !HttpThrottling.wasThrottledSince(host, start)) {
+                break;
+            }
+            Log.i("Download of " + geocode + " was throttled by " + host);
+        }
+        return cache;
+    }
+
+    private static void waitWhileThrottled(@Nullable final String host) {
+        long remaining = HttpThrottling.getRemainingMs(host);
+        if (remaining > 0) {
+            Log.i("Waiting " + remaining + " ms before downloading further caches from " + host);
+        }
+        try {
+            while (remaining > 0 && !shouldStop) {
+                Thread.sleep(Math.min(remaining, THROTTLE_POLL_MS));
+                remaining = HttpThrottling.getRemainingMs(host);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** creates progress text including throughput and estimated remaining time */
+    private String getProgressText(final int downloaded, final int total) {
+        final long elapsed = System.currentTimeMillis() - downloadStartTime;
+        if (downloaded == 0 || elapsed <= 0) {
+            return downloaded + "/" + total;
+        }
+        final double cachesPerMinute = downloaded * 60000d / elapsed;
+        final long remainingSeconds = elapsed * (total - downloaded) / downloaded / 1000;
+        return getString(R.string.caches_store_background_progress, downloaded, total, cachesPerMinute,
+                String.format(Locale.getDefault(), "%d:%02d", remainingSeconds / 60, remainingSeconds % 60));
+    }
+
     @Override
     public void onDestroy() {
+        final long elapsed = System.currentTimeMillis() - downloadStartTime;
+        if (downloadStartTime > 0 && elapsed > 0) {
+            Log.i("Downloaded " + cachesDownloaded.get() + " caches (" + cachesUnchanged.get() + " of them unchanged) in " + elapsed + "ms (" + String.format(Locale.US, "%.1f", cachesDownloaded.get() * 60000d / elapsed) + " caches/min)");
+        }
+        if (shouldStop) {
+            // user canceled download, so don't resume remaining downloads later
+            Schedulers.io().scheduleDirect(PendingCacheDownload::removeAllPendingCacheDownloads);
+        }
         if (downloadQuery.size() > 0) {
             showEndNotification(getString(shouldStop ? R.string.caches_store_background_result_canceled : R.string.caches_store_background_result_failed,
                     cachesDownloaded.get(), cachesDownloaded.get() + downloadQuery.size()));
@@ -256,10 +457,55 @@ public class CacheDownloaderService extends AbstractForegroundIntentService {
 
     }
 
+    /**
+     * Downloaded caches waiting to be saved. They are saved in batches using {@link DataStore#saveCaches},
+     * the action completing the download of a cache is run after it was saved.
+     */
+    private static final class DownloadedCaches {
+        private final List<Geocache> caches = new ArrayList<>();
+        private final List<Runnable> onSaved = new ArrayList<>();
+
+        void add(@NonNull final Geocache cache, @NonNull final Runnable onSavedAction) {
+            synchronized (this) {
+                caches.add(cache);
+                onSaved.add(onSavedAction);
+                if (caches.size() < SAVE_BATCH_SIZE) {
+                    return;
+                }
+            }
+            save();
+        }
+
+        void save() {
+            final List<Geocache> toSave;
+            final List<Runnable> actions;
+            synchronized (this) {
+                toSave = new ArrayList<>(caches);
+                actions = new ArrayList<>(onSaved);
+                caches.clear();
+                onSaved.clear();
+            }
+            if (toSave.isEmpty()) {
+                return;
+            }
+            try {
+                DataStore.saveCaches(toSave, EnumSet.of(SaveFlag.DB));
+            } catch (final RuntimeException e) {
+                // the downloads stay in the persisted queue, so they are retried later
+                Log.e("Saving " + toSave.size() + " downloaded caches failed", e);
+                return;
+            }
+            for (Runnable action : actions) {
+                action.run();
+            }
+        }
+    }
+
     private static class DownloadTaskProperties {
         final Set<Integer> listIds = new HashSet<>();
         boolean forceDownload;
         boolean keepExistingLists;
+        int failedAttempts;
 
         private DownloadTaskProperties(@Nullable final Set<Integer> listIds, final boolean keepExistingLists, final boolean forceDownload) {
             if (listIds != null) {
@@ -269,6 +515,11 @@ public class CacheDownloaderService extends AbstractForegroundIntentService {
             this.forceDownload = forceDownload;
         }
 
+        private DownloadTaskProperties(final PendingCacheDownload pending) {
+            this(pending.getListIds(), pending.isKeepExistingLists(), pending.isForceDownload());
+            this.failedAttempts = pending.getFailedAttempts();
+        }
+
         public DownloadTaskProperties merge(@Nullable final DownloadTaskProperties additionalProperties) {
             if (additionalProperties != null) {
                 this.listIds.addAll(additionalProperties.listIds);
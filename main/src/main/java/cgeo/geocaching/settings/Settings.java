@@ -940,6 +940,13 @@ public class Settings {
         return getBoolean(R.string.pref_logimages, false);
     }
 
+    /**
+     * Maximum disk space for downloaded images of caches not stored offline (in MB), 0 for unlimited
+     */
+    public static int getImageCacheSizeMB() {
+        return getInt(R.string.pref_image_cache_size, getKeyInt(R.integer.image_cache_size_default));
+    }
+
     public static boolean isRatingWanted() {
         return getBoolean(R.string.pref_ratingwanted, false);
     }
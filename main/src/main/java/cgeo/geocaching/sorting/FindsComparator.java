@@ -1,6 +1,8 @@
 package cgeo.geocaching.sorting;
 
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.SqlBuilder;
 
 import androidx.annotation.NonNull;
 
@@ -25,4 +27,9 @@ class FindsComparator extends AbstractCacheComparator {
         return String.format(Locale.getDefault(), "%d", cache.getFindsCount());
     }
 
+    @Override
+    public void addSortToSql(final SqlBuilder sql, final boolean sortDesc) {
+        sql.addOrder("IFNULL(" + sql.joinCacheStats() + "." + DataStore.dbFieldCacheStats_foundCount + ", 0)", !sortDesc);
+    }
+
 }
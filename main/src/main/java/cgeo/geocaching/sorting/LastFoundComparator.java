@@ -1,16 +1,61 @@
 package cgeo.geocaching.sorting;
 
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.SqlBuilder;
 
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 /**compares caches by hidden date */
 class LastFoundComparator extends AbstractDateCacheComparator {
 
     public static final CacheComparator INSTANCE_INVERSE = new InverseComparator(new LastFoundComparator());
 
+    /** last found dates of stored caches while sorting, as calculated from their stored logs */
+    @Nullable
+    private Map<String, Date> lastFoundDates = null;
+
+    @Override
+    protected void beforeSort(final List<Geocache> list) {
+        super.beforeSort(list);
+        // read the dates of all stored caches at once instead of one query per cache during sorting
+        final List<String> storedGeocodes = new ArrayList<>();
+        for (final Geocache cache : list) {
+            if (cache.inDatabase()) {
+                storedGeocodes.add(cache.getGeocode());
+            }
+        }
+        lastFoundDates = DataStore.loadLastFound(storedGeocodes);
+        for (final Geocache cache : list) {
+            final Date lastFound = lastFoundDates.get(cache.getGeocode());
+            if (lastFound != null) {
+                cache.setLastFound(lastFound);
+            }
+        }
+    }
+
+    @Override
+    protected void afterSort(final List<Geocache> list) {
+        lastFoundDates = null;
+        super.afterSort(list);
+    }
+
     protected Date getCacheDate(final Geocache cache) {
+        // caches without found log are not in the map, avoid querying them again and again
+        if (lastFoundDates != null && cache.inDatabase() && !lastFoundDates.containsKey(cache.getGeocode())) {
+            return null;
+        }
         return cache.getLastFound();
     }
 
+    @Override
+    public void addSortToSql(final SqlBuilder sql, final boolean sortDesc) {
+        sql.addOrder("IFNULL(" + sql.joinCacheStats() + "." + DataStore.dbFieldCacheStats_lastFound + ", 0)", sortDesc);
+    }
+
 }
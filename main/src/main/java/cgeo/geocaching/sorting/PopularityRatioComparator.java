@@ -1,6 +1,7 @@
 package cgeo.geocaching.sorting;
 
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.storage.SqlBuilder;
 
 import androidx.annotation.NonNull;
@@ -37,7 +38,7 @@ class PopularityRatioComparator extends AbstractCacheComparator {
 
     @Override
     public void addSortToSql(final SqlBuilder sql, final boolean sortDesc) {
-        //also sort by favourite count, should resemble ratio close enough
-        sql.addOrder(sql.getMainTableId() + ".favourite_cnt", !sortDesc);
+        final String foundCount = sql.joinCacheStats() + "." + DataStore.dbFieldCacheStats_foundCount;
+        sql.addOrder("CASE WHEN IFNULL(" + foundCount + ", 0) = 0 THEN 0 ELSE " + sql.getMainTableId() + ".favourite_cnt * 1.0 / " + foundCount + " END", !sortDesc);
     }
 }
@@ -5,8 +5,12 @@ import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.storage.DataStore.StorageLocation;
 import cgeo.geocaching.utils.LeastRecentlyUsedMap;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.functions.Func0;
+
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -20,14 +24,38 @@ import org.apache.commons.lang3.StringUtils;
 public class CacheCache {
 
     private static final int MAX_CACHED_CACHES = 1000;
+    /** number of caches which may be marked as fully loaded at the same time */
+    static final int MAX_FULLY_LOADED_CACHES = 10;
+    /** fully loaded caches older than this are no longer handed out, they might be outdated */
+    static final long FULLY_LOADED_TIME_TO_LIVE_MS = 60_000;
+
     private final LeastRecentlyUsedMap<String, Geocache> cachesCache;
+    private final LeastRecentlyUsedMap<String, FullyLoadedEntry> fullyLoaded;
+    private final Func0<Long> clock;
+
+    private static class FullyLoadedEntry {
+        final Geocache cache;
+        final long timestamp;
+
+        FullyLoadedEntry(final Geocache cache, final long timestamp) {
+            this.cache = cache;
+            this.timestamp = timestamp;
+        }
+    }
 
     public CacheCache() {
+        this(SystemClock::elapsedRealtime);
+    }
+
+    CacheCache(@NonNull final Func0<Long> clock) {
         cachesCache = new LeastRecentlyUsedMap.LruCache<>(MAX_CACHED_CACHES);
+        fullyLoaded = new LeastRecentlyUsedMap.LruCache<>(MAX_FULLY_LOADED_CACHES);
+        this.clock = clock;
     }
 
     public synchronized void removeAllFromCache() {
         cachesCache.clear();
+        fullyLoaded.clear();
     }
 
     /**
@@ -39,6 +67,7 @@ public class CacheCache {
         }
         synchronized (this) {
             cachesCache.remove(geocode);
+            fullyLoaded.remove(geocode);
         }
     }
 
@@ -73,6 +102,38 @@ public class CacheCache {
         }
     }
 
+    /**
+     * Marks a cache stored in the CacheCache as loaded with all details from database, see {@link #takeFullyLoadedCacheFromCache(String)}.
+     * The mark is lost as soon as the cache is replaced or removed.
+     *
+     * @param cache Cache which was previously put in the CacheCache
+     */
+    public synchronized void markFullyLoaded(@NonNull final Geocache cache) {
+        if (cachesCache.get(cache.getGeocode()) == cache) {
+            fullyLoaded.put(cache.getGeocode(), new FullyLoadedEntry(cache, clock.call()));
+        }
+    }
+
+    /**
+     * Retrieves a cache recently marked as fully loaded. The mark is consumed, thus each fully loaded cache is handed out only once.
+     *
+     * @param geocode Geocode of the cache to retrieve
+     * @return cache if it is still the current one in the CacheCache and was marked recently enough, null else
+     */
+    @Nullable
+    public synchronized Geocache takeFullyLoadedCacheFromCache(@NonNull final String geocode) {
+        final FullyLoadedEntry entry = fullyLoaded.remove(geocode);
+        if (entry == null || cachesCache.get(geocode) != entry.cache || clock.call() - entry.timestamp > FULLY_LOADED_TIME_TO_LIVE_MS) {
+            return null;
+        }
+        return entry.cache;
+    }
+
+    public synchronized boolean isFullyLoaded(@NonNull final String geocode) {
+        final FullyLoadedEntry entry = fullyLoaded.get(geocode);
+        return entry != null && cachesCache.get(geocode) == entry.cache && clock.call() - entry.timestamp <= FULLY_LOADED_TIME_TO_LIVE_MS;
+    }
+
     public synchronized Set<String> getInViewport(final Viewport viewport) {
         final Set<String> geocodes = new HashSet<>();
         for (final Geocache cache : cachesCache.values()) {
@@ -0,0 +1,122 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.models.Image;
+import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.utils.ImageLoader;
+import cgeo.geocaching.utils.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Prepares cache details pages in the background for caches the user is likely to open next,
+ * e.g. caches around the current position in a cache list or the cache selected on a map.
+ * <br>
+ * Those caches are loaded with all details into {@link CacheCache} (see {@link DataStore#loadFullCache(String)})
+ * and their first images are decoded into the shared {@link cgeo.geocaching.utils.ImageCache}, if a local copy of them exists.
+ * <br>
+ * Requests are debounced and each request supersedes all earlier ones, so quickly scrolling through a list does not
+ * cause any load. Memory usage is limited by the budgets of {@link CacheCache} and {@link cgeo.geocaching.utils.ImageCache}.
+ */
+public final class CacheDetailsPrefetcher {
+
+    private static final long DEBOUNCE_MS = 300;
+    /** number of caches following the current list position to prefetch, the preceding cache is prefetched as well */
+    static final int LIST_PREFETCH_AHEAD = 3;
+    private static final int MAX_IMAGES_PER_CACHE = 2;
+
+    private static final CacheDetailsPrefetcher INSTANCE = new CacheDetailsPrefetcher();
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Object workerMutex = new Object();
+    private Disposable pending = Disposable.empty();
+
+    private CacheDetailsPrefetcher() {
+        // singleton
+    }
+
+    @NonNull
+    public static CacheDetailsPrefetcher get() {
+        return INSTANCE;
+    }
+
+    /** prefetches the details of a single cache, e.g. the one currently selected on map */
+    public void prefetch(@Nullable final String geocode) {
+        if (StringUtils.isNotBlank(geocode)) {
+            schedule(Collections.singletonList(geocode));
+        }
+    }
+
+    /** prefetches the details of the caches around given position of a cache list, e.g. its first visible position */
+    public void prefetchAround(@NonNull final List<Geocache> caches, final int position) {
+        final List<String> geocodes = getGeocodesAround(caches, position);
+        if (!geocodes.isEmpty()) {
+            schedule(geocodes);
+        }
+    }
+
+    /** returns the geocodes to prefetch for given position of a cache list, ordered by how likely they are opened next */
+    @NonNull
+    static List<String> getGeocodesAround(@NonNull final List<Geocache> caches, final int position) {
+        final List<String> geocodes = new ArrayList<>();
+        // caches following the position are the most likely ones to be opened next
+        for (int i = Math.max(position, 0); i < Math.min(position + LIST_PREFETCH_AHEAD + 1, caches.size()); i++) {
+            geocodes.add(caches.get(i).getGeocode());
+        }
+        if (position > 0 && position <= caches.size()) {
+            geocodes.add(caches.get(position - 1).getGeocode());
+        }
+        return geocodes;
+    }
+
+    private synchronized void schedule(@NonNull final List<String> geocodes) {
+        if (Settings.useLowPowerMode()) {
+            return;
+        }
+        final long requestGeneration = generation.incrementAndGet();
+        pending.dispose();
+        pending = Schedulers.io().scheduleDirect(() -> run(geocodes, requestGeneration), DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(@NonNull final List<String> geocodes, final long requestGeneration) {
+        synchronized (workerMutex) {
+            for (String geocode : geocodes) {
+                if (requestGeneration != generation.get()) {
+                    // superseded by a newer request
+                    return;
+                }
+                try {
+                    final Geocache cache = DataStore.prefetchFullCache(geocode);
+                    if (cache != null) {
+                        prefetchImages(cache);
+                    }
+                } catch (RuntimeException re) {
+                    Log.w("CacheDetailsPrefetcher: problem prefetching " + geocode, re);
+                }
+            }
+        }
+    }
+
+    private static void prefetchImages(@NonNull final Geocache cache) {
+        int prefetched = 0;
+        for (Image image : cache.getNonStaticImages()) {
+            if (prefetched >= MAX_IMAGES_PER_CACHE) {
+                return;
+            }
+            if (!image.isEmpty() && ImageLoader.prefetch(cache.getGeocode(), image.getUrl())) {
+                prefetched++;
+            }
+        }
+    }
+}
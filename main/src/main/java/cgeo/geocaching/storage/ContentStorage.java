@@ -18,10 +18,13 @@ import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.util.Collections;
 import java.util.List;
 
@@ -55,6 +58,7 @@ public class ContentStorage {
     private final DocumentContentAccessor documentAccessor;
     private final FileContentAccessor fileAccessor;
     private final ThreadLocal<Boolean> reportRunningFlag = new ThreadLocal<>();
+    private final FolderListingCache listingCache = new FolderListingCache();
 
     private static final ContentStorage INSTANCE = new ContentStorage();
 
@@ -183,7 +187,9 @@ public class ContentStorage {
         }
 
         try {
-            return getAccessorFor(folder.getBaseType()).create(folder, name);
+            final Uri result = getAccessorFor(folder.getBaseType()).create(folder, name);
+            invalidateListingCache(folder);
+            return result;
         } catch (IOException ioe) {
             reportProblem(R.string.contentstorage_err_create_failed, ioe, false, name, folder);
         }
@@ -198,7 +204,9 @@ public class ContentStorage {
             return false;
         }
         try {
-            return getAccessorFor(uri).delete(uri);
+            final boolean result = getAccessorFor(uri).delete(uri);
+            listingCache.invalidateContaining(uri);
+            return result;
         } catch (IOException ioe) {
             reportProblem(R.string.contentstorage_err_delete_failed, ioe, false, uri);
         }
@@ -215,7 +223,9 @@ public class ContentStorage {
         }
 
         try {
-            return getAccessorFor(uri).rename(uri, fileNameCreator.createName());
+            final Uri result = getAccessorFor(uri).rename(uri, fileNameCreator.createName());
+            listingCache.invalidateContaining(uri);
+            return result;
         } catch (IOException ioe) {
             reportProblem(R.string.contentstorage_err_delete_failed, ioe, false, uri);
         }
@@ -255,7 +265,7 @@ public class ContentStorage {
             if (folder == null) {
                 return Collections.emptyList();
             }
-            final List<FileInformation> result = getAccessorFor(folder).list(folder);
+            final List<FileInformation> result = listCached(folder);
             cLog.add("#" + result.size());
             if (sortByName) {
                 Collections.sort(result, (fi1, fi2) -> fi1.name.compareTo(fi2.name));
@@ -313,7 +323,7 @@ public class ContentStorage {
         }
 
         try {
-            final FileInformation fileInfo = getAccessorFor(parentFolder).getFileInfo(parentFolder, fileName);
+            final FileInformation fileInfo = isListingCacheable(parentFolder) ? findByName(listCached(parentFolder), fileName) : getAccessorFor(parentFolder).getFileInfo(parentFolder, fileName);
             return new ImmutablePair<>(fileInfo, parentFolder);
         } catch (IOException ioe) {
             reportProblem(R.string.contentstorage_err_folder_access_failed, ioe, false, rootFolder);
@@ -379,9 +389,13 @@ public class ContentStorage {
         }
 
         try {
+            //size and modification date of file will change
+            listingCache.invalidateContaining(uri);
             //values "wa" (for append) and "rwt" (for overwrite) were tested on SDK21, SDK23, SDk29 and SDK30 using "ContentStorageTest"
             //Note that different values behave differently in different SDKs so be careful before changing them
-            return context.getContentResolver().openOutputStream(uri, append ? "wa" : "rwt");
+            final OutputStream out = context.getContentResolver().openOutputStream(uri, append ? "wa" : "rwt");
+            //listings done while writing show an intermediate state. File uris are never in cached listings (and must stay file-backed)
+            return out == null || UriUtils.isFileUri(uri) ? out : new ListingInvalidatingOutputStream(out, uri);
         } catch (IOException | SecurityException | IllegalArgumentException se) {
             //SecurityException is thrown for valid Uri which we have no permission to access
             //IllegalArgumentException is thrown for invalid Uri (e.g. because a folder/file was deleted meanwhile)
@@ -462,7 +476,11 @@ public class ContentStorage {
                 success = false;
                 return null;
             }
-            IOUtils.copy(in, out);
+            if (UriUtils.isFileUri(source) && UriUtils.isFileUri(outputUri)) {
+                transferFileContent(in, out);
+            } else {
+                IOUtils.copy(in, out);
+            }
         } catch (Exception ie) {
             success = false;
             failureEx = ie;
@@ -477,6 +495,31 @@ public class ContentStorage {
         return outputUri;
     }
 
+    /**
+     * Copies content between two file-backed streams using channel transfer, which avoids copying data through a Java buffer.
+     * Falls back to stream copy if streams are not file-backed
+     */
+    private static void transferFileContent(final InputStream in, final OutputStream out) throws IOException {
+        if (!(in instanceof FileInputStream) || !(out instanceof FileOutputStream)) {
+            IOUtils.copy(in, out);
+            return;
+        }
+        final FileChannel inChannel = ((FileInputStream) in).getChannel();
+        final FileChannel outChannel = ((FileOutputStream) out).getChannel();
+        final long size = inChannel.size();
+        long position = 0;
+        while (position < size) {
+            final long transferred = inChannel.transferTo(position, size - position, outChannel);
+            if (transferred <= 0) {
+                //channel can't transfer (more) data, copy remaining content via streams
+                inChannel.position(position);
+                IOUtils.copy(in, out);
+                return;
+            }
+            position += transferred;
+        }
+    }
+
     /**
      * Write an (internal's) file content to external storage
      */
@@ -537,6 +580,7 @@ public class ContentStorage {
      * Sets a new User-defined Folder for a {@link PersistableFolder}.
      */
     public void setUserDefinedFolder(final PersistableFolder folder, final Folder userDefinedFolder, final boolean setByUser) {
+        listingCache.invalidateAll();
         folder.setUserDefinedFolder(userDefinedFolder, setByUser);
         documentAccessor.releaseOutdatedUriPermissions();
         ensureFolder(folder);
@@ -553,8 +597,96 @@ public class ContentStorage {
         documentAccessor.refreshUriPermissionCache();
     }
 
+    /**
+     * Drops all cached folder listings, e.g. if folder content is known to be changed outside of c:geo.
+     * Changes done via this class invalidate affected listings automatically.
+     */
+    public void invalidateListingCache() {
+        listingCache.invalidateAll();
+    }
+
+    /** number of folder listings served from cache */
+    public long getListingCacheHits() {
+        return listingCache.getHits();
+    }
+
+    /** number of folder listings not served from cache (for cacheable folders only) */
+    public long getListingCacheMisses() {
+        return listingCache.getMisses();
+    }
+
+    /** invalidates cached listings containing the written file again when writing is finished */
+    private class ListingInvalidatingOutputStream extends FilterOutputStream {
+        private final Uri uri;
+
+        ListingInvalidatingOutputStream(@NonNull final OutputStream out, @NonNull final Uri uri) {
+            super(out);
+            this.uri = uri;
+        }
+
+        @Override
+        public void write(@NonNull final byte[] b, final int off, final int len) throws IOException {
+            //FilterOutputStream writes single bytes otherwise
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                listingCache.invalidateContaining(uri);
+            }
+        }
+    }
+
     // ---- private methods ----
 
+    /**
+     * Listings are cached for Document folders only. Listing File folders is cheap, and those are also changed
+     * directly using java.io.File in several places which would lead to outdated cache entries.
+     */
+    private static boolean isListingCacheable(@NonNull final Folder folder) {
+        return folder.getBaseType() == Folder.FolderType.DOCUMENT;
+    }
+
+    @NonNull
+    private static String getListingCacheKey(@NonNull final Folder folder) {
+        return UriUtils.getPseudoUriString(folder.getBaseUri(), folder.getSubdirsToBase(), -1);
+    }
+
+    @NonNull
+    private List<FileInformation> listCached(@NonNull final Folder folder) throws IOException {
+        if (!isListingCacheable(folder)) {
+            return getAccessorFor(folder).list(folder);
+        }
+        final String key = getListingCacheKey(folder);
+        final List<FileInformation> cached = listingCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final long generation = listingCache.getGeneration();
+        final List<FileInformation> result = getAccessorFor(folder).list(folder);
+        listingCache.put(key, result, generation);
+        return result;
+    }
+
+    private void invalidateListingCache(@NonNull final Folder folder) {
+        if (isListingCacheable(folder)) {
+            listingCache.invalidateWithParents(getListingCacheKey(folder));
+        }
+    }
+
+    @Nullable
+    private static FileInformation findByName(@NonNull final List<FileInformation> files, final String name) {
+        for (FileInformation fi : files) {
+            if (fi.name.equals(name)) {
+                return fi;
+            }
+        }
+        return null;
+    }
+
     /**
      * Tries to read and (optionally) write something to the given folder location, returns whether this was successful or not
      */
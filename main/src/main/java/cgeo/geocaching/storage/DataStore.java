@@ -48,6 +48,7 @@ import cgeo.geocaching.ui.dialog.SimpleDialog;
 import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.CalendarUtils;
 import cgeo.geocaching.utils.CollectionStream;
+import cgeo.geocaching.utils.CommonUtils;
 import cgeo.geocaching.utils.ContextLogger;
 import cgeo.geocaching.utils.EmojiUtils;
 import cgeo.geocaching.utils.FileNameCreator;
@@ -58,6 +59,7 @@ import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.TextUtils;
 import cgeo.geocaching.utils.Version;
 import cgeo.geocaching.utils.formulas.VariableList;
+import cgeo.geocaching.utils.functions.Action1;
 import cgeo.geocaching.utils.functions.Func1;
 import static cgeo.geocaching.Intents.ACTION_INDIVIDUALROUTE_CHANGED;
 import static cgeo.geocaching.settings.Settings.getMaximumMapTrailLength;
@@ -135,7 +137,8 @@ public class DataStore {
     public enum DBRestoreResult {
         RESTORE_SUCCESSFUL(R.string.init_restore_success),
         RESTORE_FAILED_GENERAL(R.string.init_restore_db_failed),
-        RESTORE_FAILED_DBRECREATED(R.string.init_restore_failed_dbrecreated);
+        RESTORE_FAILED_DBRECREATED(R.string.init_restore_failed_dbrecreated),
+        RESTORE_FAILED_BASE_MISSING(R.string.init_restore_failed_base_missing);
 
         public final @StringRes int res;
 
@@ -160,7 +163,10 @@ public class DataStore {
         DBEXTENSION_EMOJILRU(5),
         DBEXTENSION_POCKETQUERY_HISTORY(6),
         DBEXTENSION_TRACKFILES(7),
-        DBEXTENSION_LAST_TRACKABLE_ACTION(8);
+        DBEXTENSION_LAST_TRACKABLE_ACTION(8),
+        DBEXTENSION_PENDING_CACHE_DOWNLOAD(9),
+        DBEXTENSION_FILE_METADATA(10),
+        DBEXTENSION_CACHE_CHANGE_MARKER(11);
 
         public final int id;
 
@@ -239,9 +245,15 @@ public class DataStore {
      * holds the column indexes of the cache table to avoid lookups
      */
     private static final CacheCache cacheCache = new CacheCache();
+    private static final LogCache logCache = new LogCache();
+
+    /** maximum number of logs per cache returned by {@link #loadLogs(String)} */
+    public static final int MAX_LOADED_LOGS = 100;
+    /** geocodes whose logs were changed in the current transaction of a thread, see {@link #invalidateLogsChangedInTransaction()} */
+    private static final ThreadLocal<Set<String>> logsChangedInTransaction = CommonUtils.threadLocalWithInitial(HashSet::new);
     private static volatile SQLiteDatabase database = null;
     private static final ReentrantReadWriteLock databaseLock = new ReentrantReadWriteLock();
-    private static final int dbVersion = 103;
+    private static final int dbVersion = 104;
     public static final int customListIdOffset = 10;
 
     /**
@@ -280,7 +292,8 @@ public class DataStore {
             100, // add column "tier" and table for cache categories. Initially used for bettercacher.org data
             101, // add service_image_id to saved log images
             102,  // add projection attributes to waypoints
-            103   // add more projection attributes to waypoints
+            103,  // add more projection attributes to waypoints
+            104   // add table cg_cache_stats with derived per-cache statistics (recalculated on each upgrade)
     ));
 
     @NonNull private static final String dbTableCaches = "cg_caches";
@@ -315,6 +328,11 @@ public class DataStore {
     @NonNull public static final String dbTableLogCount = "cg_logCount";
         @NonNull public static final String dbFieldLogCount_Type = "type";
         @NonNull public static final String dbFieldLogCount_Count = "count";
+    @NonNull public static final String dbTableCacheStats = "cg_cache_stats";
+        @NonNull public static final String dbFieldCacheStats_lastFound = "last_found";
+        @NonNull public static final String dbFieldCacheStats_foundCount = "found_count";
+        @NonNull public static final String dbFieldCacheStats_dnfCount = "dnf_count";
+        @NonNull public static final String dbFieldCacheStats_friendLogs = "friend_logs";
     @NonNull private static final String dbTableLogImages = "cg_logImages";
     @NonNull public static final String dbTableLogsOffline = "cg_logs_offline";
         @NonNull public static final String dbFieldLogsOffline_log = "log";
@@ -328,6 +346,8 @@ public class DataStore {
     @NonNull private static final String dbTableExtension = "cg_extension";
     @NonNull private static final String dbTableFilters = "cg_filters";
     @NonNull private static final String dbTableSequences = "sqlite_sequence";
+    /** temporary table (per connection) for bulk updates, see {@link #fillTempGeocodes(Collection)} */
+    @NonNull private static final String dbTableTempGeocodes = "temp_geocodes";
 
     // common table field names
     @NonNull public static final String dbField_Geocode = "geocode";
@@ -482,6 +502,15 @@ public class DataStore {
             + dbFieldLogCount_Type + " INTEGER NOT NULL DEFAULT 4, "
             + dbFieldLogCount_Count + " INTEGER NOT NULL DEFAULT 0 "
             + "); ";
+    /** statistics derived from cg_logs and cg_logCount, maintained whenever those are saved (see {@link #updateCacheStatsWithoutTransaction(String)}) */
+    private static final String dbCreateCacheStats = ""
+            + "CREATE TABLE IF NOT EXISTS " + dbTableCacheStats + " ("
+            + dbField_Geocode + " TEXT PRIMARY KEY NOT NULL, "
+            + dbFieldCacheStats_lastFound + " LONG NOT NULL DEFAULT 0, " // date of newest found log, 0 if none
+            + dbFieldCacheStats_foundCount + " INTEGER NOT NULL DEFAULT 0, " // from log counts
+            + dbFieldCacheStats_dnfCount + " INTEGER NOT NULL DEFAULT 0, " // from log counts
+            + dbFieldCacheStats_friendLogs + " INTEGER NOT NULL DEFAULT 0 " // 1 if any stored log is from the user or a friend
+            + "); ";
     private static final String dbCreateLogImages = ""
             + "CREATE TABLE IF NOT EXISTS " + dbTableLogImages + " ("
             + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
@@ -620,6 +649,9 @@ public class DataStore {
 
     public static class DBExtension {
 
+        /** escape clause for LIKE expressions using keys escaped by {@link #escapeLike(String)} */
+        private static final String LIKE_ESCAPE = " ESCAPE '\\'";
+
         // reflect actual database schema (+ type param)
         protected long id;
         protected String key;
@@ -712,13 +744,37 @@ public class DataStore {
          * get a list of all entries for this key (if key != null) / for this type (if key is null)
          */
         protected static ArrayList<DBExtension> getAll(final SQLiteDatabase db, final DBExtensionType type, @Nullable final String key) {
+            return getAllLike(db, type, key, "");
+        }
+
+        /**
+         * get a list of all entries for this key. Unlike {@link #getAll(DBExtensionType, String)} "%" and "_" in key are no wildcards
+         */
+        protected static ArrayList<DBExtension> getAllWithLiteralKey(final DBExtensionType type, @NonNull final String key) {
+            return withAccessLock(() -> {
+                init();
+                return getAllLike(database, type, escapeLike(key), LIKE_ESCAPE);
+            });
+        }
+
+        /**
+         * get a list of all entries whose key starts with given prefix. "%" and "_" in prefix are no wildcards
+         */
+        protected static ArrayList<DBExtension> getAllWithKeyPrefix(final DBExtensionType type, @NonNull final String keyPrefix) {
+            return withAccessLock(() -> {
+                init();
+                return getAllLike(database, type, escapeLike(keyPrefix) + "%", LIKE_ESCAPE);
+            });
+        }
+
+        private static ArrayList<DBExtension> getAllLike(final SQLiteDatabase db, final DBExtensionType type, @Nullable final String keyPattern, final String escapeClause) {
             return withAccessLock(() -> {
-                checkState(type, key, true);
+                checkState(type, keyPattern, true);
                 final ArrayList<DBExtension> result = new ArrayList<>();
                 try (Cursor cursor = db.query(dbTableExtension,
                         new String[]{"_id", "_key", "long1", "long2", "long3", "long4", "string1", "string2", "string3", "string4"},
-                        "_type = ?" + (null == key ? "" : " AND _key LIKE ?"),
-                        null == key ? new String[]{String.valueOf(type.id)} : new String[]{String.valueOf(type.id), key},
+                        "_type = ?" + (null == keyPattern ? "" : " AND _key LIKE ?" + escapeClause),
+                        null == keyPattern ? new String[]{String.valueOf(type.id)} : new String[]{String.valueOf(type.id), keyPattern},
                         null, null, "_id", null)) {
                     while (cursor.moveToNext()) {
                         result.add(new DBExtension(cursor.getLong(0), cursor.getString(1), cursor.getLong(2), cursor.getLong(3), cursor.getLong(4), cursor.getLong(5), cursor.getString(6), cursor.getString(7), cursor.getString(8), cursor.getString(9)));
@@ -767,6 +823,31 @@ public class DataStore {
             return cv;
         }
 
+        /**
+         * executes the given action (consisting of several DBExtension operations) in one database transaction
+         *
+         * @return true if the transaction was committed, false if the database is not available or the action failed (nothing is changed then)
+         */
+        protected static boolean runInTransaction(final Runnable action) {
+            return withAccessLock(() -> {
+                if (!init(false)) {
+                    Log.w("DBExtension.runInTransaction: database not available");
+                    return false;
+                }
+                database.beginTransaction();
+                try {
+                    action.run();
+                    database.setTransactionSuccessful();
+                    return true;
+                } catch (final Exception e) {
+                    Log.e("DBExtension.runInTransaction failed", e);
+                    return false;
+                } finally {
+                    database.endTransaction();
+                }
+            });
+        }
+
         /**
          * removes all elements with this key from database
          */
@@ -786,6 +867,25 @@ public class DataStore {
             });
         }
 
+        /**
+         * removes all elements with this key from database. Unlike {@link #removeAll(DBExtensionType, String)} "%" and "_" in key are no wildcards
+         */
+        protected static void removeAllWithLiteralKey(final DBExtensionType type, @NonNull final String key) {
+            withAccessLock(() -> {
+                if (!init(false)) {
+                    return;
+                }
+                checkState(type, key, false);
+                database.delete(dbTableExtension, "_type = ? AND _key LIKE ?" + LIKE_ESCAPE, new String[]{String.valueOf(type.id), escapeLike(key)});
+            });
+        }
+
+        /** escapes the LIKE wildcards in given value, for use in a LIKE expression with {@link #LIKE_ESCAPE} */
+        @NonNull
+        private static String escapeLike(@NonNull final String value) {
+            return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+
         private static void checkState(final DBExtensionType type, @Nullable final String key, final boolean nullable) {
             if (type == DBEXTENSION_INVALID) {
                 throw new IllegalStateException("DBExtension: type must be set to valid type");
@@ -977,6 +1077,7 @@ public class DataStore {
         }
 
         cacheCache.removeAllFromCache();
+        logCache.invalidateAll();
         PreparedStatement.clearPreparedStatements();
         database.close();
         database = null;
@@ -1009,19 +1110,35 @@ public class DataStore {
         }
     }
 
-    public static Uri backupDatabaseInternal(final Folder backupDir) {
-        return withChangeLock(() -> {
-            closeDb();
-            final Uri uri = ContentStorage.get().copy(Uri.fromFile(databasePath()), backupDir, FileNameCreator.forName(DB_FILE_NAME_BACKUP), false);
+    /**
+     * Creates a backup of the database in given folder. Backup is first tried while database stays accessible,
+     * only if this fails (e.g. due to ongoing changes) database is closed during backup.
+     *
+     * @param incremental if true, only changes to a previous full backup may be written, see {@link DatabaseBackup}
+     * @return result containing size and duration of backup, null if backup failed
+     */
+    @Nullable
+    public static DatabaseBackup.Result backupDatabaseInternal(final Folder backupDir, final boolean incremental) {
+        DatabaseBackup.Result result = withAccessLock(() -> {
             init();
-
-            if (uri == null) {
-                Log.e("Database could not be copied to " + backupDir.toUserDisplayableString());
-                return null;
-            }
-            Log.i("Database was copied to " + backupDir.toUserDisplayableString());
-            return uri;
+            return new DatabaseBackup(databasePath(), database).backup(backupDir, incremental, true);
         });
+        if (result == null) {
+            Log.i("Database backup not possible while database is open, closing database");
+            result = withChangeLock(() -> {
+                closeDb();
+                final DatabaseBackup.Result closedResult = new DatabaseBackup(databasePath()).backup(backupDir, incremental, false);
+                init();
+                return closedResult;
+            });
+        }
+
+        if (result == null || !result.isSuccessful()) {
+            Log.e("Database could not be copied to " + backupDir.toUserDisplayableString());
+            return null;
+        }
+        Log.i("Database was copied to " + backupDir.toUserDisplayableString() + ": " + result);
+        return result;
     }
 
     /**
@@ -1078,8 +1195,26 @@ public class DataStore {
     }
 
     public static String restoreDatabaseInternal(final Context context, final Uri databaseUri) {
+        return restoreDatabaseFromTempFile(context, ContentStorage.get().writeUriToTempFile(databaseUri, "backup_db.tmp"));
+    }
+
+    /**
+     * Restores database from an incremental backup (containing only changes to a full backup in a sibling folder)
+     */
+    public static String restoreIncrementalDatabaseInternal(final Context context, final Folder backupDir) {
+        final File tmpFile = ContentStorage.get().createTempFile();
+        if (tmpFile == null) {
+            return context.getString(DBRestoreResult.RESTORE_FAILED_GENERAL.res);
+        }
+        if (!DatabaseBackup.reconstruct(backupDir, tmpFile)) {
+            tmpFile.delete();
+            return context.getString(DBRestoreResult.RESTORE_FAILED_BASE_MISSING.res);
+        }
+        return restoreDatabaseFromTempFile(context, tmpFile);
+    }
+
+    private static String restoreDatabaseFromTempFile(final Context context, final File tmpFile) {
         return withChangeLock(() -> {
-            final File tmpFile = ContentStorage.get().writeUriToTempFile(databaseUri, "backup_db.tmp");
             DBRestoreResult result = DBRestoreResult.RESTORE_FAILED_GENERAL;
             try {
                 final SQLiteDatabase backup = SQLiteDatabase.openDatabase(tmpFile.getPath(), null, SQLiteDatabase.OPEN_READONLY);
@@ -1151,6 +1286,7 @@ public class DataStore {
             db.execSQL(dbCreateSpoilers);
             db.execSQL(dbCreateLogs);
             db.execSQL(dbCreateLogCount);
+            db.execSQL(dbCreateCacheStats);
             db.execSQL(dbCreateLogImages);
             db.execSQL(dbCreateLogsOffline);
             db.execSQL(dbCreateLogsOfflineImages);
@@ -1869,6 +2005,16 @@ public class DataStore {
                         }
                     }
 
+                    // Adds table for derived cache statistics. Also rebuilds it after a downgrade and re-upgrade, as it is not maintained by older versions
+                    if (oldVersion < 104) {
+                        try {
+                            db.execSQL(dbCreateCacheStats);
+                            db.execSQL(getUpdateCacheStatsSql("SELECT DISTINCT " + dbField_Geocode + " FROM " + dbTableCaches));
+                        } catch (final SQLException e) {
+                            onUpgradeError(e, 104);
+                        }
+                    }
+
                 }
 
                 //at the very end of onUpgrade: rewrite downgradeable versions in database
@@ -1966,6 +2112,7 @@ public class DataStore {
             db.execSQL("DROP TABLE IF EXISTS " + dbTableSpoilers);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogs);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogCount);
+            db.execSQL("DROP TABLE IF EXISTS " + dbTableCacheStats);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogImages);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogsOffline);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLogsOfflineImages);
@@ -2190,6 +2337,28 @@ public class DataStore {
         });
     }
 
+    /**
+     * Marks the details of a stored cache as up to date without changing them, e.g. after it was checked online that
+     * the cache did not change since it was stored.
+     */
+    public static void setDetailedUpdatedNow(@NonNull final String geocode) {
+        withAccessLock(() -> {
+
+            init();
+
+            final long now = System.currentTimeMillis();
+            final ContentValues values = new ContentValues();
+            values.put("updated", now);
+            values.put("detailedupdate", now);
+            database.update(dbTableCaches, values, "geocode = ? AND detailed = 1", new String[]{geocode});
+
+            final Geocache cached = cacheCache.getCacheFromCache(geocode);
+            if (cached != null && cached.isDetailed()) {
+                cached.setDetailedUpdatedNow();
+            }
+        });
+    }
+
     /**
      * is cache stored in one of the lists (not only temporary)
      */
@@ -2510,6 +2679,7 @@ public class DataStore {
                 Log.e("SaveCache", e);
             } finally {
                 database.endTransaction();
+                invalidateLogsChangedInTransaction();
             }
 
             return false;
@@ -2784,15 +2954,69 @@ public class DataStore {
                 database.setTransactionSuccessful();
             } finally {
                 database.endTransaction();
+                invalidateLogsChangedInTransaction();
             }
         });
     }
 
+    /**
+     * Save a batch of imported caches together with their logs in one database transaction.
+     * The caches are removed from the CacheCache afterwards, as imported caches are usually not looked at right away.
+     *
+     * @param cachesWithLogs imported caches, each with the logs to merge into the existing ones
+     */
+    public static void saveImportedCaches(final List<ImmutablePair<Geocache, List<LogEntry>>> cachesWithLogs) {
+        if (CollectionUtils.isEmpty(cachesWithLogs)) {
+            return;
+        }
+        final List<Geocache> caches = new ArrayList<>(cachesWithLogs.size());
+        final Set<String> geocodes = new HashSet<>();
+        for (final ImmutablePair<Geocache, List<LogEntry>> cacheWithLogs : cachesWithLogs) {
+            caches.add(cacheWithLogs.left);
+            geocodes.add(cacheWithLogs.left.getGeocode());
+        }
+
+        withAccessLock(() -> {
+            init();
+            database.beginTransaction();
+            try {
+                saveCaches(caches, EnumSet.of(SaveFlag.DB));
+                for (final ImmutablePair<Geocache, List<LogEntry>> cacheWithLogs : cachesWithLogs) {
+                    saveLogsWithoutTransaction(cacheWithLogs.left.getGeocode(), cacheWithLogs.right, false);
+                }
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
+                invalidateLogsChangedInTransaction();
+            }
+        });
+
+        removeCaches(geocodes, EnumSet.of(RemoveFlag.CACHE));
+    }
+
+    /**
+     * Invalidates the memoized logs changed by the current thread once its outermost transaction has ended.
+     * Changed logs are invalidated right away too, but until the change is committed, a concurrent
+     * {@link #loadLogs(String)} may still read and memoize the old logs for the new generation.
+     */
+    private static void invalidateLogsChangedInTransaction() {
+        if (database != null && database.inTransaction()) {
+            return;
+        }
+        final Set<String> changed = logsChangedInTransaction.get();
+        if (!changed.isEmpty()) {
+            logCache.invalidate(changed);
+            changed.clear();
+        }
+    }
+
     private static void saveLogsWithoutTransaction(final String geocode, final Iterable<LogEntry> logs, final boolean removeAllExistingLogs) {
         try (ContextLogger cLog = new ContextLogger("DataStore.saveLogsWithoutTransaction(%s)", geocode)) {
             if (!logs.iterator().hasNext()) {
                 return;
             }
+            logCache.invalidate(geocode);
+            logsChangedInTransaction.get().add(geocode);
             // TODO delete logimages referring these logs
             if (removeAllExistingLogs) {
                 database.delete(dbTableLogs, "geocode = ?", new String[]{geocode});
@@ -2850,6 +3074,7 @@ public class DataStore {
                     }
                 }
             }
+            updateCacheStatsWithoutTransaction(geocode);
             cLog.add("logs:%d, imgs:%d", logCnt, imgCnt);
         }
     }
@@ -2872,6 +3097,83 @@ public class DataStore {
                 insertLogCounts.executeInsert();
             }
         }
+        updateCacheStatsWithoutTransaction(geocode);
+    }
+
+    /** recalculates the derived statistics of a cache after its logs or log counts were changed */
+    private static void updateCacheStatsWithoutTransaction(final String geocode) {
+        final SQLiteStatement updateStats = PreparedStatement.UPDATE_CACHE_STATS.getStatement();
+        updateStats.bindString(1, geocode);
+        updateStats.executeInsert();
+    }
+
+    /**
+     * SQL statement (re)calculating the derived statistics of all caches whose geocodes are selected by given query
+     */
+    @NonNull
+    private static String getUpdateCacheStatsSql(@NonNull final String geocodeQuery) {
+        final String foundLogIds = StringUtils.join(LogType.getFoundLogIds(), ',');
+        return "INSERT OR REPLACE INTO " + dbTableCacheStats + " (" + dbField_Geocode + ", " + dbFieldCacheStats_lastFound + ", "
+                + dbFieldCacheStats_foundCount + ", " + dbFieldCacheStats_dnfCount + ", " + dbFieldCacheStats_friendLogs + ")"
+                + " SELECT g.geocode,"
+                + " IFNULL((SELECT MAX(l.date) FROM " + dbTableLogs + " l WHERE l.geocode = g.geocode AND l.type IN (" + foundLogIds + ")), 0),"
+                + " IFNULL((SELECT SUM(c.count) FROM " + dbTableLogCount + " c WHERE c.geocode = g.geocode AND c.type IN (" + foundLogIds + ")), 0),"
+                + " IFNULL((SELECT SUM(c.count) FROM " + dbTableLogCount + " c WHERE c.geocode = g.geocode AND c.type = " + LogType.DIDNT_FIND_IT.id + "), 0),"
+                + " EXISTS(SELECT 1 FROM " + dbTableLogs + " l WHERE l.geocode = g.geocode AND l.friend = 1)"
+                + " FROM (" + geocodeQuery + ") g";
+    }
+
+    /**
+     * Loads the date of the newest found log of a stored cache, without loading its logs.
+     *
+     * @return null if the cache has no found log
+     */
+    @Nullable
+    public static Date loadLastFound(final String geocode) {
+        if (StringUtils.isBlank(geocode)) {
+            return null;
+        }
+        final Map<String, Date> lastFound = loadLastFound(Collections.singleton(geocode));
+        return lastFound.get(geocode);
+    }
+
+    /**
+     * Loads the dates of the newest found logs of stored caches with a single query.
+     *
+     * @return map from geocode to date, contains only caches having a found log
+     */
+    @NonNull
+    public static Map<String, Date> loadLastFound(@NonNull final Collection<String> geocodes) {
+        if (geocodes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return withAccessLock(() -> {
+            init();
+            final Map<String, Date> result = new HashMap<>();
+            try (Cursor cursor = database.query(dbTableCacheStats, new String[]{dbField_Geocode, dbFieldCacheStats_lastFound},
+                    whereGeocodeIn(geocodes) + " AND " + dbFieldCacheStats_lastFound + " > 0", null, null, null, null)) {
+                while (cursor.moveToNext()) {
+                    result.put(cursor.getString(0), new Date(cursor.getLong(1)));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Whether a stored cache has logs of the user or friends, without loading its logs.
+     */
+    public static boolean hasFriendLogs(final String geocode) {
+        if (StringUtils.isBlank(geocode)) {
+            return false;
+        }
+        return withAccessLock(() -> {
+            init();
+            try (Cursor cursor = database.query(dbTableCacheStats, new String[]{dbFieldCacheStats_friendLogs},
+                    dbField_Geocode + " = ? AND " + dbFieldCacheStats_friendLogs + " = 1", new String[]{geocode}, null, null, null, "1")) {
+                return cursor.moveToFirst();
+            }
+        });
     }
 
     public static void saveTrackable(final Trackable trackable) {
@@ -2885,6 +3187,7 @@ public class DataStore {
                 database.setTransactionSuccessful();
             } finally {
                 database.endTransaction();
+                invalidateLogsChangedInTransaction();
             }
         });
     }
@@ -2983,6 +3286,40 @@ public class DataStore {
         return caches.isEmpty() ? null : caches.iterator().next();
     }
 
+    /**
+     * Load a single cache with all details from database. A fully loaded cache prepared by {@link #prefetchFullCache(String)}
+     * is used instead if it is still available.
+     *
+     * @param geocode The Geocode GCXXXX
+     * @return the loaded cache (if found). Can be null
+     */
+    @Nullable
+    public static Geocache loadFullCache(final String geocode) {
+        if (StringUtils.isBlank(geocode)) {
+            throw new IllegalArgumentException("geocode must not be empty");
+        }
+        final Geocache prefetched = cacheCache.takeFullyLoadedCacheFromCache(geocode);
+        return prefetched != null ? prefetched : loadCache(geocode, LoadFlags.LOAD_ALL_DB_ONLY);
+    }
+
+    /**
+     * Load a single cache with all details from database and keep it in memory for a subsequent {@link #loadFullCache(String)}.
+     *
+     * @param geocode The Geocode GCXXXX
+     * @return the loaded cache (if found). Can be null
+     */
+    @Nullable
+    public static Geocache prefetchFullCache(final String geocode) {
+        if (cacheCache.isFullyLoaded(geocode)) {
+            return cacheCache.getCacheFromCache(geocode);
+        }
+        final Geocache cache = loadCache(geocode, LoadFlags.LOAD_ALL_DB_ONLY);
+        if (cache != null) {
+            cacheCache.markFullyLoaded(cache);
+        }
+        return cache;
+    }
+
     /**
      * Load caches.
      *
@@ -3733,65 +4070,153 @@ public class DataStore {
 
 
     /**
+     * Loads the newest logs of a geocode (at most {@link #MAX_LOADED_LOGS}). Results are memoized until the logs of
+     * the geocode are changed in database.
+     *
      * @return an immutable, non null list of logs
      */
     @NonNull
     public static List<LogEntry> loadLogs(final String geocode) {
+        if (StringUtils.isBlank(geocode)) {
+            return Collections.emptyList();
+        }
+        final List<LogEntry> memoized = logCache.get(geocode);
+        if (memoized != null) {
+            return memoized;
+        }
+        final long generation = logCache.getGeneration();
+        final List<LogEntry> logs = loadLogs(geocode, null, MAX_LOADED_LOGS);
+        logCache.put(geocode, logs, generation);
+        return logs;
+    }
+
+    /**
+     * Loads a page of logs of a geocode, newest logs first. Pages are not memoized.
+     *
+     * @param after last log of the previous page, or null to load the first page
+     * @param limit maximum number of logs to load
+     * @return an immutable, non null list of logs
+     */
+    @NonNull
+    public static List<LogEntry> loadLogs(final String geocode, @Nullable final LogEntry after, final int limit) {
+        if (StringUtils.isBlank(geocode)) {
+            return Collections.emptyList();
+        }
         return withAccessLock(() -> {
 
-            try (ContextLogger cLog = new ContextLogger("DataStore.loadLogs(%s)", geocode)) {
-                final List<LogEntry> logs = new ArrayList<>();
+            try (ContextLogger cLog = new ContextLogger("DataStore.loadLogs(%s, %s)", geocode, after == null ? "-" : after.id)) {
+                init();
 
-                if (StringUtils.isBlank(geocode)) {
-                    return logs;
-                }
+                final List<LogEntry> logs = queryLogs(geocode, after, limit);
+                cLog.add("#:%d", logs.size());
+                return logs;
+            }
+        });
+    }
 
-                init();
+    /** reads a page of logs of a geocode using the index on geocode and date, caller must hold the access lock */
+    @NonNull
+    private static List<LogEntry> queryLogs(final String geocode, @Nullable final LogEntry after, final int limit) {
+        final StringBuilder where = new StringBuilder("geocode = ?");
+        final List<String> args = new ArrayList<>();
+        args.add(geocode);
+        if (after != null) {
+            // keyset paging along the sort order "date DESC, _id ASC"
+            where.append(" AND (date < ? OR (date = ? AND _id > ?))");
+            args.add(String.valueOf(after.date));
+            args.add(String.valueOf(after.date));
+            args.add(String.valueOf(after.id));
+        }
+        final String logsQuery = "SELECT * FROM " + dbTableLogs + " WHERE " + where + " ORDER BY date DESC, _id ASC LIMIT " + limit;
+        try (Cursor cursor = database.rawQuery(getLogsWithImagesQuery(logsQuery), args.toArray(new String[0]))) {
+            final List<LogEntry> logs = readLogsGroupedByGeocode(cursor).get(geocode);
+            return logs == null ? Collections.emptyList() : logs;
+        }
+    }
 
-                final Cursor cursor = database.rawQuery(
-                        //                     0           1               2     3       4            5    6     7      8                                       9                10      11     12   13           14
-                        "SELECT cg_logs._id AS cg_logs_id, service_log_id, type, author, author_guid, log, date, found, friend, " + dbTableLogImages + "._id as cg_logImages_id, log_id, title, url, description, service_image_id"
-                                + " FROM " + dbTableLogs + " LEFT OUTER JOIN " + dbTableLogImages
-                                + " ON ( cg_logs._id = log_id ) WHERE geocode = ?  ORDER BY date DESC, cg_logs._id ASC", new String[]{geocode});
-
-                LogEntry.Builder log = null;
-                int cnt = 0;
-                while (cursor.moveToNext() && logs.size() < 100) {
-                    cnt++;
-                    if (log == null || log.getId() != cursor.getInt(0)) {
-                        // Start of a new log entry group (we may have several entries if the log has several images).
-                        if (log != null) {
-                            logs.add(log.build());
-                        }
-                        log = new LogEntry.Builder()
-                                .setId(cursor.getInt(0))
-                                .setServiceLogId(cursor.getString(1))
-                                .setLogType(LogType.getById(cursor.getInt(2)))
-                                .setAuthor(cursor.getString(3))
-                                .setAuthorGuid(cursor.getString(4))
-                                .setLog(cursor.getString(5))
-                                .setDate(cursor.getLong(6))
-                                .setFound(cursor.getInt(7))
-                                .setFriend(cursor.getInt(8) == 1);
-                        if (!cursor.isNull(9)) {
-                            log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).setServiceImageId(cursor.getString(14)).build());
-                        }
-                    } else {
-                        // We cannot get several lines for the same log entry if it does not contain an image.
-                        log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).setServiceImageId(cursor.getString(14)).build());
-                    }
+    /**
+     * Loads the newest logs (at most {@link #MAX_LOADED_LOGS} each) of multiple geocodes in one go
+     * and memoizes them for subsequent calls of {@link #loadLogs(String)}. Use this before processing logs of many caches.
+     * <br>
+     * Each geocode is read by its own query on the index (geocode, date). A single query limiting the logs per geocode
+     * would need a correlated subquery per log row (window functions are not available on all supported Android versions).
+     */
+    public static void prefetchLogs(@NonNull final Collection<String> geocodes) {
+        final List<String> toLoad = new ArrayList<>();
+        for (final String geocode : geocodes) {
+            if (StringUtils.isNotBlank(geocode) && !logCache.contains(geocode)) {
+                toLoad.add(geocode);
+            }
+        }
+        if (toLoad.isEmpty()) {
+            return;
+        }
+        withAccessLock(() -> {
+
+            try (ContextLogger cLog = new ContextLogger("DataStore.prefetchLogs(#%d)", toLoad.size())) {
+                init();
+                int logCount = 0;
+                for (final String geocode : toLoad) {
+                    final long generation = logCache.getGeneration();
+                    final List<LogEntry> logs = queryLogs(geocode, null, MAX_LOADED_LOGS);
+                    logCache.put(geocode, logs, generation);
+                    logCount += logs.size();
                 }
+                cLog.add("#logs:%d", logCount);
+            }
+        });
+    }
+
+    /** joins the logs selected by given query with their images, sorted by geocode and then like the logs tab */
+    @NonNull
+    private static String getLogsWithImagesQuery(@NonNull final String logsQuery) {
+        //              0         1               2     3       4            5    6     7      8       9                                      10      11     12   13           14                15
+        return "SELECT l._id, l.service_log_id, l.type, l.author, l.author_guid, l.log, l.date, l.found, l.friend, " + dbTableLogImages + "._id, log_id, title, url, description, service_image_id, l.geocode"
+                + " FROM (" + logsQuery + ") l LEFT OUTER JOIN " + dbTableLogImages + " ON ( l._id = log_id )"
+                + " ORDER BY l.geocode, l.date DESC, l._id ASC, " + dbTableLogImages + "._id ASC";
+    }
+
+    /** reads the result of a {@link #getLogsWithImagesQuery(String)}, returns immutable lists of logs per geocode */
+    @NonNull
+    private static Map<String, List<LogEntry>> readLogsGroupedByGeocode(@NonNull final Cursor cursor) {
+        final Map<String, List<LogEntry>> result = new HashMap<>();
+        List<LogEntry> logs = null;
+        String geocode = null;
+        LogEntry.Builder log = null;
+        while (cursor.moveToNext()) {
+            if (log == null || log.getId() != cursor.getInt(0)) {
+                // Start of a new log entry group (we may have several entries if the log has several images).
                 if (log != null) {
                     logs.add(log.build());
                 }
-
-                cursor.close();
-
-                cLog.add("l:%d,#:%d", cnt, logs.size());
-
-                return Collections.unmodifiableList(logs);
+                if (!cursor.getString(15).equals(geocode)) {
+                    if (logs != null) {
+                        result.put(geocode, Collections.unmodifiableList(logs));
+                    }
+                    geocode = cursor.getString(15);
+                    logs = new ArrayList<>();
+                }
+                log = new LogEntry.Builder()
+                        .setId(cursor.getInt(0))
+                        .setServiceLogId(cursor.getString(1))
+                        .setLogType(LogType.getById(cursor.getInt(2)))
+                        .setAuthor(cursor.getString(3))
+                        .setAuthorGuid(cursor.getString(4))
+                        .setLog(cursor.getString(5))
+                        .setDate(cursor.getLong(6))
+                        .setFound(cursor.getInt(7))
+                        .setFriend(cursor.getInt(8) == 1);
             }
-        });
+            // We cannot get several lines for the same log entry if it does not contain an image.
+            if (!cursor.isNull(9)) {
+                log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).setServiceImageId(cursor.getString(14)).build());
+            }
+        }
+        if (log != null) {
+            logs.add(log.build());
+            result.put(geocode, Collections.unmodifiableList(logs));
+        }
+        return result;
     }
 
     @Nullable
@@ -4264,10 +4689,14 @@ public class DataStore {
         Log.d("Database clean: removing non-existing caches from logcount");
         database.delete(dbTableLogCount, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
 
+        Log.d("Database clean: removing non-existing caches from cache stats");
+        database.delete(dbTableCacheStats, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
+
         DBLogOfflineUtils.cleanOrphanedRecords(database);
 
         Log.d("Database clean: removing non-existing caches from logs");
         database.delete(dbTableLogs, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
+        logCache.invalidateAll();
 
         Log.d("Database clean: removing non-existing logs from logimages");
         database.delete(dbTableLogImages, "log_id NOT IN (SELECT _id FROM " + dbTableLogs + ")", null);
@@ -4422,7 +4851,11 @@ public class DataStore {
                     database.delete(dbTableSpoilers, baseWhereClause, null);
                     database.delete(dbTableLogImages, "log_id IN (SELECT _id FROM " + dbTableLogs + " WHERE " + baseWhereClause + ")", null);
                     database.delete(dbTableLogs, baseWhereClause, null);
+                    logCache.invalidate(geocodes);
+                    logsChangedInTransaction.get().addAll(geocodes);
                     database.delete(dbTableLogCount, baseWhereClause, null);
+                    database.delete(dbTableCacheStats, baseWhereClause, null);
+                    database.delete(dbTableExtension, "_type = " + DBExtensionType.DBEXTENSION_CACHE_CHANGE_MARKER.id + " AND _key IN (" + geocodeList + ")", null);
                     DBLogOfflineUtils.remove(database, baseWhereClause, null);
                     String wayPointClause = baseWhereClause;
                     if (!removeFlags.contains(RemoveFlag.OWN_WAYPOINTS_ONLY_FOR_TESTING)) {
@@ -4435,6 +4868,7 @@ public class DataStore {
                     database.setTransactionSuccessful();
                 } finally {
                     database.endTransaction();
+                    invalidateLogsChangedInTransaction();
                 }
 
                 // Delete cache directories
@@ -4758,49 +5192,43 @@ public class DataStore {
 
             init();
 
-            final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_LIST.getStatement();
-            final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-
-            database.beginTransaction();
-            try {
-                for (final Geocache cache : caches) {
-                    remove.bindLong(1, oldListId);
-                    remove.bindString(2, cache.getGeocode());
-                    remove.execute();
-
-                    add.bindLong(1, newListId);
-                    add.bindString(2, cache.getGeocode());
-                    add.execute();
-
-                    cache.getLists().remove(oldListId);
-                    cache.getLists().add(newListId);
+            try (ContextLogger ignore = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.moveToList(#%d)", caches.size())) {
+                database.beginTransaction();
+                try {
+                    fillTempGeocodes(caches);
+                    bindAndExecute(PreparedStatement.REMOVE_TEMP_GEOCODES_FROM_LIST, oldListId);
+                    bindAndExecute(PreparedStatement.ADD_TEMP_GEOCODES_TO_LIST, newListId);
+                    database.setTransactionSuccessful();
+                } finally {
+                    database.endTransaction();
                 }
-                database.setTransactionSuccessful();
-            } finally {
-                database.endTransaction();
             }
+            updateLoadedCaches(caches, cache -> {
+                cache.getLists().remove(oldListId);
+                cache.getLists().add(newListId);
+            });
         });
     }
 
     public static void removeFromList(final Collection<Geocache> caches, final int oldListId) {
+        if (caches.isEmpty()) {
+            return;
+        }
         withAccessLock(() -> {
 
             init();
 
-            final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_LIST.getStatement();
-
-            database.beginTransaction();
-            try {
-                for (final Geocache cache : caches) {
-                    remove.bindLong(1, oldListId);
-                    remove.bindString(2, cache.getGeocode());
-                    remove.execute();
-                    cache.getLists().remove(oldListId);
+            try (ContextLogger ignore = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.removeFromList(#%d)", caches.size())) {
+                database.beginTransaction();
+                try {
+                    fillTempGeocodes(caches);
+                    bindAndExecute(PreparedStatement.REMOVE_TEMP_GEOCODES_FROM_LIST, oldListId);
+                    database.setTransactionSuccessful();
+                } finally {
+                    database.endTransaction();
                 }
-                database.setTransactionSuccessful();
-            } finally {
-                database.endTransaction();
             }
+            updateLoadedCaches(caches, cache -> cache.getLists().remove(oldListId));
         });
     }
 
@@ -4820,21 +5248,17 @@ public class DataStore {
 
             init();
 
-            final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-
-            database.beginTransaction();
-            try {
-                for (final Geocache cache : caches) {
-                    add.bindLong(1, listId);
-                    add.bindString(2, cache.getGeocode());
-                    add.execute();
-
-                    cache.getLists().add(listId);
+            try (ContextLogger ignore = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.addToList(#%d)", caches.size())) {
+                database.beginTransaction();
+                try {
+                    fillTempGeocodes(caches);
+                    bindAndExecute(PreparedStatement.ADD_TEMP_GEOCODES_TO_LIST, listId);
+                    database.setTransactionSuccessful();
+                } finally {
+                    database.endTransaction();
                 }
-                database.setTransactionSuccessful();
-            } finally {
-                database.endTransaction();
             }
+            updateLoadedCaches(caches, cache -> cache.getLists().add(listId));
         });
     }
 
@@ -4842,39 +5266,36 @@ public class DataStore {
         if (caches.isEmpty()) {
             return;
         }
+        for (final Integer listId : listIds) {
+            final AbstractList list = AbstractList.getListById(listId);
+            if (list == null) {
+                return;
+            }
+            if (!list.isConcrete()) {
+                return;
+            }
+        }
         withAccessLock(() -> {
 
             init();
 
-            final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-            final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_ALL_LISTS.getStatement();
-
-            database.beginTransaction();
-            try {
-                for (final Geocache cache : caches) {
-                    remove.bindString(1, cache.getGeocode());
-                    remove.execute();
-                    cache.getLists().clear();
-
+            try (ContextLogger ignore = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.saveLists(#%d, lists:%d)", caches.size(), listIds.size())) {
+                database.beginTransaction();
+                try {
+                    fillTempGeocodes(caches);
+                    PreparedStatement.REMOVE_TEMP_GEOCODES_FROM_ALL_LISTS.getStatement().execute();
                     for (final Integer listId : listIds) {
-                        final AbstractList list = AbstractList.getListById(listId);
-                        if (list == null) {
-                            return;
-                        }
-                        if (!list.isConcrete()) {
-                            return;
-                        }
-                        add.bindLong(1, listId);
-                        add.bindString(2, cache.getGeocode());
-                        add.execute();
-
-                        cache.getLists().add(listId);
+                        bindAndExecute(PreparedStatement.ADD_TEMP_GEOCODES_TO_LIST, listId);
                     }
+                    database.setTransactionSuccessful();
+                } finally {
+                    database.endTransaction();
                 }
-                database.setTransactionSuccessful();
-            } finally {
-                database.endTransaction();
             }
+            updateLoadedCaches(caches, cache -> {
+                cache.getLists().clear();
+                cache.getLists().addAll(listIds);
+            });
         });
     }
 
@@ -4882,31 +5303,47 @@ public class DataStore {
         if (caches.isEmpty() || cachesLists.isEmpty()) {
             return;
         }
+        // group caches by list, so that each list needs a single statement
+        final Map<Integer, List<Geocache>> cachesByList = new HashMap<>();
+        for (final Geocache cache : caches) {
+            final Set<Integer> lists = cachesLists.get(cache.getGeocode());
+            if (lists == null) {
+                continue;
+            }
+            for (final Integer listId : lists) {
+                List<Geocache> listCaches = cachesByList.get(listId);
+                if (listCaches == null) {
+                    listCaches = new ArrayList<>();
+                    cachesByList.put(listId, listCaches);
+                }
+                listCaches.add(cache);
+            }
+        }
+        if (cachesByList.isEmpty()) {
+            return;
+        }
         withAccessLock(() -> {
 
             init();
 
-            final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-
-            database.beginTransaction();
-            try {
-                for (final Geocache cache : caches) {
-                    final Set<Integer> lists = cachesLists.get(cache.getGeocode());
-                    if (lists.isEmpty()) {
-                        continue;
-                    }
-
-                    for (final Integer listId : lists) {
-                        add.bindLong(1, listId);
-                        add.bindString(2, cache.getGeocode());
-                        add.execute();
+            try (ContextLogger ignore = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.addToLists(#%d, lists:%d)", caches.size(), cachesByList.size())) {
+                database.beginTransaction();
+                try {
+                    for (final Entry<Integer, List<Geocache>> entry : cachesByList.entrySet()) {
+                        fillTempGeocodes(entry.getValue());
+                        bindAndExecute(PreparedStatement.ADD_TEMP_GEOCODES_TO_LIST, entry.getKey());
                     }
-
+                    database.setTransactionSuccessful();
+                } finally {
+                    database.endTransaction();
                 }
-                database.setTransactionSuccessful();
-            } finally {
-                database.endTransaction();
             }
+            updateLoadedCaches(caches, cache -> {
+                final Set<Integer> lists = cachesLists.get(cache.getGeocode());
+                if (lists != null) {
+                    cache.getLists().addAll(lists);
+                }
+            });
         });
     }
 
@@ -4916,21 +5353,19 @@ public class DataStore {
         }
         withAccessLock(() -> {
 
-            final SQLiteStatement add = PreparedStatement.SET_CACHE_ICON.getStatement();
-
-            database.beginTransaction();
-            try {
-                for (final Geocache cache : caches) {
-                    add.bindLong(1, newCacheIcon);
-                    add.bindString(2, cache.getGeocode());
-                    add.execute();
+            init();
 
-                    cache.setAssignedEmoji(newCacheIcon);
+            try (ContextLogger ignore = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.setCacheIcons(#%d)", caches.size())) {
+                database.beginTransaction();
+                try {
+                    fillTempGeocodes(caches);
+                    bindAndExecute(PreparedStatement.SET_TEMP_GEOCODES_CACHE_ICON, newCacheIcon);
+                    database.setTransactionSuccessful();
+                } finally {
+                    database.endTransaction();
                 }
-                database.setTransactionSuccessful();
-            } finally {
-                database.endTransaction();
             }
+            updateLoadedCaches(caches, cache -> cache.setAssignedEmoji(newCacheIcon));
         });
     }
 
@@ -4942,28 +5377,77 @@ public class DataStore {
         if (caches.isEmpty()) {
             return;
         }
+        // group caches by icon, so that each icon needs a single statement
+        final Map<Integer, List<Geocache>> cachesByIcon = new HashMap<>();
+        for (final Geocache cache : caches) {
+            final Integer newCacheIcon = undo.get(cache.getGeocode());
+            final int icon = newCacheIcon == null ? 0 : newCacheIcon;
+            List<Geocache> iconCaches = cachesByIcon.get(icon);
+            if (iconCaches == null) {
+                iconCaches = new ArrayList<>();
+                cachesByIcon.put(icon, iconCaches);
+            }
+            iconCaches.add(cache);
+        }
         withAccessLock(() -> {
 
-            final SQLiteStatement add = PreparedStatement.SET_CACHE_ICON.getStatement();
-
-            database.beginTransaction();
-            try {
-                for (final Geocache cache : caches) {
-                    final String geocode = cache.getGeocode();
-                    final Integer newCacheIcon = undo.get(geocode);
-                    add.bindLong(1, newCacheIcon == null ? 0 : newCacheIcon);
-                    add.bindString(2, geocode);
-                    add.execute();
+            init();
 
-                    cache.setAssignedEmoji(newCacheIcon == null ? 0 : newCacheIcon);
+            try (ContextLogger ignore = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.setCacheIcons(#%d, icons:%d)", caches.size(), cachesByIcon.size())) {
+                database.beginTransaction();
+                try {
+                    for (final Entry<Integer, List<Geocache>> entry : cachesByIcon.entrySet()) {
+                        fillTempGeocodes(entry.getValue());
+                        bindAndExecute(PreparedStatement.SET_TEMP_GEOCODES_CACHE_ICON, entry.getKey());
+                    }
+                    database.setTransactionSuccessful();
+                } finally {
+                    database.endTransaction();
                 }
-                database.setTransactionSuccessful();
-            } finally {
-                database.endTransaction();
             }
+            updateLoadedCaches(caches, cache -> {
+                final Integer newCacheIcon = undo.get(cache.getGeocode());
+                cache.setAssignedEmoji(newCacheIcon == null ? 0 : newCacheIcon);
+            });
         });
     }
 
+    /**
+     * Replaces the content of the temporary geocode table by the geocodes of the given caches.
+     * <br>
+     * Bulk updates of many caches then need a single statement joining this table, instead of one statement per cache.
+     * The table is private to the database connection, so this must be called inside the transaction using it.
+     */
+    private static void fillTempGeocodes(final Collection<Geocache> caches) {
+        database.execSQL("CREATE TEMP TABLE IF NOT EXISTS " + dbTableTempGeocodes + " (" + dbField_Geocode + " TEXT PRIMARY KEY NOT NULL)");
+        database.execSQL("DELETE FROM " + dbTableTempGeocodes);
+        final SQLiteStatement add = PreparedStatement.ADD_TEMP_GEOCODE.getStatement();
+        for (final Geocache cache : caches) {
+            add.bindString(1, cache.getGeocode());
+            add.execute();
+        }
+    }
+
+    private static void bindAndExecute(final PreparedStatement preparedStatement, final long value) {
+        final SQLiteStatement statement = preparedStatement.getStatement();
+        statement.bindLong(1, value);
+        statement.execute();
+    }
+
+    /**
+     * Applies a change already stored in the database to the given caches and to other instances of them still
+     * held in the cache cache, so that these don't need to be reloaded.
+     */
+    private static void updateLoadedCaches(final Collection<Geocache> caches, final Action1<Geocache> update) {
+        for (final Geocache cache : caches) {
+            update.call(cache);
+            final Geocache cached = cacheCache.getCacheFromCache(cache.getGeocode());
+            if (cached != null && cached != cache) {
+                update.call(cached);
+            }
+        }
+    }
+
     private static @NonNull
     String fetchLocation(final Cursor cursor) {
         String location = null;
@@ -5144,7 +5628,6 @@ public class DataStore {
 
         HISTORY_COUNT("SELECT COUNT(*) FROM " + dbTableCaches + " WHERE visiteddate > 0 OR geocode IN (SELECT geocode FROM " + dbTableLogsOffline + ")"),
         MOVE_TO_STANDARD_LIST("UPDATE " + dbTableCachesLists + " SET list_id = " + StoredList.STANDARD_LIST_ID + " WHERE list_id = ? AND geocode NOT IN (SELECT DISTINCT (geocode) FROM " + dbTableCachesLists + " WHERE list_id = " + StoredList.STANDARD_LIST_ID + ")"),
-        REMOVE_FROM_LIST("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ? AND geocode = ?"),
         REMOVE_FROM_ALL_LISTS("DELETE FROM " + dbTableCachesLists + " WHERE geocode = ?"),
         REMOVE_ALL_FROM_LIST("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ?"),
         UPDATE_VISIT_DATE("UPDATE " + dbTableCaches + " SET visiteddate = ? WHERE geocode = ?"),
@@ -5176,7 +5659,12 @@ public class DataStore {
         SEQUENCE_UPDATE("UPDATE " + dbTableSequences + " SET seq = ? WHERE name = ?"),
         SEQUENCE_INSERT("INSERT INTO " + dbTableSequences + " (name, seq) VALUES (?, ?)"),
         GET_ALL_STORED_LOCATIONS("SELECT DISTINCT c.location FROM " + dbTableCaches + " c WHERE c.location IS NOT NULL"),
-        SET_CACHE_ICON("UPDATE " + dbTableCaches + " SET emoji = ? WHERE geocode = ?");
+        ADD_TEMP_GEOCODE("INSERT OR IGNORE INTO " + dbTableTempGeocodes + " (geocode) VALUES (?)"),
+        ADD_TEMP_GEOCODES_TO_LIST("INSERT OR REPLACE INTO " + dbTableCachesLists + " (list_id, geocode) SELECT ?, geocode FROM " + dbTableTempGeocodes),
+        REMOVE_TEMP_GEOCODES_FROM_LIST("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ? AND geocode IN (SELECT geocode FROM " + dbTableTempGeocodes + ")"),
+        REMOVE_TEMP_GEOCODES_FROM_ALL_LISTS("DELETE FROM " + dbTableCachesLists + " WHERE geocode IN (SELECT geocode FROM " + dbTableTempGeocodes + ")"),
+        SET_TEMP_GEOCODES_CACHE_ICON("UPDATE " + dbTableCaches + " SET emoji = ? WHERE geocode IN (SELECT geocode FROM " + dbTableTempGeocodes + ")"),
+        UPDATE_CACHE_STATS(getUpdateCacheStatsSql("SELECT ? AS " + dbField_Geocode));
 
         private static final List<PreparedStatement> statements = new ArrayList<>();
 
@@ -0,0 +1,569 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.utils.FileNameCreator;
+import cgeo.geocaching.utils.Log;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Creates backups of the SQLite database file, either as a full copy or incrementally as a delta to a previous full backup.
+ * <br>
+ * Online backups are taken while the database stays open: the database file is read without any lock, and the snapshot is
+ * validated afterwards using the SQLite file change counter (which is incremented on each committed write transaction in rollback
+ * journal mode), the file size and modification time, and the rollback journal. If the database uses a write-ahead log (as
+ * Android 9+ does by default), the database file alone does not contain the committed data. Thus the log is first checkpointed
+ * into the database file and truncated using the open connection; as long as the log then stays empty, the database file is
+ * not changed. If the database was changed during the backup, the backup is retried and finally reported as not possible,
+ * so the caller can fall back to a backup with closed database.
+ * <br>
+ * Incremental backups compare the database in chunks against the chunk hashes of the last full backup (stored in a local manifest)
+ * and only write the changed chunks to a delta file. A delta always refers to a full backup in a sibling folder, thus restoring
+ * needs exactly this full backup and the delta file.
+ */
+public class DatabaseBackup {
+
+    public static final String DELTA_FILE_NAME = DataStore.DB_FILE_NAME_BACKUP + ".delta";
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int DELTA_MAGIC = 0x63444244; // "cDBD"
+    private static final int MANIFEST_MAGIC = 0x63444d46; // "cDMF"
+    private static final int FORMAT_VERSION = 1;
+
+    /** after this number of incremental backups, a full backup is created again */
+    private static final int MAX_INCREMENTS_PER_BASE = 6;
+    /** if a larger share of the database was changed, a full backup is created */
+    private static final double MAX_CHANGED_SHARE = 0.5;
+
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 3;
+    private static final long SNAPSHOT_RETRY_DELAY_MS = 300;
+
+    /** position of the "file change counter" in the SQLite database header */
+    private static final int HEADER_CHANGE_COUNTER_OFFSET = 24;
+    private static final byte[] JOURNAL_MAGIC = {(byte) 0xd9, (byte) 0xd5, (byte) 0x05, (byte) 0xf9, (byte) 0x20, (byte) 0xa1, (byte) 0x63, (byte) 0xd7};
+
+    private final File database;
+    /** open connection to the database, used to checkpoint its write-ahead log for online backups */
+    @Nullable private final SQLiteDatabase connection;
+
+    /** outcome of a database backup */
+    public static class Result {
+        /** uri of written backup file, null if backup failed */
+        @Nullable public final Uri uri;
+        /** true if only changes to a previous full backup were written */
+        public final boolean incremental;
+        public final long bytesWritten;
+        public final long databaseSize;
+        public final long durationMs;
+
+        Result(@Nullable final Uri uri, final boolean incremental, final long bytesWritten, final long databaseSize, final long durationMs) {
+            this.uri = uri;
+            this.incremental = incremental;
+            this.bytesWritten = bytesWritten;
+            this.databaseSize = databaseSize;
+            this.durationMs = durationMs;
+        }
+
+        public boolean isSuccessful() {
+            return uri != null;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return (incremental ? "incremental" : "full") + " backup, " + bytesWritten + " of " + databaseSize + " bytes written in " + durationMs + "ms";
+        }
+    }
+
+    /** chunk hashes of the last full backup for a backup parent folder */
+    private static class Manifest {
+        final String baseName;
+        final long baseLength;
+        final long[] hashes;
+        int increments;
+
+        Manifest(final String baseName, final long baseLength, final long[] hashes, final int increments) {
+            this.baseName = baseName;
+            this.baseLength = baseLength;
+            this.hashes = hashes;
+            this.increments = increments;
+        }
+    }
+
+    /** header of a delta file */
+    private static class DeltaHeader {
+        String baseName;
+        String baseConfig;
+        long baseLength;
+        long baseDigest;
+        long length;
+        int chunkCount;
+    }
+
+    public DatabaseBackup(@NonNull final File database) {
+        this(database, null);
+    }
+
+    /**
+     * @param connection open connection to the database. Needed for online backups if the database uses a write-ahead log
+     */
+    public DatabaseBackup(@NonNull final File database, @Nullable final SQLiteDatabase connection) {
+        this.database = database;
+        this.connection = connection;
+    }
+
+    /**
+     * Writes a backup of the database into given folder.
+     *
+     * @param incremental if true, only changes to the last full backup in a sibling folder are written (if such a backup exists)
+     * @param online      if true, database may be changed concurrently. In this case the written backup is validated and null is returned
+     *                    if no consistent backup could be taken. If false, caller has to ensure that database is closed
+     * @return backup result, null if online backup was not possible
+     */
+    @Nullable
+    @WorkerThread
+    public Result backup(@NonNull final Folder backupDir, final boolean incremental, final boolean online) {
+        final long start = System.currentTimeMillis();
+        for (int attempt = 0; attempt < (online ? MAX_SNAPSHOT_ATTEMPTS : 1); attempt++) {
+            if (attempt > 0) {
+                try {
+                    Thread.sleep(SNAPSHOT_RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            if (online) {
+                checkpoint();
+            }
+            final String stateBefore = online ? readSnapshotState() : null;
+            if (online && stateBefore == null) {
+                continue;
+            }
+            try {
+                final long length = database.length();
+                final long[] hashes = hashChunks(database);
+                final Manifest manifest = incremental ? readManifest(backupDir) : null;
+                final List<Integer> changed = manifest == null ? null : getChangedChunks(manifest.hashes, hashes);
+                final boolean delta = changed != null && changed.size() <= hashes.length * MAX_CHANGED_SHARE;
+
+                final Uri uri = delta ? writeDelta(backupDir, manifest, changed, length) : writeFull(backupDir);
+                if (uri == null) {
+                    return new Result(null, delta, 0, length, System.currentTimeMillis() - start);
+                }
+                if (online && !stateBefore.equals(readSnapshotState())) {
+                    Log.i("DatabaseBackup: database changed during backup, retrying");
+                    ContentStorage.get().delete(uri);
+                    continue;
+                }
+
+                if (delta) {
+                    manifest.increments++;
+                    writeManifest(backupDir, manifest);
+                } else {
+                    writeManifest(backupDir, new Manifest(getFolderName(backupDir), length, hashes, 0));
+                }
+                return new Result(uri, delta, delta ? getSize(changed, length) : length, length, System.currentTimeMillis() - start);
+            } catch (IOException ioe) {
+                Log.w("DatabaseBackup: backup failed", ioe);
+                if (!online) {
+                    return new Result(null, false, 0, database.length(), System.currentTimeMillis() - start);
+                }
+                //database file might have been changed during read, retry
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies all changes from the write-ahead log into the database file and truncates the log,
+     * so that the database file contains all committed data. Does nothing if there is no write-ahead log.
+     */
+    private void checkpoint() {
+        if (connection == null || !connection.isOpen() || getWalFile().length() == 0) {
+            return;
+        }
+        try (Cursor cursor = connection.rawQuery("PRAGMA wal_checkpoint(TRUNCATE)", null)) {
+            if (cursor.moveToFirst() && cursor.getInt(0) != 0) {
+                Log.i("DatabaseBackup: checkpoint of write-ahead log was blocked");
+            }
+        } catch (SQLiteException e) {
+            Log.w("DatabaseBackup: checkpoint of write-ahead log failed", e);
+        }
+    }
+
+    @NonNull
+    private File getWalFile() {
+        return new File(database.getPath() + "-wal");
+    }
+
+    /**
+     * Returns a state identifying the current database content, or null if a write transaction is in progress
+     * or the write-ahead log contains changes not yet copied to the database file
+     */
+    @Nullable
+    private String readSnapshotState() {
+        if (isJournalActive(new File(database.getPath() + "-journal")) || getWalFile().length() > 0) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(database, "r")) {
+            raf.seek(HEADER_CHANGE_COUNTER_OFFSET);
+            // in WAL mode the change counter is not necessarily incremented, but any change fills the (checked) write-ahead log first
+            return raf.readInt() + ":" + raf.length() + ":" + database.lastModified();
+        } catch (IOException ioe) {
+            Log.w("DatabaseBackup: unable to read database header", ioe);
+            return null;
+        }
+    }
+
+    private static boolean isJournalActive(final File journal) {
+        if (journal.length() < JOURNAL_MAGIC.length) {
+            return false;
+        }
+        try (InputStream in = new FileInputStream(journal)) {
+            final byte[] header = new byte[JOURNAL_MAGIC.length];
+            return IOUtils.read(in, header) == header.length && Arrays.equals(header, JOURNAL_MAGIC);
+        } catch (IOException ioe) {
+            return true;
+        }
+    }
+
+    @Nullable
+    private Uri writeFull(final Folder backupDir) {
+        return ContentStorage.get().copy(Uri.fromFile(database), backupDir, FileNameCreator.forName(DataStore.DB_FILE_NAME_BACKUP), false);
+    }
+
+    @Nullable
+    private Uri writeDelta(final Folder backupDir, final Manifest manifest, final List<Integer> changed, final long length) throws IOException {
+        final Uri uri = ContentStorage.get().create(backupDir, DELTA_FILE_NAME);
+        final OutputStream os = uri == null ? null : ContentStorage.get().openForWrite(uri);
+        if (os == null) {
+            return null;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+             RandomAccessFile raf = new RandomAccessFile(database, "r")) {
+            out.writeInt(DELTA_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(manifest.baseName);
+            final Folder parent = backupDir.getParentFolder();
+            out.writeUTF(parent == null ? "" : Folder.fromFolder(parent, manifest.baseName).toConfig());
+            out.writeLong(manifest.baseLength);
+            out.writeLong(digest(manifest.hashes));
+            out.writeInt(CHUNK_SIZE);
+            out.writeLong(length);
+            out.writeInt(changed.size());
+            final byte[] buffer = new byte[CHUNK_SIZE];
+            for (int chunk : changed) {
+                final int size = (int) Math.min(CHUNK_SIZE, length - (long) chunk * CHUNK_SIZE);
+                raf.seek((long) chunk * CHUNK_SIZE);
+                raf.readFully(buffer, 0, size);
+                out.writeInt(chunk);
+                out.writeInt(size);
+                out.write(buffer, 0, size);
+            }
+        } catch (IOException ioe) {
+            ContentStorage.get().delete(uri);
+            throw ioe;
+        }
+        return uri;
+    }
+
+    /**
+     * Reconstructs the database file of an incremental backup by applying its delta file to the full backup it is based on.
+     *
+     * @return true if target contains reconstructed database, false if delta or its base could not be read
+     */
+    @WorkerThread
+    public static boolean reconstruct(@NonNull final Folder backupDir, @NonNull final File target) {
+        final ContentStorage.FileInformation deltaFile = ContentStorage.get().getFileInfo(backupDir, DELTA_FILE_NAME);
+        final InputStream is = deltaFile == null ? null : ContentStorage.get().openForRead(deltaFile.uri);
+        if (is == null) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+            final DeltaHeader header = readDeltaHeader(in);
+            if (header == null) {
+                Log.w("DatabaseBackup: invalid delta file in " + backupDir);
+                return false;
+            }
+            if (!copyBase(backupDir, header, target)) {
+                return false;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(target, "rw")) {
+                final byte[] buffer = new byte[CHUNK_SIZE];
+                for (int i = 0; i < header.chunkCount; i++) {
+                    final int chunk = in.readInt();
+                    final int size = in.readInt();
+                    if (size < 0 || size > CHUNK_SIZE) {
+                        throw new IOException("invalid chunk size " + size);
+                    }
+                    in.readFully(buffer, 0, size);
+                    raf.seek((long) chunk * CHUNK_SIZE);
+                    raf.write(buffer, 0, size);
+                }
+                raf.setLength(header.length);
+            }
+            return true;
+        } catch (IOException ioe) {
+            Log.e("DatabaseBackup: unable to reconstruct database from " + backupDir, ioe);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the name of the folder containing the full backup the given backup is based on, or null if given folder contains no incremental backup
+     */
+    @Nullable
+    public static String getBaseFolderName(@NonNull final Folder backupDir) {
+        final ContentStorage.FileInformation deltaFile = ContentStorage.get().getFileInfo(backupDir, DELTA_FILE_NAME);
+        final InputStream is = deltaFile == null ? null : ContentStorage.get().openForRead(deltaFile.uri, true);
+        if (is == null) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+            final DeltaHeader header = readDeltaHeader(in);
+            return header == null ? null : header.baseName;
+        } catch (IOException ioe) {
+            Log.w("DatabaseBackup: unable to read delta file in " + backupDir, ioe);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static DeltaHeader readDeltaHeader(final DataInputStream in) throws IOException {
+        if (in.readInt() != DELTA_MAGIC || in.readInt() != FORMAT_VERSION) {
+            return null;
+        }
+        final DeltaHeader header = new DeltaHeader();
+        header.baseName = in.readUTF();
+        header.baseConfig = in.readUTF();
+        header.baseLength = in.readLong();
+        header.baseDigest = in.readLong();
+        if (in.readInt() != CHUNK_SIZE) {
+            return null;
+        }
+        header.length = in.readLong();
+        header.chunkCount = in.readInt();
+        return header;
+    }
+
+    /** copies the full backup the delta is based on to target and verifies its content */
+    private static boolean copyBase(final Folder backupDir, final DeltaHeader header, final File target) throws IOException {
+        final ContentStorage.FileInformation baseFile = findBaseFile(backupDir, header);
+        if (baseFile == null || baseFile.size != header.baseLength) {
+            Log.w("DatabaseBackup: full backup '" + header.baseName + "' for " + backupDir + " not found");
+            return false;
+        }
+        final InputStream is = ContentStorage.get().openForRead(baseFile.uri);
+        if (is == null) {
+            return false;
+        }
+        final long[] hashes = new long[chunkCount(header.baseLength)];
+        try (InputStream in = is; OutputStream out = new FileOutputStream(target)) {
+            final MessageDigest md = createDigest();
+            final byte[] buffer = new byte[CHUNK_SIZE];
+            for (int chunk = 0; chunk < hashes.length; chunk++) {
+                final int size = (int) Math.min(CHUNK_SIZE, header.baseLength - (long) chunk * CHUNK_SIZE);
+                IOUtils.readFully(in, buffer, 0, size);
+                out.write(buffer, 0, size);
+                hashes[chunk] = hash(md, buffer, size);
+            }
+        }
+        if (digest(hashes) != header.baseDigest) {
+            Log.w("DatabaseBackup: full backup '" + header.baseName + "' for " + backupDir + " was changed");
+            return false;
+        }
+        return true;
+    }
+
+    @Nullable
+    private static ContentStorage.FileInformation findBaseFile(final Folder backupDir, final DeltaHeader header) {
+        final Folder parent = backupDir.getParentFolder();
+        ContentStorage.FileInformation baseFile = parent == null ? null : ContentStorage.get().getFileInfo(Folder.fromFolder(parent, header.baseName), DataStore.DB_FILE_NAME_BACKUP);
+        if (baseFile == null && !header.baseConfig.isEmpty()) {
+            //backup folder was selected directly, try original location of full backup
+            final Folder base = Folder.fromConfig(header.baseConfig);
+            baseFile = base == null ? null : ContentStorage.get().getFileInfo(base, DataStore.DB_FILE_NAME_BACKUP);
+        }
+        return baseFile;
+    }
+
+    // ---- manifest handling
+
+    /**
+     * Returns the manifest of the last full backup for incremental backups into given folder, or null if a full backup is needed
+     */
+    @Nullable
+    private Manifest readManifest(final Folder backupDir) {
+        final Folder parent = backupDir.getParentFolder();
+        final File file = getManifestFile(backupDir);
+        if (parent == null || file == null || !file.exists()) {
+            return null;
+        }
+        final Manifest manifest;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MANIFEST_MAGIC || in.readInt() != FORMAT_VERSION || in.readInt() != CHUNK_SIZE) {
+                return null;
+            }
+            final String baseName = in.readUTF();
+            final long baseLength = in.readLong();
+            final int increments = in.readInt();
+            final long[] hashes = new long[in.readInt()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = in.readLong();
+            }
+            manifest = new Manifest(baseName, baseLength, hashes, increments);
+        } catch (IOException ioe) {
+            Log.w("DatabaseBackup: unable to read manifest " + file, ioe);
+            return null;
+        }
+        if (manifest.increments >= MAX_INCREMENTS_PER_BASE) {
+            return null;
+        }
+        //full backup must still exist
+        final ContentStorage.FileInformation baseFile = ContentStorage.get().getFileInfo(Folder.fromFolder(parent, manifest.baseName), DataStore.DB_FILE_NAME_BACKUP);
+        return baseFile != null && baseFile.size == manifest.baseLength ? manifest : null;
+    }
+
+    private void writeManifest(final Folder backupDir, final Manifest manifest) {
+        final File file = getManifestFile(backupDir);
+        if (file == null) {
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(CHUNK_SIZE);
+            out.writeUTF(manifest.baseName);
+            out.writeLong(manifest.baseLength);
+            out.writeInt(manifest.increments);
+            out.writeInt(manifest.hashes.length);
+            for (long hash : manifest.hashes) {
+                out.writeLong(hash);
+            }
+        } catch (IOException ioe) {
+            Log.w("DatabaseBackup: unable to write manifest " + file, ioe);
+            if (!file.delete()) {
+                Log.w("DatabaseBackup: unable to delete manifest " + file);
+            }
+        }
+    }
+
+    /** there is one manifest per backup parent folder (e.g. for manual and automatic backups) */
+    @Nullable
+    private File getManifestFile(final Folder backupDir) {
+        final Folder parent = backupDir.getParentFolder();
+        if (parent == null) {
+            return null;
+        }
+        return new File(database.getParentFile(), database.getName() + "-backup-" + Integer.toHexString(parent.toConfig().hashCode()));
+    }
+
+    @NonNull
+    private static String getFolderName(final Folder folder) {
+        final List<String> subdirs = folder.getSubdirsToBase();
+        return subdirs.isEmpty() ? "" : subdirs.get(subdirs.size() - 1);
+    }
+
+    // ---- chunk hashing
+
+    @NonNull
+    private static List<Integer> getChangedChunks(final long[] base, final long[] current) {
+        final List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < current.length; i++) {
+            if (i >= base.length || base[i] != current[i]) {
+                changed.add(i);
+            }
+        }
+        return changed;
+    }
+
+    @NonNull
+    private static long[] hashChunks(final File file) throws IOException {
+        final long length = file.length();
+        final long[] hashes = new long[chunkCount(length)];
+        final MessageDigest md = createDigest();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), CHUNK_SIZE)) {
+            final byte[] buffer = new byte[CHUNK_SIZE];
+            for (int chunk = 0; chunk < hashes.length; chunk++) {
+                final int size = (int) Math.min(CHUNK_SIZE, length - (long) chunk * CHUNK_SIZE);
+                IOUtils.readFully(in, buffer, 0, size);
+                hashes[chunk] = hash(md, buffer, size);
+            }
+        }
+        return hashes;
+    }
+
+    private static long getSize(final List<Integer> chunks, final long length) {
+        long size = 0;
+        for (int chunk : chunks) {
+            size += Math.min(CHUNK_SIZE, length - (long) chunk * CHUNK_SIZE);
+        }
+        return size;
+    }
+
+    private static int chunkCount(final long length) {
+        return (int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+
+    private static long hash(final MessageDigest md, final byte[] data, final int size) {
+        md.update(data, 0, size);
+        return toLong(md.digest());
+    }
+
+    /** combined hash over all chunk hashes, identifies the complete file content */
+    private static long digest(final long[] hashes) {
+        final MessageDigest md = createDigest();
+        final byte[] bytes = new byte[8];
+        for (long hash : hashes) {
+            for (int i = 0; i < 8; i++) {
+                bytes[i] = (byte) (hash >>> (56 - 8 * i));
+            }
+            md.update(bytes);
+        }
+        return toLong(md.digest());
+    }
+
+    private static long toLong(final byte[] bytes) {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result = (result << 8) | (bytes[i] & 0xff);
+        }
+        return result;
+    }
+
+    @NonNull
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+}
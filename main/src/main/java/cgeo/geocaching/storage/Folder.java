@@ -142,6 +142,17 @@ public class Folder {
         return result;
     }
 
+    /**
+     * Returns the folder containing this folder, or null if this folder has no subfolders (parent of a base uri is not accessible)
+     */
+    @Nullable
+    public Folder getParentFolder() {
+        if (subfolders.isEmpty()) {
+            return null;
+        }
+        return new Folder(type, uri, persistableFolder, new ArrayList<>(subfolders.subList(0, subfolders.size() - 1)));
+    }
+
     /**
      * If this instance is of type {@link FolderType#PERSISTABLE_FOLDER}, then the base {@link PersistableFolder} is returned. Otherwise null is returned
      */
@@ -0,0 +1,138 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.utils.functions.Func0;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache for folder listings, used by {@link ContentStorage} for Storage Access Framework folders
+ * where each listing is an expensive IPC round-trip.
+ * <br>
+ * Entries expire after a fixed time to pick up changes done outside of c:geo. Changes done via {@link ContentStorage}
+ * invalidate affected entries immediately.
+ * <br>
+ * Listings are done outside of this cache, so a listing may be started before a change and stored after it. To not keep
+ * such an outdated listing, every invalidation starts a new generation and a listing is only stored if no invalidation
+ * happened since it was started.
+ */
+class FolderListingCache {
+
+    /** listings older than this are refreshed */
+    static final long DEFAULT_TIME_TO_LIVE_MS = 20_000;
+
+    private final long timeToLiveMs;
+    private final Func0<Long> clock;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    /** incremented on every invalidation, see {@link #put(String, List, long)} */
+    private long generation = 0;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class Entry {
+        final List<ContentStorage.FileInformation> files;
+        final long timestamp;
+
+        Entry(final List<ContentStorage.FileInformation> files, final long timestamp) {
+            this.files = files;
+            this.timestamp = timestamp;
+        }
+    }
+
+    FolderListingCache() {
+        this(DEFAULT_TIME_TO_LIVE_MS, System::currentTimeMillis);
+    }
+
+    FolderListingCache(final long timeToLiveMs, @NonNull final Func0<Long> clock) {
+        this.timeToLiveMs = timeToLiveMs;
+        this.clock = clock;
+    }
+
+    /** returns a copy of the cached listing for given folder key, or null if there is no valid cached listing */
+    @Nullable
+    synchronized List<ContentStorage.FileInformation> get(@NonNull final String folderKey) {
+        final Entry entry = entries.get(folderKey);
+        if (entry == null || clock.call() - entry.timestamp > timeToLiveMs) {
+            entries.remove(folderKey);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new ArrayList<>(entry.files);
+    }
+
+    /** returns the current generation, to be obtained before listing a folder and passed to {@link #put(String, List, long)} */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Stores the listing for given folder key, unless any listing was invalidated since the given generation was obtained.
+     * A listing possibly affected by a change done while listing is not stored at all.
+     *
+     * @return true if the listing was stored
+     */
+    synchronized boolean put(@NonNull final String folderKey, @NonNull final List<ContentStorage.FileInformation> files, final long listingGeneration) {
+        if (listingGeneration != generation) {
+            return false;
+        }
+        entries.put(folderKey, new Entry(new ArrayList<>(files), clock.call()));
+        return true;
+    }
+
+    /** invalidates the listing for given folder key and the listings of all its parent folders (e.g. because subfolders were created) */
+    synchronized void invalidateWithParents(@NonNull final String folderKey) {
+        generation++;
+        final Iterator<String> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (folderKey.startsWith(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Invalidates all listings containing the given uri (e.g. because this file was changed or deleted).
+     * If uri denotes a directory then all listings are invalidated since listings of its subfolders may be affected as well.
+     */
+    synchronized void invalidateContaining(@NonNull final Uri uri) {
+        // also if no cached listing contains uri, since a listing containing it may be in progress
+        generation++;
+        final Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            for (ContentStorage.FileInformation fi : it.next().files) {
+                if (uri.equals(fi.uri)) {
+                    if (fi.isDirectory) {
+                        entries.clear();
+                        return;
+                    }
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+}
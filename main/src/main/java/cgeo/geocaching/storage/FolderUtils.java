@@ -24,6 +24,7 @@ import android.system.Os;
 import android.system.StructStatVfs;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.util.Consumer;
 import androidx.core.util.Predicate;
 
@@ -34,6 +35,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -41,7 +43,12 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -64,6 +71,9 @@ public class FolderUtils {
     private static final int COPY_FLAG_DIR_BEFORE = 1;
     private static final int COPY_FLAG_DIR_NEEDED_FOR_TARGET = 2;
 
+    /** maximum number of files copied concurrently by copyAll */
+    private static final int MAX_PARALLEL_COPIES = 4;
+
     private final ContentStorage pls = ContentStorage.get();
 
     private static final FolderUtils INSTANCE = new FolderUtils();
@@ -553,6 +563,17 @@ public class FolderUtils {
      * @return result of copyAll call.
      */
     public FolderProcessResult copyAll(final Folder source, final Folder target, final boolean move, final AtomicBoolean cancelFlag, final Consumer<FolderProcessStatus> statusListener) {
+        return copyAll(source, target, move, false, cancelFlag, statusListener);
+    }
+
+    /**
+     * Like {@link #copyAll(Folder, Folder, boolean, AtomicBoolean, Consumer)}, but optionally skips files which are already present in target.
+     * Files are copied in parallel, thus when the status listener is called for a file, copying of previous files may still be in progress.
+     *
+     * @param skipUnchanged  if true, then files for which target folder already contains a file with same name and size and a modification date not before the source file are not copied again
+     *                       (but counted as copied). Useful for incremental updates of a target folder
+     */
+    public FolderProcessResult copyAll(final Folder source, final Folder target, final boolean move, final boolean skipUnchanged, final AtomicBoolean cancelFlag, final Consumer<FolderProcessStatus> statusListener) {
 
         try (ContextLogger cLog = new ContextLogger("FolderUtils.copyAll: %s -> %s (move=%s)", source, target, move)) {
 
@@ -584,7 +605,7 @@ public class FolderUtils {
             cLog.add("p1:#s", fileList.size());
 
             // -- second Pass: do Copy/move
-            final ImmutableTriple<ContentStorage.FileInformation, Integer, Integer> copyResult = copyAllSecondPassCopyMove(fileList, move, statusListener, cancelFlag, sourceCopyCount);
+            final ImmutableTriple<ContentStorage.FileInformation, Integer, Integer> copyResult = copyAllSecondPassCopyMove(fileList, move, skipUnchanged, statusListener, cancelFlag, sourceCopyCount);
 
             //final status call
             sendCopyStatus(statusListener, null, copyResult.middle, copyResult.right, sourceCopyCount);
@@ -660,47 +681,114 @@ public class FolderUtils {
         return new ImmutablePair<>(sourceTargetSameDir ? Collections.emptyList() : listToCopy, new ImmutablePair<>(copyCounts[0], copyCounts[1]));
     }
 
+    /**
+     * copyAll Second Pass: create target folders and copy/move files.
+     * Folders are handled sequentially in tree order, files are copied in parallel by a bounded worker pool.
+     * Status is reported from calling thread each time a file/dir is handed over for processing.
+     * Returns the first failed file (or null), and the number of copied files and dirs
+     */
     @NotNull
     private ImmutableTriple<ContentStorage.FileInformation, Integer, Integer> copyAllSecondPassCopyMove(
-            final List<ImmutableTriple<ContentStorage.FileInformation, Folder, Integer>> fileList, final boolean move, final Consumer<FolderProcessStatus> statusListener, final AtomicBoolean cancelFlag, final ImmutablePair<Integer, Integer> sourceCopyCount) {
+            final List<ImmutableTriple<ContentStorage.FileInformation, Folder, Integer>> fileList, final boolean move, final boolean skipUnchanged,
+            final Consumer<FolderProcessStatus> statusListener, final AtomicBoolean cancelFlag, final ImmutablePair<Integer, Integer> sourceCopyCount) {
 
         // -- second pass: make all necessary file copies and create necessary target subfolders
         int dirsCopied = 0;
-        int filesCopied = 0;
-
-        ContentStorage.FileInformation failedFile = null;
-        for (ImmutableTriple<ContentStorage.FileInformation, Folder, Integer> file : fileList) {
-            if (isCancelled(cancelFlag)) {
-                break;
-            }
-            if (file.left.isDirectory) {
-                if ((file.right & COPY_FLAG_DIR_BEFORE) > 0) {
-                    sendCopyStatus(statusListener, file.left, filesCopied, dirsCopied, sourceCopyCount);
-                    if (pls.ensureFolder(file.middle, true)) {
-                        dirsCopied++;
-                    } else {
-                        failedFile = file.left;
-                    }
-                }
-                if (move & file.right == 0 && !pls.delete(file.left.uri)) {
-                    failedFile = file.left;
+        int filesStarted = 0;
+        final AtomicInteger filesCopied = new AtomicInteger(0);
+        final AtomicReference<ContentStorage.FileInformation> failedFile = new AtomicReference<>(null);
+
+        //limits number of files waiting for copy, so status reported on start of a file copy stays close to real progress
+        final Semaphore pending = new Semaphore(MAX_PARALLEL_COPIES * 2);
+        final Map<Folder, Map<String, ContentStorage.FileInformation>> targetContents = new HashMap<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(MAX_PARALLEL_COPIES);
+        try {
+            for (ImmutableTriple<ContentStorage.FileInformation, Folder, Integer> file : fileList) {
+                if (isCancelled(cancelFlag) || failedFile.get() != null) {
+                    break;
                 }
-            } else {
-                sendCopyStatus(statusListener, file.left, filesCopied, dirsCopied, sourceCopyCount);
-                if (pls.copy(file.left.uri, file.middle, FileNameCreator.forName(file.left.name), false) != null) {
-                    filesCopied++;
-                    if (move && !pls.delete(file.left.uri)) {
-                        failedFile = file.left;
+                if (file.left.isDirectory) {
+                    if ((file.right & COPY_FLAG_DIR_BEFORE) > 0) {
+                        sendCopyStatus(statusListener, file.left, filesStarted, dirsCopied, sourceCopyCount);
+                        if (pls.ensureFolder(file.middle, true)) {
+                            dirsCopied++;
+                        } else {
+                            failedFile.compareAndSet(null, file.left);
+                        }
+                    }
+                    if (move & file.right == 0) {
+                        //source dir may only be deleted after all contained files are moved
+                        awaitAll(pending);
+                        if (failedFile.get() != null) {
+                            //deletion is recursive for documents, so a dir containing files which failed to move must be kept
+                            break;
+                        }
+                        if (!pls.delete(file.left.uri)) {
+                            failedFile.compareAndSet(null, file.left);
+                        }
                     }
                 } else {
-                    failedFile = file.left;
+                    sendCopyStatus(statusListener, file.left, filesStarted, dirsCopied, sourceCopyCount);
+                    filesStarted++;
+                    final ContentStorage.FileInformation unchangedTarget = skipUnchanged ? findUnchangedTarget(targetContents, file.left, file.middle) : null;
+                    pending.acquire();
+                    executor.execute(() -> {
+                        try {
+                            if (failedFile.get() == null && copyOrMoveFile(file.left, file.middle, unchangedTarget, move)) {
+                                filesCopied.incrementAndGet();
+                            } else {
+                                failedFile.compareAndSet(null, file.left);
+                            }
+                        } catch (RuntimeException re) {
+                            //must not get lost in the uncaught exception handler of the pool thread
+                            Log.w("FolderUtils.copyAll: copying " + file.left.uri + " failed", re);
+                            failedFile.compareAndSet(null, file.left);
+                        } finally {
+                            pending.release();
+                        }
+                    });
                 }
             }
-            if (failedFile != null) {
-                break;
+            awaitAll(pending);
+        } catch (InterruptedException ie) {
+            Log.w("FolderUtils.copyAll: interrupted", ie);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+        return new ImmutableTriple<>(failedFile.get(), filesCopied.get(), dirsCopied);
+    }
+
+    @VisibleForTesting
+    boolean copyOrMoveFile(final ContentStorage.FileInformation source, final Folder targetFolder, @Nullable final ContentStorage.FileInformation unchangedTarget, final boolean move) {
+        if (unchangedTarget == null && pls.copy(source.uri, targetFolder, FileNameCreator.forName(source.name), false) == null) {
+            return false;
+        }
+        return !move || pls.delete(source.uri);
+    }
+
+    /**
+     * Returns the file in target folder if it has same name and size as source and was modified not before source, null otherwise.
+     * Such files are assumed to be unchanged copies from a previous run and don't need to be copied again
+     */
+    @Nullable
+    private ContentStorage.FileInformation findUnchangedTarget(final Map<Folder, Map<String, ContentStorage.FileInformation>> targetContents, final ContentStorage.FileInformation source, final Folder targetFolder) {
+        Map<String, ContentStorage.FileInformation> content = targetContents.get(targetFolder);
+        if (content == null) {
+            content = new HashMap<>();
+            for (ContentStorage.FileInformation fi : pls.list(targetFolder)) {
+                content.put(fi.name, fi);
             }
+            targetContents.put(targetFolder, content);
         }
-        return new ImmutableTriple<>(failedFile, filesCopied, dirsCopied);
+        final ContentStorage.FileInformation target = content.get(source.name);
+        return target != null && !target.isDirectory && target.size == source.size && target.lastModified >= source.lastModified ? target : null;
+    }
+
+    /** waits until all file copies handed over to executor are finished */
+    private static void awaitAll(final Semaphore pending) throws InterruptedException {
+        pending.acquire(MAX_PARALLEL_COPIES * 2);
+        pending.release(MAX_PARALLEL_COPIES * 2);
     }
 
     private boolean isCancelled(final AtomicBoolean cancelFlag) {
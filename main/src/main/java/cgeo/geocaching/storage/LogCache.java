@@ -0,0 +1,145 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.models.Image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Memo of the logs loaded from database per geocode, used by {@link DataStore#loadLogs(String)}.
+ * <br>
+ * The memo is limited by the estimated memory size of the contained logs and evicts least recently used entries.
+ * Each change to logs in database must invalidate the affected entries. To prevent a concurrent load from storing
+ * logs read before such an invalidation, loaders pass the generation they saw before reading from database.
+ */
+class LogCache {
+
+    static final long DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    private static final int LOG_OVERHEAD_BYTES = 96;
+    private static final int IMAGE_OVERHEAD_BYTES = 64;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class Entry {
+        final List<LogEntry> logs;
+        final long size;
+
+        Entry(final List<LogEntry> logs, final long size) {
+            this.logs = logs;
+            this.size = size;
+        }
+    }
+
+    LogCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    LogCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** generation to pass to {@link #put(String, List, long)} for logs read from database afterwards */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    @Nullable
+    synchronized List<LogEntry> get(@NonNull final String geocode) {
+        final Entry entry = entries.get(geocode);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.logs;
+    }
+
+    synchronized boolean contains(@NonNull final String geocode) {
+        return entries.containsKey(geocode);
+    }
+
+    /**
+     * Stores the (immutable) logs of a geocode, unless logs were invalidated since the given generation was obtained.
+     */
+    void put(@NonNull final String geocode, @NonNull final List<LogEntry> logs, final long loadGeneration) {
+        put(geocode, logs, estimateSize(logs), loadGeneration);
+    }
+
+    synchronized void put(@NonNull final String geocode, @NonNull final List<LogEntry> logs, final long logsSize, final long loadGeneration) {
+        if (loadGeneration != generation || logsSize > maxBytes / 2) {
+            return;
+        }
+        final Entry previous = entries.put(geocode, new Entry(logs, logsSize));
+        size += logsSize - (previous == null ? 0 : previous.size);
+        final Iterator<Entry> it = entries.values().iterator();
+        while (size > maxBytes && it.hasNext()) {
+            size -= it.next().size;
+            it.remove();
+        }
+    }
+
+    synchronized void invalidate(@NonNull final String geocode) {
+        generation++;
+        final Entry entry = entries.remove(geocode);
+        if (entry != null) {
+            size -= entry.size;
+        }
+    }
+
+    synchronized void invalidate(@NonNull final Collection<String> geocodes) {
+        for (String geocode : geocodes) {
+            invalidate(geocode);
+        }
+    }
+
+    synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        size = 0;
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    static long estimateSize(@NonNull final List<LogEntry> logs) {
+        long result = LOG_OVERHEAD_BYTES;
+        for (LogEntry log : logs) {
+            result += LOG_OVERHEAD_BYTES + 2L * (log.log.length() + log.author.length() + log.authorGuid.length() + StringUtils.length(log.serviceLogId));
+            for (Image image : log.logImages) {
+                result += IMAGE_OVERHEAD_BYTES + 2L * (StringUtils.length(image.getUrl()) + StringUtils.length(image.getTitle()) + StringUtils.length(image.getDescription()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @NonNull
+    public synchronized String toString() {
+        return "LogCache[" + entries.size() + " entries, " + size + " bytes, hits: " + hits.get() + ", misses: " + misses.get() + "]";
+    }
+}
@@ -32,6 +32,8 @@ public class SqlBuilder {
 
     private int limit = -1;
 
+    private String cacheStatsTableId = null;
+
 
     public SqlBuilder(final String mainTable, final String[] columns) {
         this.mainTable = mainTable;
@@ -57,6 +59,20 @@ public class SqlBuilder {
         return this;
     }
 
+    /**
+     * Joins the derived statistics of caches ({@link DataStore#dbTableCacheStats}) to a main table containing geocodes.
+     * The table is joined only once, even if used by several filters and sorts. Its columns are NULL for caches without statistics.
+     *
+     * @return table id of the joined statistics table
+     */
+    public String joinCacheStats() {
+        if (cacheStatsTableId == null) {
+            cacheStatsTableId = getNewTableId();
+            addJoin("LEFT JOIN " + DataStore.dbTableCacheStats + " " + cacheStatsTableId + " ON " + getMainTableId() + "." + DataStore.dbField_Geocode + " = " + cacheStatsTableId + "." + DataStore.dbField_Geocode);
+        }
+        return cacheStatsTableId;
+    }
+
     public SqlBuilder openWhere(final WhereType operator) {
         whereStack.push(new ImmutableTriple<>(operator, new StringBuilder(), new ArrayList<>()));
         if (operator == WhereType.NOT) {
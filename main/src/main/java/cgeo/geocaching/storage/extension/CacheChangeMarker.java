@@ -0,0 +1,56 @@
+package cgeo.geocaching.storage.extension;
+
+import cgeo.geocaching.storage.DataStore;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Change markers of stored caches (see {@link cgeo.geocaching.connector.capability.IChangeMarkerCapability}) as
+ * retrieved before their last full download. If the marker currently returned by the connector is still the same,
+ * the stored cache details are up to date.
+ * <br>
+ * Database layout: key = geocode, long1 = time the marker was stored, string1 = marker
+ */
+public class CacheChangeMarker extends DataStore.DBExtension {
+
+    private static final DataStore.DBExtensionType type = DataStore.DBExtensionType.DBEXTENSION_CACHE_CHANGE_MARKER;
+
+    private CacheChangeMarker(final DataStore.DBExtension copyFrom) {
+        super(copyFrom);
+    }
+
+    public String getGeocode() {
+        return getKey();
+    }
+
+    public String getMarker() {
+        return getString1();
+    }
+
+    public long getDate() {
+        return getLong1();
+    }
+
+    @Nullable
+    public static CacheChangeMarker load(@NonNull final String geocode) {
+        final DataStore.DBExtension temp = load(type, geocode);
+        return null == temp ? null : new CacheChangeMarker(temp);
+    }
+
+    /**
+     * stores the marker of a cache, replacing an existing one
+     *
+     * @return false if the marker could not be stored (an existing marker is kept then)
+     */
+    public static boolean set(@NonNull final String geocode, @NonNull final String marker) {
+        return runInTransaction(() -> {
+            removeAll(type, geocode);
+            add(type, geocode, System.currentTimeMillis(), 0, 0, 0, marker, "", "", "");
+        });
+    }
+
+    public static void remove(@NonNull final String geocode) {
+        removeAll(type, geocode);
+    }
+}
@@ -0,0 +1,432 @@
+package cgeo.geocaching.storage.extension;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.storage.ContentStorage;
+import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.Folder;
+import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.functions.Func1;
+
+import android.net.Uri;
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.util.Supplier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Persistent index of metadata parsed from file headers (offline map files, Wherigo cartridges, theme ZIPs).
+ * <br>
+ * Entries are keyed by file uri and are valid as long as size and last modification date of the file do not change.
+ * This way files residing in slow storage (e.g. SAF folders) don't need to be opened and parsed again on each discovery.
+ * <br>
+ * Database layout: key = uri, long1 = file size, long2 = last modified, long3 = kind of file, long4 = 1 if file is valid.
+ * Usage of string fields depends on kind of file, see getters.
+ */
+public class FileMetadataIndex extends DataStore.DBExtension {
+
+    private static final DataStore.DBExtensionType type = DataStore.DBExtensionType.DBEXTENSION_FILE_METADATA;
+
+    public static final int KIND_MAP_FILE = 1;
+    public static final int KIND_CARTRIDGE = 2;
+    public static final int KIND_THEME_ZIP = 3;
+
+    /** icons larger than this are not stored in index, callers should scale them down first */
+    public static final int MAX_ICON_SIZE = 16 * 1024;
+    private static final int MAX_PARALLEL_PARSERS = 4;
+
+    private static final String SEPARATOR = ",";
+    private static final String LIST_SEPARATOR = "\n";
+
+    /** locks per kind of file, so that files are not parsed by a foreground lookup and a background revalidation at the same time */
+    private static final Map<Integer, Object> KIND_LOCKS = new HashMap<>();
+    /** kinds of files currently revalidated in background, guarded by itself */
+    private static final Set<Integer> REVALIDATING = new HashSet<>();
+
+    /** scans the entries of a theme ZIP for xml themes */
+    public interface ThemeZipScanner {
+        List<String> scan(ZipInputStream zip) throws IOException;
+    }
+
+    private FileMetadataIndex(final DataStore.DBExtension copyFrom) {
+        super(copyFrom);
+    }
+
+    private FileMetadataIndex(@NonNull final ContentStorage.FileInformation fi, final int kind, final boolean valid) {
+        key = fi.uri.toString();
+        long1 = fi.size;
+        long2 = fi.lastModified;
+        long3 = kind;
+        long4 = valid ? 1 : 0;
+    }
+
+    /** entry for a file which could be read but is no valid file of given kind */
+    @NonNull
+    public static FileMetadataIndex invalid(@NonNull final ContentStorage.FileInformation fi, final int kind) {
+        return new FileMetadataIndex(fi, kind, false);
+    }
+
+    @NonNull
+    public static FileMetadataIndex forMapFile(@NonNull final ContentStorage.FileInformation fi, @NonNull final String attribution, @Nullable final Viewport bounds, final int zoomMin, final int zoomMax) {
+        final FileMetadataIndex entry = new FileMetadataIndex(fi, KIND_MAP_FILE, true);
+        entry.string1 = attribution;
+        entry.string2 = bounds == null ? "" : StringUtils.join(Arrays.asList(bounds.getLatitudeMin(), bounds.getLongitudeMin(), bounds.getLatitudeMax(), bounds.getLongitudeMax()), SEPARATOR);
+        entry.string3 = zoomMin + SEPARATOR + zoomMax;
+        return entry;
+    }
+
+    @NonNull
+    public static FileMetadataIndex forCartridge(@NonNull final ContentStorage.FileInformation fi, @NonNull final String name, @Nullable final Geopoint startPoint, @NonNull final String details, @Nullable final byte[] icon) {
+        final FileMetadataIndex entry = new FileMetadataIndex(fi, KIND_CARTRIDGE, true);
+        entry.string1 = name;
+        entry.string2 = startPoint == null ? "" : startPoint.getLatitude() + SEPARATOR + startPoint.getLongitude();
+        entry.string3 = details;
+        if (icon != null && icon.length > MAX_ICON_SIZE) {
+            Log.d("FileMetadataIndex: icon of '" + fi.uri + "' too large for index (" + icon.length + " bytes)");
+        }
+        entry.string4 = icon == null || icon.length > MAX_ICON_SIZE ? "" : Base64.encodeToString(icon, Base64.NO_WRAP);
+        return entry;
+    }
+
+    @NonNull
+    public static FileMetadataIndex forThemeZip(@NonNull final ContentStorage.FileInformation fi, @NonNull final List<String> xmlThemes) {
+        final FileMetadataIndex entry = new FileMetadataIndex(fi, KIND_THEME_ZIP, true);
+        entry.string1 = StringUtils.join(xmlThemes, LIST_SEPARATOR);
+        return entry;
+    }
+
+    /**
+     * Scans a theme ZIP for contained xml themes using given scanner (which differs between map renderers).
+     * Returns null if ZIP could not be read, an invalid entry if file is no ZIP
+     */
+    @Nullable
+    public static FileMetadataIndex scanThemeZip(@NonNull final ContentStorage.FileInformation fi, @NonNull final ThemeZipScanner scanner) {
+        try (InputStream is = ContentStorage.get().openForRead(fi.uri)) {
+            if (is == null) {
+                return null;
+            }
+            return forThemeZip(fi, scanner.scan(new ZipInputStream(is)));
+        } catch (ZipException ze) {
+            Log.w("Map Theme ZIP '" + fi + "' is no valid ZIP", ze);
+            return invalid(fi, KIND_THEME_ZIP);
+        } catch (IOException ioe) {
+            Log.w("Map Theme ZIP '" + fi + "' could not be read", ioe);
+        } catch (Exception e) {
+            Log.w("Problem opening map Theme ZIP '" + fi + "'", e);
+        }
+        return null;
+    }
+
+    @NonNull
+    public Uri getUri() {
+        return Uri.parse(key);
+    }
+
+    public int getKind() {
+        return (int) long3;
+    }
+
+    public boolean isValid() {
+        return long4 != 0;
+    }
+
+    /** map files: attribution, cartridges: cartridge name */
+    @NonNull
+    public String getName() {
+        return StringUtils.defaultString(string1);
+    }
+
+    /** map files only: area covered by map, null if unknown */
+    @Nullable
+    public Viewport getBounds() {
+        final double[] values = parseDoubles(string2, 4);
+        return values == null ? null : new Viewport(new Geopoint(values[0], values[1]), new Geopoint(values[2], values[3]));
+    }
+
+    /** map files only: minimum zoom level contained in map, or given default value if unknown */
+    public int getZoomMin(final int defaultValue) {
+        final double[] values = parseDoubles(string3, 2);
+        return values == null ? defaultValue : (int) values[0];
+    }
+
+    /** map files only: maximum zoom level contained in map, or given default value if unknown */
+    public int getZoomMax(final int defaultValue) {
+        final double[] values = parseDoubles(string3, 2);
+        return values == null ? defaultValue : (int) values[1];
+    }
+
+    /** cartridges only: start point of cartridge, null if unknown */
+    @Nullable
+    public Geopoint getStartPoint() {
+        final double[] values = parseDoubles(string2, 2);
+        return values == null ? null : new Geopoint(values[0], values[1]);
+    }
+
+    /** cartridges only: user-displayable details like type, author and version */
+    @NonNull
+    public String getDetails() {
+        return StringUtils.defaultString(string3);
+    }
+
+    /** cartridges only: raw icon data, null if not available */
+    @Nullable
+    public byte[] getIcon() {
+        if (StringUtils.isBlank(string4)) {
+            return null;
+        }
+        try {
+            return Base64.decode(string4, Base64.NO_WRAP);
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+    }
+
+    /** theme ZIPs only: zip-internal paths of all contained xml themes */
+    @NonNull
+    public List<String> getXmlThemes() {
+        return StringUtils.isEmpty(string1) ? Collections.emptyList() : Arrays.asList(StringUtils.split(string1, LIST_SEPARATOR));
+    }
+
+    @Nullable
+    private static double[] parseDoubles(@Nullable final String value, final int count) {
+        final String[] parts = StringUtils.split(StringUtils.defaultString(value), SEPARATOR);
+        if (parts.length != count) {
+            return null;
+        }
+        final double[] result = new double[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                result[i] = Double.parseDouble(parts[i]);
+            }
+        } catch (NumberFormatException nfe) {
+            return null;
+        }
+        return result;
+    }
+
+    private boolean isUpToDate(@NonNull final ContentStorage.FileInformation fi, final int kind) {
+        return getKind() == kind && long1 == fi.size && long2 == fi.lastModified;
+    }
+
+    /**
+     * Returns the metadata for given file. If index contains no up-to-date entry then file is parsed using given parser
+     * and the result is stored in index.
+     *
+     * @param parser parses file, returns null if file could not be accessed (such results are not stored).
+     *               An {@link #invalid} entry should only be returned if the file could be read but has a wrong format
+     */
+    @Nullable
+    public static FileMetadataIndex getOrParse(final int kind, @NonNull final ContentStorage.FileInformation fi, @NonNull final Func1<ContentStorage.FileInformation, FileMetadataIndex> parser) {
+        final FileMetadataIndex indexed = getIndexed(fi.uri.toString());
+        if (indexed != null && indexed.isUpToDate(fi, kind)) {
+            return indexed;
+        }
+        final FileMetadataIndex entry = parser.call(fi);
+        if (entry != null) {
+            store(Collections.singletonList(entry));
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the uri which the uris of all files in given folder (and its subfolders) start with, to be passed as scope to
+     * {@link #getOrParseAll}. Uris of documents don't contain the uri of their folder, thus the whole document tree is used for them.
+     */
+    @Nullable
+    public static Uri getScope(@NonNull final Folder folder) {
+        return folder.getBaseType() == Folder.FolderType.DOCUMENT ? folder.getBaseUri() : folder.getUri();
+    }
+
+    /**
+     * Returns the metadata for all given files. Up-to-date entries are taken from index, all other files are parsed
+     * in parallel using given parser and the results are stored in index.
+     *
+     * @param scope       uri of the folder the files were listed from, see {@link #getScope(Folder)}. Index entries of this kind
+     *                    for other files below this folder are removed. If null, all other index entries of this kind are removed
+     * @param files       complete list of files of this kind in scope
+     * @param parser      parses a file, returns null if file could not be accessed (such results are not stored). Must be thread-safe
+     * @return metadata by file uri. Files which could not be accessed have no entry
+     */
+    @NonNull
+    public static Map<Uri, FileMetadataIndex> getOrParseAll(final int kind, @Nullable final Uri scope, @NonNull final Collection<ContentStorage.FileInformation> files, @NonNull final Func1<ContentStorage.FileInformation, FileMetadataIndex> parser) {
+        // wait for a revalidation running in background instead of parsing the same files twice
+        synchronized (getKindLock(kind)) {
+            return getOrParseAllInternal(kind, scope, files, parser);
+        }
+    }
+
+    /**
+     * Brings the index entries of given kind up to date in background: lists the files using given supplier and parses new or changed files in parallel.
+     * Later lookups using {@link #getOrParseAll} then find all entries in index. Does nothing if a revalidation of this kind is already running.
+     *
+     * @param scope  see {@link #getOrParseAll}
+     * @param files  supplies the complete list of files of this kind in scope, called in background
+     * @param parser see {@link #getOrParseAll}
+     */
+    public static void revalidateInBackground(final int kind, @Nullable final Uri scope, @NonNull final Supplier<Collection<ContentStorage.FileInformation>> files, @NonNull final Func1<ContentStorage.FileInformation, FileMetadataIndex> parser) {
+        synchronized (REVALIDATING) {
+            if (!REVALIDATING.add(kind)) {
+                return;
+            }
+        }
+        Schedulers.io().scheduleDirect(() -> {
+            try {
+                getOrParseAll(kind, scope, files.get(), parser);
+            } catch (RuntimeException re) {
+                Log.w("FileMetadataIndex: revalidation of kind " + kind + " failed", re);
+            } finally {
+                synchronized (REVALIDATING) {
+                    REVALIDATING.remove(kind);
+                }
+            }
+        });
+    }
+
+    @NonNull
+    private static Object getKindLock(final int kind) {
+        synchronized (KIND_LOCKS) {
+            Object lock = KIND_LOCKS.get(kind);
+            if (lock == null) {
+                lock = new Object();
+                KIND_LOCKS.put(kind, lock);
+            }
+            return lock;
+        }
+    }
+
+    /** returns the prefix of the keys of all entries in given scope. The separator is included so that sibling folders sharing a name prefix are not in scope */
+    @Nullable
+    static String getKeyPrefix(@Nullable final Uri scope) {
+        if (scope == null) {
+            return null;
+        }
+        final String prefix = scope.toString();
+        return prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    @NonNull
+    private static Map<Uri, FileMetadataIndex> getOrParseAllInternal(final int kind, @Nullable final Uri scope, @NonNull final Collection<ContentStorage.FileInformation> files, @NonNull final Func1<ContentStorage.FileInformation, FileMetadataIndex> parser) {
+        final String keyPrefix = getKeyPrefix(scope);
+        final Map<String, FileMetadataIndex> indexed = new HashMap<>();
+        for (DataStore.DBExtension item : keyPrefix == null ? getAll(type, null) : getAllWithKeyPrefix(type, keyPrefix)) {
+            final FileMetadataIndex entry = new FileMetadataIndex(item);
+            // LIKE ignores case, thus check prefix again
+            if (entry.getKind() == kind && (keyPrefix == null || entry.getKey().startsWith(keyPrefix))) {
+                indexed.put(entry.getKey(), entry);
+            }
+        }
+
+        final Map<Uri, FileMetadataIndex> result = new HashMap<>();
+        final List<ContentStorage.FileInformation> toParse = new ArrayList<>();
+        for (ContentStorage.FileInformation fi : files) {
+            final String key = fi.uri.toString();
+            FileMetadataIndex entry = indexed.remove(key);
+            if (entry == null && keyPrefix != null && !key.startsWith(keyPrefix)) {
+                // file outside of given scope, not removed as stale but needs to be looked up separately
+                entry = getIndexed(key);
+            }
+            if (entry != null && entry.isUpToDate(fi, kind)) {
+                result.put(fi.uri, entry);
+            } else {
+                toParse.add(fi);
+            }
+        }
+
+        final List<FileMetadataIndex> parsed = parseAll(toParse, parser);
+        for (FileMetadataIndex entry : parsed) {
+            result.put(entry.getUri(), entry);
+        }
+        if (!parsed.isEmpty() || !indexed.isEmpty()) {
+            final Collection<FileMetadataIndex> stale = indexed.values();
+            final boolean stored = runInTransaction(() -> {
+                for (FileMetadataIndex entry : stale) {
+                    removeAllWithLiteralKey(type, entry.getKey());
+                }
+                store(parsed);
+            });
+            if (!stored) {
+                Log.w("FileMetadataIndex: could not store " + parsed.size() + " entries, files will be parsed again");
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    private static List<FileMetadataIndex> parseAll(@NonNull final List<ContentStorage.FileInformation> files, @NonNull final Func1<ContentStorage.FileInformation, FileMetadataIndex> parser) {
+        final List<FileMetadataIndex> result = new ArrayList<>();
+        if (files.size() <= 1) {
+            for (ContentStorage.FileInformation fi : files) {
+                addIfNotNull(result, parser.call(fi));
+            }
+            return result;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(files.size(), MAX_PARALLEL_PARSERS));
+        try {
+            final List<Callable<FileMetadataIndex>> tasks = new ArrayList<>();
+            for (ContentStorage.FileInformation fi : files) {
+                tasks.add(() -> parser.call(fi));
+            }
+            for (Future<FileMetadataIndex> future : executor.invokeAll(tasks)) {
+                try {
+                    addIfNotNull(result, future.get());
+                } catch (ExecutionException ee) {
+                    Log.w("FileMetadataIndex: problem parsing file", ee.getCause());
+                }
+            }
+        } catch (InterruptedException ie) {
+            Log.w("FileMetadataIndex: parsing interrupted", ie);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private static void addIfNotNull(@NonNull final List<FileMetadataIndex> list, @Nullable final FileMetadataIndex entry) {
+        if (entry != null) {
+            list.add(entry);
+        }
+    }
+
+    @Nullable
+    private static FileMetadataIndex getIndexed(@NonNull final String key) {
+        // query uses LIKE which ignores case, thus check for exact match
+        for (DataStore.DBExtension item : getAllWithLiteralKey(type, key)) {
+            if (key.equals(item.getKey())) {
+                return new FileMetadataIndex(item);
+            }
+        }
+        return null;
+    }
+
+    private static void store(@NonNull final Collection<FileMetadataIndex> entries) {
+        // LIKE ignores case and thus also removes entries of uris differing in case only. Those are simply parsed again on next access
+        for (FileMetadataIndex entry : entries) {
+            removeAllWithLiteralKey(type, entry.key);
+            add(type, entry.key, entry.long1, entry.long2, entry.long3, entry.long4, entry.string1, entry.string2, entry.string3, entry.string4);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package cgeo.geocaching.storage.extension;
+
+import cgeo.geocaching.storage.DataStore;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Persistent queue of cache downloads requested via CacheDownloaderService. Entries are removed on
+ * successful download, so the remaining queue can be resumed after the process was killed.
+ */
+public class PendingCacheDownload extends DataStore.DBExtension {
+
+    private static final DataStore.DBExtensionType type = DataStore.DBExtensionType.DBEXTENSION_PENDING_CACHE_DOWNLOAD;
+
+    private static final long FLAG_KEEP_EXISTING_LISTS = 1;
+    private static final long FLAG_FORCE_DOWNLOAD = 2;
+
+    private PendingCacheDownload(final DataStore.DBExtension copyFrom) {
+        super(copyFrom);
+    }
+
+    public String getGeocode() {
+        return getKey();
+    }
+
+    public boolean isKeepExistingLists() {
+        return (getLong1() & FLAG_KEEP_EXISTING_LISTS) != 0;
+    }
+
+    public boolean isForceDownload() {
+        return (getLong1() & FLAG_FORCE_DOWNLOAD) != 0;
+    }
+
+    public long getDate() {
+        return getLong2();
+    }
+
+    /** number of download attempts which did not succeed so far */
+    public int getFailedAttempts() {
+        return (int) getLong3();
+    }
+
+    @NonNull
+    public Set<Integer> getListIds() {
+        final Set<Integer> result = new HashSet<>();
+        for (String listId : StringUtils.split(StringUtils.defaultString(getString1()), ',')) {
+            try {
+                result.add(Integer.parseInt(listId));
+            } catch (NumberFormatException ignore) {
+                // skip invalid entry
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    public static ArrayList<PendingCacheDownload> getAllPendingCacheDownloads() {
+        final ArrayList<PendingCacheDownload> result = new ArrayList<>();
+        for (DataStore.DBExtension item : getAll(type, null)) {
+            result.add(new PendingCacheDownload(item));
+        }
+        return result;
+    }
+
+    @Nullable
+    public static PendingCacheDownload load(@NonNull final String geocode) {
+        final DataStore.DBExtension temp = load(type, geocode);
+        return null == temp ? null : new PendingCacheDownload(temp);
+    }
+
+    /** adds or replaces the queue entry for the given geocode */
+    public static void add(@NonNull final String geocode, @NonNull final Set<Integer> listIds, final boolean keepExistingLists, final boolean forceDownload, final int failedAttempts) {
+        removeAll(type, geocode);
+        add(type, geocode, (keepExistingLists ? FLAG_KEEP_EXISTING_LISTS : 0) | (forceDownload ? FLAG_FORCE_DOWNLOAD : 0), System.currentTimeMillis(), failedAttempts, 0,
+                StringUtils.join(listIds, ','), "", "", "");
+    }
+
+    /**
+     * runs multiple add/remove operations in one database transaction
+     *
+     * @return false if the operations could not be stored
+     */
+    public static boolean runBatch(@NonNull final Runnable operations) {
+        return runInTransaction(operations);
+    }
+
+    public static void remove(@NonNull final String geocode) {
+        removeAll(type, geocode);
+    }
+
+    public static void removeAllPendingCacheDownloads() {
+        for (DataStore.DBExtension item : getAll(type, null)) {
+            removeAll(type, item.getKey());
+        }
+    }
+}
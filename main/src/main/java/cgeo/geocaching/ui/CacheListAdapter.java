@@ -17,6 +17,7 @@ import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.sorting.GeocacheSort;
 import cgeo.geocaching.sorting.GeocacheSortContext;
 import cgeo.geocaching.sorting.GlobalGPSDistanceComparator;
+import cgeo.geocaching.storage.CacheDetailsPrefetcher;
 import cgeo.geocaching.ui.dialog.Dialogs;
 import cgeo.geocaching.utils.AngleUtils;
 import cgeo.geocaching.utils.Formatter;
@@ -79,6 +80,8 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
      * Resulting list of caches
      */
     private final List<Geocache> list;
+    /** first visible list position for which cache details were last prefetched */
+    private int lastPrefetchPosition = -1;
 
 
     private static final int SWIPE_MIN_DISTANCE = 60;
@@ -134,6 +137,7 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
         this.list.clear();
         this.list.addAll(list);
         this.originalList = null;
+        this.lastPrefetchPosition = -1;
 
         forceFilter();
         checkSpecialSortOrder();
@@ -386,6 +390,18 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
         }
     }
 
+    /**
+     * Prefetches the details of the caches around the first visible list position. Call this when scrolling came to rest,
+     * repeated calls for the same position are ignored.
+     */
+    public void prefetchAround(final int firstVisiblePosition) {
+        if (firstVisiblePosition < 0 || firstVisiblePosition == lastPrefetchPosition) {
+            return;
+        }
+        lastPrefetchPosition = firstVisiblePosition;
+        CacheDetailsPrefetcher.get().prefetchAround(list, firstVisiblePosition);
+    }
+
     public static void updateViewHolder(final ViewHolder holder, final Geocache cache, final Resources res) {
         if (cache.isFound() && cache.hasLogOffline()) {
             holder.binding.logStatusMark.setImageResource(R.drawable.mark_green_orange);
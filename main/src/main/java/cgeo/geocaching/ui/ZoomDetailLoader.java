@@ -0,0 +1,204 @@
+package cgeo.geocaching.ui;
+
+import cgeo.geocaching.storage.ContentStorage;
+import cgeo.geocaching.utils.AndroidRxUtils;
+import cgeo.geocaching.utils.BitmapDecoder;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.BitmapDrawable;
+import android.net.Uri;
+import android.view.MotionEvent;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Shows the zoomed part of a downsampled local image in the resolution of the original image.
+ * <br>
+ * The downsampled image is displayed in a zoomable {@link ImageView}. Whenever zooming or panning stopped, the visible
+ * region is decoded from the original image file using a {@link BitmapRegionDecoder} and drawn on top of the downsampled
+ * image until the next touch. Thus the full resolution image never needs to be decoded completely.
+ */
+public class ZoomDetailLoader {
+
+    /** delay after last touch before decoding, to let fling animations end */
+    private static final long DECODE_DELAY_MS = 400;
+    /** the original image must have at least this factor more pixels in the visible region than the downsampled one */
+    private static final float MIN_RESOLUTION_GAIN = 1.5f;
+
+    private final ImageView imageView;
+    private final Uri uri;
+    private final DetailDrawable drawable;
+
+    // accessed from background thread only (synchronized by decoderLock)
+    private final Object decoderLock = new Object();
+    private BitmapRegionDecoder decoder;
+    private boolean decoderUnavailable = false;
+
+    // accessed from UI thread only
+    private Disposable pending = Disposable.empty();
+    private int generation = 0;
+    private boolean closed = false;
+
+    /** drawable showing a base image and optionally a detail image on top of a part of it */
+    private static class DetailDrawable extends BitmapDrawable {
+
+        private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        private final RectF detailFraction = new RectF();
+        private final RectF detailBounds = new RectF();
+        private Bitmap detail;
+
+        DetailDrawable(final Resources res, final Bitmap base) {
+            super(res, base);
+        }
+
+        /** @param fraction region covered by detail, as fraction of the base image */
+        void setDetail(@Nullable final Bitmap detail, @Nullable final RectF fraction) {
+            this.detail = detail;
+            if (fraction != null) {
+                detailFraction.set(fraction);
+            }
+            invalidateSelf();
+        }
+
+        boolean hasDetail() {
+            return detail != null;
+        }
+
+        @Override
+        public void draw(@NonNull final Canvas canvas) {
+            super.draw(canvas);
+            if (detail != null) {
+                final Rect bounds = getBounds();
+                detailBounds.set(bounds.left + detailFraction.left * bounds.width(), bounds.top + detailFraction.top * bounds.height(),
+                        bounds.left + detailFraction.right * bounds.width(), bounds.top + detailFraction.bottom * bounds.height());
+                canvas.drawBitmap(detail, null, detailBounds, paint);
+            }
+        }
+    }
+
+    /**
+     * Displays the given image in the view and prepares loading details of it.
+     *
+     * @param image downsampled version of the image stored at localUri
+     */
+    public ZoomDetailLoader(@NonNull final ImageView imageView, @NonNull final BitmapDrawable image, @NonNull final Uri localUri) {
+        this.imageView = imageView;
+        this.uri = localUri;
+        this.drawable = new DetailDrawable(imageView.getResources(), image.getBitmap());
+        imageView.setImageDrawable(drawable);
+    }
+
+    /** to be called for all touch events on the zoomable image */
+    public void onTouchEvent(@NonNull final MotionEvent event) {
+        if (closed) {
+            return;
+        }
+        final int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            cancel();
+            if (drawable.hasDetail()) {
+                drawable.setDetail(null, null);
+            }
+        } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            cancel();
+            final int requestGeneration = generation;
+            pending = AndroidRxUtils.mainThreadScheduler.scheduleDirect(() -> loadVisibleDetail(requestGeneration), DECODE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** releases all resources, must be called when the image is no longer shown */
+    public void close() {
+        closed = true;
+        cancel();
+        drawable.setDetail(null, null);
+        Schedulers.io().scheduleDirect(() -> {
+            synchronized (decoderLock) {
+                if (decoder != null) {
+                    decoder.recycle();
+                    decoder = null;
+                }
+                decoderUnavailable = true;
+            }
+        });
+    }
+
+    private void cancel() {
+        generation++;
+        pending.dispose();
+    }
+
+    private void loadVisibleDetail(final int requestGeneration) {
+        final Bitmap base = drawable.getBitmap();
+        final Rect bounds = drawable.getBounds();
+        final Matrix inverse = new Matrix();
+        if (base == null || bounds.isEmpty() || !imageView.getImageMatrix().invert(inverse)) {
+            return;
+        }
+
+        // visible part of the image, in drawable coordinates
+        final RectF visible = new RectF(0, 0, imageView.getWidth() - imageView.getPaddingLeft() - imageView.getPaddingRight(),
+                imageView.getHeight() - imageView.getPaddingTop() - imageView.getPaddingBottom());
+        inverse.mapRect(visible);
+        if (!visible.intersect(bounds.left, bounds.top, bounds.right, bounds.bottom)) {
+            return;
+        }
+        final RectF fraction = new RectF((visible.left - bounds.left) / bounds.width(), (visible.top - bounds.top) / bounds.height(),
+                (visible.right - bounds.left) / bounds.width(), (visible.bottom - bounds.top) / bounds.height());
+
+        // size of the visible part on screen
+        final RectF onScreen = new RectF(visible);
+        imageView.getImageMatrix().mapRect(onScreen);
+        final int screenWidth = Math.round(onScreen.width());
+        final int screenHeight = Math.round(onScreen.height());
+        if (screenWidth < fraction.width() * base.getWidth() * MIN_RESOLUTION_GAIN) {
+            // not zoomed in beyond the resolution of the downsampled image
+            return;
+        }
+
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> decodeDetail(fraction, base.getWidth(), screenWidth, screenHeight), detail -> {
+            if (detail != null && requestGeneration == generation && !closed) {
+                drawable.setDetail(detail, fraction);
+            }
+        });
+    }
+
+    /** decodes the given region, returns null if no detail is available */
+    @Nullable
+    private Bitmap decodeDetail(@NonNull final RectF fraction, final int baseWidth, final int maxWidth, final int maxHeight) {
+        synchronized (decoderLock) {
+            if (decoder == null && !decoderUnavailable) {
+                decoder = BitmapDecoder.createRegionDecoder(() -> ContentStorage.get().openForRead(uri));
+                decoderUnavailable = decoder == null;
+            }
+            if (decoder == null) {
+                return null;
+            }
+            final int width = decoder.getWidth();
+            final int height = decoder.getHeight();
+            if (width < baseWidth * MIN_RESOLUTION_GAIN) {
+                // downsampled image already has (nearly) the resolution of the original
+                return null;
+            }
+            final Rect region = new Rect(Math.round(fraction.left * width), Math.round(fraction.top * height),
+                    Math.round(fraction.right * width), Math.round(fraction.bottom * height));
+            if (region.isEmpty()) {
+                return null;
+            }
+            return BitmapDecoder.decodeRegion(decoder, region, maxWidth, maxHeight, null);
+        }
+    }
+}
@@ -6,14 +6,17 @@ import cgeo.geocaching.databinding.CoordinatescalculateglobalDialogBinding;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.IConversion;
 import cgeo.geocaching.maps.DefaultMap;
 import cgeo.geocaching.models.CacheVariableList;
 import cgeo.geocaching.models.CalculatedCoordinate;
+import cgeo.geocaching.models.CalculatedCoordinateRangeSolver;
 import cgeo.geocaching.models.CalculatedCoordinateType;
 import cgeo.geocaching.models.CoordinateInputData;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.sensors.LocationDataProvider;
+import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.ui.CalculatedCoordinateInputGuideView;
 import cgeo.geocaching.ui.SimpleItemListModel;
@@ -21,6 +24,7 @@ import cgeo.geocaching.ui.TextParam;
 import cgeo.geocaching.ui.TextSpinner;
 import cgeo.geocaching.ui.VariableListView;
 import cgeo.geocaching.ui.ViewUtils;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.ClipboardUtils;
 import cgeo.geocaching.utils.CollectionStream;
 import cgeo.geocaching.utils.LocalizationUtils;
@@ -28,13 +32,14 @@ import cgeo.geocaching.utils.TextUtils;
 import cgeo.geocaching.utils.formulas.DegreeFormula;
 import cgeo.geocaching.utils.formulas.FormulaUtils;
 import cgeo.geocaching.utils.formulas.VariableList;
-import cgeo.geocaching.utils.formulas.VariableMap;
 import static cgeo.geocaching.models.CalculatedCoordinateType.PLAIN;
 
 import android.app.Activity;
 import android.app.Dialog;
+import android.content.DialogInterface;
 import android.graphics.Color;
 import android.os.Bundle;
+import android.text.InputType;
 import android.text.style.ForegroundColorSpan;
 import android.util.Pair;
 import android.view.LayoutInflater;
@@ -51,7 +56,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -371,23 +375,73 @@ public class CoordinatesCalculateGlobalDialog extends DialogFragment {
 
     private void generateRangeCoordinates() {
 
-        final List<String> varsToConsider = new ArrayList<>(varList.getDependentVariables(calcCoord.getNeededVars()));
-        final Iterator<String> it = varsToConsider.iterator();
-        while (it.hasNext()) {
-            final VariableMap.VariableState state = varList.getState(it.next());
-            if (state == null || state.getFormula() == null || state.getFormula().getRangeIndexSize() == 1) {
-                it.remove();
-            }
-        }
-        TextUtils.sortListLocaleAware(varsToConsider);
-        if (varsToConsider.isEmpty()) {
+        final CalculatedCoordinateRangeSolver solver = new CalculatedCoordinateRangeSolver(calcCoord, varList);
+        if (solver.getRangeVariables().isEmpty()) {
             ActivityMixin.showShortToast(this.getActivity(), R.string.calccoord_generate_error_novarwithrange);
             return;
         }
+        if (solver.getCombinationCount() > CalculatedCoordinateRangeSolver.MAX_COMBINATIONS) {
+            ActivityMixin.showShortToast(this.getActivity(), getString(R.string.calccoord_generate_error_toomanycombinations, CalculatedCoordinateRangeSolver.MAX_COMBINATIONS));
+            return;
+        }
+        if (geopoint == null || solver.getCombinationCount() <= CalculatedCoordinateRangeSolver.MAX_SOLUTIONS) {
+            solveRangeCoordinates(solver);
+            return;
+        }
 
-        final List<Pair<String, Geopoint>> gps = new ArrayList<>();
-        generateRangeCoordinatesRecursive(varsToConsider, 0, null, gps);
+        //many combinations: offer to restrict solutions to the surroundings of the current coordinates
+        final boolean imperial = Settings.useImperialUnits();
+        SimpleDialog.of(this.getActivity()).setTitle(TextParam.id(R.string.calccoord_generate_maxdistance_title))
+                .setMessage(TextParam.id(R.string.calccoord_generate_maxdistance_message, solver.getCombinationCount()))
+                .input(new SimpleDialog.InputOptions()
+                        .setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_DECIMAL)
+                        .setSuffix(imperial ? "mi" : "km"), input -> {
+                    if (StringUtils.isNotBlank(input)) {
+                        try {
+                            final float distance = Float.parseFloat(input);
+                            if (distance > 0) {
+                                solver.setMaxDistance(geopoint, imperial ? distance * IConversion.MILES_TO_KILOMETER : distance);
+                            }
+                        } catch (NumberFormatException e) {
+                            ActivityMixin.showShortToast(this.getActivity(), R.string.number_input_err_format);
+                            return;
+                        }
+                    }
+                    solveRangeCoordinates(solver);
+                });
+    }
 
+    private void solveRangeCoordinates(final CalculatedCoordinateRangeSolver solver) {
+        final Activity activity = this.getActivity();
+        final SimpleProgressDialog progress = new SimpleProgressDialog(activity, TextParam.id(R.string.calccoord_generate_title));
+        progress.setButton(DialogInterface.BUTTON_NEGATIVE, TextParam.id(R.string.cancel), (d, w) -> solver.cancel());
+        progress.show();
+        progress.setTypeDeterminate(100);
+
+        final List<CalculatedCoordinateRangeSolver.Solution> solutions = Collections.synchronizedList(new ArrayList<>());
+        AndroidRxUtils.andThenOnUi(AndroidRxUtils.computationScheduler, () -> solver.solve(solutions::add, percent -> {
+            progress.postProgress(percent);
+            progress.postAdditionalInfo(TextParam.text(LocalizationUtils.getString(R.string.calccoord_generate_found, solutions.size())));
+        }), () -> {
+            progress.dismiss();
+            if (solver.isCancelled() && !solver.isSolutionLimitReached()) {
+                return;
+            }
+            if (solver.isSolutionLimitReached()) {
+                ActivityMixin.showShortToast(activity, LocalizationUtils.getString(R.string.calccoord_generate_solutionlimit, CalculatedCoordinateRangeSolver.MAX_SOLUTIONS));
+            }
+            final List<Pair<String, Geopoint>> gps = new ArrayList<>();
+            synchronized (solutions) {
+                Collections.sort(solutions, (s1, s2) -> Long.compare(s1.combination, s2.combination));
+                for (CalculatedCoordinateRangeSolver.Solution solution : solutions) {
+                    gps.add(new Pair<>(solution.description, solution.coords));
+                }
+            }
+            showRangeCoordinates(gps);
+        });
+    }
+
+    private void showRangeCoordinates(final List<Pair<String, Geopoint>> gps) {
         if (gps.isEmpty()) {
             ActivityMixin.showShortToast(this.getActivity(), R.string.calccoord_generate_error_novalidgeopoints);
             return;
@@ -438,21 +492,4 @@ public class CoordinatesCalculateGlobalDialog extends DialogFragment {
             ActivityMixin.showShortToast(this.getActivity(), getString(R.string.waypoint_added));
         }
     }
-
-    private void generateRangeCoordinatesRecursive(final List<String> vars, final int idx, final String praefix, final List<Pair<String, Geopoint>> result) {
-        if (idx < vars.size()) {
-            final String var = vars.get(idx);
-            final VariableMap.VariableState state = varList.getState(var);
-            for (int i = 0; i < Objects.requireNonNull(Objects.requireNonNull(state).getFormula()).getRangeIndexSize(); i++) {
-                varList.setRangeIndex(var, i);
-                generateRangeCoordinatesRecursive(vars, idx + 1, (praefix == null ? "" : praefix + ", ") + var + "=" + varList.getValue(var), result);
-            }
-            varList.setRangeIndex(var, 0);
-        } else {
-            final Geopoint gp = calcCoord.calculateGeopoint(varList::getValue);
-            if (gp != null) {
-                result.add(new Pair<>(praefix, gp));
-            }
-        }
-    }
 }
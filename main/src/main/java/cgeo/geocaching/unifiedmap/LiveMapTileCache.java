@@ -0,0 +1,348 @@
+package cgeo.geocaching.unifiedmap;
+
+import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.connector.ConnectorFactory;
+import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.enumerations.StatusCode;
+import cgeo.geocaching.filters.core.GeocacheFilter;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.utils.LeastRecentlyUsedMap;
+import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.functions.Func0;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Caches the results of live map searches on a fixed grid of tiles.
+ * <br>
+ * The world is divided into a quadtree of tiles, each zoom level halving the latitude and longitude span of the tiles
+ * of the level before. For a viewport, the tile level is chosen so that each tile is at least as large as the viewport.
+ * Only tiles which are not cached yet (or whose results expired) are searched, in parallel, and the results of all
+ * tiles around the viewport are merged. Thus panning back and forth does not download caches again, and zooming in
+ * reuses the results of a larger tile if these were complete.
+ * <br>
+ * Not thread safe, to be used by a single loader thread.
+ */
+class LiveMapTileCache {
+
+    private static final int MIN_ZOOM = 0;
+    private static final int MAX_ZOOM = 18;
+    /** number of tile results kept in memory */
+    @VisibleForTesting
+    static final int MAX_TILES = 32;
+    @VisibleForTesting
+    static final long TILE_TIME_TO_LIVE_MS = TimeUnit.MINUTES.toMillis(5);
+    /** a search having at least this many results is assumed to be truncated by the connector */
+    private static final int TRUNCATED_COUNT = 400;
+    /** number of larger tile levels checked for complete results covering a tile */
+    private static final int MAX_PARENT_LEVELS = 3;
+    /** tiles are loaded for the viewport resized by this factor, to have caches ready for small pans */
+    private static final double PREFETCH_FACTOR = 1.5;
+
+    private final TileSearch tileSearch;
+    private final Func0<Long> clock;
+
+    private final LeastRecentlyUsedMap<Tile, TileResult> tiles = new LeastRecentlyUsedMap.LruCache<>(MAX_TILES);
+    private String filterConfig = null;
+    private long tileHits = 0;
+    private long tileRequests = 0;
+
+    /** the live search done for single tiles */
+    @VisibleForTesting
+    interface TileSearch {
+        /** searches the caches within the given viewport, returns null on errors */
+        @Nullable
+        @WorkerThread
+        TileContent search(@NonNull Viewport viewport, @Nullable GeocacheFilter filter);
+
+        /** the current instances of the given caches still in memory, which are preferred to the instances found before */
+        @NonNull
+        Collection<Geocache> getCurrent(@NonNull Collection<String> geocodes);
+    }
+
+    /** searches the connectors */
+    private static final class ConnectorTileSearch implements TileSearch {
+
+        @Nullable
+        @Override
+        public TileContent search(@NonNull final Viewport viewport, @Nullable final GeocacheFilter filter) {
+            final SearchResult searchResult = ConnectorFactory.searchByViewport(viewport, filter);
+            if (searchResult.getError() != StatusCode.NO_ERROR) {
+                Log.d("LiveMapTileCache: search of " + viewport + " failed: " + searchResult.getError());
+                return null;
+            }
+            final Set<Geocache> caches = searchResult.getCachesFromSearchResult(LoadFlags.LOAD_CACHE_OR_DB);
+            return new TileContent(caches, new HashSet<>(searchResult.getFilteredGeocodes()), searchResult.getCount() < TRUNCATED_COUNT);
+        }
+
+        @NonNull
+        @Override
+        public Collection<Geocache> getCurrent(@NonNull final Collection<String> geocodes) {
+            return DataStore.loadCaches(geocodes, LoadFlags.LOAD_CACHE_ONLY);
+        }
+    }
+
+    /** a tile of the grid, identified by zoom level and column (x, from west) and row (y, from south) */
+    @VisibleForTesting
+    static final class Tile {
+        final int zoom;
+        final int x;
+        final int y;
+
+        Tile(final int zoom, final int x, final int y) {
+            this.zoom = zoom;
+            this.x = x;
+            this.y = y;
+        }
+
+        static double getLatitudeSpan(final int zoom) {
+            return 180.0 / (1 << zoom);
+        }
+
+        static double getLongitudeSpan(final int zoom) {
+            return 360.0 / (1 << zoom);
+        }
+
+        @NonNull
+        Viewport getViewport() {
+            final double latSpan = getLatitudeSpan(zoom);
+            final double lonSpan = getLongitudeSpan(zoom);
+            return new Viewport(new Geopoint(-90 + y * latSpan, -180 + x * lonSpan), new Geopoint(-90 + (y + 1) * latSpan, -180 + (x + 1) * lonSpan));
+        }
+
+        @Nullable
+        Tile getParent() {
+            return zoom == 0 ? null : new Tile(zoom - 1, x / 2, y / 2);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Tile)) {
+                return false;
+            }
+            final Tile other = (Tile) o;
+            return zoom == other.zoom && x == other.x && y == other.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return (zoom * 31 + x) * 31 + y;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return zoom + "/" + x + "/" + y;
+        }
+    }
+
+    /** the caches found in a tile */
+    @VisibleForTesting
+    static final class TileContent {
+        final Set<Geocache> caches;
+        /** caches which were filtered out by the connectors */
+        final Set<String> filteredGeocodes;
+        /** false if the search might have been truncated */
+        final boolean complete;
+
+        TileContent(final Set<Geocache> caches, final Set<String> filteredGeocodes, final boolean complete) {
+            this.caches = caches;
+            this.filteredGeocodes = filteredGeocodes;
+            this.complete = complete;
+        }
+    }
+
+    private static final class TileResult {
+        final Tile tile;
+        final TileContent content;
+        final long timestamp;
+
+        TileResult(final Tile tile, final TileContent content, final long timestamp) {
+            this.tile = tile;
+            this.content = content;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /** merged result of all tiles around a viewport */
+    static final class Result {
+        /** caches of all tiles, may be modified by the caller */
+        final Set<Geocache> caches;
+        /** caches which were filtered out by the connectors in newly loaded tiles */
+        final Set<String> filteredGeocodes;
+
+        Result(final Set<Geocache> caches, final Set<String> filteredGeocodes) {
+            this.caches = caches;
+            this.filteredGeocodes = filteredGeocodes;
+        }
+    }
+
+    LiveMapTileCache() {
+        this(new ConnectorTileSearch(), System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    LiveMapTileCache(@NonNull final TileSearch tileSearch, @NonNull final Func0<Long> clock) {
+        this.tileSearch = tileSearch;
+        this.clock = clock;
+    }
+
+    /** the tile level for the given viewport: the largest zoom whose tiles are still as large as the viewport */
+    @VisibleForTesting
+    static int getTileZoom(@NonNull final Viewport viewport) {
+        int zoom = MIN_ZOOM;
+        while (zoom < MAX_ZOOM && Tile.getLatitudeSpan(zoom + 1) >= viewport.getLatitudeSpan() && Tile.getLongitudeSpan(zoom + 1) >= viewport.getLongitudeSpan()) {
+            zoom++;
+        }
+        return zoom;
+    }
+
+    /** all tiles of the given level intersecting the given area */
+    @NonNull
+    @VisibleForTesting
+    static List<Tile> getTilesCovering(@NonNull final Viewport area, final int zoom) {
+        final int count = 1 << zoom;
+        final double latSpan = Tile.getLatitudeSpan(zoom);
+        final double lonSpan = Tile.getLongitudeSpan(zoom);
+        final int xMin = clamp((int) Math.floor((area.getLongitudeMin() + 180) / lonSpan), count);
+        final int xMax = clamp((int) Math.floor((area.getLongitudeMax() + 180) / lonSpan), count);
+        final int yMin = clamp((int) Math.floor((area.getLatitudeMin() + 90) / latSpan), count);
+        final int yMax = clamp((int) Math.floor((area.getLatitudeMax() + 90) / latSpan), count);
+        final List<Tile> result = new ArrayList<>();
+        for (int x = xMin; x <= xMax; x++) {
+            for (int y = yMin; y <= yMax; y++) {
+                result.add(new Tile(zoom, x, y));
+            }
+        }
+        return result;
+    }
+
+    private static int clamp(final int index, final int count) {
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    /**
+     * Returns the live caches around the given viewport, searching only tiles without a valid cached result.
+     */
+    @NonNull
+    @WorkerThread
+    Result search(@NonNull final Viewport viewport, @Nullable final GeocacheFilter filter) {
+        final String currentFilterConfig = filter == null ? "" : filter.toConfig();
+        if (!StringUtils.equals(currentFilterConfig, filterConfig)) {
+            // cached tiles were searched and amended for another filter
+            tiles.clear();
+            filterConfig = currentFilterConfig;
+        }
+
+        final List<TileResult> found = new ArrayList<>();
+        final List<Tile> missing = new ArrayList<>();
+        int parentHits = 0;
+        for (Tile tile : getTilesCovering(viewport.resize(PREFETCH_FACTOR), getTileZoom(viewport))) {
+            final TileResult cached = getValid(tile);
+            if (cached != null) {
+                found.add(cached);
+                continue;
+            }
+            final TileResult parent = getCompleteParent(tile);
+            if (parent != null) {
+                found.add(parent);
+                parentHits++;
+            } else {
+                missing.add(tile);
+            }
+        }
+
+        final List<TileResult> loaded = Observable.fromIterable(missing)
+                .flatMapMaybe(tile -> Maybe.fromCallable(() -> searchTile(tile, filter)).subscribeOn(Schedulers.io()))
+                .toList().blockingGet();
+        final Set<String> filteredGeocodes = new HashSet<>();
+        for (TileResult result : loaded) {
+            tiles.put(result.tile, result);
+            filteredGeocodes.addAll(result.content.filteredGeocodes);
+        }
+        found.addAll(loaded);
+
+        tileRequests += found.size() + missing.size() - loaded.size();
+        tileHits += found.size() - loaded.size();
+        Log.d("LiveMapTileCache: " + (found.size() - loaded.size()) + " tiles cached (" + parentHits + " from larger tiles), " + loaded.size() + "/" + missing.size()
+                + " tiles loaded, overall hit rate " + (tileRequests == 0 ? 0 : tileHits * 100 / tileRequests) + "%");
+
+        return new Result(merge(found), filteredGeocodes);
+    }
+
+    @Nullable
+    private TileResult getValid(@NonNull final Tile tile) {
+        final TileResult result = tiles.get(tile);
+        if (result != null && clock.call() - result.timestamp > TILE_TIME_TO_LIVE_MS) {
+            tiles.remove(tile);
+            return null;
+        }
+        return result;
+    }
+
+    /** a complete result of a larger tile contains all caches of the given tile */
+    @Nullable
+    private TileResult getCompleteParent(@NonNull final Tile tile) {
+        Tile parent = tile.getParent();
+        for (int level = 0; level < MAX_PARENT_LEVELS && parent != null; level++) {
+            final TileResult result = getValid(parent);
+            if (result != null && result.content.complete) {
+                return result;
+            }
+            parent = parent.getParent();
+        }
+        return null;
+    }
+
+    /** searches the caches of a tile, returns null on errors so that the tile is searched again next time */
+    @Nullable
+    @WorkerThread
+    private TileResult searchTile(@NonNull final Tile tile, @Nullable final GeocacheFilter filter) {
+        try {
+            final TileContent content = tileSearch.search(tile.getViewport(), filter);
+            if (content == null) {
+                Log.d("LiveMapTileCache: search of tile " + tile + " failed");
+                return null;
+            }
+            return new TileResult(tile, content, clock.call());
+        } catch (final RuntimeException e) {
+            Log.w("LiveMapTileCache: search of tile " + tile + " failed", e);
+            return null;
+        }
+    }
+
+    /** merges the caches of the given tiles, preferring the current instances of caches still in memory */
+    @NonNull
+    private Set<Geocache> merge(@NonNull final List<TileResult> results) {
+        final Map<String, Geocache> caches = new HashMap<>();
+        for (TileResult result : results) {
+            for (Geocache cache : result.content.caches) {
+                caches.put(cache.getGeocode(), cache);
+            }
+        }
+        for (Geocache current : tileSearch.getCurrent(caches.keySet())) {
+            caches.put(current.getGeocode(), current);
+        }
+        return new HashSet<>(caches.values());
+    }
+}
@@ -1,14 +1,12 @@
 package cgeo.geocaching.unifiedmap;
 
 import cgeo.geocaching.SearchResult;
-import cgeo.geocaching.connector.ConnectorFactory;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.MapUtils;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.Log;
-import static cgeo.geocaching.location.Viewport.containingGCliveCaches;
 
 import android.os.Handler;
 import android.os.Looper;
@@ -39,7 +37,7 @@ class LoadInBackgroundHandler {
         private final WeakReference<LoadInBackgroundHandler> handlerRef;
         private int previousZoom = -100;
         private Viewport previousViewport;
-        private SearchResult lastSearchResult = null;
+        private final LiveMapTileCache liveMapTileCache = new LiveMapTileCache();
 
         LoadTimerAction(final LoadInBackgroundHandler handler) {
             handlerRef = new WeakReference<>(handler);
@@ -101,22 +99,15 @@ class LoadInBackgroundHandler {
 
                 if (Boolean.TRUE.equals(viewModel.transientIsLiveEnabled.getValue())) {
                     // retrieving live caches (if enabled)
-                    final boolean useLastSearchResult = null != lastSearchResult && null != previousViewport && previousViewport.includes(viewport);
-                    final Viewport newViewport = viewport.resize(3.0);
-                    final SearchResult searchResult = useLastSearchResult ? lastSearchResult : ConnectorFactory.searchByViewport(newViewport, activity.getFilterContext().get());
+                    final LiveMapTileCache.Result searchResult = liveMapTileCache.search(viewport, activity.getFilterContext().get());
 
-                    final Set<Geocache> result = searchResult.getCachesFromSearchResult(LoadFlags.LOAD_CACHE_OR_DB);
+                    final Set<Geocache> result = searchResult.caches;
                     MapUtils.filter(result, activity.getFilterContext());
-                    final Set<String> filteredCodes = searchResult.getFilteredGeocodes();
+                    final Set<String> filteredCodes = searchResult.filteredGeocodes;
                     Log.d("Filtering out " + filteredCodes.size() + " caches: " + filteredCodes);
                     DataStore.removeCaches(filteredCodes, EnumSet.of(LoadFlags.RemoveFlag.CACHE));
                     activity.addSearchResultByGeocaches(result);
-
-                    lastSearchResult = searchResult;
-                    if (null == previousViewport || !useLastSearchResult || (!result.isEmpty() && lastSearchResult.getCount() > 400)) {
-                        previousViewport = containingGCliveCaches(result);
-                    }
-                    Log.d("searchByViewport: cached=" + useLastSearchResult + ", results=" + lastSearchResult.getCount() + ", viewport=" + previousViewport);
+                    Log.d("searchByViewport: results=" + result.size() + ", viewport=" + viewport);
                 }
 
                 activity.loadWaypoints(activity, viewModel, viewport);
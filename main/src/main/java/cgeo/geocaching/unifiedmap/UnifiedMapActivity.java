@@ -17,6 +17,7 @@ import cgeo.geocaching.list.AbstractList;
 import cgeo.geocaching.list.PseudoList;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.NearestNeighbourIndex;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.location.WaypointDistanceInfo;
 import cgeo.geocaching.maps.MapMode;
@@ -71,7 +72,6 @@ import cgeo.geocaching.utils.HideActionBarUtils;
 import cgeo.geocaching.utils.HistoryTrackUtils;
 import cgeo.geocaching.utils.LifecycleAwareBroadcastReceiver;
 import cgeo.geocaching.utils.Log;
-import cgeo.geocaching.utils.functions.Func1;
 import cgeo.geocaching.wherigo.WherigoDialogManager;
 import cgeo.geocaching.wherigo.WherigoGame;
 import cgeo.geocaching.wherigo.WherigoThingDialogProvider;
@@ -153,6 +153,8 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
     private String lastElevationChartRoute = null; // null=none, empty=individual route, other=track
     private boolean waypointsFilteredDueToLimit = false;
     private int lastCacheCount = -1;
+    private final NearestNeighbourIndex<IWaypoint> proximityIndex = new NearestNeighbourIndex<>(IWaypoint::getCoords);
+    private boolean proximityIndexOutdated = true;
 
     private UnifiedMapType mapType = null;
     private MapMode compatibilityMapMode = MapMode.LIVE;
@@ -258,6 +260,8 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
 
         viewModel.mapCenter.observe(this, center -> refreshListChooser());
         viewModel.caches.observeForNotification(this, this::refreshListChooser);
+        viewModel.caches.observeForNotification(this, () -> proximityIndexOutdated = true);
+        viewModel.waypoints.observe(this, waypoints -> proximityIndexOutdated = true);
 
         MapUtils.showMapOneTimeMessages(this, compatibilityMapMode);
 
@@ -630,7 +634,7 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
             mapFragment.setCenter(new Geopoint(locationWrapper.location));
 
             if (viewModel.proximityNotification.getValue() != null) {
-                viewModel.proximityNotification.getValue().checkDistance(getClosestDistanceInM(new Geopoint(locationWrapper.location.getLatitude(), locationWrapper.location.getLongitude()), viewModel));
+                viewModel.proximityNotification.getValue().checkDistance(getClosestDistanceInM(new Geopoint(locationWrapper.location.getLatitude(), locationWrapper.location.getLongitude())));
             }
         }
     }
@@ -1101,28 +1105,25 @@ public class UnifiedMapActivity extends AbstractNavigationBarMapActivity impleme
 
     // ========================================================================
     // distance checks for proximity notifications
-    private static WaypointDistanceInfo getClosestDistanceInM(final Geopoint coord, final UnifiedMapViewModel viewModel) {
-        WaypointDistanceInfo result;
-        // work on a copy to avoid race conditions
-        result = getClosestDistanceInM(coord, viewModel.caches.getListCopy(), Integer.MAX_VALUE, item -> ((Geocache) item).getShortGeocode() + " " + ((Geocache) item).getName());
-        result = getClosestDistanceInM(coord, new ArrayList<>(viewModel.waypoints.getValue()), result.meters, item -> ((Waypoint) item).getName() + " (" + ((Waypoint) item).getWaypointType().gpx + ")");
-        return result;
-    }
-
-    private static WaypointDistanceInfo getClosestDistanceInM(final Geopoint center, final List<? extends IWaypoint> items, final int minDistanceOld, final Func1<IWaypoint, String> getName) {
-        int minDistance = minDistanceOld;
-        String name = "";
-        for (IWaypoint item : items) {
-            final Geopoint coords = item.getCoords();
-            if (coords != null) {
-                final int distance = (int) (1000f * coords.distanceTo(center));
-                if (distance > 0 && distance < minDistance) {
-                    minDistance = distance;
-                    name = getName.call(item);
-                }
-            }
+    private WaypointDistanceInfo getClosestDistanceInM(final Geopoint coord) {
+        if (proximityIndexOutdated) {
+            // work on a copy to avoid race conditions
+            final List<IWaypoint> items = new ArrayList<>(viewModel.caches.getListCopy());
+            items.addAll(viewModel.waypoints.getValue());
+            proximityIndex.update(items);
+            proximityIndexOutdated = false;
+        }
+        final IWaypoint nearest = proximityIndex.getNearest(coord);
+        if (nearest == null) {
+            return new WaypointDistanceInfo("", Integer.MAX_VALUE);
+        }
+        final String name;
+        if (nearest instanceof Geocache) {
+            name = ((Geocache) nearest).getShortGeocode() + " " + ((Geocache) nearest).getName();
+        } else {
+            name = ((Waypoint) nearest).getName() + " (" + ((Waypoint) nearest).getWaypointType().gpx + ")";
         }
-        return new WaypointDistanceInfo(name, minDistance);
+        return new WaypointDistanceInfo(name, (int) (1000f * nearest.getCoords().distanceTo(coord)));
     }
 
     // ========================================================================
@@ -67,6 +67,10 @@ public class UnifiedMapViewModel extends ViewModel implements IndividualRoute.Up
     public final MutableLiveData<PositionHistory> positionHistory = new MutableLiveData<>(new PositionHistory());
     public final MutableLiveData<Boolean> followMyLocation = new MutableLiveData<>(Settings.getFollowMyLocation());
     public final MutableLiveData<Geopoint> mapCenter = new MutableLiveData<>();
+    /**
+     * LiveData holding the current (integer) zoom level of the map. Only updated on actual zoom level changes
+     */
+    public final MutableLiveData<Integer> zoomLevel = new MutableLiveData<>();
     public final MutableLiveData<Boolean> transientIsLiveEnabled = new MutableLiveData<>(false);
 
     public void setTrack(final String key, final IGeoItemSupplier route, final int unused1, final int unused2) {
@@ -75,6 +79,14 @@ public class UnifiedMapViewModel extends ViewModel implements IndividualRoute.Up
         //send event to layer/rtutils
     }
 
+    /** updates zoomLevel LiveData, but only if given level differs from current one */
+    public void setZoomLevel(final int zoom) {
+        final Integer current = zoomLevel.getValue();
+        if (current == null || current != zoom) {
+            zoomLevel.setValue(zoom);
+        }
+    }
+
     public void setTarget(final Geopoint geopoint, final String geocode) {
         target.setValue(new Target(geopoint, geocode));
     }
@@ -4,6 +4,7 @@ import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.models.geoitem.GeoGroup;
 import cgeo.geocaching.models.geoitem.GeoItem;
+import cgeo.geocaching.models.geoitem.GeoItemTouchBounds;
 import cgeo.geocaching.models.geoitem.GeoPrimitive;
 import cgeo.geocaching.models.geoitem.ToScreenProjector;
 import cgeo.geocaching.utils.AsynchronousMapWrapper;
@@ -45,6 +46,10 @@ public class GeoItemLayer<K> {
     private static final ThreadLocal<Map<Integer, GeoPrimitive>> LOCAL_MAP_2 = CommonUtils.threadLocalWithInitial(HashMap::new);
     private final String id;
     private final Map<K, Pair<GeoItem, Boolean>> itemMap = new HashMap<>();
+    /** touch bounds per item, used to narrow down touch tests. Calculated lazily on first touch test */
+    private final Map<K, GeoItemTouchBounds> touchBoundsMap = new HashMap<>();
+    /** cached overall viewport of all items, null if not calculated yet */
+    private Viewport viewport = null;
     //private final Lock lock = new ReentrantLock(); //-> locking is done via synchronized
 
     //Key of mapWriter is always instance of either K or GeoGroupKey<K>
@@ -293,6 +298,7 @@ public class GeoItemLayer<K> {
         }
 
         itemMap.put(key, new Pair<>(item, show));
+        itemChanged(key);
 
         //draw new item on map if necessary
         if (show) {
@@ -305,6 +311,7 @@ public class GeoItemLayer<K> {
         final Pair<GeoItem, Boolean> value = itemMap.get(key);
         if (value != null) {
             itemMap.remove(key);
+            itemChanged(key);
             if (value.second) {
                 removeFromMap(key, value.first);
             }
@@ -479,11 +486,19 @@ public class GeoItemLayer<K> {
 
     /** Gets the overall viewport for all objects in this layer (visible or invisible) */
     public synchronized Viewport getViewport() {
-        final Viewport.ContainingViewportBuilder vpBuilder = new Viewport.ContainingViewportBuilder();
-        for (Map.Entry<K, Pair<GeoItem, Boolean>> entry : this.itemMap.entrySet()) {
-            vpBuilder.add(entry.getValue().first.getViewport());
+        if (viewport == null) {
+            final Viewport.ContainingViewportBuilder vpBuilder = new Viewport.ContainingViewportBuilder();
+            for (Map.Entry<K, Pair<GeoItem, Boolean>> entry : this.itemMap.entrySet()) {
+                vpBuilder.add(entry.getValue().first.getViewport());
+            }
+            viewport = vpBuilder.getViewport();
         }
-        return vpBuilder.getViewport();
+        return viewport;
+    }
+
+    private void itemChanged(final K key) {
+        touchBoundsMap.remove(key);
+        viewport = null;
     }
 
     /** Gets a list of all objects touched by a given geopoint. Only visible objects are considered */
@@ -499,13 +514,27 @@ public class GeoItemLayer<K> {
             }
             cLog.add("scc=" + (toCoordFct != null));
 
+            //narrow down to candidates by geographic bounds first, exact (pixel-based) touch tests are expensive
+            final double[] degreesPerPixel = GeoItemTouchBounds.getDegreesPerPixel(tapped, toCoordFct);
             final Set<K> result = new HashSet<>();
+            int candidates = 0;
             for (Map.Entry<K, Pair<GeoItem, Boolean>> entry : this.itemMap.entrySet()) {
-                if (entry.getValue().second && entry.getValue().first.touches(tapped, toCoordFct)) {
-                    result.add(entry.getKey());
+                if (!entry.getValue().second) {
+                    continue;
+                }
+                GeoItemTouchBounds bounds = touchBoundsMap.get(entry.getKey());
+                if (bounds == null) {
+                    bounds = GeoItemTouchBounds.of(entry.getValue().first);
+                    touchBoundsMap.put(entry.getKey(), bounds);
+                }
+                if (bounds.mayBeTouched(tapped, degreesPerPixel)) {
+                    candidates++;
+                    if (entry.getValue().first.touches(tapped, toCoordFct)) {
+                        result.add(entry.getKey());
+                    }
                 }
             }
-            cLog.add("t:" + result.size() + "/" + this, itemMap.size());
+            cLog.add("t:" + result.size() + "/" + candidates + "/" + this, itemMap.size());
             return result;
         }
     }
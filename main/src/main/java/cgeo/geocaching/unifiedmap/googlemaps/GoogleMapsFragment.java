@@ -128,6 +128,7 @@ public class GoogleMapsFragment extends AbstractMapFragment implements OnMapRead
         mMap.setOnCameraIdleListener(() -> {
             mapIsCurrentlyMoving = false;
             viewModel.mapCenter.setValue(getCenter());
+            viewModel.setZoomLevel(getCurrentZoom());
             lastBounds = mMap.getProjection().getVisibleRegion().latLngBounds;
             scaleDrawer.drawScale(lastBounds);
         });
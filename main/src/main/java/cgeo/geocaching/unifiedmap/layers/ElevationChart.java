@@ -6,8 +6,8 @@ import cgeo.geocaching.R;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Units;
 import cgeo.geocaching.maps.RouteTrackUtils;
+import cgeo.geocaching.models.ElevationProfile;
 import cgeo.geocaching.models.Route;
-import cgeo.geocaching.models.RouteSegment;
 import cgeo.geocaching.models.geoitem.GeoIcon;
 import cgeo.geocaching.models.geoitem.GeoItem;
 import cgeo.geocaching.models.geoitem.GeoPrimitive;
@@ -19,16 +19,15 @@ import static cgeo.geocaching.utils.DisplayUtils.getDimensionInDp;
 
 import android.annotation.SuppressLint;
 import android.content.res.Resources;
+import android.view.MotionEvent;
 import android.view.View;
 
-import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.view.menu.MenuBuilder;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.content.res.ResourcesCompat;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import com.github.mikephil.charting.charts.LineChart;
@@ -39,6 +38,8 @@ import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.highlight.Highlight;
+import com.github.mikephil.charting.listener.ChartTouchListener;
+import com.github.mikephil.charting.listener.OnChartGestureListener;
 import com.github.mikephil.charting.listener.OnChartValueSelectedListener;
 
 public class ElevationChart {
@@ -50,6 +51,8 @@ public class ElevationChart {
     private final GeoItemLayer<String> geoItemLayer;
     final Toolbar toolbar;
     private final List<Entry> entries = new ArrayList<>();
+    private ElevationProfile profile = null;
+    private int shownLevel = 0;
 
     public ElevationChart(final AppCompatActivity activity, final GeoItemLayer<String> geoItemLayer) {
         chartBlock = activity.findViewById(R.id.elevation_block);
@@ -84,7 +87,7 @@ public class ElevationChart {
             chart.setOnChartValueSelectedListener(new OnChartValueSelectedListener() {
                 @Override
                 public void onValueSelected(final Entry e, final Highlight h) {
-                    final Geopoint center = findClosestByDistance(route, e.getX());
+                    final Geopoint center = profile == null ? null : profile.findByDistance(e.getX());
                     // update marker if position found
                     if (center != null) {
                         final GeoItem marker = GeoPrimitive.createMarker(center, GeoIcon.builder().setBitmap(ImageUtils.convertToBitmap(ResourcesCompat.getDrawable(CgeoApplication.getInstance().getResources(), R.drawable.circle, null))).build()).buildUpon().setZLevel(ZINDEX_ELEVATIONCHARTMARKERPOSITION).build();
@@ -98,6 +101,49 @@ public class ElevationChart {
                 }
             });
 
+            // show more details when zooming in
+            chart.setOnChartGestureListener(new OnChartGestureListener() {
+                @Override
+                public void onChartGestureEnd(final MotionEvent me, final ChartTouchListener.ChartGesture lastPerformedGesture) {
+                    updateLevelOfDetail();
+                }
+
+                @Override
+                public void onChartGestureStart(final MotionEvent me, final ChartTouchListener.ChartGesture lastPerformedGesture) {
+                    // nothing to do
+                }
+
+                @Override
+                public void onChartLongPressed(final MotionEvent me) {
+                    // nothing to do
+                }
+
+                @Override
+                public void onChartDoubleTapped(final MotionEvent me) {
+                    // nothing to do
+                }
+
+                @Override
+                public void onChartSingleTapped(final MotionEvent me) {
+                    // nothing to do
+                }
+
+                @Override
+                public void onChartFling(final MotionEvent me1, final MotionEvent me2, final float velocityX, final float velocityY) {
+                    // nothing to do
+                }
+
+                @Override
+                public void onChartScale(final MotionEvent me, final float scaleX, final float scaleY) {
+                    // nothing to do
+                }
+
+                @Override
+                public void onChartTranslate(final MotionEvent me, final float dX, final float dY) {
+                    // nothing to do
+                }
+            });
+
             toolbar.setNavigationIcon(R.drawable.expand_more);
             toolbar.setNavigationOnClickListener(v -> closeChart(geoItemLayer));
         }
@@ -123,30 +169,39 @@ public class ElevationChart {
         }
     }
 
-    /** collect entries for line chart from route */
+    /** collect entries for line chart from route, using the coarsest level of detail */
     private void collectData(final Route route) {
-        float distance = 0.0f;
-        Geopoint lastPoint = null;
         entries.clear();
-        if (route == null || route.getSegments() == null) {
-            return;
+        profile = route == null || route.getSegments() == null ? null : route.getElevationProfile();
+        shownLevel = 0;
+        if (profile != null && profile.hasElevation()) {
+            addEntries(profile.getSeries(shownLevel));
         }
-        for (RouteSegment segment : route.getSegments()) {
-            final ArrayList<Float> elevation = segment.getElevation();
-            if (elevation == null) {
+    }
+
+    private void addEntries(final ElevationProfile.Series series) {
+        for (int i = 0; i < series.size(); i++) {
+            entries.add(new Entry(series.x[i], series.y[i]));
+        }
+    }
+
+    /** replaces the shown entries by a series having enough points for the currently visible part of the chart */
+    private void updateLevelOfDetail() {
+        synchronized (entries) {
+            if (profile == null || !profile.hasElevation() || chart.getData() == null || profile.getTotalDistance() <= 0) {
                 return;
             }
-            final Iterator<Float> it = elevation.iterator();
-            for (Geopoint point : segment.getPoints()) {
-                if (lastPoint != null) {
-                    distance += lastPoint.distanceTo(point);
-                }
-                lastPoint = point;
-                final float elev = it.hasNext() ? it.next() : Float.NaN;
-                if (!Float.isNaN(elev)) {
-                    entries.add(new Entry(distance, elev));
-                }
+            final int level = profile.getLevelForVisibleFraction(chart.getVisibleXRange() / profile.getTotalDistance());
+            if (level == shownLevel) {
+                return;
             }
+            shownLevel = level;
+            entries.clear();
+            addEntries(profile.getSeries(level));
+            ((LineDataSet) chart.getData().getDataSetByIndex(0)).setValues(entries);
+            chart.getData().notifyDataChanged();
+            chart.notifyDataSetChanged();
+            chart.invalidate();
         }
     }
 
@@ -200,23 +255,4 @@ public class ElevationChart {
         geoItemLayer.remove(ELEVATIONCHART_MARKER);
         LifecycleAwareBroadcastReceiver.sendBroadcast(chart.getContext(), Intents.ACTION_ELEVATIONCHART_CLOSED);
     }
-
-    /** find position in route corresponding to distance from start */
-    @Nullable
-    private static Geopoint findClosestByDistance(final Route route, final float distance) {
-        float done = 0.0f;
-        Geopoint lastPoint = null;
-        for (RouteSegment segment : route.getSegments()) {
-            for (Geopoint point : segment.getPoints()) {
-                if (lastPoint != null) {
-                    done += lastPoint.distanceTo(point);
-                }
-                if (done >= distance) {
-                    return point;
-                }
-                lastPoint = point;
-            }
-        }
-        return null;
-    }
 }
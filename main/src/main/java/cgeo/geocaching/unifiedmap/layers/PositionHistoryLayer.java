@@ -18,6 +18,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 import javax.annotation.Nullable;
 
@@ -33,8 +35,32 @@ public class PositionHistoryLayer {
 
     private static final String KEY_HISTORY_LINE = "historyLine";
 
+    /**
+     * maximum number of points per closed polyline chunk. New points are only appended to the open tail,
+     * so a redraw only needs to replace this tail on the map
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    /** polyline chunks which are complete and won't change anymore (unless history is trimmed) */
+    private final List<HistoryChunk> closedChunks = new ArrayList<>();
+    /** index in history of first point not covered by a closed chunk */
+    private int chunkedUntilIndex = 0;
+
     final UnifiedMapViewModel viewModel;
 
+    private static class HistoryChunk {
+        GeoPrimitive line;
+        int startIndex;
+        int endIndex;
+        final TrailHistoryElement lastElement;
+
+        HistoryChunk(final GeoPrimitive line, final int startIndex, final int endIndex, final TrailHistoryElement lastElement) {
+            this.line = line;
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+            this.lastElement = lastElement;
+        }
+    }
 
     private final GeoStyle lineStyle = GeoStyle.builder()
             .setStrokeColor(MapLineUtils.getTrailColor())
@@ -71,29 +97,110 @@ public class PositionHistoryLayer {
         }
 
         final ArrayList<TrailHistoryElement> historyElements = history.getHistory();
-        final GeoGroup.Builder geoGroup = GeoGroup.builder();
-
-        ArrayList<Geopoint> segmentPoints = new ArrayList<>();
-
-        segmentPoints.add(new Geopoint(historyElements.get(0).getLocation()));
-        for (int i = 1; i < historyElements.size(); i++) {
-            if (historyElements.get(i).getLocation().distanceTo(historyElements.get(i - 1).getLocation()) > LINE_MAXIMUM_DISTANCE_METERS) {
-                geoGroup.addItems(GeoPrimitive.createPolyline(segmentPoints, lineStyle));
-                segmentPoints = new ArrayList<>();
+        syncChunksWithHistory(historyElements);
+
+        // build the open tail from the last closed chunk on. Closed chunks are only created here, never changed
+        List<Geopoint> tail = new ArrayList<>();
+        for (int i = chunkedUntilIndex; i < historyElements.size(); i++) {
+            if (i > 0 && isGap(historyElements, i)) {
+                closeChunk(historyElements, tail, i);
+                tail = new ArrayList<>();
+            } else if (tail.isEmpty() && i > 0) {
+                // connect with previous chunk
+                tail.add(new Geopoint(historyElements.get(i - 1).getLocation()));
+            }
+            tail.add(new Geopoint(historyElements.get(i).getLocation()));
+            if (tail.size() >= CHUNK_SIZE) {
+                closeChunk(historyElements, tail, i + 1);
+                tail = new ArrayList<>();
             }
-            segmentPoints.add(new Geopoint(historyElements.get(i).getLocation()));
         }
         // always add current position
         if (currentLoc != null) {
-            segmentPoints.add(new Geopoint(currentLoc));
+            if (tail.isEmpty()) {
+                tail.add(new Geopoint(historyElements.get(historyElements.size() - 1).getLocation()));
+            }
+            tail.add(new Geopoint(currentLoc));
+        }
+
+        // closed chunks are reused as identical objects, thus only the tail needs to be updated on the map
+        final GeoGroup.Builder geoGroup = GeoGroup.builder();
+        for (HistoryChunk chunk : closedChunks) {
+            geoGroup.addItems(chunk.line);
         }
-        geoGroup.addItems(GeoPrimitive.createPolyline(segmentPoints, lineStyle).buildUpon().setZLevel(LayerHelper.ZINDEX_HISTORY).build());
+        geoGroup.addItems(createLine(tail));
 
         layer.put(KEY_HISTORY_LINE, geoGroup.build());
         pathStored = true;
     }
 
+    /**
+     * Checks whether history was trimmed at its start (or completely replaced) since the last run
+     * and adapts closed chunks accordingly
+     */
+    private void syncChunksWithHistory(final List<TrailHistoryElement> historyElements) {
+        if (closedChunks.isEmpty()) {
+            chunkedUntilIndex = 0;
+            return;
+        }
+        final HistoryChunk lastChunk = closedChunks.get(closedChunks.size() - 1);
+        final int lastIdx = lastChunk.endIndex - 1;
+        if (lastIdx < historyElements.size() && historyElements.get(lastIdx) == lastChunk.lastElement) {
+            // nothing removed
+            return;
+        }
+
+        // history is only trimmed at its start -> search for new position of last chunked element
+        int newLastIdx = Math.min(lastIdx, historyElements.size() - 1);
+        while (newLastIdx >= 0 && historyElements.get(newLastIdx) != lastChunk.lastElement) {
+            newLastIdx--;
+        }
+        if (newLastIdx < 0) {
+            // history was reset or replaced
+            closedChunks.clear();
+            chunkedUntilIndex = 0;
+            return;
+        }
+
+        final int removed = lastIdx - newLastIdx;
+        final Iterator<HistoryChunk> it = closedChunks.iterator();
+        while (it.hasNext()) {
+            final HistoryChunk chunk = it.next();
+            chunk.startIndex -= removed;
+            chunk.endIndex -= removed;
+            if (chunk.endIndex <= 0) {
+                it.remove();
+            } else if (chunk.startIndex < 0) {
+                // chunk was partly trimmed -> recreate it with remaining points
+                final List<Geopoint> points = new ArrayList<>();
+                for (int i = 0; i < chunk.endIndex; i++) {
+                    points.add(new Geopoint(historyElements.get(i).getLocation()));
+                }
+                chunk.startIndex = 0;
+                chunk.line = createLine(points);
+            }
+        }
+        chunkedUntilIndex -= removed;
+    }
+
+    private void closeChunk(final List<TrailHistoryElement> historyElements, final List<Geopoint> points, final int endIndex) {
+        if (points.size() >= 2) {
+            closedChunks.add(new HistoryChunk(createLine(points), chunkedUntilIndex, endIndex, historyElements.get(endIndex - 1)));
+        }
+        chunkedUntilIndex = endIndex;
+    }
+
+    private GeoPrimitive createLine(final List<Geopoint> points) {
+        return GeoPrimitive.createPolyline(points, lineStyle).buildUpon().setZLevel(LayerHelper.ZINDEX_HISTORY).build();
+    }
+
+    private static boolean isGap(final List<TrailHistoryElement> historyElements, final int index) {
+        return historyElements.get(index).getLocation().distanceTo(historyElements.get(index - 1).getLocation()) > LINE_MAXIMUM_DISTANCE_METERS;
+    }
+
     private void removePath() {
+        closedChunks.clear();
+        chunkedUntilIndex = 0;
         if (pathStored) {
             layer.remove(KEY_HISTORY_LINE);
             pathStored = false;
@@ -1,27 +1,38 @@
 package cgeo.geocaching.unifiedmap.layers;
 
 import cgeo.geocaching.maps.Tracks;
+import cgeo.geocaching.models.geoitem.GeoItemLevelOfDetail;
 import cgeo.geocaching.models.geoitem.GeoStyle;
 import cgeo.geocaching.unifiedmap.UnifiedMapViewModel;
 import cgeo.geocaching.unifiedmap.geoitemlayer.GeoItemLayer;
+import cgeo.geocaching.utils.AndroidRxUtils;
 
 import android.graphics.Color;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class TracksLayer {
 
     public static final String TRACK_KEY_PREFIX = "TRACK-";
 
     final UnifiedMapViewModel viewModel;
+    private final GeoItemLayer<String> layer;
+
+    /** per displayed track: styled track item with its zoom-dependent simplifications */
+    private final Map<String, GeoItemLevelOfDetail> trackDetails = new HashMap<>();
 
     public TracksLayer(final AppCompatActivity activity, final GeoItemLayer<String> layer) {
         viewModel = new ViewModelProvider(activity).get(UnifiedMapViewModel.class);
+        this.layer = layer;
 
         viewModel.trackUpdater.observe(activity, event -> event.ifNotHandled((key -> {
             final Tracks.Track track = viewModel.getTracks().getTrack(key);
             if (track == null || track.getRoute() == null || track.getRoute().isHidden()) {
+                trackDetails.remove(key);
                 layer.remove(TRACK_KEY_PREFIX + key);
             } else {
 
@@ -36,10 +47,35 @@ public class TracksLayer {
                         .setStrokeColor(defaultStrokeColor)
                         .setStrokeWidth(defaultWidth).build();
 
-                layer.put(TRACK_KEY_PREFIX + key, track.getRoute().getItem().applyDefaultStyle(defaultStyle));
+                final GeoItemLevelOfDetail details = new GeoItemLevelOfDetail(track.getRoute().getItem().applyDefaultStyle(defaultStyle));
+                trackDetails.put(key, details);
+                drawTrack(key, details);
              }
         })));
 
+        viewModel.zoomLevel.observe(activity, zoom -> {
+            for (Map.Entry<String, GeoItemLevelOfDetail> entry : trackDetails.entrySet()) {
+                drawTrack(entry.getKey(), entry.getValue());
+            }
+        });
+    }
+
+    /** simplifies track for current zoom level in background (if not done already) and puts the result on the layer */
+    private void drawTrack(final String key, final GeoItemLevelOfDetail details) {
+        final int zoom = getZoomLevel();
+        AndroidRxUtils.andThenOnUi(AndroidRxUtils.computationScheduler, () -> details.getForZoom(zoom), item -> {
+            //track might have been removed or replaced in the meantime, or zoom level changed again
+            if (trackDetails.get(key) == details && zoom == getZoomLevel()) {
+                layer.put(TRACK_KEY_PREFIX + key, item);
+            }
+            //calculate remaining levels so that follow-up zoom changes are served instantly
+            AndroidRxUtils.computationScheduler.scheduleDirect(details::precompute);
+        });
+    }
+
+    private int getZoomLevel() {
+        final Integer zoom = viewModel.zoomLevel.getValue();
+        return zoom == null ? -1 : zoom;
     }
 
 }
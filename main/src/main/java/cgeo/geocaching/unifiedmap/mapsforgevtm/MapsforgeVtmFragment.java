@@ -115,6 +115,9 @@ public class MapsforgeVtmFragment extends AbstractMapFragment {
                 }
                 viewModel.mapCenter.setValue(new Geopoint(mapPosition.getLatitude(), mapPosition.getLongitude()));
             }
+            if (event == Map.MOVE_EVENT || event == Map.SCALE_EVENT || event == Map.POSITION_EVENT) {
+                viewModel.setZoomLevel(mapPosition.getZoomLevel());
+            }
             lastEvent = event; // remember to detect scaling combined with panning
         };
         mMap.events.bind(mapUpdateListener);
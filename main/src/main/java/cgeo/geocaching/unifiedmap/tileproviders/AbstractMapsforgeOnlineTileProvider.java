@@ -20,6 +20,9 @@ import org.oscim.tiling.source.bitmap.BitmapTileSource;
 
 class AbstractMapsforgeOnlineTileProvider extends AbstractMapsforgeTileProvider {
 
+    /** shared by all online tile sources, as OkHttp caches must not be opened twice on the same directory */
+    private static Cache tileCache;
+
     private final String tilePath;
 
     AbstractMapsforgeOnlineTileProvider(final String name, final Uri uri, final String tilePath, final int zoomMin, final int zoomMax, final Pair<String, Boolean> mapAttribution) {
@@ -30,8 +33,7 @@ class AbstractMapsforgeOnlineTileProvider extends AbstractMapsforgeTileProvider
     @Override
     public void addTileLayer(final MapsforgeVtmFragment fragment, final Map map) {
         final OkHttpClient.Builder httpBuilder = new OkHttpClient.Builder();
-        final Cache cache = new Cache(new File(LocalStorage.getExternalPrivateCgeoDirectory(), "tiles"), 20 * 1024 * 1024);
-        httpBuilder.cache(cache);
+        httpBuilder.cache(getTileCache());
         final BitmapTileSource tileSource = BitmapTileSource.builder()
                 .url(mapUri.toString())
                 .tilePath(tilePath)
@@ -43,4 +45,11 @@ class AbstractMapsforgeOnlineTileProvider extends AbstractMapsforgeTileProvider
         fragment.addLayer(LayerHelper.ZINDEX_BASEMAP, new BitmapTileLayer(map, tileSource));
     }
 
+    private static synchronized Cache getTileCache() {
+        if (tileCache == null) {
+            tileCache = new Cache(new File(LocalStorage.getExternalPrivateCgeoDirectory(), "tiles"), 20 * 1024 * 1024);
+        }
+        return tileCache;
+    }
+
 }
@@ -8,14 +8,13 @@ import cgeo.geocaching.maps.mapsforge.MapsforgeMapProvider;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.PersistableFolder;
+import cgeo.geocaching.storage.extension.FileMetadataIndex;
 import cgeo.geocaching.ui.SimpleItemListModel;
 import cgeo.geocaching.ui.TextParam;
 import cgeo.geocaching.ui.dialog.SimpleDialog;
 import cgeo.geocaching.utils.CollectionStream;
-import cgeo.geocaching.utils.FileUtils;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.TextUtils;
-import static cgeo.geocaching.maps.mapsforge.MapsforgeMapProvider.isValidMapFile;
 
 import android.app.Activity;
 import android.net.Uri;
@@ -34,7 +33,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -152,9 +151,13 @@ public class TileProviderFactory {
         registerTileProvider(new OpenTopoMapSource());
 
         // OSM offline tile providers
+        final Map<ContentStorage.FileInformation, FileMetadataIndex> validOfflineMaps = MapsforgeMapProvider.getValidOfflineMaps();
+        final Map<Uri, FileMetadataIndex> offlineMapMetadata = new HashMap<>();
+        for (Map.Entry<ContentStorage.FileInformation, FileMetadataIndex> entry : validOfflineMaps.entrySet()) {
+            offlineMapMetadata.put(entry.getKey().uri, entry.getValue());
+        }
         final List<ImmutablePair<String, Uri>> offlineMaps =
-                CollectionStream.of(ContentStorage.get().list(PersistableFolder.OFFLINE_MAPS, true))
-                        .filter(fi -> !fi.isDirectory && fi.name.toLowerCase(Locale.getDefault()).endsWith(FileUtils.MAP_FILE_EXTENSION) && isValidMapFile(fi.uri))
+                CollectionStream.of(validOfflineMaps.keySet())
                         .map(fi -> new ImmutablePair<>(StringUtils.capitalize(StringUtils.substringBeforeLast(fi.name, ".")), fi.uri)).toList();
         Collections.sort(offlineMaps, (o1, o2) -> TextUtils.COLLATOR.compare(o1.left, o2.left));
         if (offlineMaps.size() > 1) {
@@ -164,7 +167,8 @@ public class TileProviderFactory {
             registerTileProvider(new UserDefinedMapsforgeOnlineSource());
         }
         for (ImmutablePair<String, Uri> data : offlineMaps) {
-            registerTileProvider(new AbstractMapsforgeOfflineTileProvider(data.left, data.right, 0, 18));   // @todo: get actual values for zoomMin/zoomMax
+            final FileMetadataIndex metadata = offlineMapMetadata.get(data.right);
+            registerTileProvider(new AbstractMapsforgeOfflineTileProvider(data.left, data.right, metadata == null ? 0 : metadata.getZoomMin(0), metadata == null ? 18 : metadata.getZoomMax(18)));
         }
     }
 
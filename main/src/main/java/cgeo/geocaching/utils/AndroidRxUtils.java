@@ -48,8 +48,17 @@ public class AndroidRxUtils {
      *
      * Don't use it for anything else than that.
      * It shall SOLELY be used by {@link cgeo.geocaching.CacheDetailActivity} and {@link cgeo.geocaching.service.CacheDownloaderService}!
+     * Note that CacheDownloaderService limits the number of parallel downloads per connector itself,
+     * so the thread count allows downloads of different connectors to run in parallel.
      */
-    public static final Scheduler refreshScheduler = Schedulers.from(newFixedDiscardingThreadPool(3, "refresh-"));
+    public static final Scheduler refreshScheduler = Schedulers.from(newFixedDiscardingThreadPool(6, "refresh-"));
+
+    /**
+     * This Scheduler is intended for calculating route segments using the routing service.
+     *
+     * The thread count is kept low, as every request keeps the routing engine busy on the device.
+     */
+    public static final Scheduler routingScheduler = Schedulers.from(newFixedDiscardingThreadPool(3, "routing-"));
 
     public static final Scheduler mainThreadScheduler = AndroidSchedulers.mainThread();
 
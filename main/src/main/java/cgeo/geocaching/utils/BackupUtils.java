@@ -12,6 +12,7 @@ import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.ContentStorageActivityHelper;
 import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.DatabaseBackup;
 import cgeo.geocaching.storage.Folder;
 import cgeo.geocaching.storage.FolderUtils;
 import cgeo.geocaching.storage.LocalStorage;
@@ -56,8 +57,11 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.IOUtils;
@@ -303,9 +307,9 @@ public class BackupUtils {
         };
 
         if (database) {
-            AndroidRxUtils.andThenOnUi(Schedulers.io(),
-                () -> FolderUtils.get().copyAll(Folder.fromFolder(backupDir, TRACKS_SUBFOLDER), Folder.fromFile(LocalStorage.getTrackfilesDir()), false),
-                () -> restoreDatabaseInternal(backupDir, consumer));
+            // trackfiles already present locally are not copied again
+            final Future<Boolean> tracksCopy = copyTrackfilesInBackground(Folder.fromFolder(backupDir, TRACKS_SUBFOLDER), Folder.fromFile(LocalStorage.getTrackfilesDir()), true);
+            restoreDatabaseInternal(backupDir, tracksCopy, consumer);
         } else {
             consumer.accept("");
         }
@@ -525,12 +529,19 @@ public class BackupUtils {
         return false;
     }
 
-    private void restoreDatabaseInternal(final Folder backupDir, final Consumer<String> consumer) {
+    private void restoreDatabaseInternal(final Folder backupDir, final Future<Boolean> tracksCopy, final Consumer<String> consumer) {
         final ContentStorage.FileInformation dbFile = getDatabaseFile(backupDir);
 
         final ProgressDialog dialog = ProgressDialog.show(activityContext, activityContext.getString(R.string.init_backup_restore), activityContext.getString(R.string.init_restore_running), true, false);
         final StringBuilder stringBuilder = new StringBuilder();
-        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> stringBuilder.append(DataStore.restoreDatabaseInternal(activityContext, dbFile.uri)), () -> {
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> {
+            if (DatabaseBackup.DELTA_FILE_NAME.equals(dbFile.name)) {
+                stringBuilder.append(DataStore.restoreIncrementalDatabaseInternal(activityContext, backupDir));
+            } else {
+                stringBuilder.append(DataStore.restoreDatabaseInternal(activityContext, dbFile.uri));
+            }
+            getResult(tracksCopy);
+        }, () -> {
             dialog.dismiss();
             consumer.accept(stringBuilder.toString());
         });
@@ -546,26 +557,45 @@ public class BackupUtils {
             return;
         }
 
-        final AtomicBoolean tracksResult = new AtomicBoolean(true);
-        AndroidRxUtils.andThenOnUi(Schedulers.io(),
-            () -> {
-                // copy trackfiles in background
-                tracksResult.set(FolderUtils.get().copyAll(Folder.fromFile(LocalStorage.getTrackfilesDir()), Folder.fromFolder(backupDir, TRACKS_SUBFOLDER), false).result == FolderUtils.ProcessResult.OK);
-            },
-            () -> {
-                // copy settings
-                final boolean settingsResult = createSettingsBackupInternal(backupDir, Settings.getBackupLoginData());
+        // copy trackfiles in background, in parallel to settings and database
+        final Future<Boolean> tracksCopy = copyTrackfilesInBackground(Folder.fromFile(LocalStorage.getTrackfilesDir()), Folder.fromFolder(backupDir, TRACKS_SUBFOLDER), false);
 
-                // copy database and display result
-                final Consumer<Boolean> consumer = dbResult -> {
-                    showBackupCompletedStatusDialog(backupDir, tracksResult.get(), settingsResult, dbResult, autobackup);
+        // copy settings
+        final boolean settingsResult = createSettingsBackupInternal(backupDir, Settings.getBackupLoginData());
 
-                    if (runAfterwards != null) {
-                        runAfterwards.run();
-                    }
-                };
-                createDatabaseBackupInternal(backupDir, consumer);
-            });
+        // copy database and display result
+        final Consumer<DatabaseBackup.Result> consumer = dbResult -> {
+            showBackupCompletedStatusDialog(backupDir, getResult(tracksCopy), settingsResult, dbResult, autobackup);
+
+            if (runAfterwards != null) {
+                runAfterwards.run();
+            }
+        };
+        // automatic backups may contain only the changes to a previous full backup. Manual backups are always complete, as they may be shared
+        createDatabaseBackupInternal(backupDir, autobackup, tracksCopy, consumer);
+    }
+
+    /**
+     * Starts copying trackfiles on io scheduler. Result of returned future is true if all files were copied successfully
+     */
+    private static Future<Boolean> copyTrackfilesInBackground(final Folder source, final Folder target, final boolean skipUnchanged) {
+        return Single.fromCallable(() -> FolderUtils.get().copyAll(source, target, false, skipUnchanged, null, null).result == FolderUtils.ProcessResult.OK)
+                .subscribeOn(Schedulers.io()).toFuture();
+    }
+
+    /**
+     * Waits for given background task and returns its result, false on failure
+     */
+    private static boolean getResult(final Future<Boolean> task) {
+        try {
+            return task.get();
+        } catch (ExecutionException ee) {
+            Log.e("BackupUtils: background task failed", ee.getCause());
+        } catch (InterruptedException ie) {
+            Log.w("BackupUtils: interrupted while waiting for background task", ie);
+            Thread.currentThread().interrupt();
+        }
+        return false;
     }
 
     private boolean createSettingsBackupInternal(final Folder backupDir, final Boolean fullBackup) {
@@ -627,30 +657,39 @@ public class BackupUtils {
         return success;
     }
 
-    private void createDatabaseBackupInternal(final Folder backupDir, final Consumer<Boolean> consumer) {
+    /**
+     * Creates database backup and waits for (parallel running) trackfile copy before consumer is called.
+     * Consumer is called with null if backup failed
+     */
+    private void createDatabaseBackupInternal(final Folder backupDir, final boolean incremental, final Future<Boolean> tracksCopy, final Consumer<DatabaseBackup.Result> consumer) {
         final ProgressDialog dialog = ProgressDialog.show(activityContext,
                 activityContext.getString(R.string.init_backup),
                 activityContext.getString(R.string.init_backup_running), true, false);
-        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> DataStore.backupDatabaseInternal(backupDir), backupFile -> {
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> {
+            final DatabaseBackup.Result result = DataStore.backupDatabaseInternal(backupDir, incremental);
+            getResult(tracksCopy);
+            return result;
+        }, result -> {
             dialog.dismiss();
-            consumer.accept(backupFile != null);
+            consumer.accept(result);
         });
     }
 
-    private void showBackupCompletedStatusDialog(final Folder backupDir, final boolean trackfilesResult, final boolean settingsResult, final Boolean databaseResult, final boolean autobackup) {
+    private void showBackupCompletedStatusDialog(final Folder backupDir, final boolean trackfilesResult, final boolean settingsResult, @Nullable final DatabaseBackup.Result databaseResult, final boolean autobackup) {
         String msg;
         final String title;
-        if (trackfilesResult && settingsResult && databaseResult) {
+        if (trackfilesResult && settingsResult && databaseResult != null) {
             if (autobackup) {
                 return; // We don't need to inform the user if everything went right
             }
             title = activityContext.getString(R.string.init_backup_finished);
-            msg = activityContext.getString(R.string.backup_saved) + "\n" + backupDir.toUserDisplayableString();
+            msg = activityContext.getString(R.string.backup_saved) + "\n" + backupDir.toUserDisplayableString() + "\n\n" + getDatabaseBackupStats(databaseResult);
         } else {
             title = activityContext.getString(R.string.init_backup_backup_failed);
 
             if (databaseResult != null) {
-                msg = activityContext.getString(R.string.init_backup_success) + "\n" + backupDir.toUserDisplayableString() + "/" + DataStore.DB_FILE_NAME_BACKUP;
+                msg = activityContext.getString(R.string.init_backup_success) + "\n" + backupDir.toUserDisplayableString() + "/" + ContentStorage.get().getName(databaseResult.uri)
+                        + "\n" + getDatabaseBackupStats(databaseResult);
             } else {
                 msg = activityContext.getString(R.string.init_backup_failed);
             }
@@ -685,15 +724,26 @@ public class BackupUtils {
     }
 
 
+    private String getDatabaseBackupStats(@NonNull final DatabaseBackup.Result result) {
+        if (result.incremental) {
+            return activityContext.getString(R.string.init_backup_database_stats_incremental, Formatter.formatBytes(result.bytesWritten), Formatter.formatBytes(result.databaseSize), Formatter.formatDuration(result.durationMs));
+        }
+        return activityContext.getString(R.string.init_backup_database_stats, Formatter.formatBytes(result.bytesWritten), Formatter.formatDuration(result.durationMs));
+    }
+
     /* Methods for checking the backup availability */
 
     public static boolean hasBackup(final Folder backupDir) {
         return getDatabaseFile(backupDir) != null || getSettingsFile(backupDir) != null;
     }
 
+    /**
+     * Returns the database backup file in given folder, either a full backup or an incremental one (see {@link DatabaseBackup})
+     */
     @Nullable
     private static ContentStorage.FileInformation getDatabaseFile(final Folder backupDir) {
-        return ContentStorage.get().getFileInfo(backupDir, DataStore.DB_FILE_NAME_BACKUP);
+        final ContentStorage.FileInformation fullBackup = ContentStorage.get().getFileInfo(backupDir, DataStore.DB_FILE_NAME_BACKUP);
+        return fullBackup != null ? fullBackup : ContentStorage.get().getFileInfo(backupDir, DatabaseBackup.DELTA_FILE_NAME);
     }
 
     @Nullable
@@ -757,8 +807,19 @@ public class BackupUtils {
             Log.i("no old backups to remove");
             return null;
         }
-        Log.w("old backups to remove: " + dirs);
-        return dirs.subList(0, dirs.size() - maxBackupNumber);
+        // keep full backups which are needed by remaining incremental backups
+        final Set<String> neededBackups = new HashSet<>();
+        for (ContentStorage.FileInformation dir : dirs.subList(dirs.size() - maxBackupNumber, dirs.size())) {
+            CollectionUtils.addIgnoreNull(neededBackups, DatabaseBackup.getBaseFolderName(dir.dirLocation));
+        }
+        final List<ContentStorage.FileInformation> toRemove = new ArrayList<>(dirs.subList(0, dirs.size() - maxBackupNumber));
+        CollectionUtils.filter(toRemove, dir -> !neededBackups.contains(dir.name));
+        if (toRemove.isEmpty()) {
+            Log.i("no old backups to remove");
+            return null;
+        }
+        Log.w("old backups to remove: " + toRemove);
+        return toRemove;
     }
 
     private void removeDirs(final List<ContentStorage.FileInformation> dirs) {
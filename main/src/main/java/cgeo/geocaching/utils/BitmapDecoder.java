@@ -0,0 +1,237 @@
+package cgeo.geocaching.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.util.Supplier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.tuple.ImmutableTriple;
+
+/**
+ * Decodes images directly to a target size, to be used for all images which are displayed or re-encoded by c:geo.
+ * <br>
+ * Images are first decoded with the largest power-of-two sample size which keeps them at least as large as the target
+ * size, then scaled exactly to the target size. Thus a full resolution bitmap of a large image never exists in memory.
+ * Intermediate bitmaps are pooled and reused for following decodes. Peak memory used per decode is logged and collected
+ * for {@link #getStatistics()}.
+ */
+public final class BitmapDecoder {
+
+    private static final BitmapPool POOL = new BitmapPool(8 * 1024 * 1024);
+
+    private static final AtomicLong decodeCount = new AtomicLong();
+    private static final AtomicLong maxPeakBytes = new AtomicLong();
+    private static final AtomicLong sumPeakBytes = new AtomicLong();
+    private static final AtomicLong pooledReuses = new AtomicLong();
+
+    private BitmapDecoder() {
+        // utility class
+    }
+
+    /**
+     * Largest power of two sample size for which an image of given size, scaled to fit into the given bounds, does not
+     * lose any resolution.
+     *
+     * @param maxWidth  maximum target width, or 0 or less for no limit
+     * @param maxHeight maximum target height, or 0 or less for no limit
+     */
+    public static int calculateInSampleSize(final int width, final int height, final int maxWidth, final int maxHeight) {
+        if (width <= 0 || height <= 0) {
+            return 1;
+        }
+        final ImmutableTriple<Integer, Integer, Boolean> targetSize = ImageUtils.calculateScaledImageSizes(width, height, maxWidth, maxHeight);
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetSize.left && height / (sampleSize * 2) >= targetSize.middle) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Reads the size of an image without decoding it.
+     *
+     * @return options with outWidth and outHeight set, or null if image could not be read
+     */
+    @Nullable
+    public static BitmapFactory.Options decodeBounds(@NonNull final Supplier<InputStream> streamSupplier) {
+        try (InputStream is = streamSupplier.get()) {
+            if (is == null) {
+                return null;
+            }
+            final BitmapFactory.Options bounds = new BitmapFactory.Options();
+            bounds.inJustDecodeBounds = true;
+            BitmapFactory.decodeStream(is, null, bounds);
+            return bounds.outWidth > 0 && bounds.outHeight > 0 ? bounds : null;
+        } catch (IOException | RuntimeException e) {
+            Log.w("BitmapDecoder: could not read bounds", e);
+            return null;
+        }
+    }
+
+    /**
+     * Decodes an image so that it fits into the given bounds. Images smaller than the bounds are not scaled up.
+     * Supports everything {@link ImageUtils#readImageFromStream(Supplier, BitmapFactory.Options, Object)} supports.
+     *
+     * @param maxWidth  maximum width, or 0 or less for no limit
+     * @param maxHeight maximum height, or 0 or less for no limit
+     * @param config    bitmap config to decode to, or null for default config
+     * @return decoded image, or null if image could not be read
+     */
+    @Nullable
+    public static Bitmap decode(@NonNull final Supplier<InputStream> streamSupplier, final int maxWidth, final int maxHeight, @Nullable final Bitmap.Config config, @Nullable final Object logId) {
+        final BitmapFactory.Options bounds = decodeBounds(streamSupplier);
+        if (bounds == null) {
+            // not a bitmap format (e.g. SVG), decode as is and scale afterwards
+            return scaleToFit(ImageUtils.readImageFromStream(streamSupplier, createOptions(config), logId), maxWidth, maxHeight, logId);
+        }
+
+        final BitmapFactory.Options options = createOptions(config);
+        options.inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight, maxWidth, maxHeight);
+        options.inMutable = true;
+        final Bitmap.Config poolConfig = config == null ? Bitmap.Config.ARGB_8888 : config;
+        final long sampledBytes = (long) divideRoundingUp(bounds.outWidth, options.inSampleSize) * divideRoundingUp(bounds.outHeight, options.inSampleSize) * getBytesPerPixel(poolConfig);
+        options.inBitmap = POOL.get(sampledBytes, poolConfig);
+
+        Bitmap sampled = decodeStream(streamSupplier, options);
+        if (sampled == null && options.inBitmap != null) {
+            // reusing the pooled bitmap failed, try without it
+            options.inBitmap = null;
+            sampled = decodeStream(streamSupplier, options);
+        } else if (sampled != null && options.inBitmap != null) {
+            pooledReuses.incrementAndGet();
+        }
+        if (sampled == null) {
+            return scaleToFit(ImageUtils.readImageFromStream(streamSupplier, createOptions(config), logId), maxWidth, maxHeight, logId);
+        }
+        return scaleToFit(sampled, maxWidth, maxHeight, logId);
+    }
+
+    /**
+     * Decodes a region of an image so that it fits into the given bounds, e.g. to show a zoomed part of a large image.
+     *
+     * @param region region of the image in its original resolution
+     * @return decoded region, or null if it could not be decoded
+     */
+    @Nullable
+    public static Bitmap decodeRegion(@NonNull final BitmapRegionDecoder decoder, @NonNull final Rect region, final int maxWidth, final int maxHeight, @Nullable final Bitmap.Config config) {
+        final BitmapFactory.Options options = createOptions(config);
+        options.inSampleSize = calculateInSampleSize(region.width(), region.height(), maxWidth, maxHeight);
+        try {
+            final Bitmap sampled;
+            synchronized (decoder) {
+                if (decoder.isRecycled()) {
+                    return null;
+                }
+                sampled = decoder.decodeRegion(region, options);
+            }
+            return scaleToFit(sampled, maxWidth, maxHeight, region);
+        } catch (RuntimeException e) {
+            Log.w("BitmapDecoder: could not decode region " + region, e);
+            return null;
+        }
+    }
+
+    /**
+     * Opens a region decoder for an image, which must be closed with {@link BitmapRegionDecoder#recycle()}
+     *
+     * @return null if image format does not support region decoding (only JPEG, PNG and WebP do)
+     */
+    @Nullable
+    @SuppressWarnings("deprecation") // replacement is only available from API 31 on
+    public static BitmapRegionDecoder createRegionDecoder(@NonNull final Supplier<InputStream> streamSupplier) {
+        try (InputStream is = streamSupplier.get()) {
+            return is == null ? null : BitmapRegionDecoder.newInstance(is, false);
+        } catch (IOException | RuntimeException e) {
+            Log.d("BitmapDecoder: no region decoder available: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** releases all pooled bitmaps, e.g. on memory pressure */
+    public static void clearPool() {
+        POOL.clear();
+    }
+
+    @NonNull
+    public static String getStatistics() {
+        final long count = decodeCount.get();
+        return String.format(Locale.US, "%d decodes, peak memory max %s / avg %s, pool %s (reused: %d)", count,
+                Formatter.formatBytes(maxPeakBytes.get()), Formatter.formatBytes(count == 0 ? 0 : sumPeakBytes.get() / count),
+                Formatter.formatBytes(POOL.getSize()), pooledReuses.get());
+    }
+
+    @Nullable
+    private static Bitmap decodeStream(@NonNull final Supplier<InputStream> streamSupplier, @NonNull final BitmapFactory.Options options) {
+        try (InputStream is = streamSupplier.get()) {
+            return is == null ? null : BitmapFactory.decodeStream(is, null, options);
+        } catch (IOException | RuntimeException e) {
+            // an IllegalArgumentException is thrown if inBitmap can't be reused
+            Log.d("BitmapDecoder: decode failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Bitmap scaleToFit(@Nullable final Bitmap bitmap, final int maxWidth, final int maxHeight, @Nullable final Object logId) {
+        if (bitmap == null) {
+            return null;
+        }
+        final ImmutableTriple<Integer, Integer, Boolean> targetSize = ImageUtils.calculateScaledImageSizes(bitmap.getWidth(), bitmap.getHeight(), maxWidth, maxHeight);
+        Bitmap result = bitmap;
+        long peakBytes = bitmap.getAllocationByteCount();
+        if (targetSize.right) {
+            result = Bitmap.createScaledBitmap(bitmap, targetSize.left, targetSize.middle, true);
+            peakBytes += result.getAllocationByteCount();
+            if (result != bitmap) {
+                POOL.put(bitmap);
+            }
+        }
+        recordPeak(peakBytes, result, logId);
+        return result;
+    }
+
+    private static void recordPeak(final long peakBytes, @NonNull final Bitmap result, @Nullable final Object logId) {
+        decodeCount.incrementAndGet();
+        sumPeakBytes.addAndGet(peakBytes);
+        long max = maxPeakBytes.get();
+        while (peakBytes > max && !maxPeakBytes.compareAndSet(max, peakBytes)) {
+            max = maxPeakBytes.get();
+        }
+        Log.v("BitmapDecoder: decoded '" + logId + "' to " + result.getWidth() + "x" + result.getHeight() + ", peak memory " + Formatter.formatBytes(peakBytes));
+    }
+
+    @NonNull
+    private static BitmapFactory.Options createOptions(@Nullable final Bitmap.Config config) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inTempStorage = new byte[16 * 1024];
+        if (config != null) {
+            options.inPreferredConfig = config;
+        }
+        return options;
+    }
+
+    private static int divideRoundingUp(final int value, final int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private static int getBytesPerPixel(@NonNull final Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+}
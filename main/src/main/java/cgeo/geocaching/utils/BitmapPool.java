@@ -0,0 +1,74 @@
+package cgeo.geocaching.utils;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Pool of bitmaps no longer in use, to be reused as decode target ({@link android.graphics.BitmapFactory.Options#inBitmap}).
+ * <br>
+ * Only bitmaps which are guaranteed to be unreferenced may be put into the pool, e.g. intermediate bitmaps of a decode
+ * which were scaled down afterwards. The pool is limited by the memory size of the contained bitmaps.
+ */
+final class BitmapPool {
+
+    /** reused bitmaps may be at most this factor larger than needed, to not waste memory */
+    private static final int MAX_WASTE_FACTOR = 4;
+
+    private final long maxBytes;
+    private final LinkedList<Bitmap> bitmaps = new LinkedList<>();
+    private long size = 0;
+
+    BitmapPool(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Takes a bitmap with the given config and at least the given allocation size out of the pool
+     *
+     * @return null if no suitable bitmap is in the pool
+     */
+    @Nullable
+    synchronized Bitmap get(final long bytes, @NonNull final Bitmap.Config config) {
+        Bitmap best = null;
+        for (Bitmap bitmap : bitmaps) {
+            final long allocated = bitmap.getAllocationByteCount();
+            if (bitmap.getConfig() == config && allocated >= bytes && allocated <= bytes * MAX_WASTE_FACTOR
+                    && (best == null || allocated < best.getAllocationByteCount())) {
+                best = bitmap;
+            }
+        }
+        if (best != null) {
+            bitmaps.remove(best);
+            size -= best.getAllocationByteCount();
+        }
+        return best;
+    }
+
+    /** puts a no longer used bitmap into the pool. Bitmaps which cannot be reused are ignored */
+    synchronized void put(@NonNull final Bitmap bitmap) {
+        if (bitmap.isRecycled() || !bitmap.isMutable() || bitmap.getConfig() == null || bitmap.getAllocationByteCount() > maxBytes / 2) {
+            return;
+        }
+        bitmaps.addLast(bitmap);
+        size += bitmap.getAllocationByteCount();
+        final Iterator<Bitmap> it = bitmaps.iterator();
+        while (size > maxBytes && it.hasNext()) {
+            size -= it.next().getAllocationByteCount();
+            it.remove();
+        }
+    }
+
+    synchronized void clear() {
+        bitmaps.clear();
+        size = 0;
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,263 @@
+package cgeo.geocaching.utils;
+
+import cgeo.geocaching.utils.functions.Func1;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Keeps track of the files of a disk cache in least recently used order, so the cache can be trimmed to a size budget.
+ * <br>
+ * Files are referenced by their path relative to the cache root directory. Every change is appended to a journal file
+ * in the root directory, which is rewritten in compact form once it grows too large. Journal lines are
+ * "A size path" for a written file, "R path" for a read file and "D path" for a removed file.
+ * Files not known to the journal (e.g. created before the journal existed) are added on their first access.
+ */
+class DiskCacheJournal {
+
+    static final String JOURNAL_FILE_NAME = ".cache-journal";
+
+    private static final String ADD = "A";
+    private static final String READ = "R";
+    private static final String DELETE = "D";
+    /** journal is compacted if it has more lines than this plus twice the number of tracked files */
+    private static final int COMPACT_THRESHOLD = 2000;
+
+    private final File root;
+    private final String rootPath;
+    private final File journalFile;
+
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize = 0;
+    private int journalLines = 0;
+    private boolean loaded = false;
+    @Nullable private Writer writer;
+
+    DiskCacheJournal(@NonNull final File root) {
+        this.root = root;
+        this.rootPath = root.getAbsolutePath() + File.separator;
+        this.journalFile = new File(root, JOURNAL_FILE_NAME);
+    }
+
+    @NonNull
+    File getRoot() {
+        return root;
+    }
+
+    /** records that given file was written (created or replaced) */
+    synchronized void recordWrite(@NonNull final File file) {
+        final String path = getRelativePath(file);
+        if (path == null || !file.isFile()) {
+            return;
+        }
+        ensureLoaded();
+        put(path, file.length());
+        append(ADD + " " + file.length() + " " + path);
+    }
+
+    /** records that given file was read. Untracked files are added to the journal */
+    synchronized void recordRead(@NonNull final File file) {
+        final String path = getRelativePath(file);
+        if (path == null) {
+            return;
+        }
+        ensureLoaded();
+        if (entries.get(path) != null) {
+            append(READ + " " + path);
+        } else if (file.isFile()) {
+            put(path, file.length());
+            append(ADD + " " + file.length() + " " + path);
+        }
+    }
+
+    /** records that given file was removed by someone else */
+    synchronized void recordRemove(@NonNull final File file) {
+        final String path = getRelativePath(file);
+        if (path == null) {
+            return;
+        }
+        ensureLoaded();
+        if (remove(path)) {
+            append(DELETE + " " + path);
+        }
+    }
+
+    synchronized long getTotalSize() {
+        ensureLoaded();
+        return totalSize;
+    }
+
+    synchronized int getFileCount() {
+        ensureLoaded();
+        return entries.size();
+    }
+
+    /**
+     * Deletes least recently used files until the size of all evictable files does not exceed the given budget.
+     * Files which are not evictable are kept, their size does not count against the budget.
+     *
+     * @param maxSize     budget in bytes
+     * @param isEvictable decides by relative path whether a file may be deleted
+     * @return number of deleted files
+     */
+    synchronized int trimToSize(final long maxSize, @NonNull final Func1<String, Boolean> isEvictable) {
+        ensureLoaded();
+        final List<String> candidates = new ArrayList<>();
+        long evictableSize = 0;
+        for (Map.Entry<String, Long> entry : entries.entrySet()) {
+            if (isEvictable.call(entry.getKey())) {
+                candidates.add(entry.getKey());
+                evictableSize += entry.getValue();
+            }
+        }
+        int deleted = 0;
+        // candidates are in least recently used order
+        final Iterator<String> it = candidates.iterator();
+        while (evictableSize > maxSize && it.hasNext()) {
+            final String path = it.next();
+            final File file = new File(root, path);
+            evictableSize -= entries.get(path);
+            if (!file.exists() || file.delete()) {
+                remove(path);
+                append(DELETE + " " + path);
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            compactIfNeeded();
+        }
+        return deleted;
+    }
+
+    /** removes all files known to the journal which no longer exist (e.g. removed together with their cache) */
+    synchronized void removeMissing() {
+        ensureLoaded();
+        final Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<String, Long> entry = it.next();
+            if (!new File(root, entry.getKey()).isFile()) {
+                totalSize -= entry.getValue();
+                it.remove();
+            }
+        }
+        rewrite();
+    }
+
+    synchronized void close() {
+        IOUtils.closeQuietly(writer);
+        writer = null;
+    }
+
+    @Nullable
+    private String getRelativePath(@NonNull final File file) {
+        final String path = file.getAbsolutePath();
+        return path.startsWith(rootPath) && !path.endsWith(JOURNAL_FILE_NAME) ? path.substring(rootPath.length()) : null;
+    }
+
+    private void put(@NonNull final String path, final long size) {
+        final Long previous = entries.put(path, size);
+        totalSize += size - (previous == null ? 0 : previous);
+    }
+
+    private boolean remove(@NonNull final String path) {
+        final Long previous = entries.remove(path);
+        if (previous == null) {
+            return false;
+        }
+        totalSize -= previous;
+        return true;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!journalFile.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                journalLines++;
+                replay(line);
+            }
+        } catch (IOException | RuntimeException e) {
+            // a damaged journal only means that some files are not tracked until their next access
+            Log.w("DiskCacheJournal: problem reading journal " + journalFile, e);
+        }
+    }
+
+    private void replay(@NonNull final String line) {
+        if (line.startsWith(ADD + " ")) {
+            final int sep = line.indexOf(' ', 2);
+            if (sep > 2) {
+                put(line.substring(sep + 1), Long.parseLong(line.substring(2, sep)));
+            }
+        } else if (line.startsWith(READ + " ")) {
+            entries.get(line.substring(2));
+        } else if (line.startsWith(DELETE + " ")) {
+            remove(line.substring(2));
+        }
+    }
+
+    private void append(@NonNull final String line) {
+        try {
+            if (writer == null) {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+            }
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+            journalLines++;
+        } catch (IOException e) {
+            Log.w("DiskCacheJournal: problem writing journal " + journalFile, e);
+            close();
+        }
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (journalLines > COMPACT_THRESHOLD + 2 * entries.size()) {
+            rewrite();
+        }
+    }
+
+    /** rewrites journal to contain exactly one line per tracked file, in least recently used order */
+    private void rewrite() {
+        close();
+        final File tempFile = new File(root, JOURNAL_FILE_NAME + ".tmp");
+        try (Writer tempWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                tempWriter.write(ADD + " " + entry.getValue() + " " + entry.getKey() + "\n");
+            }
+        } catch (IOException e) {
+            Log.w("DiskCacheJournal: problem compacting journal " + journalFile, e);
+            FileUtils.deleteIgnoringFailure(tempFile);
+            return;
+        }
+        if (tempFile.renameTo(journalFile)) {
+            journalLines = entries.size();
+        } else {
+            FileUtils.deleteIgnoringFailure(tempFile);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package cgeo.geocaching.utils;
+
+import cgeo.geocaching.network.HtmlImage;
+import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.LocalStorage;
+
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.drew.metadata.Metadata;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Two-level cache for images shown in c:geo, shared by {@link HtmlImage} and thus also by {@link ImageLoader}.
+ * <br>
+ * The memory level holds decoded (and already downsampled) bitmaps of local image files and is limited by the
+ * memory size of those bitmaps. Entries are only used as long as the underlying file was not modified.
+ * <br>
+ * The disk level consists of the image files downloaded into the geocache data directory. Their accesses are tracked
+ * in a {@link DiskCacheJournal}, and if their total size exceeds {@link Settings#getImageCacheSizeMB()} then least
+ * recently used files are removed. Images belonging to caches stored offline are never removed this way.
+ */
+public final class ImageCache {
+
+    /** memory budget for decoded images: 1/8 of the heap, but at most 32MB */
+    private static final int MEMORY_CACHE_MAX_BYTES = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, 32 * 1024 * 1024);
+
+    private static final ImageCache INSTANCE = new ImageCache();
+
+    private final LruCache<String, Decoded> memoryCache = new LruCache<String, Decoded>(MEMORY_CACHE_MAX_BYTES) {
+        @Override
+        protected int sizeOf(@NonNull final String key, @NonNull final Decoded value) {
+            return value.bitmap.getAllocationByteCount();
+        }
+    };
+
+    private DiskCacheJournal journal;
+    private final AtomicBoolean trimScheduled = new AtomicBoolean(false);
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong memoryMisses = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskMisses = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    /** a decoded image together with its metadata (if it was requested on decoding) */
+    public static class Decoded {
+        @NonNull public final Bitmap bitmap;
+        @Nullable public final Metadata metadata;
+        private final boolean hasMetadata;
+        private final long lastModified;
+
+        Decoded(@NonNull final Bitmap bitmap, @Nullable final Metadata metadata, final boolean hasMetadata, final long lastModified) {
+            this.bitmap = bitmap;
+            this.metadata = metadata;
+            this.hasMetadata = hasMetadata;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private ImageCache() {
+        // singleton
+    }
+
+    @NonNull
+    public static ImageCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the decoded image for given uri if it is in memory cache and still up-to-date.
+     *
+     * @param lastModified    last modification date of the image file. Images of unknown modification date are never cached
+     * @param requireMetadata true if image metadata is needed as well
+     */
+    @Nullable
+    public Decoded getDecoded(@NonNull final Uri uri, final long lastModified, final boolean requireMetadata) {
+        if (lastModified <= 0) {
+            return null;
+        }
+        final Decoded decoded = memoryCache.get(uri.toString());
+        if (decoded == null || decoded.lastModified != lastModified || (requireMetadata && !decoded.hasMetadata)) {
+            memoryMisses.incrementAndGet();
+            return null;
+        }
+        memoryHits.incrementAndGet();
+        return decoded;
+    }
+
+    /**
+     * Stores a decoded image in memory cache.
+     *
+     * @param lastModified last modification date of the image file. Images of unknown modification date are not cached
+     * @param hasMetadata  true if metadata was read for the image (it might still be null if image has none)
+     */
+    public void putDecoded(@NonNull final Uri uri, final long lastModified, @NonNull final Bitmap bitmap, @Nullable final Metadata metadata, final boolean hasMetadata) {
+        // images larger than half of the budget would displace all others. Pooled bitmaps might be larger than their content, so count their allocation
+        if (lastModified > 0 && bitmap.getAllocationByteCount() <= MEMORY_CACHE_MAX_BYTES / 2) {
+            memoryCache.put(uri.toString(), new Decoded(bitmap, metadata, hasMetadata, lastModified));
+        }
+    }
+
+    /** releases all decoded images, e.g. on memory pressure */
+    public void clearMemory() {
+        memoryCache.evictAll();
+    }
+
+    /** records an access to a locally stored image file, or a miss if the file does not exist */
+    public void recordDiskAccess(@NonNull final File file) {
+        if (file.isFile()) {
+            diskHits.incrementAndGet();
+            getJournal().recordRead(file);
+        } else {
+            diskMisses.incrementAndGet();
+        }
+    }
+
+    /** records that an image file was downloaded, this might trigger removal of least recently used image files */
+    public void recordDiskWrite(@NonNull final File file) {
+        final DiskCacheJournal diskJournal = getJournal();
+        diskJournal.recordWrite(file);
+        final long maxBytes = getDiskCacheMaxBytes();
+        if (maxBytes > 0 && diskJournal.getTotalSize() > maxBytes && trimScheduled.compareAndSet(false, true)) {
+            Schedulers.io().scheduleDirect(() -> {
+                trimScheduled.set(false);
+                trimDiskCache();
+            });
+        }
+    }
+
+    /** removes least recently used image files of caches not stored offline until the configured budget is met */
+    public void trimDiskCache() {
+        final long maxBytes = getDiskCacheMaxBytes();
+        if (maxBytes <= 0) {
+            return;
+        }
+        final DiskCacheJournal diskJournal = getJournal();
+        // files of caches deleted meanwhile would otherwise be counted
+        diskJournal.removeMissing();
+        final Map<String, Boolean> evictableDirs = new HashMap<>();
+        final int removed = diskJournal.trimToSize(maxBytes, path -> {
+            final String dir = StringUtils.substringBefore(path, File.separator);
+            Boolean evictable = evictableDirs.get(dir);
+            if (evictable == null) {
+                evictable = HtmlImage.SHARED.equals(dir) || !DataStore.isOffline(dir, null);
+                evictableDirs.put(dir, evictable);
+            }
+            return evictable;
+        });
+        diskEvictions.addAndGet(removed);
+        Log.d("ImageCache: removed " + removed + " image files, " + getStatistics());
+    }
+
+    @NonNull
+    public String getStatistics() {
+        final DiskCacheJournal diskJournal = getJournal();
+        return String.format(Locale.US, "memory %s of %s (hits: %d, misses: %d), disk %d files / %s of %s (hits: %d, misses: %d, evicted: %d)",
+                Formatter.formatBytes(memoryCache.size()), Formatter.formatBytes(MEMORY_CACHE_MAX_BYTES), memoryHits.get(), memoryMisses.get(),
+                diskJournal.getFileCount(), Formatter.formatBytes(diskJournal.getTotalSize()),
+                getDiskCacheMaxBytes() > 0 ? Formatter.formatBytes(getDiskCacheMaxBytes()) : "unlimited",
+                diskHits.get(), diskMisses.get(), diskEvictions.get());
+    }
+
+    private static long getDiskCacheMaxBytes() {
+        return Settings.getImageCacheSizeMB() * 1024L * 1024L;
+    }
+
+    /** journal for the current geocache data directory (which may be moved by the user) */
+    @NonNull
+    private synchronized DiskCacheJournal getJournal() {
+        final File root = LocalStorage.getGeocacheDataDirectory();
+        if (journal == null || !journal.getRoot().equals(root)) {
+            if (journal != null) {
+                journal.close();
+            }
+            journal = new DiskCacheJournal(root);
+        }
+        return journal;
+    }
+}
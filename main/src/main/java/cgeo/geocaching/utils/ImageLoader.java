@@ -3,6 +3,9 @@ package cgeo.geocaching.utils;
 import cgeo.geocaching.network.HtmlImage;
 import cgeo.geocaching.utils.functions.Action1;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -14,7 +17,11 @@ import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.disposables.Disposable;
 
-/** Helper class to retrieve image data and cache it in-memory. Handles local and remote image uris */
+/**
+ * Helper class to retrieve image data and cache it in-memory. Handles local and remote image uris
+ * <br>
+ * Besides the small per-instance cache, decoded images are shared between all instances via {@link ImageCache}.
+ */
 public class ImageLoader {
 
     private String htmlImageCode;
@@ -80,6 +87,20 @@ public class ImageLoader {
         }
     }
 
+    /**
+     * Decodes an image into the shared {@link ImageCache} if a local copy of it exists. Images are never downloaded.
+     * Blocks until the image is decoded, thus don't call this on the UI thread.
+     *
+     * @param htmlImageCode code the image belongs to, like used in {@link #setCode(String)}
+     * @return true if a local copy of the image could be decoded
+     */
+    @WorkerThread
+    public static boolean prefetch(final String htmlImageCode, @NonNull final String imageUrl) {
+        final HtmlImage imgGetter = new HtmlImage(htmlImageCode == null ? HtmlImage.SHARED : htmlImageCode, true, false, false);
+        imgGetter.setLoadMetadata(true);
+        return imgGetter.fetchLocalDrawableWithMetadata(imageUrl).onErrorComplete().blockingGet() != null;
+    }
+
     public void clear() {
         synchronized (imageCacheMutex) {
             imageCache.clear();
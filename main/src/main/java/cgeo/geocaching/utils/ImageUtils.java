@@ -9,6 +9,7 @@ import cgeo.geocaching.storage.LocalStorage;
 import cgeo.geocaching.storage.PersistableFolder;
 import cgeo.geocaching.ui.ImageGalleryView;
 import cgeo.geocaching.ui.ViewUtils;
+import cgeo.geocaching.utils.functions.Action1;
 
 import android.annotation.SuppressLint;
 import android.app.Activity;
@@ -194,17 +195,6 @@ public final class ImageUtils {
         return scaleBitmapTo(image, maxWidth, maxHeight, minWidth, minHeight);
     }
 
-    /**
-     * Scales a bitmap to the given bounds if it is larger, otherwise returns the original bitmap (except when "force" is set to true)
-     *
-     * @param image The bitmap to scale
-     * @return BitmapDrawable The scaled image
-     */
-    @NonNull
-    private static BitmapDrawable scaleBitmapTo(@NonNull final Bitmap image, final int maxWidth, final int maxHeight) {
-        return scaleBitmapTo(image, maxWidth, maxHeight, -1, -1);
-    }
-
     @NonNull
     private static BitmapDrawable scaleBitmapTo(@NonNull final Bitmap image, final int maxWidth, final int maxHeight, final int minWidth, final int minHeight) {
         final Application app = CgeoApplication.getInstance();
@@ -281,7 +271,7 @@ public final class ImageUtils {
     @Nullable
     public static File scaleAndCompressImageToTemporaryFile(@NonNull final Uri imageUri, final int maxXY, final int compressQuality) {
 
-        final Bitmap image = readImage(imageUri, true);
+        final Bitmap image = readImage(imageUri, maxXY);
         if (image == null) {
             return null;
         }
@@ -293,28 +283,18 @@ public final class ImageUtils {
             return null;
         }
 
-        final Bitmap scaledImage = scaleBitmapTo(image, maxXY, maxXY).getBitmap();
         final ViewOrientation orientation = getImageOrientation(imageUri);
-        final Bitmap orientedImage = orientation.isNormal() ? scaledImage : Bitmap.createBitmap(scaledImage, 0, 0, scaledImage.getWidth(), scaledImage.getHeight(), orientation.createOrientationCalculationMatrix(), true);
+        final Bitmap orientedImage = orientation.isNormal() ? image : Bitmap.createBitmap(image, 0, 0, image.getWidth(), image.getHeight(), orientation.createOrientationCalculationMatrix(), true);
 
         storeBitmap(orientedImage, Bitmap.CompressFormat.JPEG, compressQuality <= 0 ? 75 : compressQuality, newImageUri);
 
         return targetFile;
     }
 
+    /** reads a local image, downsampled to fit into maxXY x maxXY (if maxXY is greater than 0) */
     @Nullable
-    private static Bitmap readImage(final Uri imageUri, final boolean adjustOrientation) {
-        final ViewOrientation orientation = adjustOrientation ? getImageOrientation(imageUri) : null;
-
-        try (InputStream imageStream = openImageStreamIfLocal(imageUri)) {
-            if (imageStream == null) {
-                return null;
-            }
-            return BitmapFactory.decodeStream(imageStream);
-        } catch (final IOException e) {
-            Log.e("ImageUtils.readDownsampledImage(decode)", e);
-        }
-        return null;
+    private static Bitmap readImage(final Uri imageUri, final int maxXY) {
+        return BitmapDecoder.decode(() -> openImageStreamIfLocal(imageUri), maxXY, maxXY, null, imageUri);
     }
 
     public static ViewOrientation getImageOrientation(@NonNull final Uri imageUri) {
@@ -870,10 +850,11 @@ public final class ImageUtils {
      * @param imageContainer container around the imageView. See loupe doc for details
      * @param onFlingUpDown optional: action to happen on fling down or fling up
      * @param onSingleTap optiona: action to happen on single tap. Note that this action is registered / exceuted for whole activity
+     * @param onTouchEvent optional: observer of all touch events on the image, e.g. to detect the end of zooming
      */
     @SuppressLint("ClickableViewAccessibility") //this is due to Loupe hack
     public static void createZoomableImageView(final Activity activity, final ImageView imageView, final ViewGroup imageContainer,
-                                               final Runnable onFlingUpDown, final Runnable onSingleTap) {
+                                               final Runnable onFlingUpDown, final Runnable onSingleTap, @Nullable final Action1<MotionEvent> onTouchEvent) {
         final Loupe loupe = new Loupe(imageView, imageContainer);
         if (onFlingUpDown != null) {
             loupe.setOnViewTranslateListener(new Loupe.OnViewTranslateListener() {
@@ -900,7 +881,7 @@ public final class ImageUtils {
             });
         }
 
-        if (onSingleTap != null) {
+        if (onSingleTap != null || onTouchEvent != null) {
             //Loupe is unable to detect single clicks (see https://github.com/igreenwood/loupe/issues/25)
             //As a workaround we register a second GestureDetector on top of the one installed by Loupe to detect single taps
             //Workaround START
@@ -908,7 +889,9 @@ public final class ImageUtils {
                 @Override
                 public boolean onSingleTapConfirmed(final MotionEvent e) {
                     //Logic to happen on single tap
-                    onSingleTap.run();
+                    if (onSingleTap != null) {
+                        onSingleTap.run();
+                    }
                     return true;
                 }
             });
@@ -916,6 +899,9 @@ public final class ImageUtils {
             imageContainer.setOnTouchListener((v, event) -> {
                 //perform singleTap detection
                 singleTapDetector.onTouchEvent(event);
+                if (onTouchEvent != null) {
+                    onTouchEvent.call(event);
+                }
                 //pass through event to Loupe so it handles all other gestures correctly
                 return loupe.onTouch(v, event);
             });
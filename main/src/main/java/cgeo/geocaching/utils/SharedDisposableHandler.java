@@ -0,0 +1,81 @@
+package cgeo.geocaching.utils;
+
+import android.os.Message;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handler used for an operation shared by several callers (see {@link SingleFlight}), each of them possibly having its own handler.
+ * <br>
+ * Messages are forwarded to the handlers of all callers which are not disposed yet. The shared handler itself is disposed
+ * only as long as the handlers of all current callers are disposed, so the shared operation is not cancelled because a single
+ * caller lost interest in it. Callers without handler can't cancel the operation at all.
+ */
+public class SharedDisposableHandler extends DisposableHandler {
+
+    private final List<DisposableHandler> callers = new ArrayList<>();
+    private int callersWithoutHandler = 0;
+    private boolean cancelled = false;
+
+    public SharedDisposableHandler() {
+        super(AndroidRxUtils.looperCallbacksLooper);
+    }
+
+    public synchronized void addCaller(@Nullable final DisposableHandler handler) {
+        if (handler == null) {
+            callersWithoutHandler++;
+        } else {
+            callers.add(handler);
+        }
+    }
+
+    /**
+     * @return true if there are no more callers left
+     */
+    public synchronized boolean removeCaller(@Nullable final DisposableHandler handler) {
+        if (handler == null) {
+            callersWithoutHandler--;
+        } else {
+            callers.remove(handler);
+        }
+        return callersWithoutHandler == 0 && callers.isEmpty();
+    }
+
+    /**
+     * Whether the shared operation was told to be cancelled at some time, as all callers waiting then were disposed.
+     * Callers joining afterwards might need to start the operation again.
+     */
+    public synchronized boolean wasCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public synchronized boolean isDisposed() {
+        if (callersWithoutHandler > 0 || callers.isEmpty()) {
+            return false;
+        }
+        for (final DisposableHandler caller : callers) {
+            if (!caller.isDisposed()) {
+                return false;
+            }
+        }
+        cancelled = true;
+        return true;
+    }
+
+    @Override
+    protected void handleRegularMessage(final Message message) {
+        final List<DisposableHandler> receivers;
+        synchronized (this) {
+            receivers = new ArrayList<>(callers);
+        }
+        for (final DisposableHandler receiver : receivers) {
+            if (!receiver.isDisposed()) {
+                receiver.sendMessage(Message.obtain(message));
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package cgeo.geocaching.utils;
+
+import cgeo.geocaching.utils.functions.Func0;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent executions of the same blocking operation.
+ * <br>
+ * The first caller for a key executes the loader on its own thread. Callers requesting the same key while this
+ * execution is still in flight wait for it and get the same result (or exception) instead of executing the loader
+ * again. Results are not cached: once the execution finished, the next call for the key executes the loader again.
+ * <br>
+ * All instances are registered for {@link #getStatistics()}, listing the number of calls and how many of them were
+ * served by an execution of another caller.
+ */
+public final class SingleFlight<K, V> {
+
+    private static final List<SingleFlight<?, ?>> INSTANCES = new ArrayList<>();
+
+    private final String name;
+    private final ConcurrentHashMap<K, FutureTask<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    /** @param name used in statistics */
+    public SingleFlight(@NonNull final String name) {
+        this.name = name;
+        synchronized (INSTANCES) {
+            INSTANCES.add(this);
+        }
+    }
+
+    /**
+     * Executes the loader, or waits for the execution already in flight for the given key.
+     * <br>
+     * Runtime exceptions thrown by the loader are rethrown to all callers waiting for it.
+     */
+    @Nullable
+    public V execute(@NonNull final K key, @NonNull final Func0<V> loader) {
+        calls.incrementAndGet();
+        final FutureTask<V> task = new FutureTask<>(loader::call);
+        final FutureTask<V> running = inFlight.putIfAbsent(key, task);
+        if (running != null) {
+            deduplicated.incrementAndGet();
+            return await(running);
+        }
+        try {
+            task.run();
+        } finally {
+            inFlight.remove(key, task);
+        }
+        return await(task);
+    }
+
+    /** whether an execution for the given key is currently in flight */
+    public boolean isInFlight(@NonNull final K key) {
+        return inFlight.containsKey(key);
+    }
+
+    @Nullable
+    private static <V> V await(@NonNull final FutureTask<V> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (final InterruptedException e) {
+                    // the result is needed by the caller, wait until the owner of the execution is done
+                    interrupted = true;
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getDeduplicated() {
+        return deduplicated.get();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        final long callCount = calls.get();
+        final long deduplicatedCount = deduplicated.get();
+        return String.format(Locale.US, "%s: %d calls, %d deduplicated (%d%%)", name, callCount, deduplicatedCount,
+                callCount == 0 ? 0 : deduplicatedCount * 100 / callCount);
+    }
+
+    /** statistics of all instances, for system information */
+    @NonNull
+    public static String getStatistics() {
+        final StringBuilder sb = new StringBuilder();
+        synchronized (INSTANCES) {
+            for (SingleFlight<?, ?> instance : INSTANCES) {
+                sb.append("\n  - ").append(instance);
+            }
+        }
+        return sb.toString();
+    }
+}
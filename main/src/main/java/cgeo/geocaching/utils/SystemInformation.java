@@ -11,6 +11,7 @@ import cgeo.geocaching.filters.core.GeocacheFilterContext;
 import cgeo.geocaching.maps.interfaces.MapSource;
 import cgeo.geocaching.maps.mapsforge.v6.RenderThemeHelper;
 import cgeo.geocaching.maps.routing.RoutingMode;
+import cgeo.geocaching.network.HttpStatistics;
 import cgeo.geocaching.permission.PermissionContext;
 import cgeo.geocaching.playservices.GooglePlayServices;
 import cgeo.geocaching.sensors.LocationDataProvider;
@@ -141,6 +142,10 @@ public final class SystemInformation {
         appendDirectory(body, "\n- System internal c:geo dir: ", LocalStorage.getInternalCgeoDirectory());
         appendDirectory(body, "\n- Legacy User storage c:geo dir: ", LocalStorage.getExternalPublicCgeoDirectory());
         appendDirectory(body, "\n- Geocache data: ", LocalStorage.getGeocacheDataDirectory());
+        body.append("\n- Image cache: ").append(ImageCache.get().getStatistics());
+        body.append("\n- Image decoding: ").append(BitmapDecoder.getStatistics());
+        body.append("\n- Network: ").append(HttpStatistics.getStatistics());
+        body.append("\n- Coalesced requests:").append(SingleFlight.getStatistics());
         appendDirectory(body, "\n- Internal theme sync (is turned " + (RenderThemeHelper.isThemeSynchronizationActive() ? "ON" : "off") + "): ", LocalStorage.getMapThemeInternalSyncDir());
         body.append("\n- Map render theme path: ").append(Settings.getSelectedMapRenderTheme());
         appendPublicFolders(body);
@@ -231,6 +236,8 @@ public final class SystemInformation {
                     .append(", free:>=").append(Formatter.formatBytes(freeSpace.left))
                     .append(")");
         }
+        body.append("\n- Folder listing cache: hits:").append(ContentStorage.get().getListingCacheHits())
+                .append(", misses:").append(ContentStorage.get().getListingCacheMisses());
     }
 
     private static void appendPersistedDocumentUris(@NonNull final StringBuilder body) {
@@ -1,5 +1,6 @@
 package cgeo.geocaching.utils.formulas;
 
+import cgeo.geocaching.utils.CommonUtils;
 import cgeo.geocaching.utils.KeyableCharSet;
 import cgeo.geocaching.utils.LeastRecentlyUsedMap;
 import cgeo.geocaching.utils.TextParser;
@@ -23,6 +24,7 @@ import androidx.annotation.NonNull;
 import androidx.core.util.Supplier;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -52,6 +54,7 @@ import org.apache.commons.lang3.StringUtils;
  * * Ability to use string type was added (in addition to numeric)
  * * concated expressions were added. For example '3(5+1)4' is now interpreted as '364'. Likewise, if A=1, then 'AA5(A+1)3' will  be parsed to '11523'
  * * Localizable, user-displayable error message handling was added.
+ * * Parsed expressions are compiled into a flat, stack-based program for faster evaluation
  */
 public final class Formula {
 
@@ -71,6 +74,7 @@ public final class Formula {
     //effectively final (assigned final after compilation)
     private String expression;
     private FormulaNode compiledExpression;
+    private Program program;
 
     private TextParser p;
     private int level;
@@ -118,6 +122,14 @@ public final class Formula {
         private Func4<ValueList, Func1<String, Value>, Integer, Boolean, CharSequence> functionToErrorString;
         private FormulaNode[] children;
 
+        //information for compilation into a Program
+        private int op = Program.OP_NODE;
+        private int opArgument = 0;
+        private String[] opVariables = null;
+        private boolean isConstant = false;
+        private Value constantValue = null;
+        private FormulaException constantException = null;
+
         public final Set<String> neededVars;
 
         FormulaNode(final String id, final FormulaNode[] children,
@@ -150,6 +162,25 @@ public final class Formula {
             return this.id;
         }
 
+        /**
+         * Marks this node to be executed with a special {@link Program} instruction instead of calling its function
+         */
+        private FormulaNode setOp(final int op) {
+            return setOp(op, 0);
+        }
+
+        private FormulaNode setOp(final int op, final int opArgument) {
+            this.op = op;
+            this.opArgument = opArgument;
+            return this;
+        }
+
+        private FormulaNode setVariableOp(final int op, final String... variables) {
+            this.op = op;
+            this.opVariables = variables;
+            return this;
+        }
+
         public Set<String> getNeededVars() {
             return neededVars;
         }
@@ -190,6 +221,9 @@ public final class Formula {
             }
             final Value finalResult = result;
             final FormulaException finalResultException = resultException;
+            this.isConstant = true;
+            this.constantValue = finalResult;
+            this.constantException = finalResultException;
             return (objs, vars, idx) -> {
                 if (finalResultException != null) {
                     throw finalResultException;
@@ -287,6 +321,259 @@ public final class Formula {
         }
     }
 
+    /**
+     * A {@link FormulaNode} tree compiled into a flat program of instructions in post-order which is executed on a value stack.
+     * <br>
+     * Compared to walking the node tree this avoids creating parameter lists per node and evaluation: numeric operators
+     * work on unboxed doubles, variables are resolved into slots once per evaluation and the stacks are reused per thread.
+     * Nodes without a special instruction are executed by calling their function with their child values.
+     * The node tree is still used for creating formatted output (e.g. in case of errors).
+     */
+    private static final class Program {
+
+        private static final int OP_NODE = 0;
+        private static final int OP_IDENTITY = 1;
+        private static final int OP_CONSTANT = 2;
+        private static final int OP_CONSTANT_ERROR = 3;
+        private static final int OP_VARIABLE = 4;
+        private static final int OP_VARIABLE_BLOCK = 5;
+        private static final int OP_NEGATE = 6;
+        private static final int OP_POWER_CONSTANT = 7;
+        private static final int OP_ADD = 8;
+        private static final int OP_SUBTRACT = 9;
+        private static final int OP_MULTIPLY = 10;
+        private static final int OP_DIVIDE = 11;
+        private static final int OP_MODULO = 12;
+        private static final int OP_POWER = 13;
+
+        private static final ThreadLocal<ExecutionStack> THREAD_STACK = CommonUtils.threadLocalWithInitial(ExecutionStack::new);
+
+        private final int[] ops;
+        /** child count (OP_NODE), variable slot (OP_VARIABLE) or exponent (OP_POWER_CONSTANT) per instruction */
+        private final int[] args;
+        /** node (OP_NODE), value (OP_CONSTANT), exception (OP_CONSTANT_ERROR) or variable slots (OP_VARIABLE_BLOCK) per instruction */
+        private final Object[] refs;
+        private final String[] variables;
+        private final int maxStackSize;
+
+        Program(@NonNull final FormulaNode root) {
+            final Compiler compiler = new Compiler();
+            this.maxStackSize = compiler.compile(root);
+            this.ops = new int[compiler.ops.size()];
+            this.args = new int[ops.length];
+            for (int i = 0; i < ops.length; i++) {
+                ops[i] = compiler.ops.get(i);
+                args[i] = compiler.args.get(i);
+            }
+            this.refs = compiler.refs.toArray();
+            this.variables = compiler.variables.toArray(new String[0]);
+        }
+
+        @NonNull
+        Value execute(@NonNull final Formula formula, @NonNull final Func1<String, Value> vars, final int rangeIdx) throws FormulaException {
+            final ExecutionStack threadStack = THREAD_STACK.get();
+            //a variable provider might evaluate other formulas while we are running -> use a separate stack then
+            final ExecutionStack stack = threadStack.inUse ? new ExecutionStack() : threadStack;
+            stack.ensureCapacity(maxStackSize, variables.length);
+            stack.inUse = true;
+            try {
+                return execute(formula, vars, rangeIdx, stack);
+            } finally {
+                stack.clear(maxStackSize, variables.length);
+                stack.inUse = false;
+            }
+        }
+
+        @NonNull
+        private Value execute(@NonNull final Formula formula, @NonNull final Func1<String, Value> vars, final int rangeIdx, @NonNull final ExecutionStack stack) throws FormulaException {
+            final Value[] values = stack.values;
+            final double[] numbers = stack.numbers;
+            final Value[] slots = stack.slots;
+            final ValueList params = stack.params;
+            for (int i = 0; i < variables.length; i++) {
+                slots[i] = vars.call(variables[i]);
+            }
+
+            int top = 0;
+            for (int pc = 0; pc < ops.length; pc++) {
+                switch (ops[pc]) {
+                    case OP_CONSTANT:
+                        values[top++] = (Value) refs[pc];
+                        break;
+                    case OP_CONSTANT_ERROR:
+                        throw (FormulaException) refs[pc];
+                    case OP_VARIABLE:
+                        values[top++] = getVariable(formula, vars, slots, args[pc]);
+                        break;
+                    case OP_VARIABLE_BLOCK:
+                        params.clear();
+                        for (int slot : (int[]) refs[pc]) {
+                            params.add(getVariable(formula, vars, slots, slot));
+                        }
+                        values[top++] = concat(params);
+                        break;
+                    case OP_NEGATE:
+                        numbers[top - 1] = -getNumber(values, numbers, top - 1);
+                        values[top - 1] = null;
+                        break;
+                    case OP_POWER_CONSTANT:
+                        numbers[top - 1] = Math.pow(getNumber(values, numbers, top - 1), args[pc]);
+                        values[top - 1] = null;
+                        break;
+                    case OP_NODE:
+                        params.clear();
+                        for (int i = top - args[pc]; i < top; i++) {
+                            params.add(getValue(values, numbers, i));
+                        }
+                        top -= args[pc];
+                        values[top++] = ((FormulaNode) refs[pc]).function.call(params, vars, rangeIdx);
+                        break;
+                    default:
+                        //binary numeric operators
+                        final double left = getNumber(values, numbers, top - 2);
+                        final double right = getNumber(values, numbers, top - 1);
+                        top--;
+                        numbers[top - 1] = calculate(ops[pc], left, right);
+                        values[top - 1] = null;
+                        break;
+                }
+            }
+            return getValue(values, numbers, 0);
+        }
+
+        private static double calculate(final int op, final double left, final double right) {
+            switch (op) {
+                case OP_ADD:
+                    return left + right;
+                case OP_SUBTRACT:
+                    return left - right;
+                case OP_MULTIPLY:
+                    return left * right;
+                case OP_DIVIDE:
+                    return left / right;
+                case OP_MODULO:
+                    return left % right;
+                case OP_POWER:
+                default:
+                    return Math.pow(left, right);
+            }
+        }
+
+        @NonNull
+        private static Value getVariable(@NonNull final Formula formula, @NonNull final Func1<String, Value> vars, @NonNull final Value[] slots, final int slot) {
+            final Value value = slots[slot];
+            if (value == null) {
+                throw formula.createMissingVarsException(vars);
+            }
+            return value;
+        }
+
+        /** stack entries without a value hold an unboxed number */
+        @NonNull
+        private static Value getValue(@NonNull final Value[] values, @NonNull final double[] numbers, final int idx) {
+            return values[idx] == null ? Value.of(numbers[idx]) : values[idx];
+        }
+
+        private static double getNumber(@NonNull final Value[] values, @NonNull final double[] numbers, final int idx) {
+            if (values[idx] == null && !Double.isNaN(numbers[idx])) {
+                return numbers[idx];
+            }
+            //NaN is not a valid number for further calculations
+            final Value value = getValue(values, numbers, idx);
+            if (!value.isDouble()) {
+                throw new FormulaException(WRONG_TYPE, "Number", value.toUserDisplayableString(), value.getType());
+            }
+            return value.getAsDouble();
+        }
+
+        private static final class Compiler {
+
+            private final List<Integer> ops = new ArrayList<>();
+            private final List<Integer> args = new ArrayList<>();
+            private final List<Object> refs = new ArrayList<>();
+            private final List<String> variables = new ArrayList<>();
+
+            /** compiles node and its children, returns the stack size needed to execute it */
+            private int compile(@NonNull final FormulaNode node) {
+                if (node.isConstant) {
+                    if (node.constantException != null) {
+                        add(OP_CONSTANT_ERROR, 0, node.constantException);
+                    } else {
+                        add(OP_CONSTANT, 0, node.constantValue);
+                    }
+                    return 1;
+                }
+                int stackSize = 1;
+                for (int i = 0; i < node.children.length; i++) {
+                    stackSize = Math.max(stackSize, i + compile(node.children[i]));
+                }
+                switch (node.op) {
+                    case OP_IDENTITY:
+                        break;
+                    case OP_VARIABLE:
+                        add(OP_VARIABLE, getSlot(node.opVariables[0]), null);
+                        break;
+                    case OP_VARIABLE_BLOCK:
+                        final int[] slots = new int[node.opVariables.length];
+                        for (int i = 0; i < slots.length; i++) {
+                            slots[i] = getSlot(node.opVariables[i]);
+                        }
+                        add(OP_VARIABLE_BLOCK, 0, slots);
+                        break;
+                    case OP_NODE:
+                        add(OP_NODE, node.children.length, node);
+                        break;
+                    default:
+                        add(node.op, node.opArgument, null);
+                        break;
+                }
+                return stackSize;
+            }
+
+            private void add(final int op, final int arg, final Object ref) {
+                ops.add(op);
+                args.add(arg);
+                refs.add(ref);
+            }
+
+            private int getSlot(@NonNull final String variable) {
+                final int slot = variables.indexOf(variable);
+                if (slot >= 0) {
+                    return slot;
+                }
+                variables.add(variable);
+                return variables.size() - 1;
+            }
+        }
+
+        /** stacks for program execution, reused per thread */
+        private static final class ExecutionStack {
+
+            private Value[] values = new Value[16];
+            private double[] numbers = new double[16];
+            private Value[] slots = new Value[16];
+            private final ValueList params = new ValueList();
+            private boolean inUse = false;
+
+            private void ensureCapacity(final int stackSize, final int slotCount) {
+                if (values.length < stackSize) {
+                    values = new Value[stackSize];
+                    numbers = new double[stackSize];
+                }
+                if (slots.length < slotCount) {
+                    slots = new Value[slotCount];
+                }
+            }
+
+            /** don't keep values alive after execution */
+            private void clear(final int stackSize, final int slotCount) {
+                Arrays.fill(values, 0, stackSize, null);
+                Arrays.fill(slots, 0, slotCount, null);
+                params.clear();
+            }
+        }
+    }
+
     private FormulaNode createNumeric(final String id, final FormulaNode[] children, final Func2<ValueList, Func1<String, Value>, Value> function) {
         return new FormulaNode(id, children, (objs, vars, rangeIdx) -> {
             objs.checkAllDouble();
@@ -421,7 +708,7 @@ public final class Formula {
 
     public Value evaluate(final Func1<String, Value> vars, final int rangeIdx) throws FormulaException {
         try {
-            return compiledExpression.eval(vars == null ? x -> null : vars, rangeIdx);
+            return program.execute(this, vars == null ? x -> null : vars, rangeIdx);
         } catch (FormulaException ce) {
             ce.setExpression(expression);
             ce.setEvaluationContext(calculateEvaluationContext(vars));
@@ -430,6 +717,14 @@ public final class Formula {
         }
     }
 
+    /**
+     * Evaluates the formula by walking the parsed node tree instead of executing the compiled program.
+     * For test/benchmark purposes only!
+     */
+    Value evaluateNodeTree(final Func1<String, Value> vars, final int rangeIdx) throws FormulaException {
+        return compiledExpression.eval(vars == null ? x -> null : vars, rangeIdx);
+    }
+
     public String evaluateToString(final Func1<String, Value> vars) {
         return evaluateToCharSequence(vars).toString();
     }
@@ -474,6 +769,7 @@ public final class Formula {
         }
         this.expression = rawExpression.substring(startPos, p.pos());
         this.compiledExpression = x;
+        this.program = new Program(x);
     }
 
     private void markParser() {
@@ -570,9 +866,9 @@ public final class Formula {
         FormulaNode x = parseMultiplyDivision();
         for (; ; ) {
             if (p.eat('+')) {
-                x = createNumeric("+", new FormulaNode[]{x, parseMultiplyDivision()}, (nums, vars) -> Value.of(nums.getAsDouble(0) + nums.getAsDouble(1)));
+                x = createNumeric("+", new FormulaNode[]{x, parseMultiplyDivision()}, (nums, vars) -> Value.of(nums.getAsDouble(0) + nums.getAsDouble(1))).setOp(Program.OP_ADD);
             } else if (p.eat('-') || p.eat('—')) { //those are two different chars
-                x = createNumeric("-", new FormulaNode[]{x, parseMultiplyDivision()}, (nums, vars) -> Value.of(nums.getAsDouble(0) - nums.getAsDouble(1)));
+                x = createNumeric("-", new FormulaNode[]{x, parseMultiplyDivision()}, (nums, vars) -> Value.of(nums.getAsDouble(0) - nums.getAsDouble(1))).setOp(Program.OP_SUBTRACT);
             } else {
                 return x;
             }
@@ -583,11 +879,11 @@ public final class Formula {
         FormulaNode x = parseFactor();
         for (; ; ) {
             if (p.eat('*') || p.eat('•')) {
-                x = createNumeric("*", new FormulaNode[]{x, parseFactor()}, (nums, vars) -> Value.of(nums.getAsDouble(0) * nums.getAsDouble(1)));
+                x = createNumeric("*", new FormulaNode[]{x, parseFactor()}, (nums, vars) -> Value.of(nums.getAsDouble(0) * nums.getAsDouble(1))).setOp(Program.OP_MULTIPLY);
             } else if (p.eat('/') || p.eat(':') || p.eat('÷')) {
-                x = createNumeric("/", new FormulaNode[]{x, parseFactor()}, (nums, vars) -> Value.of(nums.getAsDouble(0) / nums.getAsDouble(1)));
+                x = createNumeric("/", new FormulaNode[]{x, parseFactor()}, (nums, vars) -> Value.of(nums.getAsDouble(0) / nums.getAsDouble(1))).setOp(Program.OP_DIVIDE);
             } else if (p.eat('%')) {
-                x = createNumeric("%", new FormulaNode[]{x, parseFactor()}, (nums, vars) -> Value.of(nums.getAsDouble(0) % nums.getAsDouble(1)));
+                x = createNumeric("%", new FormulaNode[]{x, parseFactor()}, (nums, vars) -> Value.of(nums.getAsDouble(0) % nums.getAsDouble(1))).setOp(Program.OP_MODULO);
             } else {
                 return x;
             }
@@ -599,7 +895,7 @@ public final class Formula {
             return parseFactor(); // unary plus
         }
         if (p.eat('-') || p.eat('—')) { // those are two different chars!
-            return createNumeric("-", new FormulaNode[]{parseFactor()}, (nums, vars) -> Value.of(-nums.getAsDouble(0)));
+            return createNumeric("-", new FormulaNode[]{parseFactor()}, (nums, vars) -> Value.of(-nums.getAsDouble(0))).setOp(Program.OP_NEGATE);
         }
 
         FormulaNode x = parseConcatBlock();
@@ -627,11 +923,11 @@ public final class Formula {
                     throw new FormulaException(WRONG_TYPE, "numeric", nums.get(0), nums.get(0).getType());
                 }
                 return Value.of(Math.pow(nums.get(0).getAsDouble(), factor));
-            });
+            }).setOp(Program.OP_POWER_CONSTANT, factor);
         }
 
         if (p.eat('^')) {
-            x = createNumeric("^", new FormulaNode[]{x, parseFactor()}, (nums, vars) -> Value.of(Math.pow(nums.getAsDouble(0), nums.getAsDouble(1))));
+            x = createNumeric("^", new FormulaNode[]{x, parseFactor()}, (nums, vars) -> Value.of(Math.pow(nums.getAsDouble(0), nums.getAsDouble(1)))).setOp(Program.OP_POWER);
         }
         if (p.eat('#')) {
             p.parseUntil(c -> '#' == c, false, null, true); // drop potential user comments
@@ -705,7 +1001,7 @@ public final class Formula {
                 p.next();
                 this.level++;
                 nodes.add(new FormulaNode("paren", new FormulaNode[]{parseExpression()}, (o, v, ri) -> o.get(0),
-                        (o, v, ri, error) -> TextUtils.concat("(", o.get(0).getAsCharSequence(), ")")));
+                        (o, v, ri, error) -> TextUtils.concat("(", o.get(0).getAsCharSequence(), ")")).setOp(Program.OP_IDENTITY));
                 this.level--;
                 if (!p.eat(expectedClosingChar)) {
                     final FormulaException fe = new FormulaException(UNEXPECTED_TOKEN, "" + expectedClosingChar);
@@ -783,7 +1079,7 @@ public final class Formula {
                 return value.getAsString();
             }
             return TextUtils.setSpan("?" + parsed, createErrorSpan());
-        }, result -> result.add(parsed));
+        }, result -> result.add(parsed)).setVariableOp(Program.OP_VARIABLE, parsed);
 
     }
 
@@ -839,7 +1135,15 @@ public final class Formula {
             for (char l : varBlock.toCharArray()) {
                 result.add("" + l);
             }
-        });
+        }).setVariableOp(Program.OP_VARIABLE_BLOCK, toSingleLetterVariables(varBlock));
+    }
+
+    private static String[] toSingleLetterVariables(final String varBlock) {
+        final String[] result = new String[varBlock.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = String.valueOf(varBlock.charAt(i));
+        }
+        return result;
     }
 
     private FormulaException createMissingVarsException(final Func1<String, Value> providedVars) {
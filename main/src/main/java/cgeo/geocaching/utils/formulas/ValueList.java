@@ -22,6 +22,15 @@ public class ValueList implements Iterable<Value> {
         return this;
     }
 
+    public ValueList add(final Value value) {
+        list.add(value);
+        return this;
+    }
+
+    public void clear() {
+        list.clear();
+    }
+
     @NonNull
     @Override
     public Iterator<Value> iterator() {
@@ -9,6 +9,7 @@ import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.PersistableFolder;
+import cgeo.geocaching.storage.extension.FileMetadataIndex;
 import cgeo.geocaching.ui.ImageParam;
 import cgeo.geocaching.ui.SimpleItemListModel;
 import cgeo.geocaching.ui.TextParam;
@@ -41,7 +42,6 @@ import cz.matejcik.openwig.Engine;
 import cz.matejcik.openwig.EventTable;
 import cz.matejcik.openwig.Task;
 import cz.matejcik.openwig.Zone;
-import cz.matejcik.openwig.formats.CartridgeFile;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 
 public class WherigoActivity extends CustomMenuEntryActivity {
@@ -104,6 +104,9 @@ public class WherigoActivity extends CustomMenuEntryActivity {
             }
         });
 
+        // prepare cartridge list in background, so that choosing a cartridge doesn't need to parse new cartridge files
+        WherigoGame.revalidateAvailableCartridges(PersistableFolder.WHERIGO.getFolder());
+
         refreshGui();
         binding.startGame.setOnClickListener(v -> startGame());
         binding.saveGame.setOnClickListener(v -> saveGame());
@@ -116,15 +119,13 @@ public class WherigoActivity extends CustomMenuEntryActivity {
     }
 
     private void chooseCartridge() {
-        final Map<ContentStorage.FileInformation, CartridgeFile> cartridges = WherigoGame.getAvailableCartridges(PersistableFolder.WHERIGO.getFolder());
+        final Map<ContentStorage.FileInformation, FileMetadataIndex> cartridges = WherigoGame.getAvailableCartridges(PersistableFolder.WHERIGO.getFolder());
         final Map<ContentStorage.FileInformation, ImmutableTriple<String, Bitmap, Geopoint>> displayDataMap = new HashMap<>();
-        for (Map.Entry<ContentStorage.FileInformation, CartridgeFile> cart : cartridges.entrySet()) {
-            final CartridgeFile file = cart.getValue();
-            final String msg = cart.getKey().name + ", " + file.name + ", " + file.type + ", " + file.author + ", " + file.version;
-            final Geopoint point = new Geopoint(file.latitude, file.longitude);
-            final Bitmap bmp = WherigoUtils.getCartrdigeIcon(file);
-            displayDataMap.put(cart.getKey(), new ImmutableTriple<>(msg, bmp, point));
-            WherigoUtils.closeCartridgeQuietly(file);
+        for (Map.Entry<ContentStorage.FileInformation, FileMetadataIndex> cart : cartridges.entrySet()) {
+            final FileMetadataIndex metadata = cart.getValue();
+            final String msg = cart.getKey().name + ", " + metadata.getName() + ", " + metadata.getDetails();
+            final Bitmap bmp = WherigoUtils.getIcon(metadata.getIcon());
+            displayDataMap.put(cart.getKey(), new ImmutableTriple<>(msg, bmp, metadata.getStartPoint()));
         }
         final List<ContentStorage.FileInformation> files = new ArrayList<>(displayDataMap.keySet());
         Collections.sort(files, Comparator.comparing(f -> f.name));
@@ -5,13 +5,19 @@ import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.GeopointConverter;
 import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.Folder;
+import cgeo.geocaching.storage.extension.FileMetadataIndex;
 import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.Log;
 
+import android.net.Uri;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -34,6 +40,7 @@ import cz.matejcik.openwig.Zone;
 import cz.matejcik.openwig.ZonePoint;
 import cz.matejcik.openwig.formats.CartridgeFile;
 import cz.matejcik.openwig.platform.UI;
+import org.apache.commons.io.IOUtils;
 import se.krka.kahlua.vm.LuaClosure;
 
 public class WherigoGame implements UI {
@@ -82,19 +89,76 @@ public class WherigoGame implements UI {
         return isPlaying;
     }
 
-    public static Map<ContentStorage.FileInformation, CartridgeFile> getAvailableCartridges(final Folder folder) {
-        final List<ContentStorage.FileInformation> candidates = ContentStorage.get().list(folder).stream()
-            .filter(fi -> fi.name.endsWith(".gwc")).collect(Collectors.toList());
-        final Map<ContentStorage.FileInformation, CartridgeFile> result = new HashMap<>();
+    /**
+     * Returns the metadata of all valid cartridges in given folder.
+     * Metadata of unchanged cartridges is taken from {@link FileMetadataIndex}, new or changed cartridges are read in parallel.
+     */
+    public static Map<ContentStorage.FileInformation, FileMetadataIndex> getAvailableCartridges(final Folder folder) {
+        final List<ContentStorage.FileInformation> candidates = listCartridgeFiles(folder);
+        final Map<Uri, FileMetadataIndex> index = FileMetadataIndex.getOrParseAll(FileMetadataIndex.KIND_CARTRIDGE, FileMetadataIndex.getScope(folder), candidates, WherigoGame::readCartridgeMetadata);
+        final Map<ContentStorage.FileInformation, FileMetadataIndex> result = new HashMap<>();
         for (ContentStorage.FileInformation candidate : candidates) {
-            final CartridgeFile cartridgeFile = WherigoUtils.safeReadCartridge(candidate.uri);
-            if (cartridgeFile != null) {
-                result.put(candidate, cartridgeFile);
+            final FileMetadataIndex metadata = index.get(candidate.uri);
+            if (metadata != null && metadata.isValid()) {
+                result.put(candidate, metadata);
             }
         }
         return result;
     }
 
+    /**
+     * Reads new or changed cartridges of given folder into {@link FileMetadataIndex} in background,
+     * so that a later call to {@link #getAvailableCartridges(Folder)} returns without parsing.
+     */
+    public static void revalidateAvailableCartridges(final Folder folder) {
+        FileMetadataIndex.revalidateInBackground(FileMetadataIndex.KIND_CARTRIDGE, FileMetadataIndex.getScope(folder), () -> listCartridgeFiles(folder), WherigoGame::readCartridgeMetadata);
+    }
+
+    private static List<ContentStorage.FileInformation> listCartridgeFiles(final Folder folder) {
+        return ContentStorage.get().list(folder).stream()
+            .filter(fi -> fi.name.endsWith(".gwc")).collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the header of given cartridge for {@link FileMetadataIndex}.
+     * Returns null if file could not be read (might be a temporary access problem), an invalid entry only if file is no cartridge
+     */
+    @Nullable
+    private static FileMetadataIndex readCartridgeMetadata(@NonNull final ContentStorage.FileInformation fi) {
+        final InputStream stream = ContentStorage.get().openForRead(fi.uri, true);
+        if (!(stream instanceof FileInputStream)) {
+            IOUtils.closeQuietly(stream);
+            return null;
+        }
+        final FileChannel channel = ((FileInputStream) stream).getChannel();
+        CartridgeFile file = null;
+        try {
+            if (!WherigoUtils.hasCartridgeSignature(channel)) {
+                return FileMetadataIndex.invalid(fi, FileMetadataIndex.KIND_CARTRIDGE);
+            }
+            try {
+                file = CartridgeFile.read(new WSeekableFile(channel), WherigoSaveFileHandler.get());
+            } catch (IOException ioe) {
+                // signature was readable, thus openwig rejected the content of the file
+                Log.d("Invalid Cartridge '" + fi.uri + "'", ioe);
+                return FileMetadataIndex.invalid(fi, FileMetadataIndex.KIND_CARTRIDGE);
+            }
+            return FileMetadataIndex.forCartridge(fi, file.name, new Geopoint(file.latitude, file.longitude),
+                file.type + ", " + file.author + ", " + file.version,
+                WherigoUtils.getIconDataWithMaxSize(WherigoUtils.getCartridgeIconData(file), FileMetadataIndex.MAX_ICON_SIZE));
+        } catch (IOException | RuntimeException e) {
+            // WSeekableFile doesn't pass on read errors, so failures while reading the header might be access problems as well
+            Log.d("Couldn't read Cartridge '" + fi.uri + "'", e);
+            return null;
+        } finally {
+            if (file != null) {
+                WherigoUtils.closeCartridgeQuietly(file);
+            } else {
+                IOUtils.closeQuietly(stream);
+            }
+        }
+    }
+
     public static Map<String, Date> getAvailableSaveGames(@NonNull final ContentStorage.FileInformation cartridgeInfo) {
         return WherigoSaveFileHandler.getAvailableSaveFiles(cartridgeInfo.parentFolder, cartridgeInfo.name);
     }
@@ -10,6 +10,7 @@ import cgeo.geocaching.ui.SimpleItemListModel;
 import cgeo.geocaching.ui.SimpleItemListView;
 import cgeo.geocaching.ui.TextParam;
 import cgeo.geocaching.ui.ViewUtils;
+import cgeo.geocaching.utils.ImageUtils;
 import cgeo.geocaching.utils.Log;
 
 import android.graphics.Bitmap;
@@ -17,9 +18,15 @@ import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.view.View;
 
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -33,6 +40,7 @@ import cz.matejcik.openwig.Zone;
 import cz.matejcik.openwig.ZonePoint;
 import cz.matejcik.openwig.formats.CartridgeFile;
 import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
 
 public final class WherigoUtils {
 
@@ -45,6 +53,11 @@ public final class WherigoUtils {
         ll -> new Geopoint(ll.latitude, ll.longitude)
     );
 
+    /** each cartridge file starts with these bytes: 0x02 0x0a "CART" 0x00 */
+    private static final byte[] CARTRIDGE_SIGNATURE = {0x02, 0x0a, 'C', 'A', 'R', 'T', 0x00};
+    /** maximum edge lengths tried when scaling down icons, largest first */
+    private static final int[] SCALED_ICON_EDGES = {128, 64, 32};
+
     private WherigoUtils() {
         //no instance
     }
@@ -167,18 +180,80 @@ public final class WherigoUtils {
         }
     }
 
+    /**
+     * Checks whether the file behind given channel starts with the cartridge signature. Channel is positioned at file start afterwards.
+     *
+     * @throws IOException if the file could not be read
+     */
+    public static boolean hasCartridgeSignature(final FileChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(CARTRIDGE_SIGNATURE.length);
+        channel.position(0);
+        int read = 0;
+        while (buffer.hasRemaining() && read >= 0) {
+            read = channel.read(buffer);
+        }
+        channel.position(0);
+        return !buffer.hasRemaining() && Arrays.equals(buffer.array(), CARTRIDGE_SIGNATURE);
+    }
+
     public static Bitmap getCartrdigeIcon(final CartridgeFile file) {
+        return getIcon(getCartridgeIconData(file));
+    }
+
+    public static byte[] getCartridgeIconData(final CartridgeFile file) {
         if (file == null) {
             return null;
         }
         try {
-            final byte[] iconData = file.getFile(file.iconId);
+            return file.getFile(file.iconId);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static Bitmap getIcon(final byte[] iconData) {
+        if (iconData == null) {
+            return null;
+        }
+        try {
             return BitmapFactory.decodeByteArray(iconData, 0, iconData.length);
         } catch (Exception e) {
             return null;
         }
     }
 
+    /**
+     * Returns given icon data if it has at most maxBytes. Otherwise the icon is scaled down and encoded as PNG to fit.
+     * Returns null if icon can't be decoded or doesn't fit even when scaled down.
+     */
+    @Nullable
+    public static byte[] getIconDataWithMaxSize(@Nullable final byte[] iconData, final int maxBytes) {
+        if (iconData == null || iconData.length <= maxBytes) {
+            return iconData;
+        }
+        final Bitmap icon = getIcon(iconData);
+        if (icon == null) {
+            return null;
+        }
+        try {
+            for (final int maxEdge : SCALED_ICON_EDGES) {
+                final ImmutableTriple<Integer, Integer, Boolean> size = ImageUtils.calculateScaledImageSizes(icon.getWidth(), icon.getHeight(), maxEdge, maxEdge);
+                final Bitmap scaled = Bitmap.createScaledBitmap(icon, size.left, size.middle, true);
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                scaled.compress(Bitmap.CompressFormat.PNG, 100, out);
+                if (scaled != icon) {
+                    scaled.recycle();
+                }
+                if (out.size() <= maxBytes) {
+                    return out.toByteArray();
+                }
+            }
+            return null;
+        } finally {
+            icon.recycle();
+        }
+    }
+
     public static Bitmap getEventTableIcon(final EventTable et) {
         if (et == null) {
             return null;
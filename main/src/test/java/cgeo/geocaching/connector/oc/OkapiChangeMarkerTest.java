@@ -0,0 +1,44 @@
+package cgeo.geocaching.connector.oc;
+
+import cgeo.geocaching.utils.JsonUtils;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class OkapiChangeMarkerTest {
+
+    private static Map<String, String> parse(final String json) throws Exception {
+        return OkapiClient.parseChangeMarkers((ObjectNode) JsonUtils.reader.readTree(json));
+    }
+
+    @Test
+    public void parseMarkers() throws Exception {
+        final Map<String, String> markers = parse("{" +
+                "\"OC1234\": {\"code\": \"OC1234\", \"status\": \"Available\", \"last_modified\": \"2024-05-01T10:00:00+02:00\", \"founds\": 12, \"notfounds\": 1, \"latest_logs\": [{\"uuid\": \"abc\"}]}," +
+                "\"OC5678\": {\"code\": \"OC5678\", \"status\": \"Archived\", \"last_modified\": \"2020-01-01T00:00:00+01:00\", \"founds\": 0, \"notfounds\": 0, \"latest_logs\": []}," +
+                "\"OCFFFF\": null}");
+        assertThat(markers).hasSize(2);
+        assertThat(markers.get("OC1234")).isEqualTo("Available|2024-05-01T10:00:00+02:00|12|1|abc");
+        assertThat(markers.get("OC5678")).isEqualTo("Archived|2020-01-01T00:00:00+01:00|0|0|");
+        assertThat(markers).doesNotContainKey("OCFFFF");
+    }
+
+    @Test
+    public void markerChangesWithNewLog() throws Exception {
+        final String before = parse("{\"OC1234\": {\"status\": \"Available\", \"last_modified\": \"2024-05-01T10:00:00+02:00\", \"founds\": 12, \"notfounds\": 1, \"latest_logs\": [{\"uuid\": \"abc\"}]}}").get("OC1234");
+        final String after = parse("{\"OC1234\": {\"status\": \"Available\", \"last_modified\": \"2024-05-01T10:00:00+02:00\", \"founds\": 12, \"notfounds\": 1, \"latest_logs\": [{\"uuid\": \"def\"}]}}").get("OC1234");
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    public void markerChangesWithUserState() throws Exception {
+        final String cache = "\"status\": \"Available\", \"last_modified\": \"2024-05-01T10:00:00+02:00\", \"founds\": 12, \"notfounds\": 1, \"latest_logs\": [{\"uuid\": \"abc\"}]";
+        final String before = parse("{\"OC1234\": {" + cache + ", \"is_found\": false, \"is_watched\": false, \"my_notes\": null}}").get("OC1234");
+        assertThat(before).startsWith("Available|2024-05-01T10:00:00+02:00|12|1|abc|");
+        assertThat(parse("{\"OC1234\": {" + cache + ", \"is_found\": false, \"is_watched\": true, \"my_notes\": null}}").get("OC1234")).isNotEqualTo(before);
+        assertThat(parse("{\"OC1234\": {" + cache + ", \"is_found\": false, \"is_watched\": false, \"my_notes\": \"solved\"}}").get("OC1234")).isNotEqualTo(before);
+    }
+}
@@ -0,0 +1,134 @@
+package cgeo.geocaching.location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class NearestNeighbourIndexTest {
+
+    @Test
+    public void emptyIndex() {
+        final NearestNeighbourIndex<Geopoint> index = new NearestNeighbourIndex<>(p -> p);
+        assertThat(index.getNearest(new Geopoint(48, 11))).isNull();
+    }
+
+    @Test
+    public void ignoresPointItself() {
+        final Geopoint point = new Geopoint(48, 11);
+        final Geopoint other = new Geopoint(48.5, 11);
+        final NearestNeighbourIndex<Geopoint> index = new NearestNeighbourIndex<>(p -> p);
+        index.update(Arrays.asList(point, other));
+        assertThat(index.getNearest(point)).isEqualTo(other);
+
+        index.update(Collections.singletonList(point));
+        assertThat(index.getNearest(point)).isNull();
+    }
+
+    @Test
+    public void incrementalUpdate() {
+        final Geopoint a = new Geopoint(48, 11);
+        final Geopoint b = new Geopoint(49, 11);
+        final Geopoint c = new Geopoint(50, 11);
+        final NearestNeighbourIndex<Geopoint> index = new NearestNeighbourIndex<>(p -> p);
+        index.update(Arrays.asList(a, b));
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getNearest(new Geopoint(49.9, 11))).isEqualTo(b);
+
+        index.update(Arrays.asList(a, c));
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getNearest(new Geopoint(49.9, 11))).isEqualTo(c);
+
+        index.remove(c);
+        assertThat(index.getNearest(new Geopoint(49.9, 11))).isEqualTo(a);
+    }
+
+    /** item equal to others with the same key, like caches with the same geocode */
+    private static final class Item {
+        final String key;
+        final String name;
+        final Geopoint coords;
+
+        Item(final String key, final String name, final Geopoint coords) {
+            this.key = key;
+            this.name = name;
+            this.coords = coords;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Item && key.equals(((Item) o).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+
+    @Test
+    public void updateReplacesEqualItems() {
+        final NearestNeighbourIndex<Item> index = new NearestNeighbourIndex<>(item -> item.coords);
+        index.update(Arrays.asList(new Item("a", "old", new Geopoint(48, 11)), new Item("b", "b", new Geopoint(49, 11))));
+        assertThat(index.getNearest(new Geopoint(48.1, 11)).name).isEqualTo("old");
+
+        // same position, but new data
+        index.update(Arrays.asList(new Item("a", "renamed", new Geopoint(48, 11)), new Item("b", "b", new Geopoint(49, 11))));
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getNearest(new Geopoint(48.1, 11)).name).isEqualTo("renamed");
+
+        // moved
+        index.update(Arrays.asList(new Item("a", "moved", new Geopoint(50, 11)), new Item("b", "b", new Geopoint(49, 11))));
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getNearest(new Geopoint(49.9, 11)).name).isEqualTo("moved");
+    }
+
+    @Test
+    public void wrapsAroundAntimeridian() {
+        final Geopoint east = new Geopoint(0, 179.999);
+        final Geopoint west = new Geopoint(0, -179.9999);
+        final NearestNeighbourIndex<Geopoint> index = new NearestNeighbourIndex<>(p -> p);
+        index.update(Arrays.asList(east, west, new Geopoint(0, 170)));
+        assertThat(index.getNearest(new Geopoint(0, 179.9999))).isEqualTo(west);
+    }
+
+    @Test
+    public void sameResultAsFullScan() {
+        final Random random = new Random(42);
+        final List<Geopoint> points = createRandomPoints(random, 5_000);
+        final NearestNeighbourIndex<Geopoint> index = new NearestNeighbourIndex<>(p -> p);
+        index.update(points);
+
+        for (int i = 0; i < 100; i++) {
+            final Geopoint query = createRandomQuery(random);
+            final Geopoint nearest = index.getNearest(query);
+            assertThat(nearest).isNotNull();
+            assertThat(query.distanceTo(nearest)).isEqualTo(getNearestDistanceByFullScan(points, query));
+        }
+    }
+
+    private static List<Geopoint> createRandomPoints(final Random random, final int pointCount) {
+        final List<Geopoint> points = new ArrayList<>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            points.add(new Geopoint(48 + random.nextDouble(), 11 + random.nextDouble() * 2));
+        }
+        return points;
+    }
+
+    /** query point around the area of {@link #createRandomPoints(Random, int)} */
+    private static Geopoint createRandomQuery(final Random random) {
+        return new Geopoint(47.9 + random.nextDouble() * 1.2, 10.9 + random.nextDouble() * 2.2);
+    }
+
+    private static float getNearestDistanceByFullScan(final List<Geopoint> points, final Geopoint query) {
+        float minDistance = Float.MAX_VALUE;
+        for (final Geopoint point : points) {
+            minDistance = Math.min(minDistance, query.distanceTo(point));
+        }
+        return minDistance;
+    }
+}
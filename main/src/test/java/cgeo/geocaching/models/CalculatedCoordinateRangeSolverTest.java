@@ -0,0 +1,91 @@
+package cgeo.geocaching.models;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.utils.formulas.VariableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class CalculatedCoordinateRangeSolverTest {
+
+    private static VariableList createVariables() {
+        final VariableList varList = new VariableList();
+        varList.addVariable("A", "[:0-9]");
+        varList.addVariable("B", "[:1-2]");
+        varList.addVariable("C", "9-A");
+        varList.addVariable("D", "42");
+        return varList;
+    }
+
+    private static List<CalculatedCoordinateRangeSolver.Solution> solve(final CalculatedCoordinateRangeSolver solver) {
+        final List<CalculatedCoordinateRangeSolver.Solution> solutions = Collections.synchronizedList(new ArrayList<>());
+        solver.solve(solutions::add, null);
+        Collections.sort(solutions, (s1, s2) -> Long.compare(s1.combination, s2.combination));
+        return solutions;
+    }
+
+    @Test
+    public void allCombinations() {
+        final VariableList varList = createVariables();
+        final CalculatedCoordinateRangeSolver solver = new CalculatedCoordinateRangeSolver(CalculatedCoordinate.createFromConfig("{CC|N48 12.C45|E13 8.67B}"), varList);
+        assertThat(solver.getRangeVariables()).containsExactly("A", "B");
+        assertThat(solver.getCombinationCount()).isEqualTo(20);
+
+        final List<CalculatedCoordinateRangeSolver.Solution> solutions = solve(solver);
+        assertThat(solutions).hasSize(20);
+        assertThat(solutions.get(0).description).isEqualTo("A=0, B=1");
+        assertThat(solutions.get(0).coords.getLatitude()).isEqualTo(48 + 12.945 / 60, offset(1e-8));
+        assertThat(solutions.get(0).coords.getLongitude()).isEqualTo(13 + 8.671 / 60, offset(1e-8));
+        assertThat(solutions.get(19).description).isEqualTo("A=9, B=2");
+        assertThat(solutions.get(19).coords.getLatitude()).isEqualTo(48 + 12.045 / 60, offset(1e-8));
+        assertThat(solutions.get(19).coords.getLongitude()).isEqualTo(13 + 8.672 / 60, offset(1e-8));
+
+        //variable list is not changed
+        assertThat(varList.getState("A").getRangeIndex()).isEqualTo(0);
+        assertThat(varList.getValue("C").getAsInt()).isEqualTo(9);
+    }
+
+    @Test
+    public void maxDistance() {
+        final Geopoint center = new Geopoint(48 + 12.945 / 60, 13 + 8.671 / 60);
+        final CalculatedCoordinateRangeSolver solver = new CalculatedCoordinateRangeSolver(CalculatedCoordinate.createFromConfig("{CC|N48 12.C45|E13 8.67B}"), createVariables())
+                .setMaxDistance(center, 0.1f);
+        final List<CalculatedCoordinateRangeSolver.Solution> solutions = solve(solver);
+        assertThat(solutions).hasSize(2);
+        assertThat(solutions.get(0).description).isEqualTo("A=0, B=1");
+        assertThat(solutions.get(1).description).isEqualTo("A=0, B=2");
+    }
+
+    @Test
+    public void manyCombinations() {
+        final VariableList varList = createVariables();
+        varList.addVariable("H", "[:0-9]");
+        varList.addVariable("J", "[:0-9]");
+        varList.addVariable("K", "[:0-9]");
+        final CalculatedCoordinateRangeSolver solver = new CalculatedCoordinateRangeSolver(CalculatedCoordinate.createFromConfig("{CC|N48 1H.JK5|E13 8.67A}"), varList);
+        assertThat(solver.getCombinationCount()).isEqualTo(10_000);
+
+        final List<CalculatedCoordinateRangeSolver.Solution> all = solve(solver);
+        assertThat(all).hasSize(CalculatedCoordinateRangeSolver.MAX_SOLUTIONS);
+        assertThat(solver.isSolutionLimitReached()).isTrue();
+
+        final Geopoint center = new Geopoint(48 + 15.555 / 60, 13 + 8.675 / 60);
+        final List<CalculatedCoordinateRangeSolver.Solution> near = solve(new CalculatedCoordinateRangeSolver(CalculatedCoordinate.createFromConfig("{CC|N48 1H.JK5|E13 8.67A}"), varList)
+                .setMaxDistance(center, 0.001f));
+        assertThat(near).hasSize(1);
+        assertThat(near.get(0).description).isEqualTo("A=5, H=5, J=5, K=5");
+    }
+
+    @Test
+    public void noRanges() {
+        final CalculatedCoordinateRangeSolver solver = new CalculatedCoordinateRangeSolver(CalculatedCoordinate.createFromConfig("{CC|N48 12.D5|E13 8.671}"), createVariables());
+        assertThat(solver.getRangeVariables()).isEmpty();
+        assertThat(solver.getCombinationCount()).isEqualTo(0);
+        assertThat(solve(solver)).isEmpty();
+    }
+}
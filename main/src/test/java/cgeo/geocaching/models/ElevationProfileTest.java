@@ -0,0 +1,101 @@
+package cgeo.geocaching.models;
+
+import cgeo.geocaching.location.Geopoint;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.offset;
+
+public class ElevationProfileTest {
+
+    private static Route createRoute(final int numPoints, final boolean withElevation) {
+        final ArrayList<Geopoint> points = new ArrayList<>();
+        final ArrayList<Float> elevation = new ArrayList<>();
+        for (int i = 0; i < numPoints; i++) {
+            points.add(new Geopoint(48, 11 + i * 0.001));
+            elevation.add(withElevation ? (float) (500 + 100 * Math.sin(i / 50.0)) : Float.NaN);
+        }
+        final Route route = new Route(false);
+        route.add(new RouteSegment(new RouteItem(points.get(points.size() - 1)), points, elevation, false));
+        return route;
+    }
+
+    @Test
+    public void distancesAreCumulative() {
+        final ElevationProfile profile = ElevationProfile.create(createRoute(11, true));
+        final float step = new Geopoint(48, 11).distanceTo(new Geopoint(48, 11.001));
+        assertThat(profile.getTotalDistance()).isCloseTo(10 * step, offset(1e-4f));
+        assertThat(profile.findByDistance(0)).isEqualTo(new Geopoint(48, 11));
+        assertThat(profile.findByDistance(step * 2.5f)).isEqualTo(new Geopoint(48, 11.003));
+        assertThat(profile.findByDistance(step * 20)).isNull();
+    }
+
+    @Test
+    public void smallProfileIsNotDownsampled() {
+        final ElevationProfile profile = ElevationProfile.create(createRoute(100, true));
+        assertThat(profile.getNumLevels()).isEqualTo(1);
+        assertThat(profile.getSeries(0).size()).isEqualTo(100);
+    }
+
+    @Test
+    public void largeProfileHasLevelsOfDetail() {
+        final ElevationProfile profile = ElevationProfile.create(createRoute(50_000, true));
+        assertThat(profile.getSeries(0).size()).isEqualTo(ElevationProfile.BASE_SAMPLES);
+        assertThat(profile.getSeries(1).size()).isEqualTo(ElevationProfile.BASE_SAMPLES * 2);
+        final int lastLevel = profile.getNumLevels() - 1;
+        assertThat(profile.getSeries(lastLevel).size()).isEqualTo(50_000);
+        assertThat(profile.getSeries(lastLevel + 5).size()).isEqualTo(50_000);
+        // series are cached
+        assertThat(profile.getSeries(0)).isSameAs(profile.getSeries(0));
+
+        assertThat(profile.getLevelForVisibleFraction(1f)).isEqualTo(0);
+        assertThat(profile.getLevelForVisibleFraction(0.5f)).isEqualTo(1);
+        assertThat(profile.getLevelForVisibleFraction(0.3f)).isEqualTo(2);
+        assertThat(profile.getLevelForVisibleFraction(0f)).isEqualTo(lastLevel);
+    }
+
+    @Test
+    public void profileWithoutElevation() {
+        final ElevationProfile profile = ElevationProfile.create(createRoute(10, false));
+        assertThat(profile.hasElevation()).isFalse();
+        assertThat(profile.getSeries(0).size()).isEqualTo(0);
+        assertThat(profile.findByDistance(0)).isNotNull();
+    }
+
+    @Test
+    public void downsampleKeepsEndsAndExtremes() {
+        final int size = 1000;
+        final float[] x = new float[size];
+        final float[] y = new float[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = i;
+            y[i] = 100;
+        }
+        y[123] = 500;
+        y[789] = -200;
+
+        final int[] indices = ElevationProfile.downsample(x, y, 20);
+        assertThat(indices).hasSize(20);
+        assertThat(indices[0]).isEqualTo(0);
+        assertThat(indices[19]).isEqualTo(size - 1);
+        assertThat(indices).contains(123, 789);
+        for (int i = 1; i < indices.length; i++) {
+            assertThat(indices[i]).isGreaterThan(indices[i - 1]);
+        }
+    }
+
+    @Test
+    public void downsampleBelowThresholdReturnsAll() {
+        assertThat(ElevationProfile.downsample(new float[]{1, 2, 3}, new float[]{4, 5, 6}, 10)).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    public void profileIsCachedPerRoute() {
+        final Route route = createRoute(10, true);
+        assertThat(route.getElevationProfile()).isSameAs(route.getElevationProfile());
+        route.add(new RouteSegment(new RouteItem(new Geopoint(49, 11)), null, false));
+        assertThat(route.getElevationProfile().findByDistance(route.getElevationProfile().getTotalDistance())).isEqualTo(new Geopoint(49, 11));
+    }
+}
@@ -18,6 +18,7 @@ import java.util.List;
 
 import org.junit.Test;
 import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
 
 public class GeoItemTest {
 
@@ -137,6 +138,61 @@ public class GeoItemTest {
         assertThat(GeoPrimitive.isClockwise(geopointList(GP_1, 100, 0, 0, 100))).isFalse();
     }
 
+    @Test
+    public void simplifyLine() {
+        //points deviating less than tolerance from a straight line are removed, first and last are kept
+        final List<Geopoint> line = geopointList(GP_1, 0, 1000, 10, 1000, -10, 1000, 0, 1000);
+        final List<Geopoint> simplified = GeoItemUtils.simplifyLine(line, 0.0001);
+        assertThat(simplified).containsExactly(line.get(0), line.get(4));
+
+        //a relevant corner is kept
+        final List<Geopoint> corner = geopointList(GP_1, 0, 1000, 1000, 0, 0, 1000);
+        assertThat(GeoItemUtils.simplifyLine(corner, 0.0001)).containsExactly(corner.get(0), corner.get(1), corner.get(2), corner.get(3));
+        assertThat(GeoItemUtils.simplifyLine(corner, 0.0001)).isSameAs(corner);
+    }
+
+    @Test
+    public void levelOfDetail() {
+        final GeoPrimitive line = polyline(GP_1, 2, 0, 1000, 10, 1000, -10, 1000, 0, 1000).buildUpon().setZLevel(5).build();
+        final GeoItemLevelOfDetail lod = new GeoItemLevelOfDetail(GeoGroup.create(line));
+
+        assertThat(lod.getForZoom(GeoItemLevelOfDetail.FULL_DETAIL_ZOOM)).isSameAs(lod.getSource());
+        final GeoItem simplified = lod.getForZoom(10);
+        assertThat(simplified).isSameAs(lod.getForZoom(10));
+        final GeoPrimitive simplifiedLine = (GeoPrimitive) ((GeoGroup) simplified).getItems().get(0);
+        assertThat(simplifiedLine.getPoints()).hasSize(2);
+        assertThat(simplifiedLine.getZLevel()).isEqualTo(5);
+        assertThat(simplifiedLine.getStyle()).isEqualTo(line.getStyle());
+    }
+
+    @Test
+    public void touchBounds() {
+        final double[] degreesPerPixel = GeoItemTouchBounds.getDegreesPerPixel(GP_1, TO_LATLON_E6);
+        assertThat(degreesPerPixel).isNotNull();
+        assertThat(degreesPerPixel[0]).isEqualTo(1e-6, within(1e-9));
+        assertThat(degreesPerPixel[1]).isEqualTo(1e-6, within(1e-9));
+
+        //whatever is touched must be within touch bounds
+        final int minLineWidth  = GeoItemUtils.getMinPixelTouchWidth();
+        assertTouchBounds(marker(GP_1, 20, 30, null), addE6(GP_1, 15, 10), degreesPerPixel);
+        assertTouchBounds(polyline(GP_1, 0, 0, 10), addE6(GP_1, minLineWidth / 2, 10), degreesPerPixel);
+        assertTouchBounds(circle(GP_1, 10, 0, false), addE6(GP_1.project(180, 10), minLineWidth / 2, 0), degreesPerPixel);
+        assertTouchBounds(circle(GP_1, 10, 0, true), GP_1.project(90, 9), degreesPerPixel);
+
+        //far away items are sorted out
+        assertThat(GeoItemTouchBounds.of(marker(GP_1, 20, 30, null)).mayBeTouched(addE6(GP_1, 1000, 0), degreesPerPixel)).isFalse();
+        assertThat(GeoItemTouchBounds.of(polyline(GP_1, 0, 0, 10)).mayBeTouched(addE6(GP_1, 0, 1000), degreesPerPixel)).isFalse();
+        assertThat(GeoItemTouchBounds.of(circle(GP_1, 10, 0, false)).mayBeTouched(GP_1.project(0, 11), degreesPerPixel)).isFalse();
+
+        //without projector only geographic extent counts
+        assertThat(GeoItemTouchBounds.of(circle(GP_1, 10, 0, true)).mayBeTouched(GP_1, GeoItemTouchBounds.getDegreesPerPixel(GP_1, null))).isTrue();
+    }
+
+    private static void assertTouchBounds(final GeoPrimitive item, final Geopoint tapped, final double[] degreesPerPixel) {
+        assertThat(item.touches(tapped, TO_LATLON_E6)).isTrue();
+        assertThat(GeoItemTouchBounds.of(item).mayBeTouched(tapped, degreesPerPixel)).isTrue();
+    }
+
     private static GeoPrimitive polyline(final Geopoint start, final int lineWidth, final int ... points) {
         return polylineGon(false, start, lineWidth, false, points);
     }
@@ -0,0 +1,132 @@
+package cgeo.geocaching.network;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class HttpCacheTest {
+
+    private MockWebServer mockServer;
+    private File cacheDir;
+    private Cache cache;
+    private OkHttpClient client;
+
+    @Before
+    public void before() throws IOException {
+        mockServer = new MockWebServer();
+        mockServer.start();
+        cacheDir = Files.createTempDirectory("httpCacheTest").toFile();
+        cache = new Cache(cacheDir, 1024 * 1024);
+        client = Network.newHttpClientBuilder(cache).build();
+        HttpStatistics.clear();
+    }
+
+    @After
+    public void after() throws IOException {
+        mockServer.shutdown();
+        cache.delete();
+        org.apache.commons.io.FileUtils.deleteDirectory(cacheDir);
+    }
+
+    private String get(final String path, final String... headers) throws IOException {
+        final Request.Builder request = new Request.Builder().url(mockServer.url(path));
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        try (Response response = client.newCall(request.build()).execute()) {
+            return response.body().string();
+        }
+    }
+
+    private HttpStatistics.HostStatistics getServerStatistics() {
+        for (HttpStatistics.HostStatistics stats : HttpStatistics.getHostStatistics()) {
+            if (stats.host.equals(mockServer.getHostName())) {
+                return stats;
+            }
+        }
+        throw new AssertionError("no statistics for " + mockServer.getHostName());
+    }
+
+    @Test
+    public void serverCacheHeadersAreHonored() throws IOException {
+        mockServer.enqueue(new MockResponse().setBody("cached").setHeader("Cache-Control", "max-age=60"));
+
+        assertThat(get("/page")).isEqualTo("cached");
+        assertThat(get("/page")).isEqualTo("cached");
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+
+        final HttpStatistics.HostStatistics stats = getServerStatistics();
+        assertThat(stats.requests).isEqualTo(2);
+        assertThat(stats.cacheHits).isEqualTo(1);
+        assertThat(stats.getNetworkRequests()).isEqualTo(1);
+    }
+
+    @Test
+    public void uncacheableResponsesAreRequestedAgain() throws IOException {
+        mockServer.enqueue(new MockResponse().setBody("first").setHeader("Cache-Control", "no-store"));
+        mockServer.enqueue(new MockResponse().setBody("second").setHeader("Cache-Control", "no-store"));
+
+        assertThat(get("/page")).isEqualTo("first");
+        assertThat(get("/page")).isEqualTo("second");
+        assertThat(mockServer.getRequestCount()).isEqualTo(2);
+        assertThat(getServerStatistics().cacheHits).isEqualTo(0);
+    }
+
+    @Test
+    public void cachePolicyOverridesServerHeaders() throws IOException, InterruptedException {
+        mockServer.enqueue(new MockResponse().setBody("index").setHeader("Cache-Control", "no-cache").setHeader("Pragma", "no-cache"));
+
+        assertThat(get("/index", Network.HEADER_CACHE_MAX_AGE, "3600")).isEqualTo("index");
+        assertThat(get("/index", Network.HEADER_CACHE_MAX_AGE, "3600")).isEqualTo("index");
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+
+        // policy header is internal and must not be sent to the server
+        final RecordedRequest request = mockServer.takeRequest();
+        assertThat(request.getHeader(Network.HEADER_CACHE_MAX_AGE)).isNull();
+    }
+
+    @Test
+    public void cachePolicyIsNotAppliedToErrors() throws IOException {
+        mockServer.enqueue(new MockResponse().setResponseCode(503).setBody("error"));
+        mockServer.enqueue(new MockResponse().setBody("index"));
+
+        assertThat(get("/index", Network.HEADER_CACHE_MAX_AGE, "3600")).isEqualTo("error");
+        assertThat(get("/index", Network.HEADER_CACHE_MAX_AGE, "3600")).isEqualTo("index");
+        assertThat(mockServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void staleResponsesAreRevalidated() throws IOException, InterruptedException {
+        mockServer.enqueue(new MockResponse().setBody("content").setHeader("Cache-Control", "no-cache").setHeader("ETag", "\"v1\""));
+        mockServer.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        assertThat(get("/page")).isEqualTo("content");
+        assertThat(get("/page")).isEqualTo("content");
+
+        mockServer.takeRequest();
+        assertThat(mockServer.takeRequest().getHeader("If-None-Match")).isEqualTo("\"v1\"");
+
+        final HttpStatistics.HostStatistics stats = getServerStatistics();
+        assertThat(stats.requests).isEqualTo(2);
+        assertThat(stats.cacheHits).isEqualTo(0);
+        assertThat(stats.conditionalHits).isEqualTo(1);
+    }
+
+    @Test
+    public void cacheForCreatesHeader() {
+        assertThat(Network.cacheFor(2, TimeUnit.HOURS).toString()).isEqualTo(Network.HEADER_CACHE_MAX_AGE + "=7200");
+    }
+}
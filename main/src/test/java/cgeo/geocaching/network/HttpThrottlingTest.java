@@ -0,0 +1,74 @@
+package cgeo.geocaching.network;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.Before;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class HttpThrottlingTest {
+
+    @Before
+    public void before() {
+        HttpThrottling.clear();
+    }
+
+    private static Response response(final int code, final String retryAfter) {
+        final Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url("https://api.example.com/cache").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("");
+        if (retryAfter != null) {
+            builder.header("Retry-After", retryAfter);
+        }
+        return builder.build();
+    }
+
+    private static String httpDate(final long time) {
+        final SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(time));
+    }
+
+    @Test
+    public void testRetryAfterSeconds() {
+        assertThat(HttpThrottling.getRetryAfterMs(response(429, "5"), 0)).isEqualTo(5000);
+        assertThat(HttpThrottling.getRetryAfterMs(response(429, "99999999999999999999"), 0)).isEqualTo(HttpThrottling.MAX_RETRY_AFTER_MS);
+    }
+
+    @Test
+    public void testRetryAfterDate() {
+        final long now = System.currentTimeMillis() / 1000 * 1000;
+        assertThat(HttpThrottling.getRetryAfterMs(response(503, httpDate(now + 60 * 1000)), now)).isEqualTo(60 * 1000);
+        assertThat(HttpThrottling.getRetryAfterMs(response(503, httpDate(now - 1000)), now)).isEqualTo(0);
+    }
+
+    @Test
+    public void testRetryAfterMissingOrInvalid() {
+        assertThat(HttpThrottling.getRetryAfterMs(response(429, null), 0)).isEqualTo(HttpThrottling.DEFAULT_RETRY_AFTER_MS);
+        assertThat(HttpThrottling.getRetryAfterMs(response(429, "soon"), 0)).isEqualTo(HttpThrottling.DEFAULT_RETRY_AFTER_MS);
+    }
+
+    @Test
+    public void testThrottledHost() {
+        final long start = System.currentTimeMillis();
+        HttpThrottling.record("api.example.com", response(200, "5"));
+        assertThat(HttpThrottling.getRemainingMs("www.example.com")).isEqualTo(0);
+
+        HttpThrottling.record("api.example.com", response(429, "5"));
+        assertThat(HttpThrottling.getRemainingMs("www.example.com")).isBetween(1L, 5000L);
+        assertThat(HttpThrottling.getRemainingMs("api.example.com")).isBetween(1L, 5000L);
+        assertThat(HttpThrottling.getRemainingMs("www.example.org")).isEqualTo(0);
+        assertThat(HttpThrottling.getRemainingMs(null)).isEqualTo(0);
+
+        assertThat(HttpThrottling.wasThrottledSince("example.com", start)).isTrue();
+        assertThat(HttpThrottling.wasThrottledSince("example.com", System.currentTimeMillis() + 1)).isFalse();
+    }
+}
@@ -0,0 +1,88 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class CacheCacheTest {
+
+    @NonNull
+    private static Geocache createGeocache(final String geocode) {
+        final Geocache cache = new Geocache();
+        cache.setGeocode(geocode);
+        return cache;
+    }
+
+    @Test
+    public void fullyLoadedIsTakenOnce() {
+        final CacheCache cacheCache = new CacheCache(() -> 1000L);
+        final Geocache cache = createGeocache("GC1234");
+        cacheCache.putCacheInCache(cache);
+        assertThat(cacheCache.isFullyLoaded("GC1234")).isFalse();
+
+        cacheCache.markFullyLoaded(cache);
+        assertThat(cacheCache.isFullyLoaded("GC1234")).isTrue();
+        assertThat(cacheCache.takeFullyLoadedCacheFromCache("GC1234")).isSameAs(cache);
+        assertThat(cacheCache.isFullyLoaded("GC1234")).isFalse();
+        assertThat(cacheCache.takeFullyLoadedCacheFromCache("GC1234")).isNull();
+        assertThat(cacheCache.getCacheFromCache("GC1234")).isSameAs(cache);
+    }
+
+    @Test
+    public void fullyLoadedExpiresAfterTimeToLive() {
+        final AtomicLong now = new AtomicLong(1000);
+        final CacheCache cacheCache = new CacheCache(now::get);
+        final Geocache cache = createGeocache("GC1234");
+        cacheCache.putCacheInCache(cache);
+        cacheCache.markFullyLoaded(cache);
+
+        now.addAndGet(CacheCache.FULLY_LOADED_TIME_TO_LIVE_MS);
+        assertThat(cacheCache.isFullyLoaded("GC1234")).isTrue();
+        now.addAndGet(1);
+        assertThat(cacheCache.isFullyLoaded("GC1234")).isFalse();
+        assertThat(cacheCache.takeFullyLoadedCacheFromCache("GC1234")).isNull();
+    }
+
+    @Test
+    public void fullyLoadedOnlyForCurrentInstance() {
+        final CacheCache cacheCache = new CacheCache(() -> 1000L);
+        final Geocache cache = createGeocache("GC1234");
+
+        // not in cache at all
+        cacheCache.markFullyLoaded(cache);
+        assertThat(cacheCache.isFullyLoaded("GC1234")).isFalse();
+
+        // replaced by another instance after being marked
+        cacheCache.putCacheInCache(cache);
+        cacheCache.markFullyLoaded(cache);
+        cacheCache.putCacheInCache(createGeocache("GC1234"));
+        assertThat(cacheCache.isFullyLoaded("GC1234")).isFalse();
+        assertThat(cacheCache.takeFullyLoadedCacheFromCache("GC1234")).isNull();
+
+        // removed after being marked
+        final Geocache current = cacheCache.getCacheFromCache("GC1234");
+        cacheCache.markFullyLoaded(current);
+        cacheCache.removeCacheFromCache("GC1234");
+        assertThat(cacheCache.takeFullyLoadedCacheFromCache("GC1234")).isNull();
+    }
+
+    @Test
+    public void fullyLoadedEvictsLeastRecentlyUsed() {
+        final CacheCache cacheCache = new CacheCache(() -> 1000L);
+        for (int i = 0; i <= CacheCache.MAX_FULLY_LOADED_CACHES; i++) {
+            final Geocache cache = createGeocache("GC" + i);
+            cacheCache.putCacheInCache(cache);
+            cacheCache.markFullyLoaded(cache);
+        }
+        assertThat(cacheCache.isFullyLoaded("GC0")).isFalse();
+        assertThat(cacheCache.getCacheFromCache("GC0")).isNotNull();
+        for (int i = 1; i <= CacheCache.MAX_FULLY_LOADED_CACHES; i++) {
+            assertThat(cacheCache.isFullyLoaded("GC" + i)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class CacheDetailsPrefetcherTest {
+
+    @NonNull
+    private static List<Geocache> createGeocaches(final int count) {
+        final List<Geocache> caches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode("GC" + i);
+            caches.add(cache);
+        }
+        return caches;
+    }
+
+    @Test
+    public void prefetchesFollowingCachesFirst() {
+        assertThat(CacheDetailsPrefetcher.getGeocodesAround(createGeocaches(10), 4)).containsExactly("GC4", "GC5", "GC6", "GC7", "GC3");
+    }
+
+    @Test
+    public void prefetchesWithinListBounds() {
+        final List<Geocache> caches = createGeocaches(3);
+        assertThat(CacheDetailsPrefetcher.getGeocodesAround(caches, 0)).containsExactly("GC0", "GC1", "GC2");
+        assertThat(CacheDetailsPrefetcher.getGeocodesAround(caches, 2)).containsExactly("GC2", "GC1");
+        // e.g. position of the list footer
+        assertThat(CacheDetailsPrefetcher.getGeocodesAround(caches, 3)).containsExactly("GC2");
+        assertThat(CacheDetailsPrefetcher.getGeocodesAround(caches, 4)).isEmpty();
+        assertThat(CacheDetailsPrefetcher.getGeocodesAround(caches, -1)).containsExactly("GC0", "GC1", "GC2");
+        assertThat(CacheDetailsPrefetcher.getGeocodesAround(Collections.emptyList(), 0)).isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package cgeo.geocaching.storage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class FolderListingCacheTest {
+
+    private static final String FOLDER = "p-content://tree::/maps";
+    private static final String SUBFOLDER = "p-content://tree::/maps/sub";
+
+    private static ContentStorage.FileInformation file(final String name) {
+        return new ContentStorage.FileInformation(name, null, null, false, null, "text/plain", 1, 1);
+    }
+
+    @Test
+    public void expiresAfterTimeToLive() {
+        final AtomicLong now = new AtomicLong(1000);
+        final FolderListingCache cache = new FolderListingCache(100, now::get);
+        assertThat(cache.get(FOLDER)).isNull();
+
+        cache.put(FOLDER, Arrays.asList(file("a.map"), file("b.map")), cache.getGeneration());
+        now.addAndGet(100);
+        assertThat(cache.get(FOLDER)).hasSize(2);
+        now.addAndGet(1);
+        assertThat(cache.get(FOLDER)).isNull();
+
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void returnsCopies() {
+        final FolderListingCache cache = new FolderListingCache();
+        cache.put(FOLDER, Arrays.asList(file("a.map"), file("b.map")), cache.getGeneration());
+        final List<ContentStorage.FileInformation> listing = cache.get(FOLDER);
+        assertThat(listing).isNotNull();
+        listing.clear();
+        assertThat(cache.get(FOLDER)).hasSize(2);
+    }
+
+    @Test
+    public void invalidateWithParents() {
+        final FolderListingCache cache = new FolderListingCache();
+        cache.put(FOLDER, Arrays.asList(file("a.map"), file("b.map")), cache.getGeneration());
+        cache.put(SUBFOLDER, Arrays.asList(file("c.map")), cache.getGeneration());
+
+        cache.invalidateWithParents(FOLDER);
+        assertThat(cache.get(FOLDER)).isNull();
+        assertThat(cache.get(SUBFOLDER)).hasSize(1);
+
+        cache.put(FOLDER, Arrays.asList(file("a.map"), file("b.map")), cache.getGeneration());
+        cache.invalidateWithParents(SUBFOLDER);
+        assertThat(cache.get(FOLDER)).isNull();
+        assertThat(cache.get(SUBFOLDER)).isNull();
+    }
+
+    @Test
+    public void dropsListingStartedBeforeInvalidation() {
+        final FolderListingCache cache = new FolderListingCache();
+        final long generation = cache.getGeneration();
+        // folder content is changed while listing is in progress
+        cache.invalidateWithParents(SUBFOLDER);
+        assertThat(cache.put(FOLDER, Arrays.asList(file("a.map")), generation)).isFalse();
+        assertThat(cache.get(FOLDER)).isNull();
+
+        final long nextGeneration = cache.getGeneration();
+        cache.invalidateAll();
+        assertThat(cache.put(FOLDER, Arrays.asList(file("a.map")), nextGeneration)).isFalse();
+        assertThat(cache.get(FOLDER)).isNull();
+
+        assertThat(cache.put(FOLDER, Arrays.asList(file("a.map")), cache.getGeneration())).isTrue();
+        assertThat(cache.get(FOLDER)).hasSize(1);
+    }
+}
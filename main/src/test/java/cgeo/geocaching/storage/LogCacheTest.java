@@ -0,0 +1,82 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.log.LogEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class LogCacheTest {
+
+    private static final List<LogEntry> LOGS = Collections.emptyList();
+
+    @Test
+    public void memoizesLogs() {
+        final LogCache cache = new LogCache(1000);
+        assertThat(cache.get("GC1")).isNull();
+        cache.put("GC1", LOGS, 100, cache.getGeneration());
+        assertThat(cache.get("GC1")).isSameAs(LOGS);
+        assertThat(cache.contains("GC1")).isTrue();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final LogCache cache = new LogCache(1000);
+        cache.put("GC1", LOGS, 400, cache.getGeneration());
+        cache.put("GC2", LOGS, 400, cache.getGeneration());
+        cache.get("GC1");
+        cache.put("GC3", LOGS, 400, cache.getGeneration());
+
+        assertThat(cache.contains("GC1")).isTrue();
+        assertThat(cache.contains("GC2")).isFalse();
+        assertThat(cache.contains("GC3")).isTrue();
+        assertThat(cache.getSize()).isEqualTo(800);
+    }
+
+    @Test
+    public void doesNotStoreLargeEntries() {
+        final LogCache cache = new LogCache(1000);
+        cache.put("GC1", LOGS, 600, cache.getGeneration());
+        assertThat(cache.contains("GC1")).isFalse();
+        assertThat(cache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void rejectsLogsLoadedBeforeInvalidation() {
+        final LogCache cache = new LogCache(1000);
+        final long generation = cache.getGeneration();
+        cache.invalidate("GC1");
+        cache.put("GC1", LOGS, 100, generation);
+        assertThat(cache.contains("GC1")).isFalse();
+
+        cache.put("GC1", LOGS, 100, cache.getGeneration());
+        assertThat(cache.contains("GC1")).isTrue();
+    }
+
+    @Test
+    public void invalidate() {
+        final LogCache cache = new LogCache(1000);
+        cache.put("GC1", LOGS, 100, cache.getGeneration());
+        cache.put("GC2", LOGS, 100, cache.getGeneration());
+        cache.put("GC3", LOGS, 100, cache.getGeneration());
+
+        cache.invalidate("GC1");
+        assertThat(cache.contains("GC1")).isFalse();
+        assertThat(cache.getSize()).isEqualTo(200);
+
+        final List<String> geocodes = new ArrayList<>();
+        geocodes.add("GC2");
+        cache.invalidate(geocodes);
+        assertThat(cache.contains("GC2")).isFalse();
+        assertThat(cache.contains("GC3")).isTrue();
+
+        cache.invalidateAll();
+        assertThat(cache.contains("GC3")).isFalse();
+        assertThat(cache.getSize()).isEqualTo(0);
+    }
+}
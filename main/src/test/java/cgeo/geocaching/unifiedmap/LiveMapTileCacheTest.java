@@ -0,0 +1,215 @@
+package cgeo.geocaching.unifiedmap;
+
+import cgeo.geocaching.filters.core.GeocacheFilter;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class LiveMapTileCacheTest {
+
+    private static final Viewport VIEWPORT = new Viewport(new Geopoint(48, 11), 0.05, 0.08);
+
+    /** answers each search with a single cache, counting the searches */
+    private static class FakeTileSearch implements LiveMapTileCache.TileSearch {
+        private final List<Viewport> searched = new ArrayList<>();
+        volatile boolean failing = false;
+        volatile boolean complete = true;
+
+        @Nullable
+        @Override
+        public synchronized LiveMapTileCache.TileContent search(@NonNull final Viewport viewport, @Nullable final GeocacheFilter filter) {
+            searched.add(viewport);
+            if (failing) {
+                return null;
+            }
+            final Geocache cache = new Geocache();
+            cache.setGeocode("GC" + searched.size());
+            final Set<Geocache> caches = new HashSet<>();
+            caches.add(cache);
+            return new LiveMapTileCache.TileContent(caches, new HashSet<>(), complete);
+        }
+
+        @NonNull
+        @Override
+        public Collection<Geocache> getCurrent(@NonNull final Collection<String> geocodes) {
+            return Collections.emptyList();
+        }
+
+        /** number of searches since the last call */
+        synchronized int takeSearchCount() {
+            final int count = searched.size();
+            searched.clear();
+            return count;
+        }
+    }
+
+    private final FakeTileSearch tileSearch = new FakeTileSearch();
+    private final AtomicLong time = new AtomicLong(1000);
+    private final LiveMapTileCache tileCache = new LiveMapTileCache(tileSearch, time::get);
+
+    @Test
+    public void searchLoadsMissingTilesOnly() {
+        final LiveMapTileCache.Result first = tileCache.search(VIEWPORT, null);
+        final int tileCount = tileSearch.takeSearchCount();
+        assertThat(tileCount).isBetween(1, 9);
+        assertThat(first.caches).hasSize(tileCount);
+
+        // same area again: all tiles are cached
+        final LiveMapTileCache.Result second = tileCache.search(VIEWPORT, null);
+        assertThat(tileSearch.takeSearchCount()).isEqualTo(0);
+        assertThat(second.caches).hasSize(tileCount);
+
+        // other area: tiles are searched
+        tileCache.search(new Viewport(new Geopoint(-30, -60), 0.05, 0.08), null);
+        assertThat(tileSearch.takeSearchCount()).isGreaterThan(0);
+    }
+
+    @Test
+    public void searchReloadsExpiredTiles() {
+        tileCache.search(VIEWPORT, null);
+        final int tileCount = tileSearch.takeSearchCount();
+
+        time.addAndGet(LiveMapTileCache.TILE_TIME_TO_LIVE_MS);
+        tileCache.search(VIEWPORT, null);
+        assertThat(tileSearch.takeSearchCount()).isEqualTo(0);
+
+        time.incrementAndGet();
+        tileCache.search(VIEWPORT, null);
+        assertThat(tileSearch.takeSearchCount()).isEqualTo(tileCount);
+    }
+
+    @Test
+    public void searchEvictsLeastRecentlyUsedTiles() {
+        tileCache.search(VIEWPORT, null);
+        final int tileCount = tileSearch.takeSearchCount();
+
+        // each search of another area adds at least one tile
+        for (int i = 0; i < LiveMapTileCache.MAX_TILES; i++) {
+            tileCache.search(new Viewport(new Geopoint(-60 + i * 3, -150 + i * 7), 0.05, 0.08), null);
+        }
+        assertThat(tileSearch.takeSearchCount()).isGreaterThanOrEqualTo(LiveMapTileCache.MAX_TILES);
+
+        tileCache.search(VIEWPORT, null);
+        assertThat(tileSearch.takeSearchCount()).isEqualTo(tileCount);
+    }
+
+    @Test
+    public void searchReusesCompleteParentTiles() {
+        final Viewport parent = new LiveMapTileCache.Tile(7, 70, 80).getViewport();
+        final Viewport zoomedIn = new Viewport(parent.getCenter(), parent.getLatitudeSpan() * 0.45, parent.getLongitudeSpan() * 0.45);
+
+        tileCache.search(new Viewport(parent.getCenter(), parent.getLatitudeSpan() * 0.9, parent.getLongitudeSpan() * 0.9), null);
+        assertThat(tileSearch.takeSearchCount()).isGreaterThan(0);
+        final LiveMapTileCache.Result result = tileCache.search(zoomedIn, null);
+        assertThat(tileSearch.takeSearchCount()).isEqualTo(0);
+        assertThat(result.caches).isNotEmpty();
+    }
+
+    @Test
+    public void searchDoesNotReuseIncompleteParentTiles() {
+        tileSearch.complete = false;
+        final Viewport parent = new LiveMapTileCache.Tile(7, 70, 80).getViewport();
+        final Viewport zoomedIn = new Viewport(parent.getCenter(), parent.getLatitudeSpan() * 0.45, parent.getLongitudeSpan() * 0.45);
+
+        tileCache.search(new Viewport(parent.getCenter(), parent.getLatitudeSpan() * 0.9, parent.getLongitudeSpan() * 0.9), null);
+        assertThat(tileSearch.takeSearchCount()).isGreaterThan(0);
+        tileCache.search(zoomedIn, null);
+        assertThat(tileSearch.takeSearchCount()).isGreaterThan(0);
+    }
+
+    @Test
+    public void searchWithOtherFilterClearsTiles() {
+        final GeocacheFilter filter = GeocacheFilter.create("first", false, false, null);
+        tileCache.search(VIEWPORT, filter);
+        final int tileCount = tileSearch.takeSearchCount();
+
+        tileCache.search(VIEWPORT, GeocacheFilter.create("first", false, false, null));
+        assertThat(tileSearch.takeSearchCount()).isEqualTo(0);
+
+        tileCache.search(VIEWPORT, GeocacheFilter.create("second", false, false, null));
+        assertThat(tileSearch.takeSearchCount()).isEqualTo(tileCount);
+    }
+
+    @Test
+    public void searchDoesNotCacheFailedTiles() {
+        tileSearch.failing = true;
+        final LiveMapTileCache.Result failed = tileCache.search(VIEWPORT, null);
+        final int tileCount = tileSearch.takeSearchCount();
+        assertThat(failed.caches).isEmpty();
+
+        tileSearch.failing = false;
+        final LiveMapTileCache.Result result = tileCache.search(VIEWPORT, null);
+        assertThat(tileSearch.takeSearchCount()).isEqualTo(tileCount);
+        assertThat(result.caches).hasSize(tileCount);
+    }
+
+    @Test
+    public void tileZoomKeepsTilesLargerThanViewport() {
+        final Viewport viewport = new Viewport(new Geopoint(48, 11), 1, 1);
+        final int zoom = LiveMapTileCache.getTileZoom(viewport);
+        assertThat(zoom).isEqualTo(7);
+        assertThat(LiveMapTileCache.Tile.getLatitudeSpan(zoom)).isGreaterThanOrEqualTo(viewport.getLatitudeSpan());
+        assertThat(LiveMapTileCache.Tile.getLongitudeSpan(zoom)).isGreaterThanOrEqualTo(viewport.getLongitudeSpan());
+    }
+
+    @Test
+    public void tileZoomIsLimited() {
+        assertThat(LiveMapTileCache.getTileZoom(new Viewport(new Geopoint(48, 11), 1e-6, 1e-6))).isEqualTo(18);
+        assertThat(LiveMapTileCache.getTileZoom(new Viewport(new Geopoint(0, 0), 180, 360))).isEqualTo(0);
+    }
+
+    @Test
+    public void tilesCoveringSmallArea() {
+        final List<LiveMapTileCache.Tile> tiles = LiveMapTileCache.getTilesCovering(new Viewport(new Geopoint(0.1, 0.1), new Geopoint(0.2, 0.2)), 7);
+        assertThat(tiles).containsExactly(new LiveMapTileCache.Tile(7, 64, 64));
+    }
+
+    @Test
+    public void tilesCoveringAreClampedToWorld() {
+        final List<LiveMapTileCache.Tile> tiles = LiveMapTileCache.getTilesCovering(new Viewport(new Geopoint(0, 0), 270, 540), 1);
+        assertThat(tiles).hasSize(4);
+    }
+
+    @Test
+    public void prefetchAreaNeedsFewTiles() {
+        for (double lat = -60; lat <= 60; lat += 7.3) {
+            for (double lon = -170; lon <= 170; lon += 11.7) {
+                final Viewport viewport = new Viewport(new Geopoint(lat, lon), 0.05, 0.08);
+                final List<LiveMapTileCache.Tile> tiles = LiveMapTileCache.getTilesCovering(viewport.resize(1.5), LiveMapTileCache.getTileZoom(viewport));
+                assertThat(tiles.size()).isBetween(1, 9);
+            }
+        }
+    }
+
+    @Test
+    public void parentTileContainsTile() {
+        final LiveMapTileCache.Tile tile = new LiveMapTileCache.Tile(7, 64, 65);
+        final LiveMapTileCache.Tile parent = tile.getParent();
+        assertThat(parent).isEqualTo(new LiveMapTileCache.Tile(6, 32, 32));
+        assertThat(parent.getViewport().includes(tile.getViewport())).isTrue();
+        assertThat(new LiveMapTileCache.Tile(0, 0, 0).getParent()).isNull();
+    }
+
+    @Test
+    public void tileViewport() {
+        final Viewport viewport = new LiveMapTileCache.Tile(1, 1, 0).getViewport();
+        assertThat(viewport.getLatitudeMin()).isEqualTo(-90);
+        assertThat(viewport.getLatitudeMax()).isEqualTo(0);
+        assertThat(viewport.getLongitudeMin()).isEqualTo(0);
+        assertThat(viewport.getLongitudeMax()).isEqualTo(180);
+    }
+}
@@ -0,0 +1,30 @@
+package cgeo.geocaching.utils;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class BitmapDecoderTest {
+
+    @Test
+    public void sampleSizeKeepsTargetResolution() {
+        // target is 1000x750, sampled 2000x1500 is still larger
+        assertThat(BitmapDecoder.calculateInSampleSize(4000, 3000, 1000, 1000)).isEqualTo(2);
+        assertThat(BitmapDecoder.calculateInSampleSize(4096, 4096, 1024, 1024)).isEqualTo(4);
+        assertThat(BitmapDecoder.calculateInSampleSize(4095, 4095, 1024, 1024)).isEqualTo(2);
+    }
+
+    @Test
+    public void noSamplingWithoutScaling() {
+        assertThat(BitmapDecoder.calculateInSampleSize(4000, 3000, 0, 0)).isEqualTo(1);
+        assertThat(BitmapDecoder.calculateInSampleSize(800, 600, 1000, 1000)).isEqualTo(1);
+        assertThat(BitmapDecoder.calculateInSampleSize(0, 0, 1000, 1000)).isEqualTo(1);
+    }
+
+    @Test
+    public void sampleSizeRespectsBothDimensions() {
+        // only height limits: target is 200x1000
+        assertThat(BitmapDecoder.calculateInSampleSize(1000, 5000, 0, 1000)).isEqualTo(4);
+        // only width limits: target is 1000x200
+        assertThat(BitmapDecoder.calculateInSampleSize(5000, 1000, 1000, 0)).isEqualTo(4);
+    }
+}
@@ -0,0 +1,107 @@
+package cgeo.geocaching.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class DiskCacheJournalTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("diskCacheJournalTest").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        org.apache.commons.io.FileUtils.deleteDirectory(root);
+    }
+
+    private File createFile(final String path, final int size) throws IOException {
+        final File file = new File(root, path);
+        org.apache.commons.io.FileUtils.writeByteArrayToFile(file, new byte[size]);
+        return file;
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws IOException {
+        final DiskCacheJournal journal = new DiskCacheJournal(root);
+        final File a = createFile("GC1/a", 100);
+        final File b = createFile("GC1/b", 100);
+        final File c = createFile("GC2/c", 100);
+        journal.recordWrite(a);
+        journal.recordWrite(b);
+        journal.recordWrite(c);
+        journal.recordRead(a);
+        assertThat(journal.getTotalSize()).isEqualTo(300);
+
+        assertThat(journal.trimToSize(200, path -> true)).isEqualTo(1);
+        assertThat(a).exists();
+        assertThat(b).doesNotExist();
+        assertThat(c).exists();
+        assertThat(journal.getTotalSize()).isEqualTo(200);
+        assertThat(journal.getFileCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void keepsNonEvictableFiles() throws IOException {
+        final DiskCacheJournal journal = new DiskCacheJournal(root);
+        final File stored = createFile("GC1/a", 500);
+        final File other = createFile("GC2/b", 100);
+        journal.recordWrite(stored);
+        journal.recordWrite(other);
+
+        // size of files which must be kept does not count against budget
+        assertThat(journal.trimToSize(100, path -> path.startsWith("GC2"))).isEqualTo(0);
+        assertThat(journal.trimToSize(50, path -> path.startsWith("GC2"))).isEqualTo(1);
+        assertThat(stored).exists();
+        assertThat(other).doesNotExist();
+    }
+
+    @Test
+    public void restoresStateFromJournal() throws IOException {
+        final DiskCacheJournal journal = new DiskCacheJournal(root);
+        final File a = createFile("GC1/a", 100);
+        final File b = createFile("GC1/b", 200);
+        final File c = createFile("GC1/c", 300);
+        journal.recordWrite(a);
+        journal.recordWrite(b);
+        journal.recordWrite(c);
+        journal.recordRead(a);
+        journal.recordRemove(c);
+        journal.close();
+
+        final DiskCacheJournal reopened = new DiskCacheJournal(root);
+        assertThat(reopened.getFileCount()).isEqualTo(2);
+        assertThat(reopened.getTotalSize()).isEqualTo(300);
+        // b is least recently used
+        assertThat(reopened.trimToSize(100, path -> true)).isEqualTo(1);
+        assertThat(b).doesNotExist();
+        assertThat(a).exists();
+    }
+
+    @Test
+    public void ignoresFilesOutsideRoot() throws IOException {
+        final DiskCacheJournal journal = new DiskCacheJournal(new File(root, "cache"));
+        journal.recordWrite(createFile("other/a", 100));
+        assertThat(journal.getFileCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void removeMissing() throws IOException {
+        final DiskCacheJournal journal = new DiskCacheJournal(root);
+        final File a = createFile("GC1/a", 100);
+        journal.recordRead(a);
+        assertThat(journal.getFileCount()).isEqualTo(1);
+        assertThat(a.delete()).isTrue();
+        journal.removeMissing();
+        assertThat(journal.getFileCount()).isEqualTo(0);
+        assertThat(journal.getTotalSize()).isEqualTo(0);
+    }
+}
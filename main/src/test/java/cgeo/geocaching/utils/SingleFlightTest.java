@@ -0,0 +1,122 @@
+package cgeo.geocaching.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+public class SingleFlightTest {
+
+    private static final int THREADS = 5;
+
+    @Test
+    public void sequentialCallsAreExecutedEach() {
+        final SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test");
+        final AtomicInteger executions = new AtomicInteger();
+
+        assertThat(singleFlight.execute("key", executions::incrementAndGet)).isEqualTo(1);
+        assertThat(singleFlight.execute("key", executions::incrementAndGet)).isEqualTo(2);
+        assertThat(singleFlight.isInFlight("key")).isFalse();
+        assertThat(singleFlight.getCalls()).isEqualTo(2);
+        assertThat(singleFlight.getDeduplicated()).isEqualTo(0);
+    }
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        final SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test");
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Integer>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return executions.incrementAndGet();
+            })));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < THREADS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", executions::incrementAndGet)));
+            }
+            // wait until all other callers joined the execution in flight
+            while (singleFlight.getDeduplicated() < THREADS - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(singleFlight.getDeduplicated()).isEqualTo(THREADS - 1);
+        assertThat(singleFlight.isInFlight("key")).isFalse();
+    }
+
+    @Test
+    public void differentKeysAreNotCoalesced() throws Exception {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>("test");
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executor.submit(() -> singleFlight.execute("a", () -> {
+                bothStarted.countDown();
+                awaitQuietly(bothStarted);
+                return "a";
+            }));
+            final Future<String> second = executor.submit(() -> singleFlight.execute("b", () -> {
+                bothStarted.countDown();
+                awaitQuietly(bothStarted);
+                return "b";
+            }));
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(singleFlight.getDeduplicated()).isEqualTo(0);
+    }
+
+    @Test
+    public void exceptionsArePropagatedAndNotRemembered() {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>("test");
+        try {
+            singleFlight.execute("key", () -> {
+                throw new IllegalArgumentException("failed");
+            });
+            fail("exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertThat(e).hasMessage("failed");
+        }
+        assertThat(singleFlight.isInFlight("key")).isFalse();
+        assertThat(singleFlight.execute("key", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    public void statisticsListInstances() {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>("statistics test");
+        singleFlight.execute("key", () -> "value");
+        assertThat(SingleFlight.getStatistics()).contains("statistics test: 1 calls, 0 deduplicated (0%)");
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.junit.Test;
 import static org.assertj.core.api.Java6Assertions.assertThat;
@@ -496,4 +497,39 @@ public class FormulaTest {
         assertThat(eval("2 * (3 + 4) #comment")).isEqualTo(2 * (3 + 4));
     }
 
+    /**
+     * formulas from the tests above, evaluated with variables A=3, B=4, C=10, AB=14, R=10
+     */
+    private static final String[] COMPILE_CORPUS = {
+            "-2.5 + 3 * (4-1) + 3^3", "sqrt(9)", "(3 + A ) * 4", "3A4.3", "(3(5)AA)", "3(5)A(A+1)", "3 A+1 4.3", "3 (A+1 A + 2) 4.3",
+            "2+ 3 4 +5", "AA / 2 + B", "sqrt(A*B) * C", "AB + A + B", "$AB(A+$B*2)$B", "-A$A$AB", "A.(A+1)(A+10)", "A15B",
+            "[:0-9]", "length(A'def'123)", "round(1.2345;3)", "rot13(rot('aBc'; -13))", "rot1(a)", "(1+2)!", "10- -+ +- -+ +-2",
+            "100-5*5", "[1+(7-4)]*3", "checksum(888)", "ichecksum(-888.234)", "lettervalue('Test123')", "_A8._A2", "8.A__A2",
+            "5._(8+5)", "42÷2", "-4³", "(3²)!", "(3+5) < (4+7)", "if(3>4;1;2)", "3.14 #this is pi# * R # this is the radius used # *2",
+            "A * B - C / A % 7 + A^2", "if(A>B;A*2;B/2) + if(A<B;C;AB)", "'abc' + 1"
+    };
+
+    private static Func1<String, Value> getCompileCorpusVars() {
+        return Formula.toVarProvider("A", 3, "B", 4, "C", 10, "AB", 14, "R", 10);
+    }
+
+    @Test
+    public void compiledProgramMatchesNodeTree() {
+        final Func1<String, Value> vars = getCompileCorpusVars();
+        for (String expression : COMPILE_CORPUS) {
+            final Formula formula = Formula.compile(expression);
+            assertThat(evaluateSafe(() -> formula.evaluate(vars, 0))).as(expression).isEqualTo(evaluateSafe(() -> formula.evaluateNodeTree(vars, 0)));
+        }
+    }
+
+    /** result of an evaluation as string including its type, or the error type if evaluation failed */
+    private static String evaluateSafe(final Supplier<Value> evaluation) {
+        try {
+            final Value value = evaluation.get();
+            return value.getAsString() + "|" + value.getType();
+        } catch (FormulaException fe) {
+            return fe.getErrorType().toString();
+        }
+    }
+
 }